@@ -0,0 +1,286 @@
+package com.dotcms.api.system.event;
+
+import com.dotcms.api.system.event.dto.SystemEventDTO;
+import com.dotcms.util.marshal.MarshalUtils;
+import com.dotmarketing.db.DbConnectionFactory;
+import com.dotmarketing.db.DotRunnable;
+import com.dotmarketing.db.HibernateUtil;
+import com.dotmarketing.db.HibernateUtil.TransactionListenerStatus;
+import com.dotmarketing.util.Config;
+import com.dotmarketing.util.Logger;
+import com.dotmarketing.util.UUIDGenerator;
+import com.dotmarketing.util.UtilMethods;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * In memory bus of the {@link SystemEvent}s. A published event is delivered at once to the
+ * listeners of this node, and relayed to the rest of the cluster through the cache transport
+ * (JGroups or Hazelcast) where it is delivered to the listeners of the other nodes. The events
+ * are also stored in the {@code system_event} table, so they can be replayed, but the rows are
+ * written in batches every {@code SYSTEM_EVENTS_PERSIST_WINDOW_MILLIS} instead of one insert per
+ * event.
+ * <p>
+ * Events published inside a transaction are only delivered once the transaction commits, as they
+ * were only visible to the polling job once their row was committed. The deliveries of a node are
+ * done by a single thread, in publication order.
+ * </p>
+ * The bus is used when {@code SYSTEM_EVENTS_BUS_ENABLED} is true (the default), otherwise the
+ * events are inserted one by one and the {@code SystemEventsJob} polls the table.
+ */
+public class SystemEventsBus {
+
+	public static final String CLUSTER_MESSAGE_PREFIX = "systemEvent-";
+
+	private static final String SEPARATOR = "|";
+	private static final Pattern SEPARATOR_PATTERN = Pattern.compile(Pattern.quote(SEPARATOR));
+
+	/**
+	 * Sends a message to the rest of the cluster, null when the node is not clustered.
+	 */
+	public interface Sender {
+
+		void send(String message) throws Exception;
+	}
+
+	/**
+	 * Stores a batch of events.
+	 */
+	public interface Persister {
+
+		void persist(List<SystemEventDTO> events) throws Exception;
+	}
+
+	private final Consumer<SystemEvent> localDelivery;
+	private final Supplier<Sender> sender;
+	private final Persister persister;
+	private final Executor persistExecutor;
+	private final MarshalUtils marshalUtils;
+	private final Supplier<String> serverId;
+	private final long persistWindowMillis;
+	private final int persistBatchSize;
+
+	private final Object lock = new Object();
+	private List<SystemEventDTO> pending = new ArrayList<>();
+	private boolean flushScheduled = false;
+	private ScheduledExecutorService scheduler;
+
+	public SystemEventsBus(final Consumer<SystemEvent> localDelivery, final Supplier<Sender> sender,
+			final Persister persister, final Executor persistExecutor, final MarshalUtils marshalUtils,
+			final Supplier<String> serverId) {
+		this(localDelivery, sender, persister, persistExecutor, marshalUtils, serverId,
+				Config.getIntProperty("SYSTEM_EVENTS_PERSIST_WINDOW_MILLIS", 1000),
+				Config.getIntProperty("SYSTEM_EVENTS_PERSIST_BATCH_SIZE", 500));
+	}
+
+	SystemEventsBus(final Consumer<SystemEvent> localDelivery, final Supplier<Sender> sender,
+			final Persister persister, final Executor persistExecutor, final MarshalUtils marshalUtils,
+			final Supplier<String> serverId, final long persistWindowMillis, final int persistBatchSize) {
+		this.localDelivery = localDelivery;
+		this.sender = sender;
+		this.persister = persister;
+		this.persistExecutor = persistExecutor;
+		this.marshalUtils = marshalUtils;
+		this.serverId = serverId;
+		this.persistWindowMillis = persistWindowMillis;
+		this.persistBatchSize = Math.max(1, persistBatchSize);
+	}
+
+	/**
+	 * @return {@code true} if the events are published through the bus, {@code false} if they are
+	 *         inserted in the table and polled by the {@code SystemEventsJob}.
+	 */
+	public static boolean isEnabled() {
+		return Config.getBooleanProperty("SYSTEM_EVENTS_BUS_ENABLED", true);
+	}
+
+	/**
+	 * Publishes an event to this node and the rest of the cluster, and queues it to be stored. If
+	 * there is a transaction in progress the event is published when it commits.
+	 *
+	 * @param systemEvent
+	 *            - The event to publish.
+	 */
+	public void publish(final SystemEvent systemEvent) {
+
+		final SystemEvent event = UtilMethods.isSet(systemEvent.getId()) ? systemEvent
+				: new SystemEvent(UUIDGenerator.generateUuid(), systemEvent.getEventType(), systemEvent.getPayload(),
+						systemEvent.getCreationDate());
+
+		try {
+			if (DbConnectionFactory.inTransaction()
+					&& HibernateUtil.getTransactionListenersStatus() != TransactionListenerStatus.DISABLED) {
+
+				HibernateUtil.addCommitListener(CLUSTER_MESSAGE_PREFIX + event.getId(), new DotRunnable() {
+					@Override
+					public void run() {
+						dispatch(event);
+					}
+				});
+				return;
+			}
+		} catch (Exception e) {
+			Logger.error(SystemEventsBus.class, e.getMessage(), e);
+		}
+
+		this.dispatch(event);
+	}
+
+	/**
+	 * Delivers an event relayed by another node of the cluster to the listeners of this node.
+	 *
+	 * @param message
+	 *            - The cluster message, see {@link #isClusterMessage(String)}.
+	 */
+	public void receive(final String message) {
+
+		this.getScheduler().execute(() -> {
+			try {
+				final String[] parts = SEPARATOR_PATTERN.split(message.substring(CLUSTER_MESSAGE_PREFIX.length()), 5);
+				if (parts.length < 5 || parts[0].equals(this.serverId.get())) {
+					return;
+				}
+				final Payload payload = this.marshalUtils.unmarshal(parts[4], Payload.class);
+				this.deliver(new SystemEvent(parts[1], SystemEventType.valueOf(parts[2]), payload,
+						new Date(Long.parseLong(parts[3]))));
+			} catch (Exception e) {
+				Logger.error(SystemEventsBus.class, "Unable to read the system event from the cluster: " + e.getMessage(), e);
+			}
+		});
+	}
+
+	/**
+	 * @return {@code true} if the cluster message was sent by a {@link SystemEventsBus}.
+	 */
+	public static boolean isClusterMessage(final String message) {
+		return message != null && message.startsWith(CLUSTER_MESSAGE_PREFIX);
+	}
+
+	/**
+	 * Stores the queued events.
+	 */
+	public void flush() {
+
+		final List<SystemEventDTO> events;
+		synchronized (this.lock) {
+			events = this.pending;
+			this.pending = new ArrayList<>();
+			this.flushScheduled = false;
+		}
+
+		if (events.isEmpty()) {
+			return;
+		}
+
+		try {
+			this.persister.persist(events);
+		} catch (Exception e) {
+			Logger.error(SystemEventsBus.class, "Unable to store " + events.size() + " system events: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Stores the queued events and stops the delivery thread.
+	 */
+	public void shutdown() {
+
+		this.flush();
+		synchronized (this.lock) {
+			if (this.scheduler != null) {
+				this.scheduler.shutdown();
+				this.scheduler = null;
+			}
+		}
+	}
+
+	private void dispatch(final SystemEvent event) {
+
+		this.getScheduler().execute(() -> {
+
+			this.deliver(event);
+
+			// the payload is marshalled once, for the cluster and the table
+			final String payload;
+			try {
+				payload = this.marshalUtils.marshal(event.getPayload());
+			} catch (Exception e) {
+				Logger.error(SystemEventsBus.class, "Unable to marshal the system event: " + event.getId(), e);
+				return;
+			}
+
+			final Sender clusterSender = this.sender.get();
+			if (clusterSender != null) {
+				try {
+					clusterSender.send(CLUSTER_MESSAGE_PREFIX + this.serverId.get() + SEPARATOR + event.getId() + SEPARATOR
+							+ event.getEventType().name() + SEPARATOR + event.getCreationDate().getTime() + SEPARATOR
+							+ payload);
+				} catch (Exception e) {
+					Logger.warn(SystemEventsBus.class, "Unable to send the system event to the cluster: " + e.getMessage(), e);
+				}
+			}
+
+			this.enqueue(new SystemEventDTO(event.getId(), event.getEventType().name(), payload,
+					event.getCreationDate().getTime()));
+		});
+	}
+
+	private void deliver(final SystemEvent event) {
+
+		try {
+			this.localDelivery.accept(event);
+		} catch (Throwable e) {
+			Logger.error(SystemEventsBus.class, "Unable to deliver the system event: " + event.getId(), e);
+		}
+	}
+
+	private void enqueue(final SystemEventDTO event) {
+
+		boolean flushNow = false;
+		synchronized (this.lock) {
+			this.pending.add(event);
+			if (this.persistWindowMillis <= 0 || this.pending.size() >= this.persistBatchSize) {
+				flushNow = true;
+			} else if (!this.flushScheduled) {
+				this.flushScheduled = true;
+				this.getScheduler().schedule(this::flushAsync, this.persistWindowMillis, TimeUnit.MILLISECONDS);
+			}
+		}
+
+		if (flushNow) {
+			this.flushAsync();
+		}
+	}
+
+	private void flushAsync() {
+
+		try {
+			this.persistExecutor.execute(this::flush);
+		} catch (RuntimeException e) {
+			// the pool is busy, the events are stored by the delivery thread
+			this.flush();
+		}
+	}
+
+	private ScheduledExecutorService getScheduler() {
+
+		synchronized (this.lock) {
+			if (this.scheduler == null) {
+				this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+					final Thread thread = new Thread(runnable, "SystemEventsBus");
+					thread.setDaemon(true);
+					return thread;
+				});
+			}
+			return this.scheduler;
+		}
+	}
+}
@@ -7,20 +7,28 @@ import com.dotcms.business.WrapInTransaction;
 import com.dotcms.concurrent.DotConcurrentFactory;
 import com.dotcms.concurrent.DotSubmitter;
 import com.dotcms.notifications.bean.Notification;
+import com.dotcms.rest.api.v1.system.websocket.SystemEventsWebSocketEndPoint;
 import com.dotcms.util.ConversionUtils;
 import com.dotcms.util.marshal.MarshalFactory;
 import com.dotcms.util.marshal.MarshalUtils;
+import com.dotmarketing.business.APILocator;
+import com.dotmarketing.business.CacheLocator;
+import com.dotmarketing.business.ChainableCacheAdministratorImpl;
 import com.dotmarketing.common.db.DotConnect;
+import com.dotmarketing.common.db.Params;
 import com.dotmarketing.db.DbConnectionFactory;
 import com.dotmarketing.db.HibernateUtil;
 import com.dotmarketing.exception.DotDataException;
 import com.dotmarketing.exception.DotHibernateException;
+import com.dotmarketing.util.Config;
 import com.dotmarketing.util.Logger;
+import com.dotmarketing.util.WebKeys;
 import com.dotmarketing.util.UUIDGenerator;
 import com.dotmarketing.util.UtilMethods;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
@@ -41,6 +49,9 @@ public class SystemEventsFactory implements Serializable {
 	public static final String EVENTS_THREAD_POOL_SUBMITTER_NAME = "events";
 	private final DotSubmitter dotSubmitter		  = DotConcurrentFactory.getInstance().getSubmitter(EVENTS_THREAD_POOL_SUBMITTER_NAME);
 	private final SystemEventsDAO systemEventsDAO = new SystemEventsDAOImpl();
+	private final SystemEventsBus systemEventsBus = new SystemEventsBus(this::sendToWebSocket,
+			this::getClusterSender, this::persist, this.dotSubmitter, MarshalFactory.getInstance().getMarshalUtils(),
+			() -> APILocator.getServerAPI().readServerId());
 	private final SystemEventsAPI systemEventsAPI = new SystemEventsAPIImpl();
 
 
@@ -86,6 +97,63 @@ public class SystemEventsFactory implements Serializable {
 		return this.dotSubmitter;
 	}
 
+	/**
+	 * Returns the in memory bus that publishes the events to this node and
+	 * the rest of the cluster.
+	 * 
+	 * @return The {@link SystemEventsBus} instance.
+	 */
+	public SystemEventsBus getSystemEventsBus() {
+		return this.systemEventsBus;
+	}
+
+	/**
+	 * Delivers an event to the users connected to the System Events web
+	 * socket of this node.
+	 * 
+	 * @param systemEvent
+	 *            - The event to deliver.
+	 */
+	private void sendToWebSocket(final SystemEvent systemEvent) {
+		if (Config.getBooleanProperty(WebKeys.DOTCMS_DISABLE_WEBSOCKET_PROTOCOL, false)) {
+			return;
+		}
+		final SystemEventsWebSocketEndPoint webSocketEndPoint = APILocator.getWebSocketContainerAPI()
+				.getEndpointInstance(SystemEventsWebSocketEndPoint.class);
+		if (null != webSocketEndPoint) {
+			webSocketEndPoint.sendSystemEvent(systemEvent);
+		}
+	}
+
+	/**
+	 * Returns the sender of the cache transport, null if this node is not
+	 * part of a cluster.
+	 */
+	private SystemEventsBus.Sender getClusterSender() {
+		final Object cacheAdministrator = CacheLocator.getCacheAdministrator().getImplementationObject();
+		if (cacheAdministrator instanceof ChainableCacheAdministratorImpl
+				&& ((ChainableCacheAdministratorImpl) cacheAdministrator).isClusteringEnabled()) {
+			return ((ChainableCacheAdministratorImpl) cacheAdministrator)::send;
+		}
+		return null;
+	}
+
+	/**
+	 * Stores the events published through the bus.
+	 * 
+	 * @param systemEvents
+	 *            - The events to store.
+	 * @throws DotDataException
+	 *             An error occurred when saving the events.
+	 */
+	private void persist(final List<SystemEventDTO> systemEvents) throws DotDataException {
+		try {
+			this.systemEventsDAO.addAll(systemEvents);
+		} finally {
+			DbConnectionFactory.closeSilently();
+		}
+	}
+
 	/**
 	 * Returns a singleton instance of the System Events API.
 	 * 
@@ -171,6 +239,15 @@ public class SystemEventsFactory implements Serializable {
 
 		@Override
 		public void push(final SystemEvent systemEvent) throws DotDataException {
+			if (SystemEventsBus.isEnabled()) {
+				if (!UtilMethods.isSet(systemEvent)) {
+					final String msg = "System Event object cannot be null.";
+					Logger.error(this, msg);
+					throw new IllegalArgumentException(msg);
+				}
+				getSystemEventsBus().publish(systemEvent);
+				return;
+			}
 			push(systemEvent, false);
 		}
 
@@ -182,6 +259,13 @@ public class SystemEventsFactory implements Serializable {
 		@Override
 		public void pushAsync(final SystemEventType event, final Payload payload) throws DotDataException {
 
+			// the bus already delivers and stores the events out of the caller thread
+			if (SystemEventsBus.isEnabled()) {
+				Logger.debug(this, "Publishing a message: " + event);
+				getSystemEventsBus().publish(new SystemEvent(event, payload));
+				return;
+			}
+
 			// if by any reason the submitter couldn't be created, sends the message syn
 			if (null == this.dotSubmitter) {
 				Logger.debug(this, "Sending a message: " + event + "sync, it seems the dotSubmitter could not be created");
@@ -341,6 +425,18 @@ public class SystemEventsFactory implements Serializable {
 			dc.loadResult();
 		}
 
+		@Override
+		public void addAll(final Collection<SystemEventDTO> systemEvents) throws DotDataException {
+			final List<Params> params = new ArrayList<>(systemEvents.size());
+			for (final SystemEventDTO systemEvent : systemEvents) {
+				final String id = (!UtilMethods.isSet(systemEvent.getId())) ? UUIDGenerator.generateUuid() : systemEvent.getId();
+				params.add(new Params(id, systemEvent.getEventType(), systemEvent.getPayload(),
+						systemEvent.getCreationDate()));
+			}
+			new DotConnect().executeBatch(
+					"INSERT INTO system_event (identifier, event_type, payload, created) VALUES (?, ?, ?, ?)", params);
+		}
+
 		@Override
 		public Collection<SystemEventDTO> getEventsSince(final long fromDate) throws DotDataException {
 			final DotConnect dc = new DotConnect();
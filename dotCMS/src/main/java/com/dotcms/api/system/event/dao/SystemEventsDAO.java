@@ -30,6 +30,18 @@ public interface SystemEventsDAO {
 	 */
 	public void add(SystemEventDTO systemEvent) throws DotDataException;
 
+	/**
+	 * Saves a group of {@link SystemEventDTO} objects in the database using a
+	 * single batch of inserts.
+	 * 
+	 * @param systemEvents
+	 *            - The system events to save.
+	 * @throws DotDataException
+	 *             An error occurred when executing the SQL query. Please check
+	 *             your database and/or query syntax.
+	 */
+	public void addAll(Collection<SystemEventDTO> systemEvents) throws DotDataException;
+
 	/**
 	 * Returns a list of {@link SystemEventDTO} objects that were created from a
 	 * specific date up to the present.
@@ -86,4 +86,13 @@ public abstract class VanityUrlCache implements Cachable {
     public abstract void setCachedVanityUrls(final SecondaryCacheVanityKey secondaryCacheVanityKey,
             final List<CachedVanityUrl> cachedVanityUrlList);
 
+    /**
+     * Get the version of the list of CachedVanityUrl associated to a Host Id and language id, a new
+     * version is given to every list set with {@link #setCachedVanityUrls(SecondaryCacheVanityKey, List)}
+     *
+     * @param key SecondaryCacheVanityKey The current key composed of the host Id and languageId
+     * @return the version of the list, null if there is no list
+     */
+    public abstract String getCachedVanityUrlsVersion(SecondaryCacheVanityKey key);
+
 }
\ No newline at end of file
@@ -14,9 +14,11 @@ import com.dotmarketing.business.DotCacheException;
 import com.dotmarketing.exception.DotRuntimeException;
 import com.dotmarketing.portlets.contentlet.model.Contentlet;
 import com.dotmarketing.util.Logger;
+import com.dotmarketing.util.UUIDGenerator;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 
+import java.io.Serializable;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
@@ -281,14 +283,25 @@ public class VanityUrlCacheImpl extends VanityUrlCache {
 
     @Override
     public List<CachedVanityUrl> getCachedVanityUrls(final SecondaryCacheVanityKey key) {
-        List<CachedVanityUrl> vanityUrlList = null;
+        final VersionedVanityUrls versionedVanityUrls = this.getVersionedVanityUrls(key);
+        return (null != versionedVanityUrls)? versionedVanityUrls.vanityUrls : null;
+    }
+
+    @Override
+    public String getCachedVanityUrlsVersion(final SecondaryCacheVanityKey key) {
+        final VersionedVanityUrls versionedVanityUrls = this.getVersionedVanityUrls(key);
+        return (null != versionedVanityUrls)? versionedVanityUrls.version : null;
+    }
+
+    private VersionedVanityUrls getVersionedVanityUrls(final SecondaryCacheVanityKey key) {
+        VersionedVanityUrls versionedVanityUrls = null;
         try {
-            vanityUrlList = (List<CachedVanityUrl>) cache.get( key.toString(), getCachedVanityUrlGroup());
+            versionedVanityUrls = (VersionedVanityUrls) cache.get( key.toString(), getCachedVanityUrlGroup());
         } catch (Exception e) {
             Logger.debug(this, "Cache Entry not found", e);
         }
 
-        return vanityUrlList;
+        return versionedVanityUrls;
     }
 
     @Override
@@ -296,7 +309,8 @@ public class VanityUrlCacheImpl extends VanityUrlCache {
             final List<CachedVanityUrl> cachedVanityUrlList) {
 
         cache.put(secondaryCacheVanityKey.toString(),
-                            cachedVanityUrlList, getCachedVanityUrlGroup());
+                            new VersionedVanityUrls(UUIDGenerator.generateUuid(), cachedVanityUrlList),
+                            getCachedVanityUrlGroup());
     }
 
     private void removeCachedVanityUrls(final String key) {
@@ -334,4 +348,21 @@ public class VanityUrlCacheImpl extends VanityUrlCache {
         return hostIds;
     }
 
+    /**
+     * A list of CachedVanityUrl with the version it was set with, the version goes with the list
+     * so it is still valid when the cache returns a copy of the list
+     */
+    private static final class VersionedVanityUrls implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String version;
+        private final List<CachedVanityUrl> vanityUrls;
+
+        VersionedVanityUrls(final String version, final List<CachedVanityUrl> vanityUrls) {
+            this.version    = version;
+            this.vanityUrls = vanityUrls;
+        }
+    }
+
 }
\ No newline at end of file
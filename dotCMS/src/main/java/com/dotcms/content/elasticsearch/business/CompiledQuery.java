@@ -0,0 +1,162 @@
+package com.dotcms.content.elasticsearch.business;
+
+import java.io.Serializable;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A Lucene query already rewritten for the Elastic index, with its date literals as parameters.
+ * <p>
+ * Velocity templates usually run the same query over and over, and most of the times only the
+ * dates change (e.g. {@code +news.sysPublishDate:[01/01/2000 to 10/18/2026]}). So instead of
+ * translating every query, its date literals ({@code MM/dd/yyyy}) are replaced by placeholder
+ * dates ({@code 01/01/1000}, {@code 01/01/1001}, etc.), the resulting shape of the query is
+ * translated once, and the real dates are written back where the placeholders ended up: verbatim
+ * if the date was not in a date field, or as a Lucene date ({@code yyyyMMdd}) if it was.
+ * </p>
+ * <p>
+ * If a placeholder can't be found exactly once in the translated shape, the query can't be bound
+ * safely and has to be translated as it is, see {@link #isBindable()}.
+ * </p>
+ */
+public final class CompiledQuery implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Pattern DATE_LITERAL = Pattern.compile("(?<![\\d/])\\d{1,2}/\\d{1,2}/\\d{4}(?![\\d/])");
+    private static final int MAX_PARAMETERS = 100;
+    private static final int FIRST_PLACEHOLDER_YEAR = 1000;
+
+    private final String[] segments;
+    private final int[] parameters;
+    private final boolean[] verbatim;
+
+    private CompiledQuery(String[] segments, int[] parameters, boolean[] verbatim) {
+        this.segments = segments;
+        this.parameters = parameters;
+        this.verbatim = verbatim;
+    }
+
+    /**
+     * Replaces the date literals of the query with placeholder dates.
+     *
+     * @param query - The Lucene query.
+     * @param dates - Receives the date literals of the query, in order.
+     * @return The shape of the query, or the query itself if it has no date literals or too many
+     *         of them.
+     */
+    public static String parameterize(String query, List<String> dates) {
+        Matcher matcher = DATE_LITERAL.matcher(query);
+        StringBuffer shape = null;
+        while (matcher.find()) {
+            if (dates.size() == MAX_PARAMETERS) {
+                dates.clear();
+                return query;
+            }
+            if (shape == null) {
+                shape = new StringBuffer(query.length());
+            }
+            matcher.appendReplacement(shape, placeholder(dates.size()));
+            dates.add(matcher.group());
+        }
+        if (shape == null) {
+            return query;
+        }
+        matcher.appendTail(shape);
+        return shape.toString();
+    }
+
+    /**
+     * Finds the placeholders of {@link #parameterize(String, List)} in the translated shape.
+     *
+     * @param translatedShape - The shape of the query, as translated for the Elastic index.
+     * @param parameterCount - The number of date literals of the query.
+     * @return The compiled query, not bindable if a placeholder was not found exactly once.
+     */
+    public static CompiledQuery compile(String translatedShape, int parameterCount) {
+        List<int[]> found = new ArrayList<>(parameterCount);
+        for (int i = 0; i < parameterCount; i++) {
+            String placeholder = placeholder(i).replace("/", "\\/");
+            String luceneDate = (FIRST_PLACEHOLDER_YEAR + i) + "0101";
+            if (count(translatedShape, placeholder) + count(translatedShape, luceneDate) != 1) {
+                return new CompiledQuery(null, null, null);
+            }
+            int verbatimAt = translatedShape.indexOf(placeholder);
+            int luceneAt = translatedShape.indexOf(luceneDate);
+            found.add(verbatimAt >= 0 ? new int[] { verbatimAt, verbatimAt + placeholder.length(), i, 1 }
+                                      : new int[] { luceneAt, luceneAt + luceneDate.length(), i, 0 });
+        }
+        found.sort(Comparator.comparingInt(position -> position[0]));
+
+        String[] segments = new String[parameterCount + 1];
+        int[] parameters = new int[parameterCount];
+        boolean[] verbatim = new boolean[parameterCount];
+        int begin = 0;
+        for (int i = 0; i < parameterCount; i++) {
+            int[] position = found.get(i);
+            if (position[0] < begin) {
+                // two placeholders overlap
+                return new CompiledQuery(null, null, null);
+            }
+            segments[i] = translatedShape.substring(begin, position[0]);
+            parameters[i] = position[2];
+            verbatim[i] = position[3] == 1;
+            begin = position[1];
+        }
+        segments[parameterCount] = translatedShape.substring(begin);
+        return new CompiledQuery(segments, parameters, verbatim);
+    }
+
+    /**
+     * @return {@code true} if the dates of a query can be written into this one.
+     */
+    public boolean isBindable() {
+        return segments != null;
+    }
+
+    /**
+     * Writes the date literals of a query with this shape back into the translated query.
+     *
+     * @param dates - The date literals found by {@link #parameterize(String, List)}.
+     * @return The translated query.
+     */
+    public String bind(List<String> dates) {
+        if (!isBindable()) {
+            throw new IllegalStateException("The placeholders of the query were not found");
+        }
+        StringBuilder query = new StringBuilder(segments[0]);
+        for (int i = 0; i < parameters.length; i++) {
+            String date = dates.get(parameters[i]);
+            query.append(verbatim[i] ? date.replace("/", "\\/") : toLuceneDate(date)).append(segments[i + 1]);
+        }
+        return query.toString();
+    }
+
+    private static int count(String text, String token) {
+        int count = 0;
+        for (int at = text.indexOf(token); at >= 0; at = text.indexOf(token, at + token.length())) {
+            count++;
+        }
+        return count;
+    }
+
+    private static String placeholder(int parameter) {
+        return "01/01/" + (FIRST_PLACEHOLDER_YEAR + parameter);
+    }
+
+    /**
+     * Same conversion as the translation of the query, including the lenient parsing of the date.
+     */
+    private static String toLuceneDate(String date) {
+        try {
+            return new SimpleDateFormat("yyyyMMdd").format(new SimpleDateFormat("MM/dd/yyyy").parse(date));
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("Invalid date literal " + date, e);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.dotcms.content.elasticsearch.business;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.dotmarketing.business.APILocator;
+import com.dotmarketing.exception.DotDataException;
+import com.dotmarketing.portlets.contentlet.model.Contentlet;
+import com.dotmarketing.util.Logger;
+
+/**
+ * Collects the contentlets saved by a long running process so they are indexed together once
+ * the process is done, instead of once per committed transaction.
+ * <p>
+ * While a batch is attached to a thread, {@link ESContentletIndexAPI#addContentToIndex} registers
+ * a commit listener that adds the contentlets to the batch, so only committed content is
+ * collected. The same batch can be attached to several threads at the same time. A contentlet
+ * saved several times is indexed once, {@link #flush()} sends the collected contentlets to the
+ * index in bulk requests of the given size.
+ * </p>
+ */
+public class ContentletIndexBatch {
+
+    private static final ThreadLocal<ContentletIndexBatch> current = new ThreadLocal<>();
+
+    private final int batchSize;
+    private final Map<String, Contentlet> contentlets = new LinkedHashMap<>();
+
+    public ContentletIndexBatch ( final int batchSize ) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Returns the batch attached to the current thread, null if none
+     *
+     * @return
+     */
+    public static ContentletIndexBatch getCurrent () {
+        return current.get();
+    }
+
+    /**
+     * Collects the content indexed by the transactions of the current thread in this batch
+     */
+    public void attach () {
+        current.set(this);
+    }
+
+    /**
+     * Restores the per transaction indexing of the current thread
+     */
+    public static void detach () {
+        current.remove();
+    }
+
+    public synchronized void add ( final Collection<Contentlet> contentToIndex ) {
+        for ( final Contentlet contentlet : contentToIndex ) {
+            if ( contentlet != null ) {
+                this.contentlets.put(contentlet.getInode(), contentlet);
+            }
+        }
+    }
+
+    public synchronized int size () {
+        return this.contentlets.size();
+    }
+
+    /**
+     * Indexes and removes the collected contentlets
+     *
+     * @return the number of contentlets sent to the index
+     * @throws DotDataException
+     */
+    public int flush () throws DotDataException {
+
+        final List<Contentlet> contentToIndex;
+        synchronized ( this ) {
+            contentToIndex = new ArrayList<>(this.contentlets.values());
+            this.contentlets.clear();
+        }
+
+        for ( int from = 0; from < contentToIndex.size(); from += this.batchSize ) {
+            final List<Contentlet> batch = contentToIndex.subList(from, Math.min(from + this.batchSize, contentToIndex.size()));
+            Logger.debug(this, "Indexing " + batch.size() + " of " + contentToIndex.size() + " batched contentlets");
+            APILocator.getContentletIndexAPI().indexContentList(new ArrayList<>(batch), null, false);
+        }
+        return contentToIndex.size();
+    }
+
+}
@@ -0,0 +1,369 @@
+package com.dotcms.content.elasticsearch.business;
+
+import com.dotcms.contenttype.model.field.CategoryField;
+import com.dotcms.contenttype.model.field.Field;
+import com.dotcms.contenttype.model.type.ContentType;
+import com.dotmarketing.beans.Identifier;
+import com.dotmarketing.business.APILocator;
+import com.dotmarketing.business.CacheLocator;
+import com.dotmarketing.business.FactoryLocator;
+import com.dotcms.repackage.com.google.common.annotations.VisibleForTesting;
+import com.dotmarketing.common.db.DotConnect;
+import com.dotmarketing.exception.DotDataException;
+import com.dotmarketing.exception.DotSecurityException;
+import com.dotmarketing.portlets.categories.model.Category;
+import com.dotmarketing.portlets.contentlet.model.Contentlet;
+import com.dotmarketing.portlets.folders.model.Folder;
+import com.dotmarketing.portlets.structure.model.Relationship;
+import com.dotmarketing.portlets.structure.model.Structure;
+import com.dotmarketing.portlets.workflows.model.WorkflowTask;
+import com.dotmarketing.util.UtilMethods;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Holds the dependencies needed by {@link ESMappingAPIImpl} to build the index document of a
+ * group of contentlets.
+ * <p>
+ * {@link #load(Collection)} reads the version dates, categories, workflow tasks and relationship
+ * rows of the whole group with {@code in (...)} queries split in chunks of {@link #CHUNK_SIZE}
+ * parameters, streamed with {@link DotConnect#forEachRow}, and the identifiers from the
+ * identifier cache. Content types, folders,
+ * relationships and the CMS Owner role are looked up once per group. Anything that was not
+ * prefetched falls back to the single lookup done by {@link ESMappingAPIImpl#toMap(Contentlet)},
+ * so an empty instance reproduces the one by one behavior.
+ * </p>
+ * Instances are not thread safe, they are meant to live while a single batch is mapped.
+ */
+class ContentletMappingBatch {
+
+    static final int CHUNK_SIZE = 200;
+
+    private static final String VERSION_TS_SQL =
+            "select identifier,lang,version_ts from contentlet_version_info where identifier in (";
+
+    private static final String CATEGORIES_SQL =
+            "select tree.child,category.category_velocity_var_name from inode category_1_, category, tree " +
+            "where tree.parent = category.inode and category_1_.inode = category.inode " +
+            "and category_1_.type = 'category' and tree.child in (";
+
+    private static final String CATEGORIES_ORDER_BY = " order by sort_order asc, category_name asc";
+
+    private static final String WORKFLOW_TASK_SQL =
+            "select id,webasset,created_by,assigned_to,status,mod_date from workflow_task where webasset in (";
+
+    private static final String TREE_SQL_PARENT = "select * from tree where parent in (";
+
+    private static final String TREE_SQL_CHILD = " or child in (";
+
+    private static final String TREE_ORDER_BY = " order by tree_order asc";
+
+    private final Map<String, Identifier> identifiers = new HashMap<>();
+    private final Map<String, Date> versionDates = new HashMap<>();
+    private final Map<String, Structure> structures = new HashMap<>();
+    private final Map<String, ContentType> contentTypes = new HashMap<>();
+    private final Map<String, Folder> folders = new HashMap<>();
+    private final Map<String, List<String>> categories = new HashMap<>();
+    private final Map<String, WorkflowTask> workflowTasks = new HashMap<>();
+    private final Map<String, List<Map<String, Object>>> treeRows = new HashMap<>();
+    private final Map<String, Relationship> relationships = new HashMap<>();
+    private final Supplier<DotConnect> connections;
+    private String cmsOwnerRoleId;
+
+    /**
+     * Creates an empty batch, every dependency is looked up on demand
+     */
+    ContentletMappingBatch() {
+        this(DotConnect::new);
+    }
+
+    @VisibleForTesting
+    ContentletMappingBatch(final Supplier<DotConnect> connections) {
+        this.connections = connections;
+    }
+
+    /**
+     * Prefetches the dependencies of all the given contentlets
+     *
+     * @param contentlets contentlets to be mapped
+     * @return the loaded batch
+     */
+    static ContentletMappingBatch load(final Collection<Contentlet> contentlets)
+            throws DotDataException, DotSecurityException {
+
+        final ContentletMappingBatch batch = new ContentletMappingBatch();
+
+        final Set<String> identifierIds = new LinkedHashSet<>();
+        final Set<String> categorizedInodes = new LinkedHashSet<>();
+        for (final Contentlet contentlet : contentlets) {
+            identifierIds.add(contentlet.getIdentifier());
+            if (batch.hasCategoryFields(contentlet)) {
+                categorizedInodes.add(contentlet.getInode());
+            }
+        }
+
+        final List<String> ids = new ArrayList<>(identifierIds);
+        batch.loadIdentifiers(ids);
+        batch.loadVersionDates(ids);
+        batch.loadWorkflowTasks(ids);
+        batch.loadTreeRows(ids);
+        batch.loadCategories(new ArrayList<>(categorizedInodes));
+        return batch;
+    }
+
+    Identifier getIdentifier(final Contentlet contentlet) throws DotDataException {
+
+        Identifier identifier = this.identifiers.get(contentlet.getIdentifier());
+        if (identifier == null) {
+            identifier = APILocator.getIdentifierAPI().find(contentlet);
+            this.identifiers.put(contentlet.getIdentifier(), identifier);
+        }
+        return identifier;
+    }
+
+    Date getVersionTs(final Contentlet contentlet) throws DotDataException, DotSecurityException {
+
+        final String key = contentlet.getIdentifier() + "_" + contentlet.getLanguageId();
+        Date versionTs = this.versionDates.get(key);
+        if (versionTs == null) {
+            versionTs = APILocator.getVersionableAPI()
+                    .getContentletVersionInfo(contentlet.getIdentifier(), contentlet.getLanguageId()).getVersionTs();
+            this.versionDates.put(key, versionTs);
+        }
+        return versionTs;
+    }
+
+    Structure getStructure(final String structureInode) {
+
+        Structure structure = this.structures.get(structureInode);
+        if (structure == null) {
+            structure = CacheLocator.getContentTypeCache().getStructureByInode(structureInode);
+            this.structures.put(structureInode, structure);
+        }
+        return structure;
+    }
+
+    ContentType getContentType(final String contentTypeId) throws DotDataException, DotSecurityException {
+
+        ContentType type = this.contentTypes.get(contentTypeId);
+        if (type == null) {
+            type = APILocator.getContentTypeAPI(APILocator.systemUser()).find(contentTypeId);
+            this.contentTypes.put(contentTypeId, type);
+        }
+        return type;
+    }
+
+    Folder getFolder(final Identifier identifier) throws DotDataException, DotSecurityException {
+
+        final String key = identifier.getHostId() + ":" + identifier.getParentPath();
+        if (!this.folders.containsKey(key)) {
+            this.folders.put(key, APILocator.getFolderAPI().findFolderByPath(identifier.getParentPath(),
+                    identifier.getHostId(), APILocator.getUserAPI().getSystemUser(), false));
+        }
+        return this.folders.get(key);
+    }
+
+    /**
+     * Returns the velocity var names of the categories of the contentlet, sorted the same way
+     * {@link com.dotmarketing.portlets.categories.business.CategoryAPI#getParents} does
+     */
+    List<String> getCategories(final Contentlet contentlet) throws DotDataException, DotSecurityException {
+
+        List<String> names = this.categories.get(contentlet.getInode());
+        if (names == null) {
+            names = new ArrayList<>();
+            for (final Category category : APILocator.getCategoryAPI()
+                    .getParents(contentlet, APILocator.systemUser(), false)) {
+                names.add(category.getCategoryVelocityVarName());
+            }
+            this.categories.put(contentlet.getInode(), names);
+        }
+        return names;
+    }
+
+    WorkflowTask getWorkflowTask(final Contentlet contentlet) throws DotDataException {
+
+        if (this.workflowTasks.containsKey(contentlet.getIdentifier())) {
+            return this.workflowTasks.get(contentlet.getIdentifier());
+        }
+        return APILocator.getWorkflowAPI().findTaskByContentlet(contentlet);
+    }
+
+    /**
+     * Returns the rows of the {@code tree} table where the identifier is the parent or the child,
+     * ordered by {@code tree_order}
+     */
+    List<Map<String, Object>> getTreeRows(final String identifier) throws DotDataException {
+
+        List<Map<String, Object>> rows = this.treeRows.get(identifier);
+        if (rows == null) {
+            final DotConnect dc = this.connections.get();
+            dc.setSQL("select * from tree where parent = ? or child = ?" + TREE_ORDER_BY);
+            dc.addParam(identifier);
+            dc.addParam(identifier);
+            rows = dc.loadObjectResults();
+            this.treeRows.put(identifier, rows);
+        }
+        return rows;
+    }
+
+    Relationship getRelationship(final String relationTypeValue) {
+
+        if (!this.relationships.containsKey(relationTypeValue)) {
+            this.relationships.put(relationTypeValue,
+                    FactoryLocator.getRelationshipFactory().byTypeValue(relationTypeValue));
+        }
+        return this.relationships.get(relationTypeValue);
+    }
+
+    String getCMSOwnerRoleId() throws DotDataException {
+
+        if (this.cmsOwnerRoleId == null) {
+            this.cmsOwnerRoleId = APILocator.getRoleAPI().loadCMSOwnerRole().getId();
+        }
+        return this.cmsOwnerRoleId;
+    }
+
+    private boolean hasCategoryFields(final Contentlet contentlet) throws DotDataException, DotSecurityException {
+
+        for (final Field field : this.getContentType(contentlet.getContentTypeId()).fields()) {
+            if (field instanceof CategoryField) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void loadIdentifiers(final List<String> ids) throws DotDataException {
+
+        for (final String id : ids) {
+            final Identifier identifier = APILocator.getIdentifierAPI().loadFromCache(id);
+            if (identifier != null && UtilMethods.isSet(identifier.getId())) {
+                this.identifiers.put(id, identifier);
+            }
+        }
+    }
+
+    void loadVersionDates(final List<String> ids) throws DotDataException {
+
+        for (final List<String> chunk : chunks(ids)) {
+            query(this.connections.get(), VERSION_TS_SQL, chunk, ")").forEachRow(row ->
+                    this.versionDates.put(row.getString("identifier") + "_" + row.getLong("lang"),
+                            row.getDate("version_ts")));
+        }
+    }
+
+    void loadWorkflowTasks(final List<String> ids) throws DotDataException {
+
+        for (final List<String> chunk : chunks(ids)) {
+            query(this.connections.get(), WORKFLOW_TASK_SQL, chunk, ")").forEachRow(row -> {
+
+                final String webasset = row.getString("webasset");
+                if (this.workflowTasks.containsKey(webasset)) {
+                    return;
+                }
+
+                final WorkflowTask task = new WorkflowTask();
+                task.setId(row.getString("id"));
+                task.setWebasset(webasset);
+                task.setCreatedBy(row.getString("created_by"));
+                task.setAssignedTo(row.getString("assigned_to"));
+                task.setStatus(row.getString("status"));
+                task.setModDate(row.getDate("mod_date"));
+                this.workflowTasks.put(webasset, task);
+            });
+            for (final String id : chunk) {
+                if (!this.workflowTasks.containsKey(id)) {
+                    this.workflowTasks.put(id, null);
+                }
+            }
+        }
+    }
+
+    void loadTreeRows(final List<String> ids) throws DotDataException {
+
+        for (final List<String> chunk : chunks(ids)) {
+
+            for (final String id : chunk) {
+                this.treeRows.put(id, new ArrayList<>());
+            }
+
+            final DotConnect dc = this.connections.get();
+            dc.setSQL(TREE_SQL_PARENT + placeholders(chunk.size()) + ")" + TREE_SQL_CHILD
+                    + placeholders(chunk.size()) + ")" + TREE_ORDER_BY);
+            for (final String id : chunk) {
+                dc.addParam(id);
+            }
+            for (final String id : chunk) {
+                dc.addParam(id);
+            }
+
+            dc.forEachRow(resultRow -> {
+
+                final Map<String, Object> row = resultRow.toMap();
+                final String parent = String.valueOf(row.get("parent"));
+                final String child = String.valueOf(row.get("child"));
+                final List<Map<String, Object>> parentRows = this.treeRows.get(parent);
+                if (parentRows != null) {
+                    parentRows.add(row);
+                }
+                final List<Map<String, Object>> childRows = this.treeRows.get(child);
+                if (childRows != null && !child.equals(parent)) {
+                    childRows.add(row);
+                }
+            });
+        }
+    }
+
+    void loadCategories(final List<String> inodes) throws DotDataException {
+
+        for (final List<String> chunk : chunks(inodes)) {
+
+            for (final String inode : chunk) {
+                this.categories.put(inode, new ArrayList<>());
+            }
+
+            query(this.connections.get(), CATEGORIES_SQL, chunk, ")" + CATEGORIES_ORDER_BY).forEachRow(row -> {
+                final List<String> names = this.categories.get(row.getString("child"));
+                if (names != null) {
+                    names.add(row.getString("category_velocity_var_name"));
+                }
+            });
+        }
+    }
+
+    static List<List<String>> chunks(final List<String> values) {
+
+        final List<List<String>> chunks = new ArrayList<>();
+        for (int init = 0; init < values.size(); init += CHUNK_SIZE) {
+            chunks.add(values.subList(init, Math.min(init + CHUNK_SIZE, values.size())));
+        }
+        return chunks;
+    }
+
+    static DotConnect query(final DotConnect dc, final String sql, final List<String> params, final String suffix) {
+
+        dc.setSQL(sql + placeholders(params.size()) + suffix);
+        for (final String param : params) {
+            dc.addParam(param);
+        }
+        return dc;
+    }
+
+    static String placeholders(final int size) {
+
+        final StringBuilder builder = new StringBuilder(size * 2);
+        for (int i = 0; i < size; i++) {
+            builder.append(i == 0 ? "?" : ",?");
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,33 @@
+package com.dotcms.content.elasticsearch.business;
+
+import java.util.List;
+
+import org.elasticsearch.client.Client;
+import org.elasticsearch.search.SearchHits;
+
+import com.dotcms.content.elasticsearch.constants.ESMappingConstants;
+import com.dotmarketing.exception.DotDataException;
+import com.dotmarketing.exception.DotSecurityException;
+import com.dotmarketing.portlets.contentlet.model.Contentlet;
+
+/**
+ * Iterates over all the contentlets that match a query, see {@link IndexScrollIterator}. Every
+ * batch of hits is loaded through the content factory, or built from the indexed
+ * {@link ContentletSource} if it is enabled.
+ */
+public class ContentletScrollIterator extends IndexScrollIterator<Contentlet> {
+
+	private final ESContentFactoryImpl factory;
+
+	ContentletScrollIterator(Client client, ESContentFactoryImpl factory, String index, String query, int batchSize) {
+		super(client, index, query, batchSize, ContentletSource.isEnabled()
+				? new String[] { ESMappingConstants.INODE, ESMappingConstants.CONTENTLET_SOURCE }
+				: new String[] { ESMappingConstants.INODE });
+		this.factory = factory;
+	}
+
+	@Override
+	List<Contentlet> load(SearchHits hits) throws DotDataException, DotSecurityException {
+		return factory.loadHits(hits);
+	}
+}
@@ -0,0 +1,35 @@
+package com.dotcms.content.elasticsearch.business;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.elasticsearch.client.Client;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHits;
+
+import com.dotcms.content.elasticsearch.constants.ESMappingConstants;
+import com.dotmarketing.common.model.ContentletSearch;
+
+/**
+ * Iterates over the inode and identifier of all the contentlets that match a query, see
+ * {@link IndexScrollIterator}. They are read from the fields of the hits, the contentlets are
+ * not loaded.
+ */
+class ContentletSearchScrollIterator extends IndexScrollIterator<ContentletSearch> {
+
+	ContentletSearchScrollIterator(Client client, String index, String query, int batchSize) {
+		super(client, index, query, batchSize, ESMappingConstants.INODE, ESMappingConstants.IDENTIFIER);
+	}
+
+	@Override
+	List<ContentletSearch> load(SearchHits hits) {
+		final List<ContentletSearch> batch = new ArrayList<ContentletSearch>(hits.getHits().length);
+		for (SearchHit hit : hits) {
+			final ContentletSearch contentlet = new ContentletSearch();
+			contentlet.setInode(hit.field(ESMappingConstants.INODE).getValue().toString());
+			contentlet.setIdentifier(hit.field(ESMappingConstants.IDENTIFIER).getValue().toString());
+			batch.add(contentlet);
+		}
+		return batch;
+	}
+}
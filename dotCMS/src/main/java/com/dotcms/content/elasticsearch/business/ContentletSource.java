@@ -0,0 +1,146 @@
+package com.dotcms.content.elasticsearch.business;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import com.dotcms.repackage.com.fasterxml.jackson.databind.ObjectMapper;
+import com.dotmarketing.portlets.contentlet.model.Contentlet;
+import com.dotmarketing.portlets.structure.model.Field;
+import com.dotmarketing.util.Config;
+
+/**
+ * Copy of the properties of a {@link Contentlet} kept in its document of the Elastic index, so
+ * the results of a search can be built straight from the hits, without loading them from the
+ * database. Only the properties a contentlet loaded from the database has are kept: the base
+ * properties and the values of its fields, binary files excluded as they are read from the
+ * assets folder when needed.
+ * <p>
+ * As the indexed values are lowered and formatted, the properties are kept as a json document
+ * with the type of every value, stored in the {@code contentletsource} field of the index, which
+ * is neither analyzed nor searchable.
+ * </p>
+ * <p>
+ * Both the source and its use in the searches are disabled by default, see
+ * {@link #isEnabled()}. The contentlets indexed before enabling it are still loaded from the
+ * database.
+ * </p>
+ */
+public final class ContentletSource {
+
+	private static final ObjectMapper mapper = new ObjectMapper();
+
+	private static final Set<String> BASE_PROPERTIES = new HashSet<String>(Arrays.asList(Contentlet.INODE_KEY,
+			Contentlet.LANGUAGEID_KEY, Contentlet.STRUCTURE_INODE_KEY, Contentlet.LAST_REVIEW_KEY,
+			Contentlet.NEXT_REVIEW_KEY, Contentlet.REVIEW_INTERNAL_KEY, Contentlet.DISABLED_WYSIWYG_KEY,
+			Contentlet.MOD_DATE_KEY, Contentlet.MOD_USER_KEY, Contentlet.OWNER_KEY, Contentlet.IDENTIFIER_KEY,
+			Contentlet.SORT_ORDER_KEY, Contentlet.HOST_KEY, Contentlet.FOLDER_KEY));
+
+	private static final String STRING = "s";
+	private static final String BOOLEAN = "b";
+	private static final String LONG = "l";
+	private static final String INTEGER = "i";
+	private static final String FLOAT = "f";
+	private static final String DATE = "d";
+	private static final String LIST = "a";
+
+	private ContentletSource() {
+	}
+
+	/**
+	 * @return {@code true} if the contentlets are indexed with their source and the searches build
+	 *         their results from it.
+	 */
+	public static boolean isEnabled() {
+		return Config.getBooleanProperty("ELASTICSEARCH_HYDRATE_SEARCH_RESULTS", false);
+	}
+
+	/**
+	 * Writes the properties of the contentlet.
+	 *
+	 * @param con - The {@link Contentlet} to index.
+	 * @param fields - The fields of its content type.
+	 * @return The json document with the properties of the contentlet.
+	 * @throws IOException If the properties can't be written.
+	 */
+	public static String toSource(Contentlet con, List<Field> fields) throws IOException {
+		final Set<String> properties = new HashSet<String>(BASE_PROPERTIES);
+		for (Field field : fields) {
+			if (!Field.FieldType.BINARY.toString().equals(field.getFieldType())) {
+				properties.add(field.getVelocityVarName());
+			}
+		}
+
+		final Map<String, Object[]> source = new LinkedHashMap<String, Object[]>();
+		for (Entry<String, Object> entry : con.getMap().entrySet()) {
+			if (properties.contains(entry.getKey())) {
+				final Object[] value = toTypedValue(entry.getValue());
+				if (value != null) {
+					source.put(entry.getKey(), value);
+				}
+			}
+		}
+		return mapper.writeValueAsString(source);
+	}
+
+	/**
+	 * Builds a contentlet from the properties written by {@link #toSource(Contentlet, List)}.
+	 *
+	 * @param source - The json document stored in the index.
+	 * @return The {@link Contentlet}, meant for rendering: to change it, load it with the
+	 *         ContentletAPI first.
+	 * @throws IOException If the document can't be read.
+	 */
+	@SuppressWarnings("unchecked")
+	public static Contentlet toContentlet(String source) throws IOException {
+		final Map<String, List<Object>> properties = mapper.readValue(source, Map.class);
+		final Contentlet con = new Contentlet();
+		for (Entry<String, List<Object>> entry : properties.entrySet()) {
+			con.getMap().put(entry.getKey(), fromTypedValue(entry.getValue()));
+		}
+		return con;
+	}
+
+	private static Object[] toTypedValue(Object value) {
+		if (value instanceof String) {
+			return new Object[] { STRING, value };
+		} else if (value instanceof Boolean) {
+			return new Object[] { BOOLEAN, value };
+		} else if (value instanceof Long) {
+			return new Object[] { LONG, value };
+		} else if (value instanceof Integer) {
+			return new Object[] { INTEGER, value };
+		} else if (value instanceof Float) {
+			return new Object[] { FLOAT, value };
+		} else if (value instanceof Date) {
+			return new Object[] { DATE, ((Date) value).getTime() };
+		} else if (value instanceof List) {
+			return new Object[] { LIST, value };
+		}
+		return null;
+	}
+
+	private static Object fromTypedValue(List<Object> typedValue) {
+		final String type = (String) typedValue.get(0);
+		final Object value = typedValue.get(1);
+		if (LONG.equals(type)) {
+			return ((Number) value).longValue();
+		} else if (INTEGER.equals(type)) {
+			return ((Number) value).intValue();
+		} else if (FLOAT.equals(type)) {
+			return ((Number) value).floatValue();
+		} else if (DATE.equals(type)) {
+			return new Date(((Number) value).longValue());
+		} else if (LIST.equals(type)) {
+			return new ArrayList<Object>((List<?>) value);
+		}
+		return value;
+	}
+}
@@ -1,5 +1,6 @@
 package com.dotcms.content.elasticsearch.business;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.io.StringWriter;
 import java.sql.Connection;
@@ -9,6 +10,7 @@ import java.sql.SQLException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -27,6 +29,7 @@ import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.index.query.QueryStringQueryBuilder;
 import org.elasticsearch.index.query.functionscore.random.RandomScoreFunctionBuilder;
 import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHitField;
 import org.elasticsearch.search.SearchHits;
 import org.elasticsearch.search.internal.InternalSearchHits;
 import org.elasticsearch.search.sort.SortBuilders;
@@ -35,6 +38,7 @@ import org.springframework.util.NumberUtils;
 
 import com.dotcms.content.business.DotMappingException;
 import com.dotcms.content.elasticsearch.business.IndiciesAPI.IndiciesInfo;
+import com.dotcms.content.elasticsearch.constants.ESMappingConstants;
 import com.dotcms.content.elasticsearch.util.ESClient;
 import com.dotcms.notifications.business.NotificationAPI;
 import com.dotcms.repackage.net.sf.hibernate.ObjectNotFoundException;
@@ -45,6 +49,7 @@ import com.dotmarketing.beans.Identifier;
 import com.dotmarketing.business.APILocator;
 import com.dotmarketing.business.CacheLocator;
 import com.dotmarketing.business.DotStateException;
+import com.dotmarketing.common.model.ContentletSearch;
 import com.dotmarketing.business.FactoryLocator;
 import com.dotmarketing.business.IdentifierAPI;
 import com.dotmarketing.business.PermissionAPI;
@@ -1193,7 +1198,7 @@ public class ESContentFactoryImpl extends ContentletFactory {
 
 	@Override
 	protected long indexCount(String query) {
-	    String qq=findAndReplaceQueryDates(translateQuery(query, null).getQuery());
+	    String qq=compileQuery(query);
 
 	    // we check the query to figure out wich indexes to hit
         String indexToHit;
@@ -1260,7 +1265,15 @@ public class ESContentFactoryImpl extends ContentletFactory {
 
 	@Override
 	protected SearchHits indexSearch(String query, int limit, int offset, String sortBy) {
-	    String qq=findAndReplaceQueryDates(translateQuery(query, sortBy).getQuery());
+	    return indexSearch(query, limit, offset, sortBy, "inode", "identifier");
+	}
+
+	/**
+	 * Same as {@link #indexSearch(String, int, int, String)} but returning
+	 * the given fields of the hits.
+	 */
+	private SearchHits indexSearch(String query, int limit, int offset, String sortBy, String... fields) {
+	    String qq=compileQuery(query);
 
 	    // we check the query to figure out wich indexes to hit
 	    String indexToHit;
@@ -1284,7 +1297,7 @@ public class ESContentFactoryImpl extends ContentletFactory {
         	SearchRequestBuilder srb = createRequest(client, qq, sortBy);
 
         	srb.setIndices(indexToHit);
-        	srb.addFields("inode","identifier");
+        	srb.addFields(fields);
 
             if(limit>0)
                 srb.setSize(limit);
@@ -1537,13 +1550,101 @@ public class ESContentFactoryImpl extends ContentletFactory {
 
 	@Override
 	protected List<Contentlet> search(String query, int limit, int offset, String sortBy) throws DotDataException, DotStateException, DotSecurityException {
+	    if(ContentletSource.isEnabled()) {
+	        return hydrate(indexSearch(query, limit, offset, sortBy, "inode", "identifier", ESMappingConstants.CONTENTLET_SOURCE));
+	    }
+
 	    SearchHits hits = indexSearch(query, limit, offset, sortBy);
 	    List<String> inodes=new ArrayList<String>();
+	    for(SearchHit h : hits)
+	        inodes.add(h.field("inode").getValue().toString());
+	    return keepHitOrder(findContentlets(inodes), inodes);
+	}
+
+	@Override
+	protected ContentletScrollIterator scroll(String query, int batchSize) throws DotDataException {
+	    return new ContentletScrollIterator(new ESClient().getClient(), this, scrollIndexToHit(query), compileQuery(query), batchSize);
+	}
+
+	@Override
+	protected IndexScrollIterator<ContentletSearch> scrollIndex(String query, int batchSize) throws DotDataException {
+	    return new ContentletSearchScrollIterator(new ESClient().getClient(), scrollIndexToHit(query), compileQuery(query), batchSize);
+	}
+
+	private String scrollIndexToHit(String query) throws DotDataException {
+	    IndiciesInfo info=APILocator.getIndiciesAPI().loadIndicies();
+	    return query.contains("+live:true") && !query.contains("+deleted:true") ? info.live : info.working;
+	}
+
+	/**
+	 * Loads the contentlets of the hits, from their {@link ContentletSource}
+	 * if it is enabled.
+	 */
+	List<Contentlet> loadHits(SearchHits hits) throws DotDataException, DotStateException, DotSecurityException {
+	    if(ContentletSource.isEnabled()) {
+	        return hydrate(hits);
+	    }
+	    List<String> inodes=new ArrayList<String>();
 	    for(SearchHit h : hits)
 	        inodes.add(h.field("inode").getValue().toString());
 	    return findContentlets(inodes);
 	}
 
+	/**
+	 * Builds the contentlets of the hits from their {@link ContentletSource},
+	 * the ones in the cache and the ones indexed without a source are loaded
+	 * as usual.
+	 */
+	private List<Contentlet> hydrate(SearchHits hits) throws DotDataException, DotStateException, DotSecurityException {
+	    List<String> inodes=new ArrayList<String>();
+	    List<String> inodesNotHydrated=new ArrayList<String>();
+	    List<Contentlet> result=new ArrayList<Contentlet>();
+	    for(SearchHit h : hits) {
+	        String inode=h.field("inode").getValue().toString();
+	        inodes.add(inode);
+
+	        Contentlet con=cc.get(inode);
+	        if(con == null || !InodeUtils.isSet(con.getInode())) {
+	            con=null;
+	            SearchHitField source=h.field(ESMappingConstants.CONTENTLET_SOURCE);
+	            if(source != null && source.getValue() != null) {
+	                try {
+	                    con=ContentletSource.toContentlet(source.getValue().toString());
+	                } catch (IOException e) {
+	                    Logger.warn(this, "Unable to read the indexed source of contentlet " + inode + ": " + e.getMessage());
+	                }
+	            }
+	        }
+
+	        if(con != null) {
+	            result.add(con);
+	        } else {
+	            inodesNotHydrated.add(inode);
+	        }
+	    }
+	    if(!inodesNotHydrated.isEmpty()) {
+	        result.addAll(findContentlets(inodesNotHydrated));
+	    }
+	    return keepHitOrder(result, inodes);
+	}
+
+	/**
+	 * Sorts the contentlets in the order of the hits if
+	 * ELASTICSEARCH_SEARCH_KEEP_HIT_ORDER is enabled, otherwise the cached
+	 * contentlets come first.
+	 */
+	private List<Contentlet> keepHitOrder(List<Contentlet> contentlets, List<String> inodes) {
+	    if(!Config.getBooleanProperty("ELASTICSEARCH_SEARCH_KEEP_HIT_ORDER", false)) {
+	        return contentlets;
+	    }
+	    Map<String, Integer> positions=new HashMap<String, Integer>(inodes.size() * 2);
+	    for(int i = 0; i < inodes.size(); i++) {
+	        positions.putIfAbsent(inodes.get(i), i);
+	    }
+	    contentlets.sort(Comparator.comparingInt(con -> positions.getOrDefault(con.getInode(), Integer.MAX_VALUE)));
+	    return contentlets;
+	}
+
 	@Override
 	protected void UpdateContentWithSystemHost(String hostIdentifier) throws DotDataException {
 		Host systemHost = APILocator.getHostAPI().findSystemHost();
@@ -1781,6 +1882,40 @@ public class ESContentFactoryImpl extends ContentletFactory {
 	        return result;
 	    }
 
+	/**
+	 * Translates the query and rewrites its dates for the Elastic index, as
+	 * {@link #translateQuery(String, String)} and
+	 * {@link #findAndReplaceQueryDates(String)} do, caching the result. The
+	 * date literals of the query are parameters of the cached
+	 * {@link CompiledQuery}, so the same query with different dates is only
+	 * translated once. The cache is cleared when a content type or its fields
+	 * change.
+	 * <p>
+	 * The sort is not part of the key, as it does not change the translated
+	 * query.
+	 *
+	 * @param query
+	 *            - The Lucene query.
+	 * @return The query to send to the Elastic index.
+	 */
+	    static String compileQuery(String query) {
+	        List<String> dates = new ArrayList<String>();
+	        String shape = CompiledQuery.parameterize(query, dates);
+
+	        ContentletCache cache = CacheLocator.getContentletCache();
+	        CompiledQuery compiled = cache.getCompiledQuery(shape);
+	        if (compiled == null) {
+	            compiled = CompiledQuery.compile(findAndReplaceQueryDates(translateQuery(shape, null).getQuery()), dates.size());
+	            cache.addCompiledQuery(shape, compiled);
+	        }
+
+	        if (!compiled.isBindable()) {
+	            Logger.debug(ESContentFactoryImpl.class, "Unable to parameterize the dates of the query: " + query);
+	            return findAndReplaceQueryDates(translateQuery(query, null).getQuery());
+	        }
+	        return compiled.bind(dates);
+	    }
+
 	    /**
 	     *
 	     * @param sortBy
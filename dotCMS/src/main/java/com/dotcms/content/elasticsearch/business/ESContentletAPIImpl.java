@@ -121,6 +121,8 @@ public class ESContentletAPIImpl implements ContentletAPI {
     private final TagAPI tagAPI;
 
     private int MAX_LIMIT = 100000;
+    private static final int DEFAULT_SCROLL_BATCH_SIZE = 500;
+    private static final int MAX_SCROLL_BATCH_SIZE = 5000;
 
     private static final String backupPath = ConfigUtils.getBackupPath() + java.io.File.separator + "contentlets";
 
@@ -704,23 +706,7 @@ public class ESContentletAPIImpl implements ContentletAPI {
 
     @Override
     public List <ContentletSearch> searchIndex(String luceneQuery, int limit, int offset, String sortBy, User user, boolean respectFrontendRoles)throws DotSecurityException, DotDataException {
-        boolean isAdmin = false;
-        List<Role> roles = new ArrayList<Role>();
-        if(user == null && !respectFrontendRoles){
-            throw new DotSecurityException("You must specify a user if you are not respecting frontend roles");
-        }
-        if(user != null){
-            if (!APILocator.getRoleAPI().doesUserHaveRole(user, APILocator.getRoleAPI().loadCMSAdminRole())) {
-                roles = APILocator.getRoleAPI().loadRolesForUser(user.getUserId());
-            }else{
-                isAdmin = true;
-            }
-        }
-        StringBuffer buffy = new StringBuffer(luceneQuery);
-
-        // Permissions in the query
-        if (!isAdmin)
-            addPermissionsToQuery(buffy, user, roles, respectFrontendRoles);
+        StringBuffer buffy = addPermissionsToQuery(luceneQuery, user, respectFrontendRoles);
 
         int originalLimit = limit;
         if(UtilMethods.isSet(sortBy) && sortBy.trim().equalsIgnoreCase("random")){
@@ -751,6 +737,54 @@ public class ESContentletAPIImpl implements ContentletAPI {
         return list;
     }
 
+    @Override
+    public ContentletScrollIterator scroll(String luceneQuery, int batchSize, User user, boolean respectFrontendRoles) throws DotSecurityException, DotDataException {
+        int size = scrollBatchSize(batchSize);
+        StringBuffer buffy = addPermissionsToQuery(luceneQuery, user, respectFrontendRoles);
+        return contentFactory.scroll(buffy.toString(), size);
+    }
+
+    @Override
+    public IndexScrollIterator<ContentletSearch> scrollIndex(String luceneQuery, int batchSize, User user, boolean respectFrontendRoles) throws DotSecurityException, DotDataException {
+        int size = scrollBatchSize(batchSize);
+        StringBuffer buffy = addPermissionsToQuery(luceneQuery, user, respectFrontendRoles);
+        return contentFactory.scrollIndex(buffy.toString(), size);
+    }
+
+    /**
+     * The batch size of a scroll is per shard, a large one keeps a lot of contentlets in memory.
+     */
+    private int scrollBatchSize(int batchSize) {
+        if(batchSize < 0 || batchSize > MAX_SCROLL_BATCH_SIZE){
+            throw new IllegalArgumentException("The batch size of a scroll must be between 1 and " + MAX_SCROLL_BATCH_SIZE + ", or 0 for the default: " + batchSize);
+        }
+        return batchSize == 0 ? DEFAULT_SCROLL_BATCH_SIZE : batchSize;
+    }
+
+    /**
+     * Adds the permissions of the user to the query, unless the user is an administrator.
+     */
+    private StringBuffer addPermissionsToQuery(String luceneQuery, User user, boolean respectFrontendRoles) throws DotSecurityException, DotDataException {
+        boolean isAdmin = false;
+        List<Role> roles = new ArrayList<Role>();
+        if(user == null && !respectFrontendRoles){
+            throw new DotSecurityException("You must specify a user if you are not respecting frontend roles");
+        }
+        if(user != null){
+            if (!APILocator.getRoleAPI().doesUserHaveRole(user, APILocator.getRoleAPI().loadCMSAdminRole())) {
+                roles = APILocator.getRoleAPI().loadRolesForUser(user.getUserId());
+            }else{
+                isAdmin = true;
+            }
+        }
+        StringBuffer buffy = new StringBuffer(luceneQuery);
+
+        // Permissions in the query
+        if (!isAdmin)
+            addPermissionsToQuery(buffy, user, roles, respectFrontendRoles);
+        return buffy;
+    }
+
     @CloseDBIfOpened
     @Override
     public void publishRelatedHtmlPages(Contentlet contentlet) throws DotStateException, DotDataException{
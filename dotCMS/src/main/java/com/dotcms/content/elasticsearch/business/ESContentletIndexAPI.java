@@ -12,7 +12,6 @@ import com.dotcms.business.WrapInTransaction;
 import com.dotcms.content.business.DotMappingException;
 import com.dotcms.content.elasticsearch.business.IndiciesAPI.IndiciesInfo;
 import com.dotcms.content.elasticsearch.util.ESClient;
-import com.google.gson.Gson;
 
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.action.admin.indices.create.CreateIndexResponse;
@@ -22,6 +21,7 @@ import org.elasticsearch.action.bulk.BulkRequestBuilder;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.client.IndicesAdminClient;
+import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
 
 import com.dotmarketing.business.APILocator;
@@ -30,6 +30,7 @@ import com.dotmarketing.business.DotStateException;
 import com.dotmarketing.business.FactoryLocator;
 import com.dotmarketing.common.db.DotConnect;
 import com.dotmarketing.db.DbConnectionFactory;
+import com.dotmarketing.db.DotRunnable;
 import com.dotmarketing.db.HibernateUtil;
 import com.dotmarketing.db.ReindexRunnable;
 import com.dotmarketing.exception.DotDataException;
@@ -308,9 +309,19 @@ public class ESContentletIndexAPI implements ContentletIndexAPI{
 
         };
 
+	    final ContentletIndexBatch indexBatch = ContentletIndexBatch.getCurrent();
 	    if(bulk!=null || indexBeforeCommit) {
 	        indexAction.run();
 	    }
+	    else if(indexBatch!=null && !reindexOnly) {
+	        // the thread is collecting its content, it is indexed when the batch is flushed
+	        HibernateUtil.addCommitListener(content.getInode()+ ReindexRunnable.Action.ADDING, new DotRunnable() {
+	            @Override
+	            public void run() {
+	                indexBatch.add(contentToIndex);
+	            }
+	        });
+	    }
 	    else {
             // add a commit listener to index the contentlet if the entire
             // transaction finish clean
@@ -342,44 +353,52 @@ public class ESContentletIndexAPI implements ContentletIndexAPI{
 					" contents, starting with identifier [ " + contentToIndex.get(0).getMap().get("identifier") + "]");
 		}
 
-		// eliminate dups
-		Set<Contentlet> contentToIndexSet = new HashSet<>(contentToIndex);
-
+		// eliminate dups, only the working and live versions are indexed
+		Set<Contentlet> contentToIndexSet = new LinkedHashSet<>(contentToIndex);
+		List<Contentlet> contentToMap = new ArrayList<>(contentToIndexSet.size());
 		for(Contentlet con : contentToIndexSet) {
-            String id=con.getIdentifier()+"_"+con.getLanguageId();
-            IndiciesInfo info=APILocator.getIndiciesAPI().loadIndicies();
-            Gson gson=new Gson();
-            String mapping=null;
-            try {
-                if(con.isWorking()) {
-                    mapping=gson.toJson(mappingAPI.toMap(con));
-                    
-                    if(!reindexOnly)
-                        req.add(new IndexRequest(info.working, "content", id)
-                                    .source(mapping));
-                    if(info.reindex_working!=null)
-                        req.add(new IndexRequest(info.reindex_working, "content", id)
-                                    .source(mapping));
-                }
-    
-                if(con.isLive()) {
-                    if(mapping==null)
-                        mapping=gson.toJson(mappingAPI.toMap(con));
-                    
-                    if(!reindexOnly)
-                        req.add(new IndexRequest(info.live, "content", id)
-                                .source(mapping));
-                    if(info.reindex_live!=null)
-                        req.add(new IndexRequest(info.reindex_live, "content", id)
-                                .source(mapping));
-                }
-            }
-            catch(DotMappingException ex) {
-				Logger.error(this, "Can't get a mapping for contentlet with id_lang:" + id + " Content data: " + con.getMap(), ex);
-				throw ex;
-            }
-        }
-		
+			if(con.isWorking() || con.isLive()) {
+				contentToMap.add(con);
+			}
+		}
+		if(contentToMap.isEmpty()) {
+			return;
+		}
+
+		// the documents of the whole list are built from a single prefetch of their dependencies
+		Map<String, XContentBuilder> documents;
+		try {
+			documents = mappingAPI.toXContents(contentToMap);
+		}
+		catch(DotMappingException ex) {
+			Logger.error(this, "Can't get a mapping for " + contentToMap.size() + " contentlets: " + ex.getMessage(), ex);
+			throw ex;
+		}
+
+		IndiciesInfo info=APILocator.getIndiciesAPI().loadIndicies();
+		for(Contentlet con : contentToMap) {
+			String id=con.getIdentifier()+"_"+con.getLanguageId();
+			XContentBuilder mapping=documents.get(con.getInode());
+
+			if(con.isWorking()) {
+				if(!reindexOnly)
+					req.add(new IndexRequest(info.working, "content", id)
+								.source(mapping));
+				if(info.reindex_working!=null)
+					req.add(new IndexRequest(info.reindex_working, "content", id)
+								.source(mapping));
+			}
+
+			if(con.isLive()) {
+				if(!reindexOnly)
+					req.add(new IndexRequest(info.live, "content", id)
+							.source(mapping));
+				if(info.reindex_live!=null)
+					req.add(new IndexRequest(info.reindex_live, "content", id)
+							.source(mapping));
+			}
+		}
+
 	}
 
 	@SuppressWarnings("unchecked")
@@ -11,8 +11,10 @@ import java.io.StringWriter;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -35,11 +37,12 @@ import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.action.ListenableActionFuture;
 import org.elasticsearch.action.admin.cluster.state.ClusterStateRequest;
 import org.elasticsearch.action.admin.indices.mapping.put.PutMappingResponse;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
 
 import com.dotmarketing.beans.Identifier;
 import com.dotmarketing.beans.Permission;
 import com.dotmarketing.business.APILocator;
-import com.dotmarketing.business.CacheLocator;
 import com.dotmarketing.business.DotStateException;
 import com.dotmarketing.business.FactoryLocator;
 import com.dotmarketing.business.PermissionAPI;
@@ -51,7 +54,6 @@ import com.dotmarketing.exception.DotSecurityException;
 import com.dotmarketing.portlets.categories.model.Category;
 import com.dotmarketing.portlets.contentlet.business.ContentletAPI;
 import com.dotmarketing.portlets.contentlet.model.Contentlet;
-import com.dotmarketing.portlets.contentlet.model.ContentletVersionInfo;
 import com.dotmarketing.portlets.fileassets.business.FileAssetAPI;
 import com.dotmarketing.portlets.folders.model.Folder;
 import com.dotmarketing.portlets.structure.business.FieldAPI;
@@ -185,114 +187,231 @@ public class ESMappingAPIImpl implements ContentMappingAPI {
 	 */
 	public Map<String,Object> toMap(Contentlet con) throws DotMappingException {
 		try {
+			return toMap(con, new ContentletMappingBatch());
+		} catch (Exception e) {
+			//Logger.error(this.getClass(), e.getMessage(), e);
+			throw new DotMappingException(e.getMessage(), e);
+		}
+	}
 
-			Map<String,String> contentletMap = new HashMap<String,String>();
-			Map<String,Object> mlowered=new HashMap<String,Object>();
-			loadCategories(con, contentletMap);
-			loadFields(con, contentletMap);
-			loadPermissions(con, contentletMap);
-			loadRelationshipFields(con, contentletMap);
-
-			Identifier ident = APILocator.getIdentifierAPI().find(con);
-			ContentletVersionInfo cvi = APILocator.getVersionableAPI().getContentletVersionInfo(ident.getId(), con.getLanguageId());
-			Structure st=CacheLocator.getContentTypeCache().getStructureByInode(con.getStructureInode());
-
-			Folder conFolder=APILocator.getFolderAPI().findFolderByPath(ident.getParentPath(), ident.getHostId(), APILocator.getUserAPI().getSystemUser(), false);
-
-			contentletMap.put(ESMappingConstants.TITLE, con.getTitle());
-			contentletMap.put(ESMappingConstants.STRUCTURE_NAME, st.getVelocityVarName()); // marked for DEPRECATION
-			contentletMap.put(ESMappingConstants.CONTENT_TYPE, st.getVelocityVarName());
-			contentletMap.put(ESMappingConstants.STRUCTURE_TYPE, st.getStructureType() + ""); // marked for DEPRECATION
-			contentletMap.put(ESMappingConstants.BASE_TYPE, st.getStructureType() + "");
-			contentletMap.put(ESMappingConstants.TYPE, ESMappingConstants.CONTENT);
-			contentletMap.put(ESMappingConstants.INODE, con.getInode());
-			contentletMap.put(ESMappingConstants.MOD_DATE, datetimeFormat.format(con.getModDate()));
-			contentletMap.put(ESMappingConstants.OWNER, con.getOwner()==null ? "0" : con.getOwner());
-			contentletMap.put(ESMappingConstants.MOD_USER, con.getModUser());
-			contentletMap.put(ESMappingConstants.LIVE, Boolean.toString(con.isLive()));
-			contentletMap.put(ESMappingConstants.WORKING, Boolean.toString(con.isWorking()));
-			contentletMap.put(ESMappingConstants.LOCKED, Boolean.toString(con.isLocked()));
-			contentletMap.put(ESMappingConstants.DELETED, Boolean.toString(con.isArchived()));
-			contentletMap.put(ESMappingConstants.LANGUAGE_ID, Long.toString(con.getLanguageId()));
-			contentletMap.put(ESMappingConstants.IDENTIFIER, ident.getId());
-			contentletMap.put(ESMappingConstants.CONTENTLET_HOST, ident.getHostId());
-			contentletMap.put(ESMappingConstants.CONTENTLET_FOLER, conFolder!=null && InodeUtils.isSet(conFolder.getInode()) ? conFolder.getInode() : con.getFolder());
-			contentletMap.put(ESMappingConstants.PARENT_PATH, ident.getParentPath());
-			contentletMap.put(ESMappingConstants.PATH, ident.getPath());
-			// makes shorties searchable regardless of length
-			contentletMap.put(ESMappingConstants.SHORT_ID, ident.getId().replace("-", ""));
-			contentletMap.put(ESMappingConstants.SHORT_INODE, con.getInode().replace("-", ""));
-			try{
-				WorkflowTask task = APILocator.getWorkflowAPI().findTaskByContentlet(con);
-				if(task!=null && task.getId()!=null){
-					contentletMap.put(ESMappingConstants.WORKFLOW_CREATED_BY, task.getCreatedBy());
-					contentletMap.put(ESMappingConstants.WORKFLOW_ASSIGN, task.getAssignedTo());
-					contentletMap.put(ESMappingConstants.WORKFLOW_STEP, task.getStatus());
-					contentletMap.put(ESMappingConstants.WORKFLOW_MOD_DATE, datetimeFormat.format(task.getModDate()));
-				}
+	/**
+	 * Bulk version of {@link #toMap(Contentlet)}. The identifiers, version info, content types,
+	 * folders, categories, workflow tasks and relationships of all the contentlets are loaded
+	 * with a few set-based queries and cache lookups before the maps are built.
+	 *
+	 * @param contentlets contentlets to map
+	 * @return the lowered map of every contentlet, by inode
+	 * @throws DotMappingException
+	 */
+	public Map<String,Map<String,Object>> toMaps(List<Contentlet> contentlets) throws DotMappingException {
 
+		final ContentletMappingBatch batch = loadBatch(contentlets);
+		final Map<String,Map<String,Object>> maps = new LinkedHashMap<String,Map<String,Object>>();
+		for(Contentlet con : contentlets) {
+			try {
+				maps.put(con.getInode(), toMap(con, batch));
+			} catch (Exception e) {
+				throw new DotMappingException("Can't get a mapping for contentlet with id_lang:"
+						+ con.getIdentifier() + "_" + con.getLanguageId() + ", " + e.getMessage(), e);
 			}
-			catch(DotDataException e){
-				Logger.error(this.getClass(), "unable to add workflow info to index:" + e, e);
+		}
+		return maps;
+	}
+
+	/**
+	 * Same as {@link #toMaps(List)} but every document is written straight to a json
+	 * {@link XContentBuilder}, ready to be used as the source of an index request, without
+	 * building the lowered map. Like the json written from the map, the empty values are left out.
+	 *
+	 * @param contentlets contentlets to map
+	 * @return the json document of every contentlet, by inode
+	 * @throws DotMappingException
+	 */
+	public Map<String,XContentBuilder> toXContents(List<Contentlet> contentlets) throws DotMappingException {
+
+		final ContentletMappingBatch batch = loadBatch(contentlets);
+		final Map<String,XContentBuilder> documents = new LinkedHashMap<String,XContentBuilder>();
+		for(Contentlet con : contentlets) {
+			try {
+				documents.put(con.getInode(), toXContent(con, batch));
+			} catch (Exception e) {
+				throw new DotMappingException("Can't get a mapping for contentlet with id_lang:"
+						+ con.getIdentifier() + "_" + con.getLanguageId() + ", " + e.getMessage(), e);
 			}
+		}
+		return documents;
+	}
 
+	private ContentletMappingBatch loadBatch(List<Contentlet> contentlets) throws DotMappingException {
+		try {
+			return ContentletMappingBatch.load(contentlets);
+		} catch (Exception e) {
+			throw new DotMappingException(e.getMessage(), e);
+		}
+	}
 
+	private Map<String,Object> toMap(Contentlet con, ContentletMappingBatch batch) throws Exception {
 
-			if(UtilMethods.isSet(ident.getSysPublishDate()))
-				contentletMap.put(ESMappingConstants.PUBLISH_DATE, datetimeFormat.format(ident.getSysPublishDate()));
-			else
-				contentletMap.put(ESMappingConstants.PUBLISH_DATE, datetimeFormat.format(cvi.getVersionTs()));
+		final Map<String,String> contentletMap = loadContentletMap(con, batch);
+		final Map<String,Object> mlowered=new HashMap<String,Object>(contentletMap.size() * 4);
+		for(Entry<String,String> entry : contentletMap.entrySet()){
+			final String lcasek=entry.getKey().toLowerCase();
+			final String lcasev = UtilMethods.isSet(entry.getValue()) ? entry.getValue().toLowerCase() : null;
+			mlowered.put(lcasek, lcasev);
+			mlowered.put(lcasek + "_dotraw", lcasev);
+		}
+		mlowered.putAll(loadRawFields(con, batch));
+		return mlowered;
+	}
 
-			if(UtilMethods.isSet(ident.getSysExpireDate()))
-				contentletMap.put(ESMappingConstants.EXPIRE_DATE, datetimeFormat.format(ident.getSysExpireDate()));
-			else
-				contentletMap.put(ESMappingConstants.EXPIRE_DATE, "29990101000000");
+	private XContentBuilder toXContent(Contentlet con, ContentletMappingBatch batch) throws Exception {
 
-			contentletMap.put(ESMappingConstants.VERSION_TS, datetimeFormat.format(cvi.getVersionTs()));
+		final Map<String,String> contentletMap = loadContentletMap(con, batch);
+		final Map<String,String> rawFields = loadRawFields(con, batch);
+		final Set<String> written = new HashSet<String>(contentletMap.size() * 2);
 
-			String urlMap = null;
-			try{
-				urlMap = APILocator.getContentletAPI().getUrlMapForContentlet(con, APILocator.getUserAPI().getSystemUser(), true);
-				if(urlMap != null){
-					contentletMap.put(ESMappingConstants.URL_MAP,urlMap );
-				}
+		final XContentBuilder builder = XContentFactory.jsonBuilder().startObject();
+		for(Entry<String,String> entry : contentletMap.entrySet()){
+			final String lcasek=entry.getKey().toLowerCase();
+			if(!UtilMethods.isSet(entry.getValue()) || !written.add(lcasek)) {
+				continue;
+			}
+			final String lcasev = entry.getValue().toLowerCase();
+			if(!rawFields.containsKey(lcasek)) {
+				builder.field(lcasek, lcasev);
 			}
-			catch(Exception e){
-				Logger.warn(this.getClass(), "Cannot get URLMap for contentlet.id : " + ((ident != null) ? ident.getId() : con) + " , reason: "+e.getMessage());
-				throw new DotRuntimeException(urlMap, e);
+			if(!rawFields.containsKey(lcasek + "_dotraw")) {
+				builder.field(lcasek + "_dotraw", lcasev);
 			}
+		}
+		for(Entry<String,String> entry : rawFields.entrySet()){
+			if(entry.getValue() != null) {
+				builder.field(entry.getKey(), entry.getValue());
+			}
+		}
+		return builder.endObject();
+	}
 
-			for(Entry<String,String> entry : contentletMap.entrySet()){
-				final String lcasek=entry.getKey().toLowerCase();
-				final String lcasev = UtilMethods.isSet(entry.getValue()) ? entry.getValue().toLowerCase() : null;
-				mlowered.put(lcasek, lcasev);
-				mlowered.put(lcasek + "_dotraw", lcasev);
+	/**
+	 * Builds the map with all the fields and properties to index, the keys are not lowered yet
+	 */
+	private Map<String,String> loadContentletMap(Contentlet con, ContentletMappingBatch batch) throws Exception {
+
+		Map<String,String> contentletMap = new HashMap<String,String>();
+		loadCategories(con, contentletMap, batch);
+		loadFields(con, contentletMap);
+		loadPermissions(con, contentletMap, batch);
+		loadRelationshipFields(con, contentletMap, batch);
+
+		Identifier ident = batch.getIdentifier(con);
+		Date versionTs = batch.getVersionTs(con);
+		Structure st=batch.getStructure(con.getStructureInode());
+
+		Folder conFolder=batch.getFolder(ident);
+
+		contentletMap.put(ESMappingConstants.TITLE, con.getTitle());
+		contentletMap.put(ESMappingConstants.STRUCTURE_NAME, st.getVelocityVarName()); // marked for DEPRECATION
+		contentletMap.put(ESMappingConstants.CONTENT_TYPE, st.getVelocityVarName());
+		contentletMap.put(ESMappingConstants.STRUCTURE_TYPE, st.getStructureType() + ""); // marked for DEPRECATION
+		contentletMap.put(ESMappingConstants.BASE_TYPE, st.getStructureType() + "");
+		contentletMap.put(ESMappingConstants.TYPE, ESMappingConstants.CONTENT);
+		contentletMap.put(ESMappingConstants.INODE, con.getInode());
+		contentletMap.put(ESMappingConstants.MOD_DATE, datetimeFormat.format(con.getModDate()));
+		contentletMap.put(ESMappingConstants.OWNER, con.getOwner()==null ? "0" : con.getOwner());
+		contentletMap.put(ESMappingConstants.MOD_USER, con.getModUser());
+		contentletMap.put(ESMappingConstants.LIVE, Boolean.toString(con.isLive()));
+		contentletMap.put(ESMappingConstants.WORKING, Boolean.toString(con.isWorking()));
+		contentletMap.put(ESMappingConstants.LOCKED, Boolean.toString(con.isLocked()));
+		contentletMap.put(ESMappingConstants.DELETED, Boolean.toString(con.isArchived()));
+		contentletMap.put(ESMappingConstants.LANGUAGE_ID, Long.toString(con.getLanguageId()));
+		contentletMap.put(ESMappingConstants.IDENTIFIER, ident.getId());
+		contentletMap.put(ESMappingConstants.CONTENTLET_HOST, ident.getHostId());
+		contentletMap.put(ESMappingConstants.CONTENTLET_FOLER, conFolder!=null && InodeUtils.isSet(conFolder.getInode()) ? conFolder.getInode() : con.getFolder());
+		contentletMap.put(ESMappingConstants.PARENT_PATH, ident.getParentPath());
+		contentletMap.put(ESMappingConstants.PATH, ident.getPath());
+		// makes shorties searchable regardless of length
+		contentletMap.put(ESMappingConstants.SHORT_ID, ident.getId().replace("-", ""));
+		contentletMap.put(ESMappingConstants.SHORT_INODE, con.getInode().replace("-", ""));
+		try{
+			WorkflowTask task = batch.getWorkflowTask(con);
+			if(task!=null && task.getId()!=null){
+				contentletMap.put(ESMappingConstants.WORKFLOW_CREATED_BY, task.getCreatedBy());
+				contentletMap.put(ESMappingConstants.WORKFLOW_ASSIGN, task.getAssignedTo());
+				contentletMap.put(ESMappingConstants.WORKFLOW_STEP, task.getStatus());
+				contentletMap.put(ESMappingConstants.WORKFLOW_MOD_DATE, datetimeFormat.format(task.getModDate()));
 			}
 
-			if(con.getStructure().getStructureType()==Structure.STRUCTURE_TYPE_FILEASSET) {
-				// see if we have content metadata
-				File contentMeta=APILocator.getFileAssetAPI().getContentMetadataFile(con.getInode());
-				if(contentMeta.exists() && contentMeta.length()>0) {
+		}
+		catch(DotDataException e){
+			Logger.error(this.getClass(), "unable to add workflow info to index:" + e, e);
+		}
 
-					String contentData=APILocator.getFileAssetAPI().getContentMetadataAsString(contentMeta);
 
-					String lvar=con.getStructure().getVelocityVarName().toLowerCase();
 
-					mlowered.put(lvar+".metadata.content", contentData);
-				}
+		if(UtilMethods.isSet(ident.getSysPublishDate()))
+			contentletMap.put(ESMappingConstants.PUBLISH_DATE, datetimeFormat.format(ident.getSysPublishDate()));
+		else
+			contentletMap.put(ESMappingConstants.PUBLISH_DATE, datetimeFormat.format(versionTs));
+
+		if(UtilMethods.isSet(ident.getSysExpireDate()))
+			contentletMap.put(ESMappingConstants.EXPIRE_DATE, datetimeFormat.format(ident.getSysExpireDate()));
+		else
+			contentletMap.put(ESMappingConstants.EXPIRE_DATE, "29990101000000");
+
+		contentletMap.put(ESMappingConstants.VERSION_TS, datetimeFormat.format(versionTs));
+
+		String urlMap = null;
+		try{
+			urlMap = APILocator.getContentletAPI().getUrlMapForContentlet(con, APILocator.getUserAPI().getSystemUser(), true);
+			if(urlMap != null){
+				contentletMap.put(ESMappingConstants.URL_MAP,urlMap );
 			}
+		}
+		catch(Exception e){
+			Logger.warn(this.getClass(), "Cannot get URLMap for contentlet.id : " + ((ident != null) ? ident.getId() : con) + " , reason: "+e.getMessage());
+			throw new DotRuntimeException(urlMap, e);
+		}
+
+		return contentletMap;
+	}
+
+	/**
+	 * Returns the entries that are indexed as they are, without lowering the value or adding the
+	 * _dotraw version: the file metadata content, the url of the html pages and the
+	 * {@link ContentletSource}
+	 */
+	private Map<String,String> loadRawFields(Contentlet con, ContentletMappingBatch batch) throws Exception {
+
+		final Map<String,String> rawFields = new HashMap<String,String>(4);
+		final Structure st = batch.getStructure(con.getStructureInode());
+
+		if(st.getStructureType()==Structure.STRUCTURE_TYPE_FILEASSET) {
+			// see if we have content metadata
+			File contentMeta=APILocator.getFileAssetAPI().getContentMetadataFile(con.getInode());
+			if(contentMeta.exists() && contentMeta.length()>0) {
+
+				String contentData=APILocator.getFileAssetAPI().getContentMetadataAsString(contentMeta);
 
-			//The url is now stored under the identifier for html pages, so we need to index that also.
-			if(con.getStructure().getStructureType() == Structure.STRUCTURE_TYPE_HTMLPAGE){
-				mlowered.put(con.getStructure().getVelocityVarName().toLowerCase() + ".url", ident.getAssetName());
-				mlowered.put(con.getStructure().getVelocityVarName().toLowerCase() + ".url_dotraw", ident.getAssetName());
+				String lvar=st.getVelocityVarName().toLowerCase();
+
+				rawFields.put(lvar+".metadata.content", contentData);
 			}
+		}
 
-			return mlowered;
-		} catch (Exception e) {
-			//Logger.error(this.getClass(), e.getMessage(), e);
-			throw new DotMappingException(e.getMessage(), e);
+		//The url is now stored under the identifier for html pages, so we need to index that also.
+		if(st.getStructureType() == Structure.STRUCTURE_TYPE_HTMLPAGE){
+			final Identifier ident = batch.getIdentifier(con);
+			rawFields.put(st.getVelocityVarName().toLowerCase() + ".url", ident.getAssetName());
+			rawFields.put(st.getVelocityVarName().toLowerCase() + ".url_dotraw", ident.getAssetName());
 		}
+
+		// the properties to build the search results from
+		if(ContentletSource.isEnabled()) {
+			rawFields.put(ESMappingConstants.CONTENTLET_SOURCE,
+					ContentletSource.toSource(con, FieldsCache.getFieldsByStructureInode(con.getStructureInode())));
+		}
+
+		return rawFields;
 	}
 
 	public Object toMappedObj(Contentlet con) throws DotMappingException {
@@ -302,9 +421,14 @@ public class ESMappingAPIImpl implements ContentMappingAPI {
 	@SuppressWarnings("unchecked")
 	protected void loadCategories(final Contentlet con, final Map<String,String> m)
 			throws DotDataException, DotSecurityException {
+		loadCategories(con, m, new ContentletMappingBatch());
+	}
+
+	private void loadCategories(final Contentlet con, final Map<String,String> m, final ContentletMappingBatch batch)
+			throws DotDataException, DotSecurityException {
 	    // first we check if there is a category field in the structure. We don't hit db if not needed
 
-	    final ContentType type = APILocator.getContentTypeAPI(APILocator.systemUser()).find(con.getContentTypeId());
+	    final ContentType type = batch.getContentType(con.getContentTypeId());
 	    List<com.dotcms.contenttype.model.field.Field> catFields = type.fields().stream()
 				.filter(field -> field instanceof CategoryField).collect(CollectionsUtils.toImmutableList());
 
@@ -312,10 +436,9 @@ public class ESMappingAPIImpl implements ContentMappingAPI {
         	return;
 		}
 
-	    List<Category> myCats = APILocator.getCategoryAPI().getParents(con, APILocator.systemUser(), false);
 	    final StringWriter myCatsString=new StringWriter();
-	    for(final Category me : myCats){
-	        myCatsString.append(me.getCategoryVelocityVarName()).append(" ");
+	    for(final String me : batch.getCategories(con)){
+	        myCatsString.append(me).append(" ");
 	    }
 
         m.put(ESMappingConstants.CATEGORIES, myCatsString.toString());
@@ -340,6 +463,10 @@ public class ESMappingAPIImpl implements ContentMappingAPI {
 
 	@SuppressWarnings("unchecked")
 	protected void loadPermissions(Contentlet con, Map<String,String> m) throws DotDataException {
+		loadPermissions(con, m, new ContentletMappingBatch());
+	}
+
+	private void loadPermissions(Contentlet con, Map<String,String> m, ContentletMappingBatch batch) throws DotDataException {
 		PermissionAPI permissionAPI = APILocator.getPermissionAPI();
 		List<Permission> permissions = permissionAPI.getPermissions(con, false, false, false);
 		StringBuilder permissionsSt = new StringBuilder();
@@ -351,7 +478,7 @@ public class ESMappingAPIImpl implements ContentMappingAPI {
 			if (permissionsSt.toString().indexOf(str) < 0) {
 				permissionsSt.append(str);
 			}
-			if(APILocator.getRoleAPI().loadCMSOwnerRole().getId().equals(String.valueOf(permission.getRoleId()))){
+			if(batch.getCMSOwnerRoleId().equals(String.valueOf(permission.getRoleId()))){
 				if(permission.getPermission() == PERMISSION_READ){
 					ownerCanRead = true;
 				}else if(permission.getPermission() == PERMISSION_WRITE){
@@ -598,12 +725,12 @@ public class ESMappingAPIImpl implements ContentMappingAPI {
 	}
 
 	protected void loadRelationshipFields(Contentlet con, Map<String,String> m) throws DotStateException, DotDataException {
-		DotConnect db = new DotConnect();
-		db.setSQL("select * from tree where parent = ? or child = ? order by tree_order asc");
-		db.addParam(con.getIdentifier());
-		db.addParam(con.getIdentifier());
+		loadRelationshipFields(con, m, new ContentletMappingBatch());
+	}
+
+	private void loadRelationshipFields(Contentlet con, Map<String,String> m, ContentletMappingBatch batch) throws DotStateException, DotDataException {
 
-		for(Map<String, Object> relatedEntry : db.loadObjectResults()) {
+		for(Map<String, Object> relatedEntry : batch.getTreeRows(con.getIdentifier())) {
 
 			String childId = relatedEntry.get(ESMappingConstants.CHILD).toString();
 			String parentId = relatedEntry.get(ESMappingConstants.PARENT).toString();
@@ -614,7 +741,7 @@ public class ESMappingAPIImpl implements ContentMappingAPI {
 				continue;
 			}
 
-			Relationship rel = FactoryLocator.getRelationshipFactory().byTypeValue(relType);
+			Relationship rel = batch.getRelationship(relType);
 
 			if(rel!=null && InodeUtils.isSet(rel.getInode())) {
 				boolean isSameStructRelationship = rel.getParentStructureInode().equals(rel.getChildStructureInode());
@@ -0,0 +1,125 @@
+package com.dotcms.content.elasticsearch.business;
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchType;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.SearchHits;
+
+import com.dotmarketing.exception.DotDataException;
+import com.dotmarketing.exception.DotRuntimeException;
+import com.dotmarketing.exception.DotSecurityException;
+import com.dotmarketing.util.Config;
+import com.dotmarketing.util.Logger;
+
+/**
+ * Iterates over all the documents that match a query using the scroll API of Elastic Search,
+ * instead of paging with from/size, which makes every shard collect and sort all the previous
+ * hits of each page. Only one batch of results is kept in memory at a time, no matter how many
+ * documents match the query.
+ * <p>
+ * The scan is not sorted, and the batch size is per shard, so a batch can hold up to the batch
+ * size times the number of shards. The scroll is released when the last result is read; an
+ * iterator that is not read to the end must be closed. An open scroll expires after
+ * {@code ES_SCROLL_KEEP_ALIVE_SECONDS} without being read.
+ * </p>
+ *
+ * @param <T> The type of the results built from the hits.
+ */
+public abstract class IndexScrollIterator<T> implements Iterator<T>, Closeable {
+
+	private final Client client;
+	private final TimeValue keepAlive;
+	private final long totalHits;
+
+	private String scrollId;
+	private boolean exhausted;
+	private Iterator<T> batch = Collections.emptyIterator();
+
+	IndexScrollIterator(Client client, String index, String query, int batchSize, String... fields) {
+		this.client = client;
+		this.keepAlive = TimeValue.timeValueSeconds(Config.getIntProperty("ES_SCROLL_KEEP_ALIVE_SECONDS", 120));
+
+		final SearchResponse response = client.prepareSearch(index).setSearchType(SearchType.SCAN)
+				.setQuery(QueryBuilders.queryString(query)).addFields(fields)
+				.setSize(batchSize).setScroll(keepAlive).execute().actionGet();
+		this.scrollId = response.getScrollId();
+		this.totalHits = response.getHits().getTotalHits();
+		this.exhausted = this.totalHits == 0;
+		if (this.exhausted) {
+			close();
+		}
+	}
+
+	/**
+	 * Builds the results of a batch of hits.
+	 *
+	 * @param hits - The hits of the batch, with the fields the search asked for.
+	 * @return The results, in the order of the hits.
+	 */
+	abstract List<T> load(SearchHits hits) throws DotDataException, DotSecurityException;
+
+	/**
+	 * @return The number of documents that matched the query when the scroll started.
+	 */
+	public long getTotalHits() {
+		return totalHits;
+	}
+
+	@Override
+	public boolean hasNext() {
+		while (!batch.hasNext() && !exhausted) {
+			nextBatch();
+		}
+		return batch.hasNext();
+	}
+
+	@Override
+	public T next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		return batch.next();
+	}
+
+	private void nextBatch() {
+		final SearchResponse response = client.prepareSearchScroll(scrollId).setScroll(keepAlive).execute().actionGet();
+		scrollId = response.getScrollId();
+		final SearchHits hits = response.getHits();
+		if (hits.getHits().length == 0) {
+			exhausted = true;
+			close();
+			return;
+		}
+
+		try {
+			batch = load(hits).iterator();
+		} catch (DotDataException | DotSecurityException e) {
+			close();
+			throw new DotRuntimeException("Unable to load the results of the scroll: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Releases the scroll, the results of the current batch can still be read.
+	 */
+	@Override
+	public void close() {
+		exhausted = true;
+		if (scrollId != null) {
+			try {
+				client.prepareClearScroll().addScrollId(scrollId).execute().actionGet();
+			} catch (Exception e) {
+				Logger.debug(this, "Unable to clear the scroll, it will expire: " + e.getMessage(), e);
+			}
+			scrollId = null;
+		}
+	}
+}
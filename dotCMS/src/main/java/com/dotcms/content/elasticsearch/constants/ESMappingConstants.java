@@ -69,6 +69,7 @@ public final class ESMappingConstants {
     public static final String EXPIRE_DATE = "expdate";
     public static final String VERSION_TS = "versionTs";
     public static final String URL_MAP = "urlMap";
+    public static final String CONTENTLET_SOURCE = "contentletsource";
     public static final String VANITY_URL = "vanityUrl";
     public static final String CATEGORIES = "categories";
     public static final String TAGS = "tags";
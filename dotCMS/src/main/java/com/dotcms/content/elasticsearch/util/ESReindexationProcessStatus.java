@@ -4,6 +4,8 @@ import java.io.Serializable;
 import java.sql.Connection;
 import java.util.Hashtable;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.dotcms.business.CloseDBIfOpened;
 import com.dotcms.content.elasticsearch.business.ESContentletIndexAPI;
@@ -17,6 +19,58 @@ import com.dotmarketing.exception.DotDataException;
 public class ESReindexationProcessStatus implements Serializable {
     private static final ESContentletIndexAPI indexAPI=new ESContentletIndexAPI();
 
+    // throughput counters updated by the ReindexThread pipeline, they are local to this node
+    private static final AtomicLong indexedRecords = new AtomicLong();
+    private static final AtomicLong failedRecords = new AtomicLong();
+    private static final AtomicInteger inFlightBulkRequests = new AtomicInteger();
+    private static volatile long throughputStartTime = System.currentTimeMillis();
+
+    /**
+     * Resets the throughput counters, this is called when a new batch of records starts to be processed
+     * after the reindex thread was idle.
+     */
+    public static void resetThroughput () {
+        indexedRecords.set(0);
+        failedRecords.set(0);
+        throughputStartTime = System.currentTimeMillis();
+    }
+
+    public static void addIndexedRecords (final int count) {
+        indexedRecords.addAndGet(count);
+    }
+
+    public static void addFailedRecords (final int count) {
+        failedRecords.addAndGet(count);
+    }
+
+    public static void bulkRequestStarted () {
+        inFlightBulkRequests.incrementAndGet();
+    }
+
+    public static void bulkRequestFinished () {
+        inFlightBulkRequests.decrementAndGet();
+    }
+
+    public static long getIndexedRecords () {
+        return indexedRecords.get();
+    }
+
+    public static long getFailedRecords () {
+        return failedRecords.get();
+    }
+
+    public static int getInFlightBulkRequests () {
+        return inFlightBulkRequests.get();
+    }
+
+    /**
+     * Returns the number of records indexed per second by this node since the counters were reset
+     */
+    public static double getRecordsPerSecond () {
+        final long elapsed = System.currentTimeMillis() - throughputStartTime;
+        return (elapsed <= 0) ? 0 : (indexedRecords.get() * 1000D) / elapsed;
+    }
+
 
     public synchronized static boolean inFullReindexation () throws DotDataException {
         return inFullReindexation(DbConnectionFactory.getConnection());
@@ -63,6 +117,10 @@ public class ESReindexationProcessStatus implements Serializable {
             theMap.put("lastIndexationProgress", getLastIndexationProgress());
             theMap.put("currentIndexPath", currentIndexPath());
             theMap.put("newIndexPath", getNewIndexPath());
+            theMap.put("indexedRecords", getIndexedRecords());
+            theMap.put("failedRecords", getFailedRecords());
+            theMap.put("recordsPerSecond", getRecordsPerSecond());
+            theMap.put("inFlightBulkRequests", getInFlightBulkRequests());
         }
         return theMap;
     }
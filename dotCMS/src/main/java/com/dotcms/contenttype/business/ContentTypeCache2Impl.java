@@ -90,6 +90,8 @@ public class ContentTypeCache2Impl implements ContentTypeCache2 {
         cache.remove( type.id(),primaryGroup);
         cache.remove( type.variable(),primaryGroup);
         clearURLMasterPattern();
+        // the translated queries use the fields of the type
+        CacheLocator.getContentletCache().clearTranslatedQueries();
 	}
 
     @Override
@@ -4,9 +4,6 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.charset.Charset;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.Map;
@@ -152,32 +149,22 @@ public abstract class AbstractIntegrityChecker implements IntegrityChecker {
                     .append(structureTypeId).append(") ")
                     .append("INNER JOIN identifier i ON (i.id = c.identifier)").toString();
 
-            Connection conn = DbConnectionFactory.getConnection();
-            try (PreparedStatement statement = conn.prepareStatement(query)) {
-                try (ResultSet rs = statement.executeQuery()) {
-                    int count = 0;
-
-                    while (rs.next()) {
-                        writer.write(rs.getString("working_inode"));
-                        writer.write(rs.getString("live_inode"));
-                        writer.write(rs.getString("identifier"));
-                        writer.write(rs.getString("parent_path"));
-                        writer.write(rs.getString("asset_name"));
-                        writer.write(rs.getString("host_inode"));
-                        writer.write(rs.getString("language_id"));
-                        writer.endRecord();
-
-                        count++;
-
-                        if (count == 1000) {
-                            writer.flush();
-                            count = 0;
-                        }
-                    }
+            // the rows are streamed from the database straight to the file
+            final CsvWriter csvWriter = writer;
+            new DotConnect().setSQL(query).forEachRow(row -> {
+                csvWriter.write(row.getString("working_inode"));
+                csvWriter.write(row.getString("live_inode"));
+                csvWriter.write(row.getString("identifier"));
+                csvWriter.write(row.getString("parent_path"));
+                csvWriter.write(row.getString("asset_name"));
+                csvWriter.write(row.getString("host_inode"));
+                csvWriter.write(row.getString("language_id"));
+                csvWriter.endRecord();
+
+                if (row.getRowNumber() % 1000 == 999) {
+                    csvWriter.flush();
                 }
-            } catch (SQLException e) {
-                throw new DotDataException(e.getMessage(), e);
-            }
+            });
         } finally {
             // Close writer
             if (writer != null) {
@@ -24,9 +24,6 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.nio.charset.Charset;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Date;
 import java.util.List;
@@ -59,30 +56,21 @@ public class FolderIntegrityChecker extends AbstractIntegrityChecker {
             csvFile = new File(outputFile);
             writer = new CsvWriter(new FileWriter(csvFile, true), '|');
 
-            Connection conn = DbConnectionFactory.getConnection();
-            try (PreparedStatement statement = conn
-                    .prepareStatement("select f.inode, f.identifier, i.parent_path, i.asset_name, i.host_inode from folder f join identifier i on f.identifier = i.id ")) {
-                try (ResultSet rs = statement.executeQuery()) {
-                    int count = 0;
-
-                    while (rs.next()) {
-                        writer.write(rs.getString("inode"));
-                        writer.write(rs.getString("identifier"));
-                        writer.write(rs.getString("parent_path"));
-                        writer.write(rs.getString("asset_name"));
-                        writer.write(rs.getString("host_inode"));
-                        writer.endRecord();
-                        count++;
-
-                        if (count == 1000) {
-                            writer.flush();
-                            count = 0;
+            // the rows are streamed from the database straight to the file
+            final CsvWriter csvWriter = writer;
+            new DotConnect().setSQL("select f.inode, f.identifier, i.parent_path, i.asset_name, i.host_inode from folder f join identifier i on f.identifier = i.id ")
+                    .forEachRow(row -> {
+                        csvWriter.write(row.getString("inode"));
+                        csvWriter.write(row.getString("identifier"));
+                        csvWriter.write(row.getString("parent_path"));
+                        csvWriter.write(row.getString("asset_name"));
+                        csvWriter.write(row.getString("host_inode"));
+                        csvWriter.endRecord();
+
+                        if (row.getRowNumber() % 1000 == 999) {
+                            csvWriter.flush();
                         }
-                    }
-                }
-            } catch (SQLException e) {
-                throw new DotDataException(e.getMessage(), e);
-            }
+                    });
         } finally {
             // Close writer
             if (writer != null) {
@@ -12,16 +12,17 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
+import com.dotcms.content.elasticsearch.business.IndexScrollIterator;
 import com.dotcms.repackage.com.csvreader.CsvReader;
 import com.dotcms.repackage.com.csvreader.CsvWriter;
 import com.dotmarketing.beans.Identifier;
 import com.dotmarketing.business.APILocator;
 import com.dotmarketing.business.CacheLocator;
 import com.dotmarketing.common.db.DotConnect;
+import com.dotmarketing.common.model.ContentletSearch;
 import com.dotmarketing.db.DbConnectionFactory;
 import com.dotmarketing.exception.DotDataException;
 import com.dotmarketing.exception.DotSecurityException;
-import com.dotmarketing.portlets.contentlet.model.Contentlet;
 import com.dotmarketing.portlets.folders.model.Folder;
 import com.dotmarketing.portlets.structure.model.Structure;
 import com.dotmarketing.util.ConfigUtils;
@@ -193,10 +194,11 @@ public class StructureIntegrityChecker extends AbstractIntegrityChecker {
 
                 Structure st = CacheLocator.getContentTypeCache().getStructureByInode(oldStructureInode);
 
-                List<Contentlet> contents = APILocator.getContentletAPI().findByStructure(st,
-                		systemUser, false, 0, 0);
-                for (Contentlet contentlet : contents) {
-                    CacheLocator.getContentletCache().remove(contentlet.getInode());
+                try (IndexScrollIterator<ContentletSearch> contents = APILocator.getContentletAPI().scrollIndex(
+                        "+structureInode:" + st.getInode(), 0, systemUser, false)) {
+                    while (contents.hasNext()) {
+                        CacheLocator.getContentletCache().remove(contents.next().getInode());
+                    }
                 }
 
                 CacheLocator.getContentTypeCache().remove(st);
@@ -32,6 +32,9 @@ import com.dotcms.job.system.event.delegate.bean.JobDelegateDataBean;
  * ): Set the appropriate cron expression for the execution of this Job. By
  * default, this job checks for new System Events every 5 seconds.</li>
  * </ul>
+ * This Job is only scheduled when {@code SYSTEM_EVENTS_BUS_ENABLED} is
+ * {@code false}, otherwise the {@link com.dotcms.api.system.event.SystemEventsBus}
+ * delivers the events as soon as they are published.
  *
  * @author Jose Castro
  * @version 3.7
@@ -3,6 +3,7 @@ package com.dotcms.publisher.business;
 import java.io.Serializable;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import com.dotmarketing.util.Logger;
@@ -23,6 +24,10 @@ public class PublishAuditHistory implements Serializable {
 	private Date publishEnd;
 	private int numTries = 0;
 	private Map<String, String> assets;
+	//Milliseconds spent by each handler applying the bundle on the receiver
+	private Map<String, Long> handlerTimes;
+	private int indexedContents;
+	private long indexTime;
 	
 	public PublishAuditHistory() {
 		assets = new HashMap<String, String>();
@@ -85,6 +90,30 @@ public class PublishAuditHistory implements Serializable {
 		this.assets = assets;
 	}
 	
+	public Map<String, Long> getHandlerTimes() {
+		if(handlerTimes == null) {
+			handlerTimes = new LinkedHashMap<String, Long>();
+		}
+		return handlerTimes;
+	}
+	public void setHandlerTimes(Map<String, Long> handlerTimes) {
+		this.handlerTimes = handlerTimes;
+	}
+
+	public int getIndexedContents() {
+		return indexedContents;
+	}
+	public void setIndexedContents(int indexedContents) {
+		this.indexedContents = indexedContents;
+	}
+
+	public long getIndexTime() {
+		return indexTime;
+	}
+	public void setIndexTime(long indexTime) {
+		this.indexTime = indexTime;
+	}
+	
 	public int getNumTries() {
 		return numTries;
 	}
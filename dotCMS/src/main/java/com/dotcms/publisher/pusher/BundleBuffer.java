@@ -0,0 +1,148 @@
+package com.dotcms.publisher.pusher;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+/**
+ * Holds a compressed bundle so it can be sent to several endpoints without compressing it again.
+ * The bundle is kept in memory until it grows over the spill threshold, from that point it is
+ * written to the bundle file. On {@link #close()} the in-memory bundles are also written to the
+ * bundle file since the retry and download features read it from disk, but the sends keep
+ * replaying the in-memory copy.
+ */
+public class BundleBuffer extends OutputStream {
+
+    private final File file;
+    private final int spillThreshold;
+
+    private byte[] buffer;
+    private int count;
+    private OutputStream fileStream;
+    private long length;
+    private boolean closed;
+
+    /**
+     * Creates an empty buffer that spills to the given file
+     *
+     * @param file           the bundle file (.tar.gz)
+     * @param spillThreshold bytes kept in memory before the bundle is written to the file
+     */
+    public BundleBuffer ( final File file, final int spillThreshold ) {
+        this.file = file;
+        this.spillThreshold = Math.max(0, spillThreshold);
+        this.buffer = new byte[Math.min(this.spillThreshold, 64 * 1024)];
+    }
+
+    private BundleBuffer ( final File file ) {
+        this.file = file;
+        this.spillThreshold = 0;
+        this.buffer = null;
+        this.length = file.length();
+        this.closed = true;
+    }
+
+    /**
+     * Returns a buffer that replays an already compressed bundle file
+     *
+     * @param file
+     * @return
+     */
+    public static BundleBuffer of ( final File file ) {
+        return new BundleBuffer(file);
+    }
+
+    @Override
+    public void write ( final int b ) throws IOException {
+        this.write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write ( final byte[] bytes, final int offset, final int len ) throws IOException {
+
+        if ( this.closed ) {
+            throw new IOException("The bundle buffer is closed");
+        }
+
+        if ( this.fileStream == null && this.count + len > this.spillThreshold ) {
+            this.spill();
+        }
+
+        if ( this.fileStream != null ) {
+            this.fileStream.write(bytes, offset, len);
+        } else {
+            if ( this.count + len > this.buffer.length ) {
+                this.buffer = Arrays.copyOf(this.buffer,
+                        Math.min(this.spillThreshold, Math.max(this.buffer.length * 2, this.count + len)));
+            }
+            System.arraycopy(bytes, offset, this.buffer, this.count, len);
+            this.count += len;
+        }
+        this.length += len;
+    }
+
+    @Override
+    public void flush () throws IOException {
+        if ( this.fileStream != null ) {
+            this.fileStream.flush();
+        }
+    }
+
+    @Override
+    public void close () throws IOException {
+
+        if ( this.closed ) {
+            return;
+        }
+        this.closed = true;
+        if ( this.fileStream != null ) {
+            this.fileStream.close();
+        } else {
+            try ( OutputStream out = Files.newOutputStream(this.file.toPath()) ) {
+                out.write(this.buffer, 0, this.count);
+            }
+        }
+    }
+
+    /**
+     * Opens a new stream over the whole bundle, it can be called any number of times and from
+     * several threads once the buffer is closed
+     *
+     * @return
+     * @throws IOException
+     */
+    public InputStream openStream () throws IOException {
+
+        if ( !this.closed ) {
+            throw new IOException("The bundle buffer is still being written");
+        }
+        return this.isInMemory() ? new ByteArrayInputStream(this.buffer, 0, this.count)
+                : new BufferedInputStream(Files.newInputStream(this.file.toPath()), 64 * 1024);
+    }
+
+    public boolean isInMemory () {
+        return this.buffer != null && this.fileStream == null;
+    }
+
+    public long length () {
+        return this.length;
+    }
+
+    public File getFile () {
+        return this.file;
+    }
+
+    private void spill () throws IOException {
+
+        this.fileStream = Files.newOutputStream(this.file.toPath());
+        this.fileStream.write(this.buffer, 0, this.count);
+        this.buffer = null;
+        this.count = 0;
+    }
+
+}
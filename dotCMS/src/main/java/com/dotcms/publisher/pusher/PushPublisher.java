@@ -1,5 +1,7 @@
 package com.dotcms.publisher.pusher;
 
+import com.dotcms.concurrent.DotConcurrentException;
+import com.dotcms.concurrent.DotConcurrentFactory;
 import com.dotcms.repackage.org.apache.log4j.MDC;
 import com.dotcms.system.event.local.business.LocalSystemEventsAPI;
 import com.dotcms.system.event.local.type.pushpublish.AllEndpointsFailureEvent;
@@ -60,18 +62,24 @@ import com.dotmarketing.util.Config;
 import com.dotmarketing.util.Logger;
 import com.dotmarketing.util.PushPublishLogger;
 import com.dotmarketing.util.UtilMethods;
-import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 /**
  * This is the main content publishing class in the Push Publishing process.
@@ -104,6 +112,9 @@ public class PushPublisher extends Publisher {
 	private static final String BUNDLE_ID      = "BundleId";
 	private static final String ENDPOINT_NAME  = "EndpointName";
 
+	public static final String PUSH_PUBLISHING_SUBMITTER_NAME = "pushpublish.";
+	private static final int DEFAULT_SPILL_THRESHOLD = 64 * 1024 * 1024;
+
     @Override
     public PublisherConfig init ( PublisherConfig config ) throws DotPublishingException {
         if ( LicenseUtil.getLevel() < LicenseLevel.PROFESSIONAL.level ) {
@@ -144,20 +155,20 @@ public class PushPublisher extends Publisher {
 
             // If the tar.gz doesn't exist or if it the first try to push bundle
             // we need to compress the bundle folder into the tar.gz file.
+            final BundleBuffer bundleBuffer;
             if (!bundle.exists() || !pubAuditAPI.isPublishRetry(config.getId())) {
-                PushUtils.compressFiles(list, bundle, bundleRoot.getAbsolutePath());
+                bundleBuffer = PushUtils.compressFiles(list, bundle, bundleRoot.getAbsolutePath(),
+                        Config.getIntProperty("PUSH_PUBLISHING_BUNDLE_SPILL_THRESHOLD", DEFAULT_SPILL_THRESHOLD));
             } else {
                 Logger.info(this, "Retrying bundle: " + config.getId()
                         + ", we don't need to compress bundle again");
+                bundleBuffer = BundleBuffer.of(bundle);
             }
 
             List<Environment> environments = APILocator.getEnvironmentAPI().findEnvironmentsByBundleId(this.config.getId());
 
 			Client client = RestClientBuilder.getClient();
-			client.property(ClientProperties.REQUEST_ENTITY_PROCESSING, "CHUNKED");
-			client.property(ClientProperties.CHUNKED_ENCODING_SIZE, 1024);
-
-			String contentDisposition = "attachment; filename=\"" + bundle.getName() + "\"";
+			Bundle b = APILocator.getBundleAPI().getBundleById(this.config.getId());
 
 			//Updating audit table
 			currentStatusHistory = pubAuditAPI.getPublishAuditStatus(this.config.getId()).getStatusPojo();
@@ -172,6 +183,8 @@ public class PushPublisher extends Publisher {
 			// Counters for determining the publishing status
 	        int errorCounter = 0;
 	        int totalEndpoints = 0;
+	        // The bundle is sent to all the endpoints at the same time, grouped by environment
+	        Map<String, Map<PublishingEndPoint, Future<EndpointDetail>>> sends = new LinkedHashMap<>();
 			for (Environment environment : environments) {
 				List<PublishingEndPoint> allEndpoints = this.publishingEndPointAPI.findSendingEndPointsByEnvironment(environment.getId());
 				List<PublishingEndPoint> endpoints = new ArrayList<PublishingEndPoint>();
@@ -199,82 +212,40 @@ public class PushPublisher extends Publisher {
 					}
 				}
 
-				boolean failedEnvironment = false;
 				if(!environment.getPushToAll()) {
 					Collections.shuffle(endpoints);
 					if(!endpoints.isEmpty())
 						endpoints = endpoints.subList(0, 1);
 				}
 
+				Map<PublishingEndPoint, Future<EndpointDetail>> environmentSends = new LinkedHashMap<>();
 				for (PublishingEndPoint endpoint : endpoints) {
-					EndpointDetail detail = new EndpointDetail();
-
-					InputStream bundleStream = new BufferedInputStream(new FileInputStream(bundle));
-
-
-
-	        		try {
-	        			Bundle b=APILocator.getBundleAPI().getBundleById(this.config.getId());
-
-						//For logging purpose
-						MDC.put(ENDPOINT_NAME, ENDPOINT_NAME + "=" + endpoint.getServerName());
-						MDC.put(BUNDLE_ID, BUNDLE_ID + "=" + b.getName());
-						PushPublishLogger.log(this.getClass(), "Status Update: Sending Bundle");
-	        			WebTarget webTarget = client.target(endpoint.toURL()+"/api/bundlePublisher/publish")
-	        					.queryParam("AUTH_TOKEN", retriveKeyString(PublicEncryptionFactory.decryptString(endpoint.getAuthKey().toString())))
-	        					.queryParam("GROUP_ID", UtilMethods.isSet(endpoint.getGroupId()) ? endpoint.getGroupId() : endpoint.getId())
-	        					.queryParam("BUNDLE_NAME", b.getName())
-	        					.queryParam("ENDPOINT_ID", endpoint.getId())
-	        					.queryParam("FILE_NAME", bundle.getName())
-	        			;
-
-	        			Response response = webTarget.request(MediaType.APPLICATION_OCTET_STREAM_TYPE)
-	        					.header("Content-Disposition", contentDisposition)
-	        					.post(Entity.entity(bundleStream, MediaType.APPLICATION_OCTET_STREAM_TYPE));
-
-	        			if(response.getStatus() == HttpStatus.SC_OK)
-	        			{
-							PushPublishLogger.log(this.getClass(), "Status Update: Bundle sent");
-	        				detail.setStatus(PublishAuditStatus.Status.BUNDLE_SENT_SUCCESSFULLY.getCode());
-	        				detail.setInfo("Everything ok");
-	        			} else {
-
-							PushPublishLogger.log(this.getClass(), "Status Update: Failed to send bundle.");
-	        				if(currentStatusHistory.getNumTries()==PublisherQueueJob.MAX_NUM_TRIES) {
-		        				APILocator.getPushedAssetsAPI().deletePushedAssets(this.config.getId(), environment.getId());
-		        			}
-	        				detail.setStatus(PublishAuditStatus.Status.FAILED_TO_SENT.getCode());
-							detail.setInfo(
-								"Returned " + response.getStatus() + " status code " +
-									"for the endpoint " + endpoint.getServerName() + " with address " + endpoint
-									.getAddress() + getFormattedPort(endpoint.getPort()));
-							failedEnvironment |= true;
-	        			}
-	        		} catch(Exception e) {
-	        			// if the bundle can't be sent after the total num of tries, delete the pushed assets for this bundle
-	        			if(currentStatusHistory.getNumTries()==PublisherQueueJob.MAX_NUM_TRIES) {
-	        				APILocator.getPushedAssetsAPI().deletePushedAssets(this.config.getId(), environment.getId());
-	        			}
-	        			detail.setStatus(PublishAuditStatus.Status.FAILED_TO_SENT.getCode());
-						String
-							error =
-							"An error occurred for the endpoint " + endpoint.getServerName() + " with address "
-								+ endpoint.getAddress() + getFormattedPort(
-								endpoint.getPort()) + ". Error: " + e.getMessage();
-						detail.setInfo(error);
-	        			failedEnvironment |= true;
-	        			errorCounter++;
-	        			Logger.error(this.getClass(), error, e);
-
-						PushPublishLogger.log(this.getClass(), "Status Update: Failed to send bundle. Exception: " + e.getMessage());
-	        		} finally {
-	        			CloseUtils.closeQuietly(bundleStream);
-						MDC.remove(ENDPOINT_NAME);
-						MDC.remove(BUNDLE_ID);
-	        		}
-	        		if (isHistoryEmpty || failedEnvironment) {
-	        			currentStatusHistory.addOrUpdateEndpoint(environment.getId(), endpoint.getId(), detail);
-	        		}
+					environmentSends.put(endpoint, sendBundleAsync(client, endpoint, b, bundleBuffer, bundle.getName()));
+				}
+				sends.put(environment.getId(), environmentSends);
+			}
+
+			for (Map.Entry<String, Map<PublishingEndPoint, Future<EndpointDetail>>> environmentSends : sends.entrySet()) {
+				String environmentId = environmentSends.getKey();
+				Map<String, EndpointDetail> details = new LinkedHashMap<>();
+				boolean failedEnvironment = false;
+				for (Map.Entry<PublishingEndPoint, Future<EndpointDetail>> send : environmentSends.getValue().entrySet()) {
+					EndpointDetail detail = getEndpointDetail(send.getKey(), send.getValue());
+					if (PublishAuditStatus.Status.FAILED_TO_SENT.getCode() == detail.getStatus()) {
+						failedEnvironment = true;
+						errorCounter++;
+					}
+					details.put(send.getKey().getId(), detail);
+				}
+
+				// if the bundle can't be sent after the total num of tries, delete the pushed assets for this bundle
+				if (failedEnvironment && currentStatusHistory.getNumTries() == PublisherQueueJob.MAX_NUM_TRIES) {
+					APILocator.getPushedAssetsAPI().deletePushedAssets(this.config.getId(), environmentId);
+				}
+				if (isHistoryEmpty || failedEnvironment) {
+					for (Map.Entry<String, EndpointDetail> detail : details.entrySet()) {
+						currentStatusHistory.addOrUpdateEndpoint(environmentId, detail.getKey(), detail.getValue());
+					}
 				}
 			}
 
@@ -315,6 +286,160 @@ public class PushPublisher extends Publisher {
 		}
 	}
 
+	/**
+	 * Sends the bundle to the endpoint on the push publishing pool, when the pool queue is full
+	 * the bundle is sent from the current thread.
+	 */
+	private Future<EndpointDetail> sendBundleAsync(final Client client, final PublishingEndPoint endpoint, final Bundle b,
+			final BundleBuffer bundle, final String fileName) {
+
+		final Callable<EndpointDetail> send = () -> sendBundle(client, endpoint, b, bundle, fileName);
+		try {
+			return DotConcurrentFactory.getInstance().getSubmitter(PUSH_PUBLISHING_SUBMITTER_NAME).submit(send);
+		} catch (DotConcurrentException e) {
+			Logger.debug(this, "Push publishing pool is full, sending to " + endpoint.getServerName() + " from this thread");
+			FutureTask<EndpointDetail> task = new FutureTask<>(send);
+			task.run();
+			return task;
+		}
+	}
+
+	/**
+	 * Waits for the result of a send
+	 */
+	private EndpointDetail getEndpointDetail(final PublishingEndPoint endpoint, final Future<EndpointDetail> send) {
+
+		try {
+			return send.get();
+		} catch (Exception e) {
+			if (e instanceof InterruptedException) {
+				Thread.currentThread().interrupt();
+			}
+			String error = "An error occurred for the endpoint " + endpoint.getServerName() + " with address "
+					+ endpoint.getAddress() + getFormattedPort(endpoint.getPort()) + ". Error: " + e.getMessage();
+			Logger.error(this.getClass(), error, e);
+			EndpointDetail detail = new EndpointDetail();
+			detail.setStatus(PublishAuditStatus.Status.FAILED_TO_SENT.getCode());
+			detail.setInfo(error);
+			return detail;
+		}
+	}
+
+	/**
+	 * Posts the bundle to the endpoint. Sends that could not connect to the endpoint are retried up
+	 * to PUSH_PUBLISHING_ENDPOINT_MAX_ATTEMPTS times; once the endpoint may have received the
+	 * bundle (a read timeout, an error response) the send is not retried, so the bundle is never
+	 * published twice. Every request is bounded by the PUSH_PUBLISHING_CONNECT_TIMEOUT and
+	 * PUSH_PUBLISHING_READ_TIMEOUT settings.
+	 */
+	private EndpointDetail sendBundle(final Client client, final PublishingEndPoint endpoint, final Bundle b,
+			final BundleBuffer bundle, final String fileName) {
+
+		final int maxAttempts = Math.max(1, Config.getIntProperty("PUSH_PUBLISHING_ENDPOINT_MAX_ATTEMPTS", 3));
+		final long retryDelay = Config.getLongProperty("PUSH_PUBLISHING_ENDPOINT_RETRY_DELAY", 2000);
+		final String contentDisposition = "attachment; filename=\"" + fileName + "\"";
+		final EndpointDetail detail = new EndpointDetail();
+
+		//For logging purpose
+		MDC.put(ENDPOINT_NAME, ENDPOINT_NAME + "=" + endpoint.getServerName());
+		MDC.put(BUNDLE_ID, BUNDLE_ID + "=" + b.getName());
+		try {
+			for (int attempt = 1; ; attempt++) {
+				String error;
+				Exception exception = null;
+				boolean retry;
+				InputStream bundleStream = null;
+				try {
+					bundleStream = bundle.openStream();
+					PushPublishLogger.log(this.getClass(), "Status Update: Sending Bundle");
+					WebTarget webTarget = client.target(endpoint.toURL()+"/api/bundlePublisher/publish")
+							.queryParam("AUTH_TOKEN", retriveKeyString(PublicEncryptionFactory.decryptString(endpoint.getAuthKey().toString())))
+							.queryParam("GROUP_ID", UtilMethods.isSet(endpoint.getGroupId()) ? endpoint.getGroupId() : endpoint.getId())
+							.queryParam("BUNDLE_NAME", b.getName())
+							.queryParam("ENDPOINT_ID", endpoint.getId())
+							.queryParam("FILE_NAME", fileName)
+					;
+
+					Response response = webTarget.request(MediaType.APPLICATION_OCTET_STREAM_TYPE)
+							.property(ClientProperties.REQUEST_ENTITY_PROCESSING, "CHUNKED")
+							.property(ClientProperties.CHUNKED_ENCODING_SIZE, Config.getIntProperty("PUSH_PUBLISHING_CHUNK_SIZE", 64 * 1024))
+							.property(ClientProperties.CONNECT_TIMEOUT, Config.getIntProperty("PUSH_PUBLISHING_CONNECT_TIMEOUT", 30000))
+							.property(ClientProperties.READ_TIMEOUT, Config.getIntProperty("PUSH_PUBLISHING_READ_TIMEOUT", 300000))
+							.header("Content-Disposition", contentDisposition)
+							.post(Entity.entity(bundleStream, MediaType.APPLICATION_OCTET_STREAM_TYPE));
+					int status = response.getStatus();
+					response.close();
+
+					if(status == HttpStatus.SC_OK)
+					{
+						PushPublishLogger.log(this.getClass(), "Status Update: Bundle sent");
+						detail.setStatus(PublishAuditStatus.Status.BUNDLE_SENT_SUCCESSFULLY.getCode());
+						detail.setInfo("Everything ok");
+						return detail;
+					}
+					error = "Returned " + status + " status code " +
+							"for the endpoint " + endpoint.getServerName() + " with address " + endpoint
+							.getAddress() + getFormattedPort(endpoint.getPort());
+					retry = false;
+				} catch(Exception e) {
+					error = "An error occurred for the endpoint " + endpoint.getServerName() + " with address "
+							+ endpoint.getAddress() + getFormattedPort(
+							endpoint.getPort()) + ". Error: " + e.getMessage();
+					exception = e;
+					retry = isConnectFailure(e);
+				} finally {
+					CloseUtils.closeQuietly(bundleStream);
+				}
+
+				if (!retry || attempt >= maxAttempts) {
+					detail.setStatus(PublishAuditStatus.Status.FAILED_TO_SENT.getCode());
+					detail.setInfo(error);
+					if (exception != null) {
+						Logger.error(this.getClass(), error, exception);
+						PushPublishLogger.log(this.getClass(), "Status Update: Failed to send bundle. Exception: " + exception.getMessage());
+					} else {
+						PushPublishLogger.log(this.getClass(), "Status Update: Failed to send bundle.");
+					}
+					return detail;
+				}
+
+				Logger.warn(this.getClass(), error + ", attempt " + attempt + " of " + maxAttempts + ", retrying");
+				try {
+					Thread.sleep(retryDelay * attempt);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					detail.setStatus(PublishAuditStatus.Status.FAILED_TO_SENT.getCode());
+					detail.setInfo(error);
+					return detail;
+				}
+			}
+		} finally {
+			MDC.remove(ENDPOINT_NAME);
+			MDC.remove(BUNDLE_ID);
+		}
+	}
+
+	/**
+	 * Checks whether the send failed before the connection to the endpoint was established, so
+	 * the endpoint didn't get any part of the bundle
+	 *
+	 * @param e
+	 * @return
+	 */
+	static boolean isConnectFailure(final Throwable e) {
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+			if (cause instanceof ConnectException || cause instanceof NoRouteToHostException
+					|| cause instanceof UnknownHostException) {
+				return true;
+			}
+			if (cause instanceof SocketTimeoutException) {
+				// the connect timeout, a read timeout means the bundle may be in the endpoint
+				return cause.getMessage() != null && cause.getMessage().toLowerCase().contains("connect");
+			}
+		}
+		return false;
+	}
+
 	/**
 	 * @param port
 	 * @return
@@ -13,6 +13,8 @@ import com.dotmarketing.util.Logger;
 
 public class PushUtils {
 
+	private static final int BUFFER_SIZE = 64 * 1024;
+
 	
 	
 	/**
@@ -29,11 +31,45 @@ public class PushUtils {
 		Logger.info(PushUtils.class, "Compressing "+files.size() + " to "+output.getAbsoluteFile());
 	               // Create the output stream for the output file
 
+		compressFiles(files, Files.newOutputStream(output.toPath()), bundleRoot);
+
+		return output;
+	}
+
+	/**
+	 * Compress (tar.gz) the input files into a {@link BundleBuffer}, the compressed bundle stays
+	 * in memory while it is smaller than the spill threshold so it can be sent to the endpoints
+	 * without reading it back from disk.
+	 *
+	 * @param files The files to compress
+	 * @param output The bundle file (should end in .tar.gz), it is always written
+	 * @param bundleRoot
+	 * @param spillThreshold The max size in bytes of a bundle kept in memory
+	 * @return The closed buffer holding the compressed bundle
+	 * @throws IOException
+	 */
+	public static BundleBuffer compressFiles(Collection<File> files, File output, String bundleRoot, int spillThreshold)
+		throws IOException
+	{
+		Logger.info(PushUtils.class, "Compressing "+files.size() + " to "+output.getAbsoluteFile());
+
+		BundleBuffer buffer = new BundleBuffer(output, spillThreshold);
+		compressFiles(files, buffer, bundleRoot);
+
+		return buffer;
+	}
+
+	/**
+	 * Writes the tar.gz of the input files to the given stream, the stream is closed
+	 */
+	private static void compressFiles(Collection<File> files, OutputStream out, String bundleRoot)
+		throws IOException
+	{
 		// try-with-resources handles close of streams
-		try(OutputStream fos = Files.newOutputStream(output.toPath());
+		try(OutputStream fos = out;
 			// Wrap the output file stream in streams that will tar and gzip everything
 			TarArchiveOutputStream taos = new TarArchiveOutputStream(
-				new GZIPOutputStream(new BufferedOutputStream(fos))) ) {
+				new GZIPOutputStream(new BufferedOutputStream(fos, BUFFER_SIZE), BUFFER_SIZE)) ) {
 
 			// TAR originally didn't support long file names, so enable the support for it
 			taos.setLongFileMode(TarArchiveOutputStream.LONGFILE_GNU);
@@ -43,8 +79,6 @@ public class PushUtils {
 				addFilesToCompression(taos, f, ".", bundleRoot);
 			}
 		}
-
-		return output;
 	}
 	
 	
@@ -71,7 +105,7 @@ public class PushUtils {
 	    			taos.putArchiveEntry(new TarArchiveEntry(file, dir + "/" + file.getName()));
 				if (file.isFile()) {
 			        // Add the file to the archive
-					try(BufferedInputStream bis = new BufferedInputStream(Files.newInputStream(file.toPath()))) {
+					try(BufferedInputStream bis = new BufferedInputStream(Files.newInputStream(file.toPath()), BUFFER_SIZE)) {
 						IOUtils.copy(bis, taos);
 						taos.closeArchiveEntry();
 					}
@@ -0,0 +1,227 @@
+package com.dotcms.publisher.receiver;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+
+import com.dotcms.concurrent.DotConcurrentException;
+import com.dotcms.enterprise.publishing.remote.handler.BundleXMLascHandler;
+import com.dotcms.enterprise.publishing.remote.handler.CategoryFullHandler;
+import com.dotcms.enterprise.publishing.remote.handler.CategoryHandler;
+import com.dotcms.enterprise.publishing.remote.handler.ContainerHandler;
+import com.dotcms.enterprise.publishing.remote.handler.ContentHandler;
+import com.dotcms.enterprise.publishing.remote.handler.ContentTypeHandler;
+import com.dotcms.enterprise.publishing.remote.handler.ContentWorkflowHandler;
+import com.dotcms.enterprise.publishing.remote.handler.FolderHandler;
+import com.dotcms.enterprise.publishing.remote.handler.HostHandler;
+import com.dotcms.enterprise.publishing.remote.handler.LanguageHandler;
+import com.dotcms.enterprise.publishing.remote.handler.LanguageVariablesHandler;
+import com.dotcms.enterprise.publishing.remote.handler.LinkHandler;
+import com.dotcms.enterprise.publishing.remote.handler.OSGIHandler;
+import com.dotcms.enterprise.publishing.remote.handler.RelationshipHandler;
+import com.dotcms.enterprise.publishing.remote.handler.RuleHandler;
+import com.dotcms.enterprise.publishing.remote.handler.TemplateHandler;
+import com.dotcms.enterprise.publishing.remote.handler.UserHandler;
+import com.dotcms.enterprise.publishing.remote.handler.WorkflowHandler;
+import com.dotcms.publisher.receiver.handler.IHandler;
+
+/**
+ * Dependency graph of the {@link IHandler}s used by the {@link BundlePublisher}. A handler only
+ * runs once every handler it depends on is done, e.g. the content types are saved after the
+ * folders and workflows and before the contents, while handlers that do not depend on each other
+ * (e.g. containers and languages) can run at the same time.
+ * <p>
+ * The dependencies are declared by handler class. Dependencies on handlers that are not part of
+ * the list (e.g. the content types when PUSH_PUBLISHING_PUSH_STRUCTURES is off) are ignored.
+ * Handlers without declared dependencies are treated as barriers: they run after every handler
+ * that precedes them in the list and before every handler that follows them, as they did when the
+ * handlers ran one after the other.
+ */
+class BundleHandlerGraph {
+
+    private static final Map<Class<?>, List<Class<?>>> DEPENDENCIES = new HashMap<>();
+
+    static {
+        DEPENDENCIES.put(BundleXMLascHandler.class, Collections.emptyList());
+        DEPENDENCIES.put(UserHandler.class, dependsOn(BundleXMLascHandler.class));
+        DEPENDENCIES.put(CategoryHandler.class, dependsOn(BundleXMLascHandler.class));
+        DEPENDENCIES.put(CategoryFullHandler.class, dependsOn(CategoryHandler.class));
+        DEPENDENCIES.put(HostHandler.class, dependsOn(UserHandler.class));
+        DEPENDENCIES.put(FolderHandler.class, dependsOn(HostHandler.class));
+        DEPENDENCIES.put(WorkflowHandler.class, dependsOn(UserHandler.class));
+        DEPENDENCIES.put(ContentTypeHandler.class, dependsOn(FolderHandler.class, WorkflowHandler.class,
+                CategoryHandler.class, CategoryFullHandler.class));
+        DEPENDENCIES.put(RelationshipHandler.class, dependsOn(ContentTypeHandler.class));
+        DEPENDENCIES.put(ContainerHandler.class, dependsOn(HostHandler.class, ContentTypeHandler.class));
+        DEPENDENCIES.put(TemplateHandler.class, dependsOn(FolderHandler.class, ContainerHandler.class));
+        DEPENDENCIES.put(LanguageHandler.class, dependsOn(BundleXMLascHandler.class));
+        DEPENDENCIES.put(LanguageVariablesHandler.class, dependsOn(LanguageHandler.class, ContentTypeHandler.class));
+        DEPENDENCIES.put(ContentHandler.class, dependsOn(FolderHandler.class, CategoryHandler.class,
+                CategoryFullHandler.class, ContentTypeHandler.class, RelationshipHandler.class,
+                TemplateHandler.class, LanguageHandler.class, LanguageVariablesHandler.class));
+        DEPENDENCIES.put(ContentWorkflowHandler.class, dependsOn(ContentHandler.class, WorkflowHandler.class));
+        DEPENDENCIES.put(OSGIHandler.class, dependsOn(BundleXMLascHandler.class));
+        DEPENDENCIES.put(LinkHandler.class, dependsOn(FolderHandler.class));
+        DEPENDENCIES.put(RuleHandler.class, dependsOn(HostHandler.class, ContentHandler.class));
+    }
+
+    private final List<IHandler> handlers;
+    private final Map<IHandler, Set<IHandler>> dependencies = new IdentityHashMap<>();
+
+    /**
+     * Builds the graph of the given handlers, the list order must be a valid execution order
+     *
+     * @param handlers
+     */
+    BundleHandlerGraph ( final List<IHandler> handlers ) {
+        this(handlers, DEPENDENCIES);
+    }
+
+    BundleHandlerGraph ( final List<IHandler> handlers, final Map<Class<?>, List<Class<?>>> declared ) {
+
+        this.handlers = new ArrayList<>(handlers);
+        final List<IHandler> previous = new ArrayList<>();
+        IHandler barrier = null;
+        for ( final IHandler handler : this.handlers ) {
+            final Set<IHandler> handlerDependencies = new LinkedHashSet<>();
+            final List<Class<?>> declaredDependencies = declared.get(handler.getClass());
+            if ( declaredDependencies == null ) {
+                handlerDependencies.addAll(previous);
+                barrier = handler;
+            } else {
+                for ( final IHandler candidate : previous ) {
+                    if ( candidate == barrier || declaredDependencies.contains(candidate.getClass()) ) {
+                        handlerDependencies.add(candidate);
+                    }
+                }
+            }
+            this.dependencies.put(handler, handlerDependencies);
+            previous.add(handler);
+        }
+    }
+
+    Set<IHandler> getDependencies ( final IHandler handler ) {
+        return Collections.unmodifiableSet(this.dependencies.get(handler));
+    }
+
+    /**
+     * Applies every handler once its dependencies are done, running up to the given number of
+     * handlers at the same time on the executor. Handlers the executor rejects are run on the
+     * calling thread. When a handler fails no more handlers are started, the ones already running
+     * are waited for and the first error is thrown.
+     *
+     * @param executor       runs the handlers
+     * @param maxConcurrency maximum number of handlers running at the same time
+     * @param action         applies a single handler
+     * @throws Exception the error of the first handler that failed
+     */
+    void apply ( final Executor executor, final int maxConcurrency, final HandlerAction action ) throws Exception {
+
+        final Map<IHandler, Integer> pendingDependencies = new IdentityHashMap<>();
+        final Map<IHandler, List<IHandler>> dependents = new IdentityHashMap<>();
+        final Deque<IHandler> ready = new ArrayDeque<>();
+        for ( final IHandler handler : this.handlers ) {
+            dependents.put(handler, new ArrayList<>());
+        }
+        for ( final IHandler handler : this.handlers ) {
+            final Set<IHandler> handlerDependencies = this.dependencies.get(handler);
+            pendingDependencies.put(handler, handlerDependencies.size());
+            for ( final IHandler dependency : handlerDependencies ) {
+                dependents.get(dependency).add(handler);
+            }
+            if ( handlerDependencies.isEmpty() ) {
+                ready.add(handler);
+            }
+        }
+
+        final BlockingQueue<Completion> completions = new LinkedBlockingQueue<>();
+        Throwable failure = null;
+        int running = 0;
+        while ( true ) {
+
+            while ( failure == null && running < Math.max(1, maxConcurrency) && !ready.isEmpty() ) {
+                final IHandler handler = ready.poll();
+                final Runnable task = () -> {
+                    Throwable error = null;
+                    try {
+                        action.apply(handler);
+                    } catch ( Throwable e ) {
+                        error = e;
+                    }
+                    completions.add(new Completion(handler, error));
+                };
+                try {
+                    executor.execute(task);
+                } catch ( RejectedExecutionException | DotConcurrentException e ) {
+                    task.run();
+                }
+                running++;
+            }
+
+            if ( running == 0 ) {
+                break;
+            }
+
+            final Completion completion = completions.take();
+            running--;
+            if ( completion.error != null ) {
+                if ( failure == null ) {
+                    failure = completion.error;
+                } else {
+                    failure.addSuppressed(completion.error);
+                }
+                continue;
+            }
+            for ( final IHandler dependent : dependents.get(completion.handler) ) {
+                final int pending = pendingDependencies.get(dependent) - 1;
+                pendingDependencies.put(dependent, pending);
+                if ( pending == 0 ) {
+                    ready.add(dependent);
+                }
+            }
+        }
+
+        if ( failure instanceof Exception ) {
+            throw (Exception) failure;
+        }
+        if ( failure != null ) {
+            throw (Error) failure;
+        }
+    }
+
+    private static List<Class<?>> dependsOn ( final Class<?>... handlerClasses ) {
+        return Arrays.asList(handlerClasses);
+    }
+
+    /**
+     * Applies a single handler of the graph
+     */
+    interface HandlerAction {
+
+        void apply ( IHandler handler ) throws Exception;
+    }
+
+    private static class Completion {
+
+        private final IHandler handler;
+        private final Throwable error;
+
+        Completion ( final IHandler handler, final Throwable error ) {
+            this.handler = handler;
+            this.error = error;
+        }
+    }
+
+}
@@ -9,12 +9,16 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.zip.GZIPInputStream;
 
 import org.apache.tools.tar.TarBuffer;
 
+import com.dotcms.concurrent.DotConcurrentFactory;
+import com.dotcms.content.elasticsearch.business.ContentletIndexBatch;
 import com.dotcms.enterprise.license.LicenseLevel;
 import com.dotcms.enterprise.LicenseUtil;
 import com.dotcms.enterprise.publishing.remote.handler.BundleXMLascHandler;
@@ -74,6 +78,12 @@ import com.liferay.util.FileUtil;
  * files (i.e., a Container handler will only read Container data files),
  * retrieve the Java objects that they represent, and imports their content in
  * the destination server.
+ * <p>
+ * Handlers that do not depend on each other (see {@link BundleHandlerGraph}) are applied at the
+ * same time, each one in its own transaction, by up to PUSH_PUBLISHING_RECEIVER_THREADS threads of
+ * the <strong>pushpublish.receiver.</strong> submitter. Setting it to 1 applies the whole bundle in
+ * a single transaction, one handler after the other. The saved contents are indexed in batches
+ * once every handler is done, and the time spent by each handler is kept in the audit history.
  *
  * @author Alberto
  * @version 1.0
@@ -81,6 +91,8 @@ import com.liferay.util.FileUtil;
  */
 public class BundlePublisher extends Publisher {
 
+    public static final String RECEIVER_SUBMITTER_NAME = "pushpublish.receiver.";
+
     private PublishAuditAPI auditAPI = null;
 
     boolean bundleSuccess = true;
@@ -194,18 +206,31 @@ public class BundlePublisher extends Publisher {
             Logger.error(BundlePublisher.class, "Unable to get assets list from received bundle: " + e.getMessage(), e);
         }
 
+        final int threads = Config.getIntProperty("PUSH_PUBLISHING_RECEIVER_THREADS", 4);
+        final ContentletIndexBatch indexBatch =
+                new ContentletIndexBatch(Config.getIntProperty("PUSH_PUBLISHING_RECEIVER_INDEX_BATCH_SIZE", 500));
+        final Map<IHandler, Long> handlerTimes = new ConcurrentHashMap<>();
+
         try {
             try {
-                HibernateUtil.startTransaction();
-
-                //Execute the handlers
-                for (IHandler handler : handlers) {
-
-                    handler.handle(folderOut);
+                if (threads > 1) {
+                    new BundleHandlerGraph(handlers).apply(
+                            DotConcurrentFactory.getInstance().getSubmitter(RECEIVER_SUBMITTER_NAME), threads,
+                            handler -> applyHandler(handler, folderOut, indexBatch, handlerTimes));
+                } else {
+                    // a single transaction, its commit listeners already index the whole bundle at once
+                    HibernateUtil.startTransaction();
+
+                    //Execute the handlers
+                    for (IHandler handler : handlers) {
+
+                        final long start = System.currentTimeMillis();
+                        handler.handle(folderOut);
+                        handlerTimes.put(handler, System.currentTimeMillis() - start);
+                    }
 
+                    HibernateUtil.commitTransaction();
                 }
-
-                HibernateUtil.commitTransaction();
             } catch (Exception e) {
                 bundleSuccess = false;
                 try {
@@ -215,6 +240,9 @@ public class BundlePublisher extends Publisher {
                 }
                 Logger.error(PublisherAPIImpl.class, "Error Publishing Bundle: " + e.getMessage(), e);
 
+                // handlers applied in their own transactions are committed even if another one failed
+                reportHandlers(currentStatusHistory, handlerTimes, indexBatch);
+
                 //Update audit
                 try {
                     detail.setStatus(PublishAuditStatus.Status.FAILED_TO_PUBLISH.getCode());
@@ -233,6 +261,8 @@ public class BundlePublisher extends Publisher {
                 throw new DotPublishingException("Error Publishing: " + e, e);
             }
 
+            reportHandlers(currentStatusHistory, handlerTimes, indexBatch);
+
             try {
                 //Update audit
                 detail.setStatus(PublishAuditStatus.Status.SUCCESS.getCode());
@@ -254,6 +284,81 @@ public class BundlePublisher extends Publisher {
         return config;
     }
 
+    /**
+     * Applies a single handler in its own transaction. The contents it saves are collected in the
+     * given batch instead of being indexed when the transaction is committed.
+     *
+     * @param handler      - The handler to apply.
+     * @param folderOut    - The folder the bundle was extracted to.
+     * @param indexBatch   - Collects the contents to index.
+     * @param handlerTimes - Milliseconds spent by each handler.
+     * @throws Exception The handler failed, its transaction was rolled back.
+     */
+    private void applyHandler(final IHandler handler, final File folderOut, final ContentletIndexBatch indexBatch,
+            final Map<IHandler, Long> handlerTimes) throws Exception {
+
+        final long start = System.currentTimeMillis();
+        final boolean asyncCommitListeners = HibernateUtil.getAsyncCommitListenersFinalization();
+        indexBatch.attach();
+        // the commit listeners must collect the contents before the batch is flushed
+        HibernateUtil.setAsyncCommitListenersFinalization(false);
+        try {
+            HibernateUtil.startTransaction();
+            handler.handle(folderOut);
+            HibernateUtil.commitTransaction();
+            Logger.debug(BundlePublisher.class, "Handler " + handler.getName() + " applied in "
+                    + (System.currentTimeMillis() - start) + " ms");
+        } catch (Exception e) {
+            try {
+                HibernateUtil.rollbackTransaction();
+            } catch (DotHibernateException e1) {
+                Logger.error(BundlePublisher.class, e.getMessage(), e1);
+            }
+            throw e;
+        } finally {
+            handlerTimes.put(handler, System.currentTimeMillis() - start);
+            HibernateUtil.setAsyncCommitListenersFinalization(asyncCommitListeners);
+            ContentletIndexBatch.detach();
+            DbConnectionFactory.closeSilently();
+        }
+    }
+
+    /**
+     * Indexes the contents saved by the handlers and keeps the time spent by each handler in the
+     * audit history.
+     *
+     * @param history      - The audit history of the bundle.
+     * @param handlerTimes - Milliseconds spent by each handler.
+     * @param indexBatch   - The contents to index.
+     */
+    private void reportHandlers(final PublishAuditHistory history, final Map<IHandler, Long> handlerTimes,
+            final ContentletIndexBatch indexBatch) {
+
+        final long start = System.currentTimeMillis();
+        int indexed = 0;
+        try {
+            indexed = indexBatch.flush();
+        } catch (Exception e) {
+            Logger.error(BundlePublisher.class, "Unable to index the contents of the bundle: " + e.getMessage(), e);
+        }
+        final long indexTime = System.currentTimeMillis() - start;
+
+        final Map<String, Long> times = new LinkedHashMap<>();
+        for (IHandler handler : handlers) {
+            if (handlerTimes.containsKey(handler)) {
+                times.put(handler.getName(), handlerTimes.get(handler));
+            }
+        }
+        Logger.info(BundlePublisher.class, "Bundle " + config.getId() + " handler times (ms): " + times
+                + ", indexed " + indexed + " contents in " + indexTime + " ms");
+
+        if (history != null) {
+            history.setHandlerTimes(times);
+            history.setIndexedContents(indexed);
+            history.setIndexTime(indexTime);
+        }
+    }
+
     @SuppressWarnings("rawtypes")
     @Override
     public List<Class> getBundlers() {
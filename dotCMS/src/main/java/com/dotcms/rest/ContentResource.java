@@ -1,7 +1,10 @@
 package com.dotcms.rest;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URLDecoder;
@@ -12,6 +15,7 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.Part;
 
+import com.dotcms.content.elasticsearch.business.IndexScrollIterator;
 import com.dotcms.contenttype.model.type.BaseContentType;
 import com.dotcms.repackage.com.thoughtworks.xstream.XStream;
 import com.dotcms.repackage.com.thoughtworks.xstream.converters.Converter;
@@ -31,6 +35,7 @@ import com.dotcms.repackage.javax.ws.rs.core.Context;
 import com.dotcms.repackage.javax.ws.rs.core.MediaType;
 import com.dotcms.repackage.javax.ws.rs.core.Response;
 import com.dotcms.repackage.javax.ws.rs.core.Response.Status;
+import com.dotcms.repackage.javax.ws.rs.core.StreamingOutput;
 import com.dotcms.repackage.org.apache.commons.httpclient.HttpStatus;
 import com.dotcms.repackage.org.apache.commons.io.FileUtils;
 import com.dotcms.repackage.org.apache.commons.io.IOUtils;
@@ -133,6 +138,53 @@ public class ContentResource {
 		return responseResource.response( array.toString() );
 	}
 
+	/**
+	 * Streams the inode and identifier of all the contentlets that match the
+	 * query, using APILocator.getContentletAPI().scrollIndex(), so exporting a
+	 * large content type does not page through it with growing offsets, nor
+	 * loads its contentlets. The results are not sorted.
+	 * <p/>
+	 * Example call using curl:
+	 * curl -XGET http://localhost:8080/api/content/indexscroll/+structurename:webpagecontent
+	 *
+	 * @param request request object
+	 * @param query lucene query
+	 * @return json array of objects. each object with inode and identifier
+	 * @throws DotSecurityException
+	 * @throws DotDataException
+	 */
+	@GET
+	@Path("/indexscroll/{query}")
+	@Produces(MediaType.APPLICATION_JSON)
+	public Response indexScroll ( @Context HttpServletRequest request, @PathParam ("query") String query)
+			throws DotSecurityException, DotDataException {
+
+		InitDataObject initData = webResource.init(null, true, request, false, null);
+
+		final IndexScrollIterator<ContentletSearch> contentlets = APILocator.getContentletAPI().scrollIndex(query, 0, initData.getUser(), true);
+		final StreamingOutput output = out -> {
+			try (IndexScrollIterator<ContentletSearch> iterator = contentlets;
+				 Writer writer = new BufferedWriter(new OutputStreamWriter(out, "UTF-8"))) {
+				writer.write('[');
+				boolean first = true;
+				while (iterator.hasNext()) {
+					ContentletSearch contentlet = iterator.next();
+					if (!first) {
+						writer.write(',');
+					}
+					writer.write(new JSONObject()
+							.put("inode", contentlet.getInode())
+							.put("identifier", contentlet.getIdentifier()).toString());
+					first = false;
+				}
+				writer.write(']');
+			} catch (JSONException e) {
+				throw new IOException(e.getMessage(), e);
+			}
+		};
+		return Response.ok(output).build();
+	}
+
 	/**
 	 * Performs a call to APILocator.getContentletAPI().indexCount()
 	 * using the specified parameters.
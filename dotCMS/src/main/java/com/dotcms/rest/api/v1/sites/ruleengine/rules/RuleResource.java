@@ -31,6 +31,8 @@ import com.dotmarketing.exception.DotSecurityException;
 import com.dotmarketing.exception.InvalidLicenseException;
 import com.dotmarketing.portlets.contentlet.business.HostAPI;
 import com.dotcms.enterprise.rules.RulesAPI;
+import com.dotmarketing.portlets.rules.business.RuleTimingHistogram;
+import com.dotmarketing.portlets.rules.business.RulesEngine;
 import com.dotmarketing.portlets.rules.model.Rule;
 import com.dotmarketing.util.Logger;
 import com.dotmarketing.util.UtilMethods;
@@ -111,6 +113,26 @@ public class RuleResource {
         return getRuleInternal(ruleId, user);
     }
 
+    /**
+     * <p>Returns the execution times of the Rule with the given ruleId on this server, since it was last saved or the
+     * server started: the number of executions, how many of them met the conditions, and the histogram of their durations.
+     * <p/>
+     * Usage: GET api/v1/sites/{siteId}/ruleengine/rules/{ruleId}/timings
+     */
+    @GET
+    @JSONP
+    @Path("/rules/{ruleId}/timings")
+    @NoCache
+    @Produces({MediaType.APPLICATION_JSON, "application/javascript"})
+    public Map<String, Object> timings(@Context HttpServletRequest request, @PathParam("siteId") String siteId, @PathParam("ruleId") String ruleId) {
+        siteId = checkNotEmpty(siteId, BadRequestException.class, "Site Id is required.");
+        User user = getUser(request);
+        ruleId = checkNotEmpty(ruleId, BadRequestException.class, "Rule Id is required.");
+        Rule rule = getRule(ruleId, user);
+        RuleTimingHistogram timings = RulesEngine.getRuleTimings(rule.getId());
+        return timings != null ? timings.toMap() : new RuleTimingHistogram(rule.getId()).toMap();
+    }
+
     /**
      * <p>Saves a new Rule
      * <br>
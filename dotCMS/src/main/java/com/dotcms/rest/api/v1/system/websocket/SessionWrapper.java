@@ -9,6 +9,7 @@ import java.security.Principal;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Our implementation of websocket session to keep the userid and roles.
@@ -18,6 +19,8 @@ public class SessionWrapper implements Session {
 
     private final Session session;
     private final User user;
+    private final AtomicInteger pendingMessages = new AtomicInteger();
+    private final AtomicInteger droppedMessages = new AtomicInteger();
 
     public SessionWrapper(final Session session, final User user) {
 
@@ -30,6 +33,52 @@ public class SessionWrapper implements Session {
         return user;
     }
 
+    /**
+     * Sends a text message asynchronously. If the session already has the given number of messages
+     * waiting to be sent (a slow client) the message is dropped.
+     * @param text {@link String} the message
+     * @param maxPendingMessages int max number of messages waiting to be sent
+     * @return boolean false if the message was dropped
+     */
+    public boolean sendText (final String text, final int maxPendingMessages) {
+
+        if (this.pendingMessages.incrementAndGet() > maxPendingMessages) {
+
+            this.pendingMessages.decrementAndGet();
+            this.droppedMessages.incrementAndGet();
+            return false;
+        }
+
+        try {
+
+            this.session.getAsyncRemote().sendText(text, result -> this.pendingMessages.decrementAndGet());
+        } catch (RuntimeException e) {
+
+            this.pendingMessages.decrementAndGet();
+            throw e;
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the number of messages waiting to be sent
+     * @return int
+     */
+    public int getPendingMessages () {
+
+        return this.pendingMessages.get();
+    }
+
+    /**
+     * Returns the number of messages dropped because the session had too many messages waiting to be sent
+     * @return int
+     */
+    public int getDroppedMessages () {
+
+        return this.droppedMessages.get();
+    }
+
     @Override
     public WebSocketContainer getContainer() {
         return this.session.getContainer();
@@ -4,9 +4,10 @@ import com.dotcms.api.system.event.*;
 import com.dotcms.concurrent.DotConcurrentFactory;
 import com.dotcms.repackage.com.google.common.annotations.VisibleForTesting;
 import com.dotcms.repackage.javax.ws.rs.ForbiddenException;
+import com.dotcms.util.marshal.MarshalFactory;
+import com.dotcms.util.marshal.MarshalUtils;
 import com.dotmarketing.business.APILocator;
 import com.dotmarketing.business.UserAPI;
-import com.dotmarketing.exception.DotDataException;
 import com.dotmarketing.init.DotInitScheduler;
 import com.dotmarketing.util.Config;
 import com.dotmarketing.util.Logger;
@@ -18,10 +19,15 @@ import javax.websocket.server.ServerEndpoint;
 import java.io.IOException;
 import java.io.Serializable;
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -30,6 +36,13 @@ import java.util.concurrent.TimeUnit;
  * regarding new notifications or system events. Other application services can
  * get an instance of this end-point via the {@link WebSocketContainerAPI} and
  * send System Events so that other components can read and process them.
+ * <p>
+ * The sessions are indexed by user, so an event is verified and processed once
+ * per connected user, and events with {@link Visibility#USER} only look up the
+ * sessions of that user. Events that are not changed by a
+ * {@link SystemEventProcessor} are encoded once and the same frame is sent to
+ * every session. A session that has {@code dotcms.websocket.max.pending.messages}
+ * frames waiting to be sent drops the new ones until it catches up.
  * 
  * @author Jose Castro
  * @version 3.7
@@ -46,6 +59,9 @@ public class SystemEventsWebSocketEndPoint implements Serializable {
 
 
 	private final Queue<Session> queue;
+	private final ConcurrentMap<String, Set<SessionWrapper>> sessionsByUser = new ConcurrentHashMap<>();
+	private final MarshalUtils marshalUtils = MarshalFactory.getInstance().getMarshalUtils();
+	private final int maxPendingMessages = Config.getIntProperty(DOTCMS_WEBSOCKET_MAX_PENDING_MESSAGES, 100);
 	private final UserAPI userAPI;
 	private final SystemEventProcessorFactory systemEventProcessorFactory;
     private final PayloadVerifierFactory payloadVerifierFactory;
@@ -57,6 +73,8 @@ public class SystemEventsWebSocketEndPoint implements Serializable {
 	public  static final String     DOTCMS_WEBSOCKET_MILLIS_PINGPONG      = "dotcms.websocket.millis.pingpong";
 	public  static final String     DOTCMS_WEBSOCKET_USEPINGPONG          = "dotcms.websocket.usepingpong";
 	private static final ByteBuffer PING_RECEIVED                         = ByteBuffer.wrap("PING".getBytes());
+	public  static final String     DOTCMS_WEBSOCKET_MAX_PENDING_MESSAGES = "dotcms.websocket.max.pending.messages";
+	private static final String     NO_USER_KEY                           = "";
 
 	public SystemEventsWebSocketEndPoint() {
 
@@ -76,6 +94,10 @@ public class SystemEventsWebSocketEndPoint implements Serializable {
 		this.userAPI     = userAPI;
         this.systemEventProcessorFactory = systemEventProcessorFactory;
         this.payloadVerifierFactory      = payloadVerifierFactory;
+		for (final Session session : queue) {
+
+			this.index(session);
+		}
 		final boolean usePingPong = Config.getBooleanProperty(DOTCMS_WEBSOCKET_USEPINGPONG, true);
 		if (usePingPong) {
 
@@ -139,7 +161,9 @@ public class SystemEventsWebSocketEndPoint implements Serializable {
 			try {
 
 				user = (User) session.getUserProperties().get(USER);
-				this.queue.add(new SessionWrapper(session, user));
+				final SessionWrapper sessionWrapper = new SessionWrapper(session, user);
+				this.queue.add(sessionWrapper);
+				this.index(sessionWrapper);
 				isLoggedIn = true;
 				Logger.debug(this, "New session open: " + session +
 										", with user: " + user.getEmailAddress());
@@ -177,14 +201,14 @@ public class SystemEventsWebSocketEndPoint implements Serializable {
 	@OnError
 	public void error(final Session session, final Throwable t) {
 		Logger.debug(this, "Error on the session: " + session + ", error: " + t);
-		queue.remove(session);
+		this.remove(session);
 	}
 
 	@OnClose
 	public void closedConnection(Session session) {
 
 		Logger.debug(this, "Closing the session: " + session);
-		queue.remove(session);
+		this.remove(session);
 	}
 
 	/**
@@ -197,90 +221,135 @@ public class SystemEventsWebSocketEndPoint implements Serializable {
 	 */
 	public void sendSystemEvent(final SystemEvent event) {
 
-		final ArrayList<Session> closedSessions = new ArrayList<>();
+		final Payload payload = event.getPayload();
+		if (null == payload) {
 
-		try {
+			return; // if the payload is null, must not send to any session.
+		}
 
-			for (Session session : this.queue) {
+		final SystemEventProcessor processor =
+				this.systemEventProcessorFactory.createProcessor(event.getEventType());
+		// by default consider it as Visibility.GLOBAL
+		final PayloadVerifier verifier = (null != payload.getVisibility())?
+				this.payloadVerifierFactory.getVerifier(payload):null;
+		String sharedFrame = null;
 
-				if (!session.isOpen()) {
+		for (final Map.Entry<String, Set<SessionWrapper>> userSessions : this.getTargetSessions(payload).entrySet()) {
 
-					closedSessions.add(session);
-				} else {
+			final Set<SessionWrapper> sessions = userSessions.getValue();
+			final Iterator<SessionWrapper> sessionIterator = sessions.iterator();
+			if (!sessionIterator.hasNext()) {
+
+				continue;
+			}
 
-					if (this.apply (event, session)) {
+			try {
+
+				final User user = sessionIterator.next().getUser();
+				if (null != user && null != verifier && !verifier.verified(payload, user)) {
+
+					Logger.debug(this, "The event: " + event
+							+ ", has been filtered for the user: " + userSessions.getKey());
+					continue;
+				}
+
+				final SystemEvent processedEvent = (null != processor)? processor.process(event, user) : event;
+				final String frame;
+				if (processedEvent == event) {
 
-						session.getAsyncRemote().sendObject
-								(this.processEvent(session, event));
-					} else {
+					// the same frame is shared by all the users that get the event as it is
+					if (null == sharedFrame) {
 
-						Logger.debug(this, "The event: " + event
-								+ ", has been filtered for the session: " + session.getId());
+						sharedFrame = this.marshalUtils.marshal(event);
 					}
+					frame = sharedFrame;
+				} else {
+
+					frame = this.marshalUtils.marshal(processedEvent);
 				}
-			}
 
-			this.queue.removeAll(closedSessions);
-		} catch (Throwable e) {
+				for (final SessionWrapper session : sessions) {
+
+					// a session that fails doesn't keep the event from the other ones
+					try {
+
+						this.send(session, frame);
+					} catch (Throwable e) {
 
-			Logger.error(this, "An error occurred when sending a message through the " + this.getClass().getName(), e);
+						Logger.error(this, "An error occurred when sending a message through the " + this.getClass().getName()
+								+ " to the session: " + session.getId() + " of the user: " + userSessions.getKey(), e);
+					}
+				}
+			} catch (Throwable e) {
+
+				Logger.error(this, "An error occurred when sending a message through the " + this.getClass().getName()
+						+ " to the user: " + userSessions.getKey(), e);
+			}
 		}
 	} // sendSystemEvent.
 
-	private SystemEvent processEvent(final Session session,
-									 final SystemEvent event) {
+	/**
+	 * Returns the sessions that may receive an event with the given payload, by user
+	 */
+	private Map<String, Set<SessionWrapper>> getTargetSessions (final Payload payload) {
 
-		final SystemEventProcessor processor =
-				this.systemEventProcessorFactory.createProcessor(event.getEventType());
+		if (Visibility.USER == payload.getVisibility() && null != payload.getVisibilityValue()) {
 
-		return null != processor? processor.process(event,
-													(null != session && session instanceof SessionWrapper)?
-															SessionWrapper.class.cast(session).getUser():null)
-				 			      : event;
-	} // processEvent.
-
-    /**
-     * Verifies if the current user has the "visibility" rights to use this given payload
-     *
-     * @param session Session wrapper needed in order to obtain the current user information
-     * @param payload Payload to validate
-     * @return true the current user has "visibility" rights on this payload
-     */
-    private boolean validPayload(final SessionWrapper session,
-                                 final Payload payload) {
-
-        //Get the verifier associated to this Payload
-        final PayloadVerifier verifier = this.payloadVerifierFactory.getVerifier(payload);
-
-        //Check if we have the "visibility" rights to use this payload
-        return (null != verifier) ? verifier.verified(payload, session.getUser()) : true;
-    }
+			final Map<String, Set<SessionWrapper>> targetSessions = new HashMap<>();
+			final Set<SessionWrapper> userSessions = this.sessionsByUser.get(payload.getVisibilityValue().toString());
+			final Set<SessionWrapper> noUserSessions = this.sessionsByUser.get(NO_USER_KEY);
+			if (null != userSessions) {
 
-	private boolean apply(final SystemEvent event,
-						  final Session session) throws DotDataException  {
+				targetSessions.put(payload.getVisibilityValue().toString(), userSessions);
+			}
+			if (null != noUserSessions) {
 
-		final Payload payload = event.getPayload();
-		boolean apply = true; // by default consider it as Visibility.GLOBAL
+				targetSessions.put(NO_USER_KEY, noUserSessions);
+			}
+			return targetSessions;
+		}
 
-		if (null != payload) {
+		return this.sessionsByUser;
+	} // getTargetSessions.
 
-			if (null != payload.getVisibility()) {
+	private void send (final SessionWrapper session, final String frame) {
 
-				if (session instanceof SessionWrapper) {
+		if (!session.isOpen()) {
 
-					if (null != SessionWrapper.class.cast(session).getUser()) {
-                        apply = this.validPayload((SessionWrapper) session, payload);
-                    }
-                }
-            }
-        } else {
+			this.remove(session);
+		} else if (!session.sendText(frame, this.maxPendingMessages)) {
 
-			apply = false; // if the payload is null, must not send to the session.
+			Logger.debug(this, "The session: " + session.getId() + " has " + session.getPendingMessages()
+					+ " messages waiting to be sent, dropping the message");
 		}
+	} // send.
+
+	private void index (final Session session) {
+
+		final SessionWrapper sessionWrapper = (session instanceof SessionWrapper)?
+				SessionWrapper.class.cast(session) : new SessionWrapper(session, null);
+		final String key = (null != sessionWrapper.getUser())? sessionWrapper.getUser().getUserId() : NO_USER_KEY;
 
-		return apply;
-	} // apply.
+		this.sessionsByUser.compute(key, (userKey, sessions) -> {
 
+			final Set<SessionWrapper> userSessions = (null != sessions)? sessions : ConcurrentHashMap.newKeySet();
+			userSessions.add(sessionWrapper);
+			return userSessions;
+		});
+	} // index.
 
+	private void remove (final Session session) {
+
+		final String sessionId = session.getId();
+		this.queue.removeIf(queued -> queued == session || queued.getId().equals(sessionId));
+		for (final String key : this.sessionsByUser.keySet()) {
+
+			this.sessionsByUser.computeIfPresent(key, (userKey, sessions) -> {
+
+				sessions.removeIf(indexed -> indexed == session || indexed.getId().equals(sessionId));
+				return sessions.isEmpty()? null : sessions;
+			});
+		}
+	} // remove.
 
 } // E:O:F:SystemEventsWebSocketEndPoint.
@@ -192,6 +192,20 @@ public class VanityUrlServices {
                                 languageId));
     } // setCachedVanityUrlList.
 
+    /**
+     * Get the version of the cached vanity urls list, it changes every time the list is set
+     * @param siteId The current site Id
+     * @param languageId The current language Id
+     * @return The version of the list, null if there is no list
+     */
+    public String getCachedVanityUrlListVersion(final String siteId,
+                                                final long   languageId) {
+
+        return this.vanityURLCache
+                .getCachedVanityUrlsVersion(new SecondaryCacheVanityKey(siteId,
+                                languageId));
+    } // getCachedVanityUrlListVersion.
+
     /**
      * Subscriber that listen to events of type CommitListenerEvent, this event will be trigger when
      * the commit listener related to this event is executed.
@@ -8,15 +8,16 @@ import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.TimeZone;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.servlet.http.HttpServletRequest;
 
+import com.dotcms.repackage.com.google.common.annotations.VisibleForTesting;
+import com.dotcms.repackage.com.google.common.cache.Cache;
+import com.dotcms.repackage.com.google.common.cache.CacheBuilder;
+import com.dotcms.repackage.com.maxmind.db.Reader.FileMode;
 import com.dotcms.repackage.com.maxmind.geoip2.DatabaseReader;
 import com.dotcms.repackage.com.maxmind.geoip2.exception.GeoIp2Exception;
-import com.dotcms.repackage.com.maxmind.geoip2.model.CityResponse;
-import com.dotcms.repackage.com.maxmind.geoip2.record.City;
-import com.dotcms.repackage.com.maxmind.geoip2.record.Country;
-import com.dotcms.repackage.com.maxmind.geoip2.record.Subdivision;
 import com.dotmarketing.exception.DotRuntimeException;
 import com.dotmarketing.portlets.rules.conditionlet.Location;
 import com.dotmarketing.util.Config;
@@ -47,6 +48,16 @@ import com.dotmarketing.util.Logger;
  * href="http://maxmind.github.io/GeoIP2-java/index.html">GeoIP2 Java API</a>
  * page.
  * </p>
+ * <p>
+ * Every lookup is resolved into a compact {@link GeoLocation} that is kept in a
+ * bounded LRU cache keyed by IP address (up to {@code GEOIP2_CITY_CACHE_SIZE}
+ * entries), so the several geographic conditions of a rule, or the requests of
+ * the same visitor, only query the database once. The database is memory mapped
+ * by default, {@code GEOIP2_CITY_DATABASE_FILE_MODE=MEMORY} loads it in the heap
+ * instead. The file is checked for changes every
+ * {@code GEOIP2_CITY_DATABASE_RELOAD_CHECK_MILLIS}: the new version is loaded by
+ * a single thread while the rest keep using the previous one.
+ * </p>
  * 
  * @author Jose Castro
  * @version 1.0
@@ -55,9 +66,14 @@ import com.dotmarketing.util.Logger;
  */
 public class GeoIp2CityDbUtil {
 
-	private static DatabaseReader databaseReader = null;
-	private static long lastModified = 0;
-	private static String dbPath = null;
+	private volatile DatabaseReader databaseReader = null;
+	private volatile long lastModified = 0;
+	private volatile long lastCheck = 0;
+	private final String dbPath;
+	private final FileMode fileMode;
+	private final long reloadCheckMillis;
+	private final ReentrantLock reloadLock = new ReentrantLock();
+	private final Cache<String, GeoLocation> locations;
 
 	/**
 	 * Singleton holder based on the initialization-on-demand approach.
@@ -90,16 +106,34 @@ public class GeoIp2CityDbUtil {
 	 *             established.
 	 */
 	private GeoIp2CityDbUtil(String databasePath) {
+		this(databasePath,
+				"MEMORY".equalsIgnoreCase(Config.getStringProperty("GEOIP2_CITY_DATABASE_FILE_MODE", "MEMORY_MAPPED"))
+						? FileMode.MEMORY : FileMode.MEMORY_MAPPED,
+				Config.getLongProperty("GEOIP2_CITY_DATABASE_RELOAD_CHECK_MILLIS", 60000),
+				Config.getIntProperty("GEOIP2_CITY_CACHE_SIZE", 10000));
+	}
+
+	@VisibleForTesting
+	GeoIp2CityDbUtil(String databasePath, FileMode fileMode, long reloadCheckMillis, int cacheSize) {
 		dbPath = databasePath;
+		this.fileMode = fileMode;
+		this.reloadCheckMillis = reloadCheckMillis;
+		locations = CacheBuilder.newBuilder().maximumSize(cacheSize).build();
 		File database = new File(databasePath);
 		connectToDatabase(database);
+		lastCheck = System.currentTimeMillis();
 	}
 
 	/**
 	 * Establishes the connection with the IP database. If a previous connection
-	 * has already been created, it will be closed. Such a scenario would mean
-	 * that the database file has been updated, so the database reader must be
-	 * re-built to load the new information.
+	 * has already been created, it is replaced. Such a scenario would mean that
+	 * the database file has been updated, so the database reader must be
+	 * re-built to load the new information and the cached locations discarded.
+	 * <p>
+	 * The previous reader is not closed, as other threads may still be reading
+	 * from it; it does not hold the file open, so it is released by the garbage
+	 * collector once they are done.
+	 * </p>
 	 * 
 	 * @param database
 	 *            - The {@link File} reference to the database file.
@@ -107,13 +141,12 @@ public class GeoIp2CityDbUtil {
 	 *             If the connection to the GeoIP2 database file cannot be
 	 *             established.
 	 */
-	private static void connectToDatabase(File database) {
+	private void connectToDatabase(File database) {
 		try {
-			if (databaseReader != null) {
-				databaseReader.close();
-			}
-			databaseReader = new DatabaseReader.Builder(database).build();
-			lastModified = database.lastModified();
+			long fileLastModified = database.lastModified();
+			databaseReader = openDatabase(database);
+			lastModified = fileLastModified;
+			locations.invalidateAll();
 		} catch (IOException e) {
 			Logger.error(GeoIp2CityDbUtil.class,
 					"Connection to the GeoIP2 database could not be established.");
@@ -123,33 +156,102 @@ public class GeoIp2CityDbUtil {
 		}
 	}
 
+	/**
+	 * Opens a reader of the database file.
+	 * 
+	 * @param database
+	 *            - The {@link File} reference to the database file.
+	 * @return The {@link DatabaseReader} of the file.
+	 * @throws IOException
+	 *             If the file cannot be read.
+	 */
+	@VisibleForTesting
+	DatabaseReader openDatabase(File database) throws IOException {
+		return new DatabaseReader.Builder(database).fileMode(fileMode).build();
+	}
+
+	/**
+	 * Queries the database for the geographic information of an IP address.
+	 * 
+	 * @param reader
+	 *            - The {@link DatabaseReader} to query.
+	 * @param ipAddress
+	 *            - The IP address to get information from.
+	 * @return The {@link GeoLocation} of the IP address.
+	 * @throws IOException
+	 *             If the result object could not be created.
+	 * @throws GeoIp2Exception
+	 *             If the IP address is not present in the service database.
+	 */
+	@VisibleForTesting
+	GeoLocation lookup(DatabaseReader reader, String ipAddress) throws IOException, GeoIp2Exception {
+		return GeoLocation.from(reader.city(InetAddress.getByName(ipAddress)));
+	}
+
 	/**
 	 * Returns the {@link DatabaseReader} object used to perform the queries to
 	 * the IP database.
 	 * <p>
 	 * When the class is initially instantiated, the modification date of the
-	 * database file is kept in memory. This method will read the last modified
-	 * date of the requested database file in order to determine whether it must
-	 * be re-loaded or not. If it has to, synchronization will be used to load
-	 * the new database file.
+	 * database file is kept in memory. Every
+	 * {@code GEOIP2_CITY_DATABASE_RELOAD_CHECK_MILLIS} this method reads the last
+	 * modified date of the database file in order to determine whether it must
+	 * be re-loaded or not. Only one thread checks and re-loads the file, the
+	 * rest keep reading from the current database in the meantime. If the new
+	 * file cannot be loaded (e.g. it is still being copied) the current database
+	 * is kept and the load is retried on the next check.
 	 * </p>
 	 * 
 	 * @return The {@link DatabaseReader} object with the latest content of the
 	 *         database.
 	 */
-	private static DatabaseReader getDatabaseReader() {
-		File database = new File(dbPath);
-		long fileLastModified = database.lastModified();
-		if (fileLastModified != lastModified) {
-			synchronized (GeoIp2CityDbUtil.class) {
-				if (fileLastModified != lastModified) {
+	private DatabaseReader getDatabaseReader() {
+		long now = System.currentTimeMillis();
+		if (now - lastCheck >= reloadCheckMillis && reloadLock.tryLock()) {
+			try {
+				lastCheck = now;
+				File database = new File(dbPath);
+				if (database.lastModified() != lastModified) {
 					connectToDatabase(database);
 				}
+			} catch (DotRuntimeException e) {
+				Logger.warn(GeoIp2CityDbUtil.class, "Keeping the current GeoIP2 database: " + e.getMessage());
+			} finally {
+				reloadLock.unlock();
 			}
 		}
 		return databaseReader;
 	}
 
+	/**
+	 * Returns the geographic information of the specified IP address. The
+	 * result is cached, so looking up the same address again does not query
+	 * the database.
+	 * 
+	 * @param ipAddress
+	 *            - The IP address to get information from.
+	 * @return The {@link GeoLocation} of the IP address.
+	 * @throws UnknownHostException
+	 *             If the IP address of a host could not be determined.
+	 * @throws IOException
+	 *             If the connection to the GeoIP2 service could not be
+	 *             established, or the result object could not be created.
+	 * @throws GeoIp2Exception
+	 *             If the IP address is not present in the service database.
+	 */
+	public GeoLocation getGeoLocation(String ipAddress)
+			throws UnknownHostException, IOException, GeoIp2Exception {
+		DatabaseReader reader = getDatabaseReader();
+		GeoLocation location = locations.getIfPresent(ipAddress);
+		if (location == null) {
+			location = lookup(reader, ipAddress);
+			if (reader == databaseReader) {
+				locations.put(ipAddress, location);
+			}
+		}
+		return location;
+	}
+
 	/**
 	 * Returns the ISO code of the state, province or region (referred to as
 	 * "subdivision") the specified IP address belongs to. The ISO code is a one
@@ -169,10 +271,7 @@ public class GeoIp2CityDbUtil {
 	 */
 	public String getSubdivisionIsoCode(String ipAddress)
 			throws UnknownHostException, IOException, GeoIp2Exception {
-		InetAddress inetAddress = InetAddress.getByName(ipAddress);
-		CityResponse city = getDatabaseReader().city(inetAddress);
-		Subdivision subdivision = city.getMostSpecificSubdivision();
-		return subdivision.getIsoCode();
+		return getGeoLocation(ipAddress).getSubdivisionIsoCode();
 	}
 
 	/**
@@ -193,10 +292,7 @@ public class GeoIp2CityDbUtil {
 	 */
 	public String getCountryIsoCode(String ipAddress)
 			throws UnknownHostException, IOException, GeoIp2Exception {
-		InetAddress inetAddress = InetAddress.getByName(ipAddress);
-		CityResponse city = getDatabaseReader().city(inetAddress);
-		Country country = city.getCountry();
-		return country.getIsoCode();
+		return getGeoLocation(ipAddress).getCountryIsoCode();
 	}
 
 	/**
@@ -209,9 +305,7 @@ public class GeoIp2CityDbUtil {
      */
 	public Location getLocationByIp(String ipAddress)
 			throws IOException, GeoIp2Exception {
-		InetAddress inetAddress = InetAddress.getByName(ipAddress);
-		CityResponse city = getDatabaseReader().city(inetAddress);
-		com.dotcms.repackage.com.maxmind.geoip2.record.Location location = city.getLocation();
+		GeoLocation location = getGeoLocation(ipAddress);
 		return new Location(location.getLatitude(), location.getLongitude());
 	}
 
@@ -231,10 +325,7 @@ public class GeoIp2CityDbUtil {
 	 */
 	public String getCityName(String ipAddress) throws UnknownHostException,
 			IOException, GeoIp2Exception {
-		InetAddress inetAddress = InetAddress.getByName(ipAddress);
-		CityResponse cityResponse = getDatabaseReader().city(inetAddress);
-		City city = cityResponse.getCity();
-		return city.getName();
+		return getGeoLocation(ipAddress).getCityName();
 	}
 
 	/**
@@ -255,9 +346,7 @@ public class GeoIp2CityDbUtil {
 	 */
 	public TimeZone getTimeZone(String ipAddress) throws UnknownHostException,
 			IOException, GeoIp2Exception {
-		InetAddress inetAddress = InetAddress.getByName(ipAddress);
-		CityResponse city = getDatabaseReader().city(inetAddress);
-		String zone = city.getLocation().getTimeZone();
+		String zone = getGeoLocation(ipAddress).getTimeZone();
 		return TimeZone.getTimeZone(zone);
 	}
 
@@ -279,7 +368,21 @@ public class GeoIp2CityDbUtil {
 	 */
 	public Calendar getDateTime(String ipAddress) throws UnknownHostException,
 			IOException, GeoIp2Exception {
-		TimeZone timeZone = getTimeZone(ipAddress);
+		return getDateTime(getGeoLocation(ipAddress));
+	}
+
+	/**
+	 * Returns the current date/time of a client at the given location, that
+	 * is the server's current date/time adjusted with the time zone of the
+	 * location.
+	 * 
+	 * @param location
+	 *            - The {@link GeoLocation} of the client, for example the one
+	 *            kept by its {@link com.dotcms.visitor.domain.Visitor}.
+	 * @return The client's current {@link Date}.
+	 */
+	public Calendar getDateTime(GeoLocation location) {
+		TimeZone timeZone = TimeZone.getTimeZone(location.getTimeZone());
 		Calendar calendar = Calendar.getInstance(timeZone);
 		int year = calendar.get(Calendar.YEAR);
 		int month = calendar.get(Calendar.MONTH);
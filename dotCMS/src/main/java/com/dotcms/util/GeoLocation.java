@@ -0,0 +1,86 @@
+package com.dotcms.util;
+
+import java.io.Serializable;
+
+import com.dotcms.repackage.com.maxmind.geoip2.model.CityResponse;
+
+/**
+ * Compact and immutable geographic information of an IP address, as resolved by the
+ * {@link GeoIp2CityDbUtil}. It only keeps the fields used by dotCMS instead of the full
+ * {@link CityResponse}, so many of them can be cached.
+ */
+public final class GeoLocation implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String countryIsoCode;
+	private final String subdivisionIsoCode;
+	private final String cityName;
+	private final Double latitude;
+	private final Double longitude;
+	private final String timeZone;
+
+	public GeoLocation(String countryIsoCode, String subdivisionIsoCode, String cityName, Double latitude,
+			Double longitude, String timeZone) {
+		this.countryIsoCode = countryIsoCode;
+		this.subdivisionIsoCode = subdivisionIsoCode;
+		this.cityName = cityName;
+		this.latitude = latitude;
+		this.longitude = longitude;
+		this.timeZone = timeZone;
+	}
+
+	/**
+	 * Copies the fields used by dotCMS from the response of the GeoIP2 database.
+	 *
+	 * @param city
+	 *            - The {@link CityResponse} of an IP address.
+	 * @return The {@link GeoLocation} of the IP address.
+	 */
+	static GeoLocation from(CityResponse city) {
+		return new GeoLocation(city.getCountry().getIsoCode(), city.getMostSpecificSubdivision().getIsoCode(),
+				city.getCity().getName(), city.getLocation().getLatitude(), city.getLocation().getLongitude(),
+				city.getLocation().getTimeZone());
+	}
+
+	/**
+	 * @return The two-character ISO code of the country.
+	 */
+	public String getCountryIsoCode() {
+		return countryIsoCode;
+	}
+
+	/**
+	 * @return The ISO code of the state, province or region.
+	 */
+	public String getSubdivisionIsoCode() {
+		return subdivisionIsoCode;
+	}
+
+	public String getCityName() {
+		return cityName;
+	}
+
+	public Double getLatitude() {
+		return latitude;
+	}
+
+	public Double getLongitude() {
+		return longitude;
+	}
+
+	/**
+	 * @return The IANA time zone, e.g. {@code "America/New_York"}.
+	 */
+	public String getTimeZone() {
+		return timeZone;
+	}
+
+	@Override
+	public String toString() {
+		return "GeoLocation [countryIsoCode=" + countryIsoCode + ", subdivisionIsoCode=" + subdivisionIsoCode
+				+ ", cityName=" + cityName + ", latitude=" + latitude + ", longitude=" + longitude + ", timeZone="
+				+ timeZone + "]";
+	}
+
+}
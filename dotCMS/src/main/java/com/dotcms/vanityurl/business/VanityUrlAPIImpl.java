@@ -22,6 +22,7 @@ import com.dotmarketing.portlets.contentlet.business.DotContentletValidationExce
 import com.dotmarketing.portlets.contentlet.model.Contentlet;
 import com.dotmarketing.portlets.languagesmanager.business.LanguageAPI;
 import com.dotmarketing.portlets.languagesmanager.model.Language;
+import com.dotmarketing.util.Config;
 import com.dotmarketing.util.Logger;
 import com.dotmarketing.util.UtilMethods;
 import com.google.common.collect.ImmutableList;
@@ -32,6 +33,12 @@ import org.elasticsearch.indices.IndexMissingException;
 
 import java.text.MessageFormat;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.regex.Matcher;
 
 import static com.dotcms.util.CollectionsUtils.map;
@@ -59,6 +66,10 @@ public class VanityUrlAPIImpl implements VanityUrlAPI {
     private final UserAPI           userAPI;
     private final long              defaultLanguageId;
     private final User              systemUser;
+    private final ConcurrentMap<SiteLanguageKey, VanityUrlIndex> vanityUrlIndexes =
+            new ConcurrentHashMap<>();
+    private final ConcurrentMap<SiteLanguageKey, CompletableFuture<Void>> inFlightInitializations =
+            new ConcurrentHashMap<>();
 
     private static final String GET_VANITY_URL_BASE_TYPE =
             "+baseType:" + BaseContentType.VANITY_URL.getType();
@@ -267,13 +278,14 @@ public class VanityUrlAPIImpl implements VanityUrlAPI {
     } // addToSingleVanityURLCache.
 
     /**
-     * Add a 404 Vanity URL to the vanityURLCache
+     * Creates the 404 Vanity URL of a URI no Vanity URL matches
      *
      * @param siteId The current site Id
      * @param uri The current URI
      * @param languageId The current language Id
+     * @return The 404 CachedVanityUrl
      */
-    private void add404URIToCache(final String siteId,
+    private CachedVanityUrl create404CachedVanityUrl(final String siteId,
                                   final String uri,
                                   final long languageId) {
 
@@ -286,7 +298,7 @@ public class VanityUrlAPIImpl implements VanityUrlAPI {
         cache404VanityUrl.setSite(siteId);
         cache404VanityUrl.setOrder(0);
 
-        this.vanityUrlServices.updateCache(cache404VanityUrl);
+        return new CachedVanityUrl(cache404VanityUrl);
     }
 
     private String getSiteId (final Host site) {
@@ -359,10 +371,13 @@ public class VanityUrlAPIImpl implements VanityUrlAPI {
         }
 
         if (result == null) {
-            //Add 404 to cache
-            this.add404URIToCache(siteId, uri, languageId);
-            result = this.vanityUrlServices
-                    .getCachedVanityUrlByUri(uri, siteId, languageId);
+            //Add 404 to the results of the site index, they are dropped with it
+            result = this.create404CachedVanityUrl(siteId, uri, languageId);
+            final VanityUrlIndex vanityUrlIndex =
+                    this.getVanityUrlIndex(siteId, languageId);
+            if (null != vanityUrlIndex) {
+                vanityUrlIndex.cacheResult(uri, result);
+            }
         }
 
         return result;
@@ -407,60 +422,105 @@ public class VanityUrlAPIImpl implements VanityUrlAPI {
     private CachedVanityUrl searchLiveCachedVanityUrlBySiteAndLanguage(final String uri,
             final String siteId, final long languageId) {
 
-        CachedVanityUrl result = null;
+        final VanityUrlIndex vanityUrlIndex =
+                this.getVanityUrlIndex(siteId, languageId);
 
-        //Get the list of site cached Vanities URLs
-        List<CachedVanityUrl> cachedVanityUrls =
-                this.getVanityUrlBySiteAndLanguageFromCache
-                        (siteId, languageId,true);
+        return (null != vanityUrlIndex)? vanityUrlIndex.find(uri) : null;
+    } // searchLiveCachedVanityUrlBySiteAndLanguage.
 
-        if (null == cachedVanityUrls) {
+    /**
+     * Get the matching index of the cached Vanity URLs of a given site and SYSTEM_HOST, the index
+     * is built again when the cached list of any of them changes
+     *
+     * @param siteId The current site Id
+     * @param languageId The current language Id
+     * @return The {@link VanityUrlIndex}, null if the cache could not be initialized
+     */
+    private VanityUrlIndex getVanityUrlIndex(final String siteId, final long languageId) {
 
-            synchronized (VanityUrlAPIImpl.class) {
+        if (null == this.getVanityUrlBySiteAndLanguageFromCache(siteId, languageId, true)) {
 
-                cachedVanityUrls =
-                        this.getVanityUrlBySiteAndLanguageFromCache
-                            (siteId, languageId, true);
+            //Initialize the Cached Vanity URL cache if is null
+            this.initializeCachedVanityUrls(siteId, languageId);
+        }
+
+        // the versions are read before the lists, so a list replaced in between is only
+        // indexed with an older version and the index is built again on the next request
+        final boolean isSystemHost = Host.SYSTEM_HOST.equals(siteId);
+        final String siteVersion =
+                this.vanityUrlServices.getCachedVanityUrlListVersion(siteId, languageId);
+        final String systemHostVersion = isSystemHost? StringPool.BLANK:
+                this.vanityUrlServices.getCachedVanityUrlListVersion(Host.SYSTEM_HOST, languageId);
+        final List<CachedVanityUrl> siteVanities =
+                this.vanityUrlServices.getCachedVanityUrlList(siteId, languageId);
+        final List<CachedVanityUrl> systemHostVanities = isSystemHost?
+                Collections.emptyList():
+                this.vanityUrlServices.getCachedVanityUrlList(Host.SYSTEM_HOST, languageId);
+
+        if (null == siteVersion || null == systemHostVersion
+                || null == siteVanities || null == systemHostVanities) {
+            return null;
+        }
+
+        return this.vanityUrlIndexes.compute(new SiteLanguageKey(siteId, languageId),
+                (key, current) -> (null != current && current.isFor(siteVersion, systemHostVersion))?
+                        current : new VanityUrlIndex(siteVersion, siteVanities,
+                                systemHostVersion, systemHostVanities));
+    } // getVanityUrlIndex.
+
+    /**
+     * Initializes the cached Vanity URLs of a site and language, the requests for the same site
+     * and language wait for the one already searching instead of searching again, the rest of the
+     * sites are not blocked.
+     *
+     * @param siteId The current site Id
+     * @param languageId The current language Id
+     */
+    private void initializeCachedVanityUrls(final String siteId, final long languageId) {
 
-                if (null == cachedVanityUrls) {
+        final SiteLanguageKey key = new SiteLanguageKey(siteId, languageId);
+        final CompletableFuture<Void> initialization = new CompletableFuture<>();
+        final CompletableFuture<Void> inFlight =
+                this.inFlightInitializations.putIfAbsent(key, initialization);
 
-                    //Initialize the Cached Vanity URL cache if is null
+        if (null != inFlight) {
+            try {
+                inFlight.get(Config.getLongProperty("VANITY_URL_INIT_WAIT_MILLIS", 10000),
+                        TimeUnit.MILLISECONDS);
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                Logger.debug(this, "Vanity URLs initialization failed for: " + key, e);
+                return;
+            } catch (TimeoutException e) {
+                // the initialization we were waiting for is stuck, do it on this thread
+                Logger.debug(this, "Timed out waiting for the Vanity URLs initialization of: " + key);
+                if (null == this.getVanityUrlBySiteAndLanguageFromCache(siteId, languageId, true)) {
                     this.initializeActiveVanityURLsCacheBySiteAndLanguage
                             (siteId, languageId, this.systemUser);
-
-                    //Get the list of site cached Vanities URLs
-                    cachedVanityUrls =
-                            this.getVanityUrlBySiteAndLanguageFromCache
-                                    (siteId, languageId,true);
                 }
+                return;
             }
         }
 
-        VanityMatches matches = null;
-        if (null != cachedVanityUrls) {
-            //Validates if onw of the site cachedVanityUrls matches the uri
-            for (CachedVanityUrl vanity : cachedVanityUrls) {
+        try {
 
-                matches = this.patternMatches(vanity, uri);
-                if (matches.isPatternMatches()) {
+            // it could be initialized while we were checking
+            if (null == this.getVanityUrlBySiteAndLanguageFromCache(siteId, languageId, true)) {
 
-                    result = processExpressions(vanity, matches.getGroups());
-                    break;
-                }
+                this.initializeActiveVanityURLsCacheBySiteAndLanguage
+                        (siteId, languageId, this.systemUser);
             }
+            initialization.complete(null);
+        } catch (RuntimeException e) {
+            initialization.completeExceptionally(e);
+            throw e;
+        } finally {
+            this.inFlightInitializations.remove(key, initialization);
         }
-
-        /*
-        At this point we already found and saved in cache the VanityURL that matches with the given
-        URL but adding a new VanityURL to the cache for the completed requested URL
-        and not just the regex used can save us time.
-         */
-        if (null != result && !result.getUrl().equals(uri)) {
-            this.vanityUrlServices.updateCache(new CachedVanityUrl(result, uri));
-        }
-
-        return result;
-    } // searchLiveCachedVanityUrlBySiteAndLanguage.
+    } // initializeCachedVanityUrls.
 
     /**
      * Using a given lucene query this method searches for VanityURLs, each VanityURL found is
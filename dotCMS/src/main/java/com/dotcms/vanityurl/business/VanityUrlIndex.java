@@ -0,0 +1,290 @@
+package com.dotcms.vanityurl.business;
+
+import com.dotcms.vanityurl.model.CachedVanityUrl;
+import com.dotmarketing.util.Config;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+
+import static com.dotcms.util.VanityUrlUtil.processExpressions;
+
+/**
+ * Matching index of the live Vanity URLs of a site and a language, so resolving a URI does not
+ * run the pattern of every Vanity URL of the site one after another.
+ * <p>
+ * The Vanity URLs keep their order: the ones of the site first and then the ones of the
+ * SYSTEM_HOST, each list sorted by the order of the Vanity URLs, and the first one that matches
+ * the URI wins, as before. Each pattern is indexed by the literal text every URI it matches starts
+ * with:
+ * <ul>
+ *     <li>Patterns without any regular expression, e.g. {@code /about-us}, are looked up in a
+ *     hash by the URI.</li>
+ *     <li>Patterns that start with a literal, e.g. {@code /blog/(.*)}, are kept in a prefix trie
+ *     under that literal, so only the ones with a prefix of the URI are run.</li>
+ *     <li>The rest, e.g. {@code (?i)/about} or {@code /a|/b}, are kept in order at the root of
+ *     the trie and are always run.</li>
+ * </ul>
+ * </p>
+ * <p>
+ * An index is built from the lists kept in the {@link com.dotcms.cache.VanityUrlCache} and is
+ * only valid for the versions those lists were cached with (see {@link #isFor(String, String)}),
+ * as the cache replaces or removes them when a Vanity URL of the site changes. The result of the last URIs resolved with
+ * the index, a miss included, is kept in a bounded LRU of
+ * {@code VANITY_URL_INDEX_RESULTS_SIZE} entries.
+ * </p>
+ */
+final class VanityUrlIndex {
+
+    private static final String META_CHARACTERS = ".[]{}()*+?|^$";
+    private static final String OPTIONAL_QUANTIFIERS = "*?{";
+
+    private final String siteVersion;
+    private final String systemHostVersion;
+    private final Map<String, Entry> literals = new HashMap<>();
+    private final Node root = new Node();
+    private final Map<String, CachedVanityUrl> results;
+
+    /**
+     * @param siteVersion The version of the cached list of the site.
+     * @param siteVanities The live Vanity URLs of the site, sorted by order.
+     * @param systemHostVersion The version of the cached list of the SYSTEM_HOST.
+     * @param systemHostVanities The live Vanity URLs of the SYSTEM_HOST sorted by order, empty
+     *            for the index of the SYSTEM_HOST.
+     */
+    VanityUrlIndex(final String siteVersion,
+                   final List<CachedVanityUrl> siteVanities,
+                   final String systemHostVersion,
+                   final List<CachedVanityUrl> systemHostVanities) {
+
+        this.siteVersion       = siteVersion;
+        this.systemHostVersion = systemHostVersion;
+
+        int rank = 0;
+        for (final CachedVanityUrl vanity : siteVanities) {
+            this.add(new Entry(rank++, vanity));
+        }
+        for (final CachedVanityUrl vanity : systemHostVanities) {
+            this.add(new Entry(rank++, vanity));
+        }
+
+        final int maxResults = Config.getIntProperty("VANITY_URL_INDEX_RESULTS_SIZE", 1000);
+        this.results = new LinkedHashMap<String, CachedVanityUrl>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, CachedVanityUrl> eldest) {
+                return this.size() > maxResults;
+            }
+        };
+    }
+
+    /**
+     * @return true if the index was built from the lists with these versions.
+     */
+    boolean isFor(final String siteVersion,
+                  final String systemHostVersion) {
+
+        return this.siteVersion.equals(siteVersion) && this.systemHostVersion.equals(systemHostVersion);
+    }
+
+    /**
+     * Finds the first Vanity URL that matches the URI.
+     *
+     * @param uri The current uri
+     * @return The matching Vanity URL with the groups of the URI replaced in its forward, or
+     * the result kept by {@link #cacheResult(String, CachedVanityUrl)}, null if none matches
+     */
+    CachedVanityUrl find(final String uri) {
+
+        synchronized (this.results) {
+            if (this.results.containsKey(uri)) {
+                return this.results.get(uri);
+            }
+        }
+
+        final CachedVanityUrl result = this.match(uri);
+        this.cacheResult(uri, result);
+        return result;
+    } // find.
+
+    /**
+     * Keeps the result of a URI, e.g. the 404 of a URI no Vanity URL matches.
+     *
+     * @param uri The current uri
+     * @param result The result {@link #find(String)} returns for the URI
+     */
+    void cacheResult(final String uri, final CachedVanityUrl result) {
+
+        synchronized (this.results) {
+            this.results.put(uri, result);
+        }
+    }
+
+    private CachedVanityUrl match(final String uri) {
+
+        final Entry literal = this.literals.get(uri);
+        final List<Entry> candidates = this.candidates(uri);
+
+        for (final Entry candidate : candidates) {
+
+            if (null != literal && literal.rank < candidate.rank) {
+                break;
+            }
+
+            final Matcher matcher = candidate.vanity.getPattern().matcher(uri);
+            if (matcher.matches()) {
+
+                String[] groups = null;
+                if (matcher.groupCount() > 0) {
+                    groups = new String[matcher.groupCount()];
+                    for (int i = 1; i <= matcher.groupCount(); i++) {
+                        groups[i - 1] = matcher.group(i);
+                    }
+                }
+                return processExpressions(candidate.vanity, groups);
+            }
+        }
+
+        return null != literal ? literal.vanity : null;
+    } // match.
+
+    /**
+     * Collects the patterns indexed under the root of the trie and under every prefix of the
+     * URI, sorted by rank.
+     */
+    private List<Entry> candidates(final String uri) {
+
+        final List<Entry> candidates = new ArrayList<>(this.root.entries);
+        Node node = this.root;
+        for (int i = 0; i < uri.length() && null != node.children; i++) {
+
+            node = node.children.get(uri.charAt(i));
+            if (null == node) {
+                break;
+            }
+            candidates.addAll(node.entries);
+        }
+
+        candidates.sort(Comparator.comparingInt(entry -> entry.rank));
+        return candidates;
+    }
+
+    private void add(final Entry entry) {
+
+        final String pattern = entry.vanity.getPattern().pattern();
+        final StringBuilder prefix = new StringBuilder();
+        final boolean isLiteral = literalPrefix(pattern, prefix);
+
+        if (isLiteral) {
+            // only the first one can match, the order of the rest doesn't matter
+            this.literals.putIfAbsent(prefix.toString(), entry);
+            return;
+        }
+
+        Node node = this.root;
+        for (int i = 0; i < prefix.length(); i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        node.entries.add(entry);
+    } // add.
+
+    /**
+     * Reads the literal text every URI the pattern matches starts with.
+     *
+     * @param pattern The regular expression of a Vanity URL
+     * @param prefix Receives the literal prefix, empty if the pattern has none
+     * @return true if the whole pattern is a literal, so it only matches the prefix itself
+     */
+    static boolean literalPrefix(final String pattern, final StringBuilder prefix) {
+
+        int i = pattern.startsWith("^") ? 1 : 0;
+        while (i < pattern.length()) {
+
+            final char current = pattern.charAt(i);
+            if (current == '\\') {
+                if (i + 1 < pattern.length() && !Character.isLetterOrDigit(pattern.charAt(i + 1))) {
+                    prefix.append(pattern.charAt(i + 1));
+                    i += 2;
+                    continue;
+                }
+                break;
+            }
+            if (META_CHARACTERS.indexOf(current) != -1) {
+                break;
+            }
+            prefix.append(current);
+            i++;
+        }
+
+        if (i == pattern.length()) {
+            return true;
+        }
+
+        if (hasTopLevelAlternation(pattern)) {
+            // every branch has its own prefix
+            prefix.setLength(0);
+        } else if (OPTIONAL_QUANTIFIERS.indexOf(pattern.charAt(i)) != -1 && prefix.length() > 0) {
+            // the last literal character may not be there
+            prefix.setLength(prefix.length() - 1);
+        }
+
+        return false;
+    } // literalPrefix.
+
+    private static boolean hasTopLevelAlternation(final String pattern) {
+
+        int depth = 0;
+        boolean inClass = false;
+        for (int i = 0; i < pattern.length(); i++) {
+
+            final char current = pattern.charAt(i);
+            if (current == '\\') {
+                i++;
+            } else if (inClass) {
+                inClass = current != ']';
+            } else if (current == '[') {
+                inClass = true;
+            } else if (current == '(') {
+                depth++;
+            } else if (current == ')') {
+                depth--;
+            } else if (current == '|' && depth == 0) {
+                return true;
+            }
+        }
+
+        return false;
+    } // hasTopLevelAlternation.
+
+    private static final class Entry {
+
+        private final int rank;
+        private final CachedVanityUrl vanity;
+
+        Entry(final int rank, final CachedVanityUrl vanity) {
+            this.rank   = rank;
+            this.vanity = vanity;
+        }
+    }
+
+    private static final class Node {
+
+        private final List<Entry> entries = new ArrayList<>(1);
+        private Map<Character, Node> children;
+
+        Node child(final char character) {
+
+            if (null == this.children) {
+                this.children = new HashMap<>();
+            }
+            return this.children.computeIfAbsent(character, key -> new Node());
+        }
+    }
+
+} // E:O:F:VanityUrlIndex.
@@ -1,5 +1,6 @@
 package com.dotcms.visitor.business;
 
+import com.dotcms.util.GeoLocation;
 import com.dotcms.visitor.domain.Visitor;
 import com.dotmarketing.business.web.LanguageWebAPI;
 
@@ -14,4 +15,14 @@ public interface VisitorAPI {
 
     Optional<Visitor> getVisitor(HttpServletRequest request, boolean create);
 
+    /**
+     * Returns the geographic information of the IP address of the request. It is resolved once
+     * per visitor and kept in the {@link Visitor} of the session, if any.
+     *
+     * @param request The current request
+     * @return The location of the visitor, empty if the GeoIP2 database is not available or does
+     *         not know the IP address.
+     */
+    Optional<GeoLocation> getGeoLocation(HttpServletRequest request);
+
 }
@@ -1,7 +1,11 @@
 package com.dotcms.visitor.business;
 
+import com.dotcms.repackage.com.google.common.annotations.VisibleForTesting;
+import com.dotcms.repackage.com.maxmind.geoip2.exception.GeoIp2Exception;
 import com.dotcms.repackage.org.apache.logging.log4j.util.Strings;
 import com.dotcms.util.DotPreconditions;
+import com.dotcms.util.GeoIp2CityDbUtil;
+import com.dotcms.util.GeoLocation;
 import com.dotcms.util.HttpRequestDataUtil;
 import com.dotcms.visitor.domain.Visitor;
 import com.dotmarketing.business.APILocator;
@@ -18,6 +22,7 @@ import eu.bitwalker.useragentutils.UserAgent;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpSession;
+import java.io.IOException;
 import java.net.InetAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -26,11 +31,24 @@ import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 public class VisitorAPIImpl implements VisitorAPI {
 
     private LanguageWebAPI languageWebAPI = WebAPILocator.getLanguageWebAPI();
 
+    // the GeoIP2 database is only opened the first time a location is asked for
+    private final Supplier<GeoIp2CityDbUtil> geoIp2Util;
+
+    public VisitorAPIImpl() {
+        this(GeoIp2CityDbUtil::getInstance);
+    }
+
+    @VisibleForTesting
+    public VisitorAPIImpl(Supplier<GeoIp2CityDbUtil> geoIp2Util) {
+        this.geoIp2Util = geoIp2Util;
+    }
+
     @Override
     public void setLanguageWebAPI(LanguageWebAPI languageWebAPI) {
         this.languageWebAPI = languageWebAPI;
@@ -88,6 +106,37 @@ public class VisitorAPIImpl implements VisitorAPI {
         return visitorOpt;
     }
 
+    @Override
+    public Optional<GeoLocation> getGeoLocation(HttpServletRequest request) {
+
+        DotPreconditions.checkNotNull(request, IllegalArgumentException.class, "Null Request");
+
+        HttpSession session = request.getSession(false);
+        Visitor visitor = Objects.isNull(session) ? null : (Visitor) session.getAttribute(WebKeys.VISITOR);
+
+        if(Objects.nonNull(visitor) && Objects.nonNull(visitor.getGeoLocation())) {
+            return Optional.of(visitor.getGeoLocation());
+        }
+
+        InetAddress ipAddress = Objects.nonNull(visitor) && Objects.nonNull(visitor.getIpAddress())
+                ? visitor.getIpAddress() : lookupIPAddress(request);
+
+        if(Objects.isNull(ipAddress)) {
+            return Optional.empty();
+        }
+
+        try {
+            GeoLocation geoLocation = geoIp2Util.get().getGeoLocation(ipAddress.getHostAddress());
+            if(Objects.nonNull(visitor)) {
+                visitor.setGeoLocation(geoLocation);
+            }
+            return Optional.of(geoLocation);
+        } catch(IOException | GeoIp2Exception | RuntimeException e) {
+            Logger.debug(VisitorAPIImpl.class, "Could not get the location of " + ipAddress.getHostAddress() + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
     private Visitor createVisitor(HttpServletRequest request) {
 
         Visitor visitor = new Visitor();
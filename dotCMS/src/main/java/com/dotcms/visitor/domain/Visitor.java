@@ -3,6 +3,7 @@ package com.dotcms.visitor.domain;
 import com.dotcms.repackage.com.google.common.collect.HashMultiset;
 import com.dotcms.repackage.com.google.common.collect.Multiset;
 import com.dotcms.repackage.com.google.common.collect.Multisets;
+import com.dotcms.util.GeoLocation;
 import eu.bitwalker.useragentutils.DeviceType;
 import com.dotmarketing.business.APILocator;
 import com.dotmarketing.exception.DotDataException;
@@ -38,6 +39,8 @@ public class Visitor implements Serializable {
     		
     private UserAgent userAgent;
 
+    private GeoLocation geoLocation;
+
     private UUID dmid;
 
     private boolean newVisitor = true;
@@ -185,6 +188,18 @@ public class Visitor implements Serializable {
         this.userAgent = userAgent;
     }
 
+    /**
+     * @return The geographic information of the visitor's IP address, {@code null} until it is
+     *         resolved by {@link com.dotcms.visitor.business.VisitorAPI#getGeoLocation}.
+     */
+    public GeoLocation getGeoLocation() {
+        return geoLocation;
+    }
+
+    public void setGeoLocation(GeoLocation geoLocation) {
+        this.geoLocation = geoLocation;
+    }
+
     public UUID getDmid() {
         return dmid;
     }
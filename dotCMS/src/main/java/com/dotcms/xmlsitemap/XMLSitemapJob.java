@@ -3,19 +3,24 @@ package com.dotcms.xmlsitemap;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
-import java.io.OutputStreamWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
-import java.util.Calendar;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.zip.GZIPOutputStream;
+import java.util.Properties;
+import java.util.Set;
 
 import org.quartz.Job;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
 import org.quartz.StatefulJob;
 
+import com.dotcms.content.elasticsearch.business.ContentletScrollIterator;
 import com.dotcms.contenttype.model.type.ContentType;
 import com.dotcms.contenttype.transform.contenttype.StructureTransformer;
 import com.dotcms.repackage.org.apache.commons.lang.StringUtils;
@@ -32,6 +37,7 @@ import com.dotmarketing.db.DbConnectionFactory;
 import com.dotmarketing.db.HibernateUtil;
 import com.dotmarketing.exception.DotDataException;
 import com.dotmarketing.exception.DotHibernateException;
+import com.dotmarketing.exception.DotRuntimeException;
 import com.dotmarketing.exception.DotSecurityException;
 import com.dotmarketing.filters.CMSFilter;
 import com.dotmarketing.portlets.contentlet.business.ContentletAPI;
@@ -45,6 +51,7 @@ import com.dotmarketing.portlets.htmlpageasset.model.IHTMLPage;
 import com.dotmarketing.portlets.links.model.Link;
 import com.dotmarketing.portlets.structure.model.Structure;
 import com.dotmarketing.util.Config;
+import com.dotmarketing.util.ConfigUtils;
 import com.dotmarketing.util.InodeUtils;
 import com.dotmarketing.util.Logger;
 import com.dotmarketing.util.RegEX;
@@ -55,22 +62,24 @@ import com.liferay.portal.model.User;
 
 /**
  * This class manage the generation of the XMLSitemap<X>.xml.gz files from every
- * host in this dotCMS site
+ * host in this dotCMS site. The urls are streamed from the index into the gzipped
+ * files, and only the sitemaps of the structures whose contents changed since the
+ * last run are generated again.
  *
  * @author Oswaldo
  *
  */
 public class XMLSitemapJob implements Job, StatefulJob {
 
-	private Host currentHost = null;
-	private User systemUser = null;
-	private File temporaryFile = null;
-	private File compressedFile = null;
-	private OutputStreamWriter out = null;
+	private static final String LAST_RUN = "lastRun";
+	/**
+	 * The contents of a type are loaded a hundred at a time, each of them is written out before
+	 * the next batch is read.
+	 */
+	private static final int SCROLL_BATCH_SIZE = 100;
 
-	private int sitemapCounter = 1;
-	private int processedRegistries = 0;
-	private Map<String, Integer> hostFilesCounter = null;
+	private User systemUser = null;
+	private XMLSitemapWriter writer = null;
 
 	private static String XML_SITEMAPS_FOLDER;
 	private ContentletAPI conAPI = APILocator.getContentletAPI();
@@ -84,13 +93,14 @@ public class XMLSitemapJob implements Job, StatefulJob {
 			new java.util.Date(), "yyyy-MM-dd");
 
 	private String structuresToIgnoreConfig = null;
+	private int maxUrlsPerFile = 50000;
+	private long maxFileSize = 9437184;
+	private boolean incremental = true;
 
 	public XMLSitemapJob () {
 		try {
 			systemUser = userAPI.getSystemUser();
 
-			hostFilesCounter = new HashMap<String, Integer>();
-
 			XML_SITEMAPS_FOLDER = Config.getStringProperty( "org.dotcms.XMLSitemap.XML_SITEMAPS_FOLDER", "/XMLSitemaps/" );
 			String usePermalinksString = Config.getStringProperty( "org.dotcms.XMLSitemap.USE_PERMALINKS=false", "false" );
 			String useStructureURLMapString = Config.getStringProperty( "org.dotcms.XMLSitemap.USE_STRUCTURE_URL_MAP", "false" );
@@ -101,6 +111,9 @@ public class XMLSitemapJob implements Job, StatefulJob {
 					new java.util.Date( System.currentTimeMillis() ), "yyyy-MM-dd" );
 
 			structuresToIgnoreConfig = Config.getStringProperty( "org.dotcms.XMLSitemap.IGNORE_Structure_Ids", "" );
+			maxUrlsPerFile = Config.getIntProperty( "org.dotcms.XMLSitemap.MAX_URLS_PER_FILE", 50000 );
+			maxFileSize = Config.getLongProperty( "org.dotcms.XMLSitemap.MAX_FILE_SIZE", 9437184 );
+			incremental = Config.getBooleanProperty( "org.dotcms.XMLSitemap.INCREMENTAL", true );
 
 			//generateSitemapPerHost();
 		} catch ( Exception e ) {
@@ -162,7 +175,6 @@ public class XMLSitemapJob implements Job, StatefulJob {
 	 * Generate the sitemap xml based on the show on menu pages, files, link and
 	 * folder
 	 */
-	@SuppressWarnings("unchecked")
 	public void generateSitemapPerHost() throws DotDataException, DotSecurityException {
 
 		List<Host> hostsList = hostAPI.findAll(systemUser, false);
@@ -174,90 +186,180 @@ public class XMLSitemapJob implements Job, StatefulJob {
 				continue;
             }
 
-			processedRegistries = 0;
-			currentHost = host;
-			sitemapCounter = 1;
-            String stringbuf;
-
 			try {
-				/**
-				 * mark all the existing sitemaps generated in the XMLSitemap
-				 * folder for the host specified to be removed upon creating new ones
-				 */
-				List<Object> oldSiteMapsToDel = new ArrayList<Object>();
+				generateSitemap(host, types);
+			} catch (Exception e) {
+				Logger.error(this, e.getMessage(), e);
+			}
+		}
+	}
 
-				Folder folder = folderAPI.findFolderByPath(XML_SITEMAPS_FOLDER, host, systemUser, false);
+	/**
+	 * Generate the sitemaps of a host, streaming the urls into gzipped files of at most
+	 * org.dotcms.XMLSitemap.MAX_URLS_PER_FILE urls that the XMLSitemapServlet lists in the
+	 * sitemap index. The pages of the menu are one shard, the contents of every structure with
+	 * a detail page another one.
+	 * <p>
+	 * The sitemaps of a structure are only generated again when its contents changed since the
+	 * last run: the count of live contents is not the same, one of them has a newer modDate or
+	 * its urls are built another way. The menu is not in the index, it is generated on every
+	 * run.
+	 * </p>
+	 */
+	private void generateSitemap(Host host, List<ContentType> types) throws Exception {
 
-				if (InodeUtils.isSet(folder.getIdentifier())) {
-					oldSiteMapsToDel.addAll(conAPI.findContentletsByFolder(folder, systemUser, false));
-				}
+		final Date runStart = new Date();
+		final Properties state = loadState(host);
+		final String lastRun = state.getProperty(LAST_RUN);
+		final Properties newState = new Properties();
 
-				hostFilesCounter.put(host.getHostname(), sitemapCounter);
+		/**
+		 * the sitemaps of the previous runs: the new ones replace them, and the ones
+		 * neither generated again nor up to date are removed
+		 */
+		final Map<String, Contentlet> existingSitemaps = new HashMap<String, Contentlet>();
+		final Set<String> sitemapsToKeep = new HashSet<String>();
 
-				/* adding host url */
-				stringbuf = "<url><loc>"
-						+ XMLUtils.xmlEscape("http://" + host.getHostname() + "/")
-						+ "</loc><lastmod>"
-						+ modifiedDateStringValue
-						+ "</lastmod><changefreq>daily</changefreq></url>\n";
+		Folder folder = folderAPI.findFolderByPath(XML_SITEMAPS_FOLDER, host, systemUser, false);
 
-				writeFile(stringbuf);
+		if (folder != null && InodeUtils.isSet(folder.getIdentifier())) {
+			for (Contentlet sitemap : conAPI.findContentletsByFolder(folder, systemUser, false)) {
+				existingSitemaps.put(sitemap.getStringProperty(FileAssetAPI.FILE_NAME_FIELD), sitemap);
+			}
+		}
 
-				addRegistryProcessed();
+		final String fileNamePrefix = Config.getStringProperty("org.dotcms.XMLSitemap.SITEMAP_XML_GZ_FILENAME","XMLSitemapGenerated");
 
-				List<String> ignorableStructureIds = getIgnorableStrcutureIdsForHost(host);
-				/**
-				 * This part generate the detail pages sitemap links per
-				 * structure
-				 */
-				for (ContentType type : types) {
-					String stVelocityVarName = type.variable();
-					if (ignorableStructureIds.contains(stVelocityVarName.toLowerCase())) {
-						continue;
-					}
+		writer = openWriter(host, fileNamePrefix, existingSitemaps);
+		try {
+			/* adding host url */
+			writeFile("<url><loc>"
+					+ XMLUtils.xmlEscape("http://" + host.getHostname() + "/")
+					+ "</loc><lastmod>"
+					+ modifiedDateStringValue
+					+ "</lastmod><changefreq>daily</changefreq></url>\n");
 
-					Structure st = new StructureTransformer(type).asStructure();
+            /*
+             This part add the show on menu pages. similar as we do in nav tool to generate the sitemap
+             */
+            List<Folder> itemsList = folderAPI.findSubFolders( host, true );
+            if ( itemsList != null && !itemsList.isEmpty() ) {
 
-                    //Continue only if have a detail
-                    if ( !InodeUtils.isSet( st.getPagedetail() ) ) {
-						continue;
-                    }
+                // /FIRST LEVEL MENU ITEMS!!!!
+                for ( Object itemChild : itemsList ) {
 
-					//Getting the detail page, that detail page could be a HTMLPageAsset or a legacy page
-					IHTMLPage page = null;
-						//First lets asume it is a HTMLPageAsset
-						Contentlet contentlet = APILocator.getContentletAPI().search( "+identifier:" + st.getPagedetail() + " +live:true", 0, 0, "moddate", systemUser, false ).get( 0 );
-						if ( contentlet != null ) {
-							page = APILocator.getHTMLPageAssetAPI().fromContentlet( contentlet );
-						}
+					if (itemChild instanceof Folder) {
 
-					if ( !UtilMethods.isSet( page ) || !UtilMethods.isSet( page.getIdentifier() ) ) {
-						Logger.error( this, "Unable to find detail page for structure [" + stVelocityVarName + "]." );
-						continue;
-					}
+						Folder folderChild = (Folder) itemChild;
+
+						Logger.debug(this, "Folder Iteration in progress Name [" + folderChild.getName() + "], show on Menu Indicator [" + folderChild.isShowOnMenu() + "]");
+
+						// recursive method here
+						buildSubFolderSiteMapMenu(folderChild, 100, 1, 1);
+
+					} else if (itemChild instanceof Link) {
+
+                        writeLink( host, (Link) itemChild );
+
+					} else if (itemChild instanceof IHTMLPage) {
+
+                        writeHTMLPage( host, (IHTMLPage) itemChild, false );
+
+					} else if (itemChild instanceof Contentlet) {
+
+						writeContentlet( host, (Contentlet) itemChild );
 
-					Identifier pageIdentifier = identAPI.find( page.getIdentifier() );
-					if ( !UtilMethods.isSet( pageIdentifier ) || !UtilMethods.isSet( pageIdentifier.getId() ) ) {
-						Logger.error( this, "Unable to find detail page for structure [" + stVelocityVarName + "]." );
-						continue;
 					}
+				}
 
-					Logger.debug( this, " Creating Site Map for Structure " + stVelocityVarName );
+			}
 
-					//Search for the content of this structure
-					String hostQuery = "+(conhost:" + host.getIdentifier() + " conhost:SYSTEM_HOST)";
-					String query = hostQuery + " +structureName:" + st.getVelocityVarName() + " +deleted:false +live:true";
+		} finally {
+			writer.close();
+		}
+		sitemapsToKeep.addAll(writer.getFileNames());
+
+		List<String> ignorableStructureIds = getIgnorableStrcutureIdsForHost(host);
+		/**
+		 * This part generate the detail pages sitemap links per
+		 * structure
+		 */
+		for (ContentType type : types) {
+			String stVelocityVarName = type.variable();
+			if (ignorableStructureIds.contains(stVelocityVarName.toLowerCase())) {
+				continue;
+			}
 
-					List<Contentlet> hits = conAPI.search( query, -1, 0, "", systemUser, true );
-					String structureURLMap = st.getUrlMapPattern();
+			Structure st = new StructureTransformer(type).asStructure();
 
-					List<RegExMatch> matches = null;
+            //Continue only if have a detail
+            if ( !InodeUtils.isSet( st.getPagedetail() ) ) {
+				continue;
+            }
 
-					if ( useStructureURLMap && UtilMethods.isSet( structureURLMap ) ) {
-						matches = RegEX.find( st.getUrlMapPattern(), "({[^{}]+})" );
+			List<String> previousFiles = new ArrayList<String>();
+			for (String fileName : state.getProperty(stVelocityVarName + ".files", "").split(",")) {
+				if (UtilMethods.isSet(fileName)) {
+					previousFiles.add(fileName);
+				}
+			}
+
+			try {
+				//Getting the detail page, that detail page could be a HTMLPageAsset or a legacy page
+				IHTMLPage page = null;
+					//First lets asume it is a HTMLPageAsset
+					Contentlet contentlet = APILocator.getContentletAPI().search( "+identifier:" + st.getPagedetail() + " +live:true", 0, 0, "moddate", systemUser, false ).get( 0 );
+					if ( contentlet != null ) {
+						page = APILocator.getHTMLPageAssetAPI().fromContentlet( contentlet );
 					}
 
-					for (Contentlet contenlet : hits) {
+				if ( !UtilMethods.isSet( page ) || !UtilMethods.isSet( page.getIdentifier() ) ) {
+					Logger.error( this, "Unable to find detail page for structure [" + stVelocityVarName + "]." );
+					continue;
+				}
+
+				Identifier pageIdentifier = identAPI.find( page.getIdentifier() );
+				if ( !UtilMethods.isSet( pageIdentifier ) || !UtilMethods.isSet( pageIdentifier.getId() ) ) {
+					Logger.error( this, "Unable to find detail page for structure [" + stVelocityVarName + "]." );
+					continue;
+				}
+
+				//Search for the content of this structure
+				String hostQuery = "+(conhost:" + host.getIdentifier() + " conhost:SYSTEM_HOST)";
+				String query = hostQuery + " +structureName:" + st.getVelocityVarName() + " +deleted:false +live:true";
+
+				//what the urls of the contents are built from
+				String count = String.valueOf( conAPI.indexCount( query, systemUser, true ) );
+				String urls = pageIdentifier.getURI() + "|" + st.getUrlMapPattern() + "|" + usePermalinks + "|"
+						+ useStructureURLMap + "|" + getUrlPatternReplacementText( host, stVelocityVarName );
+
+				if ( lastRun != null && count.equals( state.getProperty( stVelocityVarName + ".count" ) )
+						&& urls.equals( state.getProperty( stVelocityVarName + ".urls" ) )
+						&& existingSitemaps.keySet().containsAll( previousFiles )
+						&& conAPI.indexCount( query + " +modDate:[" + lastRun + " TO 30000101000000]", systemUser, true ) == 0 ) {
+
+					Logger.debug( this, " Site Map for Structure " + stVelocityVarName + " is up to date" );
+					sitemapsToKeep.addAll( previousFiles );
+					copyState( state, newState, stVelocityVarName );
+					continue;
+				}
+
+				Logger.debug( this, " Creating Site Map for Structure " + stVelocityVarName );
+
+				String structureURLMap = st.getUrlMapPattern();
+
+				List<RegExMatch> matches = null;
+
+				if ( useStructureURLMap && UtilMethods.isSet( structureURLMap ) ) {
+					matches = RegEX.find( st.getUrlMapPattern(), "({[^{}]+})" );
+				}
+
+				String stringbuf;
+				try (ContentletScrollIterator hits = conAPI.scroll( query, SCROLL_BATCH_SIZE, systemUser, true );
+						XMLSitemapWriter structureWriter = openWriter( host, fileNamePrefix + "-" + stVelocityVarName, existingSitemaps )) {
+					writer = structureWriter;
+					while (hits.hasNext()) {
+						Contentlet contenlet = hits.next();
 						stringbuf = null;
 						try {
 							if (usePermalinks) {
@@ -269,7 +371,7 @@ public class XMLSitemapJob implements Job, StatefulJob {
 												+ "/" + st.getPagedetail()
 												+ "/")
 										+ "</loc><lastmod>"
-										+ modifiedDateStringValue
+										+ lastmod(contenlet)
 										+ "</lastmod><changefreq>daily</changefreq></url>\n";
 
 							} else if (useStructureURLMap && UtilMethods.isSet(structureURLMap) && (matches != null)) {
@@ -320,7 +422,7 @@ public class XMLSitemapJob implements Job, StatefulJob {
 										+ XMLUtils.xmlEscape("http://"
 												+ host.getHostname() + uri)
 										+ "</loc><lastmod>"
-										+ modifiedDateStringValue
+										+ lastmod(contenlet)
 										+ "</lastmod><changefreq>daily</changefreq></url>\n";
 								}
 							} else {
@@ -331,62 +433,48 @@ public class XMLSitemapJob implements Job, StatefulJob {
 												+ "?id="
 												+ contenlet.getIdentifier())
 										+ "</loc><lastmod>"
-										+ modifiedDateStringValue
+										+ lastmod(contenlet)
 										+ "</lastmod><changefreq>daily</changefreq></url>\n";
 							}
 
 							if (stringbuf != null) {
 								writeFile(stringbuf);
 							}
-							addRegistryProcessed();
 
 						} catch (Exception e) {
 							Logger.error(this, e.getMessage(), e);
 						}
 					}
 				}
-
-                /*
-                 This part add the show on menu pages. similar as we do in nav tool to generate the sitemap
-                 */
-                List<Folder> itemsList = folderAPI.findSubFolders( host, true );
-                if ( itemsList != null && !itemsList.isEmpty() ) {
-
-                    // /FIRST LEVEL MENU ITEMS!!!!
-                    for ( Object itemChild : itemsList ) {
-
-						if (itemChild instanceof Folder) {
-
-							Folder folderChild = (Folder) itemChild;
-
-							Logger.debug(this, "Folder Iteration in progress Name [" + folderChild.getName() + "], show on Menu Indicator [" + folderChild.isShowOnMenu() + "]");
-
-							// recursive method here
-							buildSubFolderSiteMapMenu(folderChild, 100, 1, 1);
-
-						} else if (itemChild instanceof Link) {
-
-                            writeLink( host, (Link) itemChild );
-
-						} else if (itemChild instanceof IHTMLPage) {
-
-                            writeHTMLPage( host, (IHTMLPage) itemChild, false );
-
-						} else if (itemChild instanceof Contentlet) {
-
-							writeContentlet( host, (Contentlet) itemChild );
-
-						}
-					}
-
-				}
+				sitemapsToKeep.addAll( writer.getFileNames() );
+				newState.setProperty( stVelocityVarName + ".count", count );
+				newState.setProperty( stVelocityVarName + ".urls", urls );
+				newState.setProperty( stVelocityVarName + ".files", StringUtils.join( writer.getFileNames(), "," ) );
 
 			} catch (Exception e) {
-				Logger.error(this, e.getMessage(), e);
+				// the sitemaps of the last run are kept, and generated again on the next one
+				Logger.error( this, "Unable to generate the Site Map for Structure " + stVelocityVarName + ": " + e.getMessage(), e );
+				sitemapsToKeep.addAll( previousFiles );
+			}
+		}
+
+		/* removing the sitemaps of the structures without contents any more, and the ones named by the date of the previous versions of this job */
+		for (Map.Entry<String, Contentlet> existingSitemap : existingSitemaps.entrySet()) {
+			if (UtilMethods.isSet(existingSitemap.getKey()) && existingSitemap.getKey().endsWith(".xml.gz")
+					&& !sitemapsToKeep.contains(existingSitemap.getKey())) {
+				deleteSitemap(existingSitemap.getValue());
 			}
+		}
+
+		newState.setProperty(LAST_RUN, UtilMethods.dateToHTMLDate(runStart, "yyyyMMddHHmmss"));
+		saveState(host, newState);
+	}
 
-			if (UtilMethods.isSet(temporaryFile)) {
-				closeFileWriter();
+	private void copyState(Properties state, Properties newState, String structure) {
+		for (String property : new String[] { ".count", ".urls", ".files" }) {
+			String value = state.getProperty(structure + property);
+			if (value != null) {
+				newState.setProperty(structure + property, value);
 			}
 		}
 	}
@@ -434,7 +522,6 @@ public class XMLSitemapJob implements Job, StatefulJob {
 			isIndexPageAlreadyConfigured = true;
 
 			writeFile( stringbuf );
-			addRegistryProcessed();
 		}
 
 		if ( currentLevel < numberOfLevels ) {
@@ -465,7 +552,6 @@ public class XMLSitemapJob implements Job, StatefulJob {
 										+ childChild2Ident.getURI() ) + "]" );
 
 						writeFile( stringbuf );
-						addRegistryProcessed();
 					}
 				} else if ( childChild2 instanceof Link ) {
 
@@ -486,137 +572,124 @@ public class XMLSitemapJob implements Job, StatefulJob {
 	}
 
 	/**
-	 * Create a new instance of the temporary file to save the index data
+	 * Returns a writer for a shard of the sitemap of the host, that saves every sitemap file
+	 * as soon as it is complete.
 	 *
+	 * @param host The host.
+	 * @param fileNamePrefix The prefix of the names of the files of the shard.
+	 * @param existingSitemaps The sitemaps of the previous runs by file name, the files of the
+	 *        shard replace them.
 	 */
-	private void openFileWriter() {
-		try {
-			temporaryFile = new File(Config.getStringProperty("org.dotcms.XMLSitemap.SITEMAP_XML_FILENAME","XMLSitemap")
-					+ ".xml");
-			out = new OutputStreamWriter(new FileOutputStream(temporaryFile),
-					"UTF-8");
-
-			out.write( "<?xml version='1.0' encoding='UTF-8'?>\n" );
-			out
-					.write("<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xsi:schemaLocation=\"http://www.sitemaps.org/schemas/sitemap/0.9 http://www.sitemaps.org/schemas/sitemap/0.9/sitemap.xsd\">\n");
-			out.flush();
-
-		} catch (Exception e) {
-			Logger.error(this, e.getMessage(), e);
-		}
+	private XMLSitemapWriter openWriter(final Host host, String fileNamePrefix,
+			final Map<String, Contentlet> existingSitemaps) {
+		File tmpFolder = new File(APILocator.getFileAssetAPI().getRealAssetPathTmpBinary() + File.separator
+				+ "xmlsitemap" + File.separator + host.getIdentifier());
+		tmpFolder.mkdirs();
+		return new XMLSitemapWriter(tmpFolder, fileNamePrefix, maxUrlsPerFile, maxFileSize,
+				new XMLSitemapWriter.PartHandler() {
+					@Override
+					public void save(File part, int urls) throws Exception {
+						Logger.debug(XMLSitemapJob.class, "Saving " + part.getName() + " with " + urls + " urls");
+						saveSitemap(host, part, existingSitemaps.get(part.getName()));
+					}
+				});
 	}
 
 	/**
-	 * Save in backend the new XMLSitemapGenerated.xml file and delete the
-	 * temporary file
+	 * Saves a sitemap file in the XMLSitemaps folder of the host, as a new version of the file
+	 * asset of the previous run if there is one.
 	 */
-	private void closeFileWriter() {
+	private void saveSitemap(Host host, File sitemap, Contentlet existing) throws DotDataException, DotSecurityException {
 
-		int counter = hostFilesCounter.get(currentHost.getHostname());
-		try {
-			out.write("</urlset>");
-			out.flush();
-			out.close();
-
-			/******* Begin Generate compressed file *****************************/
-			String dateCounter = Calendar.getInstance().get(Calendar.MONTH)
-									+""+Calendar.getInstance().get(Calendar.DAY_OF_MONTH)
-									+""+Calendar.getInstance().get(Calendar.HOUR_OF_DAY)
-									+""+Calendar.getInstance().get(Calendar.MINUTE);
-			String sitemapName = Config.getStringProperty("org.dotcms.XMLSitemap.SITEMAP_XML_GZ_FILENAME","XMLSitemapGenerated")
-					+ dateCounter + counter + ".xml.gz";
-			compressedFile = new File(sitemapName);
-			GZIPOutputStream gout = new GZIPOutputStream(new FileOutputStream(
-					compressedFile));
-
-			// Open the input file
-			FileInputStream in = new FileInputStream(temporaryFile);
-
-			// Transfer bytes from the input file to the GZIP output stream
-			byte[] buf = new byte[1024];
-			int len;
-			while ((len = in.read(buf)) > 0) {
-				gout.write(buf, 0, len);
-			}
-			in.close();
-
-			// Complete the GZIP file
-			gout.finish();
-			gout.close();
-			/************ End Generate compressed file **********************/
-
-			/* Saving file in dotCMS */
-
-			Folder folder = folderAPI.findFolderByPath(XML_SITEMAPS_FOLDER,
-					currentHost, systemUser, true);
+		Contentlet file;
+		if (existing != null) {
+			file = conAPI.checkout(existing.getInode(), systemUser, false);
+		} else {
+			Folder folder = folderAPI.findFolderByPath(XML_SITEMAPS_FOLDER, host, systemUser, true);
 
 			if (!InodeUtils.isSet(folder.getIdentifier())) {
-				folder = folderAPI.createFolders(XML_SITEMAPS_FOLDER,
-						currentHost, systemUser, true);
+				folder = folderAPI.createFolders(XML_SITEMAPS_FOLDER, host, systemUser, true);
 			}
 
-			java.io.File uploadedFile = new java.io.File(sitemapName);
 			// Create the new file
-			Contentlet file = new Contentlet();
+			file = new Contentlet();
 			file.setStructureInode(folder.getDefaultFileType());
-			file.setStringProperty(FileAssetAPI.TITLE_FIELD, UtilMethods.getFileName(sitemapName));
+			file.setStringProperty(FileAssetAPI.TITLE_FIELD, sitemap.getName());
 			file.setFolder(folder.getInode());
-			file.setHost(currentHost.getIdentifier());
-			file.setBinary(FileAssetAPI.BINARY_FIELD, uploadedFile);
-            if ( CacheLocator.getContentTypeCache().getStructureByInode( file.getStructureInode() ).getStructureType() == Structure.STRUCTURE_TYPE_FILEASSET ) {
-				file.setStringProperty("fileName", sitemapName);
-            }
-			file = APILocator.getContentletAPI().checkin(file, systemUser,false);
-            if ( APILocator.getPermissionAPI().doesUserHavePermission( file, PermissionAPI.PERMISSION_PUBLISH, systemUser ) ) {
-				APILocator.getVersionableAPI().setLive(file);
-            }
-			APILocator.getVersionableAPI().setWorking(file);
-
-
-		} catch (Exception e) {
-			Logger.error(this, e.getMessage(), e);
-		} finally {
-			hostFilesCounter.put(currentHost.getHostname(), counter + 1);
-			temporaryFile.delete();
-			compressedFile.delete();
-			temporaryFile = null;
-			compressedFile = null;
+			file.setHost(host.getIdentifier());
+			if ( CacheLocator.getContentTypeCache().getStructureByInode( file.getStructureInode() ).getStructureType() == Structure.STRUCTURE_TYPE_FILEASSET ) {
+				file.setStringProperty("fileName", sitemap.getName());
+			}
 		}
+		file.setBinary(FileAssetAPI.BINARY_FIELD, sitemap);
+		file = conAPI.checkin(file, systemUser, false);
+		if ( APILocator.getPermissionAPI().doesUserHavePermission( file, PermissionAPI.PERMISSION_PUBLISH, systemUser ) ) {
+			APILocator.getVersionableAPI().setLive(file);
+		}
+		APILocator.getVersionableAPI().setWorking(file);
 	}
 
 	/**
-	 * Write inside temporary file index pages
+	 * Write an url entry in the sitemap being generated
 	 *
 	 * @param data
 	 */
 	private void writeFile(String data) {
 
 		try {
-			if (temporaryFile == null) {
-				openFileWriter();
-			}
+			writer.write(data);
+		} catch (IOException e) {
+			throw new DotRuntimeException(e.getMessage(), e);
+		}
 
-			out.write(data);
-			out.flush();
+	}
+
+	/**
+	 * The state of the last run for the host: its date and, for every content type, the count
+	 * of contents, what its urls depend on and the files of its sitemaps. It is kept in the
+	 * dynamic content folder of the server, a server that doesn't have it generates everything.
+	 */
+	private File getStateFile(Host host) {
+		return new File(ConfigUtils.getDynamicContentPath() + File.separator + "xmlsitemap" + File.separator
+				+ host.getIdentifier() + ".properties");
+	}
 
-			if (temporaryFile.length() > 9437184 || processedRegistries > 49999) {
-				closeFileWriter();
-				sitemapCounter = sitemapCounter + 1;
-				processedRegistries = 0;
-				openFileWriter();
+	private Properties loadState(Host host) {
+		Properties state = new Properties();
+		File stateFile = getStateFile(host);
+		if (incremental && stateFile.exists()) {
+			try (InputStream in = new FileInputStream(stateFile)) {
+				state.load(in);
+			} catch (IOException e) {
+				Logger.warn(this, "Unable to read " + stateFile + ", generating all the sitemaps: " + e.getMessage());
+				state.clear();
 			}
+		}
+		return state;
+	}
 
-		} catch (Exception e) {
-			Logger.error(this, e.getMessage(), e);
+	private void saveState(Host host, Properties state) {
+		File stateFile = getStateFile(host);
+		stateFile.getParentFile().mkdirs();
+		try (OutputStream out = new FileOutputStream(stateFile)) {
+			state.store(out, "XMLSitemapJob state of " + host.getHostname());
+		} catch (IOException e) {
+			Logger.warn(this, "Unable to save " + stateFile + ": " + e.getMessage());
 		}
+	}
 
+	private void deleteSitemap(Contentlet sitemap) {
+		try {
+			conAPI.archive(sitemap, systemUser, false);
+			conAPI.delete(sitemap, systemUser, false);
+		} catch (Exception e) {
+			Logger.warn(this, "Unable to delete the sitemap " + sitemap.getTitle() + ": " + e.getMessage());
+		}
 	}
 
-	/**
-	 * Add one to the the number of pages processed counter
-	 */
-	private void addRegistryProcessed() {
-		processedRegistries = processedRegistries + 1;
+	private String lastmod(Contentlet contentlet) {
+		return contentlet.getModDate() != null ? UtilMethods.dateToHTMLDate(contentlet.getModDate(), "yyyy-MM-dd")
+				: modifiedDateStringValue;
 	}
 
 	private void writeContentlet ( Host host, Contentlet contentlet ) throws DotDataException, DotSecurityException {
@@ -635,7 +708,6 @@ public class XMLSitemapJob implements Job, StatefulJob {
 					+ "</lastmod><changefreq>daily</changefreq></url>\n";
 
 			writeFile( stringbuf );
-			addRegistryProcessed();
 		}
 	}
 
@@ -661,7 +733,6 @@ public class XMLSitemapJob implements Job, StatefulJob {
 					+ "</lastmod><changefreq>daily</changefreq></url>\n";
 
 			writeFile( stringbuf );
-			addRegistryProcessed();
 		}
 	}
 
@@ -678,7 +749,6 @@ public class XMLSitemapJob implements Job, StatefulJob {
 						+ "</lastmod><changefreq>daily</changefreq></url>\n";
 
 				writeFile( stringbuf );
-				addRegistryProcessed();
 			}
 		}
 	}
@@ -0,0 +1,130 @@
+package com.dotcms.xmlsitemap;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams the &lt;url&gt; entries of a shard of the sitemap of a host, the pages or the contents
+ * of a type, straight into gzipped sitemap files of at most the given number of URLs and
+ * uncompressed bytes. Every file is handed to the {@link PartHandler} as soon as it is complete
+ * and deleted afterwards, so only the entry being written is in memory and only one file is on
+ * disk, whatever the number of URLs of the shard.
+ * <p>
+ * The files of a shard are named {@code <prefix>-1.xml.gz}, {@code <prefix>-2.xml.gz}... so a
+ * new run of the job replaces the files of the previous one.
+ * </p>
+ */
+class XMLSitemapWriter implements Closeable {
+
+	/**
+	 * Receives the complete sitemap files.
+	 */
+	interface PartHandler {
+
+		/**
+		 * @param part The sitemap file, deleted once this method returns.
+		 * @param urls The number of URLs in the file.
+		 */
+		void save(File part, int urls) throws Exception;
+	}
+
+	private static final String URLSET_START = "<?xml version='1.0' encoding='UTF-8'?>\n"
+			+ "<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xsi:schemaLocation=\"http://www.sitemaps.org/schemas/sitemap/0.9 http://www.sitemaps.org/schemas/sitemap/0.9/sitemap.xsd\">\n";
+	private static final String URLSET_END = "</urlset>";
+
+	private final File folder;
+	private final String prefix;
+	private final int maxUrls;
+	private final long maxSize;
+	private final PartHandler handler;
+
+	private final List<String> fileNames = new ArrayList<String>();
+	private File part;
+	private Writer out;
+	private int urls;
+	private long size;
+
+	/**
+	 * @param folder The folder the files are written to before being handed to the handler.
+	 * @param prefix The prefix of the names of the files of the shard.
+	 * @param maxUrls The maximum number of URLs of a file, 50000 in the protocol.
+	 * @param maxSize The maximum size of a file before compression, 50 MB in the protocol.
+	 * @param handler Receives the files.
+	 */
+	XMLSitemapWriter(File folder, String prefix, int maxUrls, long maxSize, PartHandler handler) {
+		this.folder = folder;
+		this.prefix = prefix;
+		this.maxUrls = maxUrls;
+		this.maxSize = maxSize;
+		this.handler = handler;
+	}
+
+	/**
+	 * Writes an &lt;url&gt; entry, starting a new file if needed.
+	 */
+	void write(String url) throws IOException {
+		if (out == null) {
+			open();
+		} else if (urls >= maxUrls || size + url.length() > maxSize - URLSET_END.length()) {
+			finish();
+			open();
+		}
+		out.write(url);
+		urls++;
+		// the entries are escaped, so the characters are as many bytes
+		size += url.length();
+	}
+
+	/**
+	 * @return The names of the files written so far.
+	 */
+	List<String> getFileNames() {
+		return fileNames;
+	}
+
+	/**
+	 * Hands the last file to the handler. A shard without URLs has no files.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (out != null) {
+			finish();
+		}
+	}
+
+	private void open() throws IOException {
+		final String fileName = prefix + "-" + (fileNames.size() + 1) + ".xml.gz";
+		part = new File(folder, fileName);
+		out = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(part), 65536),
+				StandardCharsets.UTF_8), 65536);
+		out.write(URLSET_START);
+		fileNames.add(fileName);
+		urls = 0;
+		size = URLSET_START.length();
+	}
+
+	private void finish() throws IOException {
+		try {
+			out.write(URLSET_END);
+			out.close();
+			handler.save(part, urls);
+		} catch (IOException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new IOException("Unable to save the sitemap " + part.getName() + ": " + e.getMessage(), e);
+		} finally {
+			out = null;
+			part.delete();
+		}
+	}
+
+}
@@ -1,5 +1,8 @@
 package com.dotmarketing.business;
 
+import java.io.Serializable;
+import java.util.concurrent.Callable;
+
 import com.dotcms.repackage.org.apache.commons.lang.StringUtils;
 import com.dotmarketing.portlets.htmlpageasset.model.IHTMLPage;
 
@@ -17,18 +20,24 @@ public abstract class BlockPageCache implements Cachable {
 
 	/**
 	 * Utility class used to keep the parameters used to identify a page cache.
+	 * Two instances with the same parameters are equal, so this class can be
+	 * used directly as the key of the versions of a page.
 	 * 
 	 * @author Jose Castro
 	 * @version 1.0
 	 * @since 10-17-2014
 	 *
 	 */
-	public static class PageCacheParameters {
+	public static class PageCacheParameters implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
 		private String userId = null;
 		private String language = null;
 		private String urlMap = null;
 		private String queryString = null;
 		private String persona = null;
+		private transient String key = null;
 		/**
 		 * Creates an object with a series of page-specific parameters to try 
 		 * to uniquely identify a page request.
@@ -57,7 +66,10 @@ public abstract class BlockPageCache implements Cachable {
 		 * @return The subkey which is specific for a page.
 		 */
 		public String getKey() {
-			StringBuffer sb = new StringBuffer();
+			if (this.key != null) {
+				return this.key;
+			}
+			StringBuilder sb = new StringBuilder();
 			sb.append(this.userId);
 			sb.append("_").append(this.language);
 			if (StringUtils.isNotBlank(this.urlMap)) {
@@ -69,7 +81,24 @@ public abstract class BlockPageCache implements Cachable {
 			if (StringUtils.isNotBlank(this.persona)) {
 				sb.append("_").append(this.persona);
 			}
-			return sb.toString();
+			this.key = sb.toString();
+			return this.key;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof PageCacheParameters)) {
+				return false;
+			}
+			return getKey().equals(((PageCacheParameters) o).getKey());
+		}
+
+		@Override
+		public int hashCode() {
+			return getKey().hashCode();
 		}
 
 	}
@@ -116,4 +145,24 @@ public abstract class BlockPageCache implements Cachable {
 	 */
 	abstract public void remove(IHTMLPage page);
 
+	/**
+	 * Renders a page that is not in the cache and adds the result to it.
+	 * Concurrent calls for the same page and the same parameters are
+	 * coalesced, so only one of them executes the renderer and the others
+	 * wait for and return its result.
+	 * 
+	 * @param page
+	 *            - The {@link IHTMLPage} object.
+	 * @param pageChacheParams
+	 *            - Values used to cache a specific page.
+	 * @param renderer
+	 *            - Generates the String representation of the page.
+	 * @return The String representation of the page.
+	 * @throws Exception
+	 *             The renderer failed.
+	 */
+	abstract public String render(IHTMLPage page,
+			PageCacheParameters pageChacheParams, Callable<String> renderer)
+			throws Exception;
+
 }
@@ -1,13 +1,19 @@
 package com.dotmarketing.business;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.dotcms.repackage.com.google.common.annotations.VisibleForTesting;
 
 import com.dotcms.enterprise.LicenseUtil;
 import com.dotcms.enterprise.license.LicenseLevel;
 import com.dotmarketing.portlets.htmlpageasset.model.IHTMLPage;
+import com.dotmarketing.util.Config;
 import com.dotmarketing.util.Logger;
 
 /**
@@ -33,6 +39,10 @@ import com.dotmarketing.util.Logger;
  * 		</ul>
  *  </li>
  * </ul>
+ * The versions of a page are kept in a {@link ConcurrentMap} keyed by the
+ * {@link PageCacheParameters}, so reads and writes of the page cache never
+ * lock the cache administrator. Concurrent renders of the same page version
+ * are coalesced by {@link #render(IHTMLPage, PageCacheParameters, Callable)}.
  * 
  * @author Jose Castro
  * @version 1.0
@@ -44,13 +54,33 @@ public class BlockPageCacheImpl extends BlockPageCache {
 	private boolean canCache = false;
 	private DotCacheAdministrator cache = null;
 	private static String primaryCacheGroup = "BlockDirectiveHTMLPageCache";
+	private static final long DEFAULT_RENDER_WAIT_MILLIS = 10000;
+
+	// how long a request waits for the render of another one before rendering the page itself
+	private final long renderWaitMillis;
+
+	// renders in progress, keyed by page key + subkey
+	private final ConcurrentMap<String, CompletableFuture<String>> inFlightRenders = new ConcurrentHashMap<>();
 
 	/**
 	 * Default constructor. Initializes the internal caching structures.
 	 */
 	public BlockPageCacheImpl() {
-		this.cache = CacheLocator.getCacheAdministrator();
-		this.canCache = LicenseUtil.getLevel() >= LicenseLevel.COMMUNITY.level;
+		this(CacheLocator.getCacheAdministrator(),
+				LicenseUtil.getLevel() >= LicenseLevel.COMMUNITY.level,
+				Config.getLongProperty("BLOCK_PAGE_CACHE_RENDER_WAIT_MILLIS", DEFAULT_RENDER_WAIT_MILLIS));
+	}
+
+	@VisibleForTesting
+	BlockPageCacheImpl(final DotCacheAdministrator cache, final boolean canCache) {
+		this(cache, canCache, DEFAULT_RENDER_WAIT_MILLIS);
+	}
+
+	@VisibleForTesting
+	BlockPageCacheImpl(final DotCacheAdministrator cache, final boolean canCache, final long renderWaitMillis) {
+		this.cache = cache;
+		this.canCache = canCache;
+		this.renderWaitMillis = renderWaitMillis;
 	}
 
 	@Override
@@ -72,103 +102,117 @@ public class BlockPageCacheImpl extends BlockPageCache {
 	@Override
 	public void add(IHTMLPage page, String value,
 			PageCacheParameters pageChacheParams) {
-		if (page == null || pageChacheParams == null
-				|| pageChacheParams == null) {
+		if (page == null || pageChacheParams == null) {
 			return;
 		}
-		StringBuilder key = new StringBuilder();
-		key.append(page.getInode());
-		key.append("_" + page.getModDate().getTime());
-		String subkey = pageChacheParams.getKey();
-		BlockDirectiveCacheObject cto = new BlockDirectiveCacheObject(value,
+		final String key = getPageKey(page);
+		final BlockDirectiveCacheObject cto = new BlockDirectiveCacheObject(value,
 				(int) page.getCacheTTL());
-		synchronized (cache) {
-			try {
-				// Lookup the cached versions of a page
-				List<Map<String, Object>> cachedPages = (List<Map<String, Object>>) this.cache
-						.get(key.toString(), primaryCacheGroup);
-				if (cachedPages != null) {
-					boolean updatedEntry = false;
-					// Update version of page based on userid, language and
-					// urlmap
-					for (Map<String, Object> pageInfo : cachedPages) {
-						if (pageInfo.containsKey(subkey)) {
-							pageInfo.put(subkey, cto);
-							updatedEntry = true;
-							break;
-						}
-					}
-					// Or add a new one
-					if (!updatedEntry) {
-						Map<String, Object> pageInfo = new HashMap<String, Object>();
-						pageInfo.put(subkey, cto);
-						cachedPages.add(pageInfo);
-					}
-				}
-			} catch (DotCacheException e) {
-				// Key does not exist in cache, then add it
-			}
-			List<Map<String, Object>> versions = new ArrayList<Map<String, Object>>();
-			Map<String, Object> pageInfo = new HashMap<String, Object>();
-			pageInfo.put(subkey, cto);
-			versions.add(pageInfo);
-			this.cache.put(key.toString(), versions, primaryCacheGroup);
+		// Update version of page based on userid, language, urlmap, query
+		// string and persona
+		ConcurrentMap<PageCacheParameters, BlockDirectiveCacheObject> versions = getVersions(key);
+		if (versions == null) {
+			// Key does not exist in cache, then add it. If two threads get
+			// here at the same time one of the versions is lost, which just
+			// means a new miss for it
+			versions = new ConcurrentHashMap<>();
 		}
+		versions.put(pageChacheParams, cto);
+		// the map is put back even if it was already cached: the providers
+		// that serialize their entries keep a copy, not the map read above
+		this.cache.put(key, versions, primaryCacheGroup);
 	}
 
 	@Override
 	public String get(IHTMLPage page, PageCacheParameters pageChacheParams) {
-		if (!canCache || page == null || pageChacheParams == null
-				|| pageChacheParams == null) {
+		if (!canCache || page == null || pageChacheParams == null) {
 			return null;
 		}
-		StringBuilder key = new StringBuilder();
-		key.append(page.getInode());
-		key.append("_" + page.getModDate().getTime());
-		String subkey = pageChacheParams.getKey();
-		synchronized (cache) {
-			// Lookup the cached versions of the page based on inode and moddate
+		// Lookup the cached versions of the page based on inode and moddate
+		final ConcurrentMap<PageCacheParameters, BlockDirectiveCacheObject> versions = getVersions(getPageKey(page));
+		if (versions == null) {
+			return null;
+		}
+		// Lookup specific page with userid, language and urlmap
+		final BlockDirectiveCacheObject cto = versions.get(pageChacheParams);
+		if (cto == null) {
+			return null;
+		}
+		if (cto.getCreated() + ((int) page.getCacheTTL() * 1000) > System.currentTimeMillis()) {
+			return cto.getValue();
+		}
+		// Remove the expired version, unless another thread already replaced it
+		versions.remove(pageChacheParams, cto);
+		return null;
+	}
+
+	@Override
+	public String render(IHTMLPage page, PageCacheParameters pageChacheParams,
+			Callable<String> renderer) throws Exception {
+		if (page == null || pageChacheParams == null) {
+			return renderer.call();
+		}
+		final String renderKey = getPageKey(page) + "_" + pageChacheParams.getKey();
+		final CompletableFuture<String> render = new CompletableFuture<>();
+		final CompletableFuture<String> inFlight = inFlightRenders.putIfAbsent(renderKey, render);
+		if (inFlight != null) {
 			try {
-				List<Map<String, Object>> cachedPages = (List<Map<String, Object>>) this.cache
-						.get(key.toString(), primaryCacheGroup);
-				BlockDirectiveCacheObject cto = null;
-				if (cachedPages != null) {
-					for (Map<String, Object> pageInfo : cachedPages) {
-						// Lookup specific page with userid, language and urlmap
-						if (pageInfo.containsKey(subkey)) {
-							cto = (BlockDirectiveCacheObject) pageInfo
-									.get(subkey);
-							break;
-						}
-					}
-					if (cto != null
-							&& cto.getCreated()
-									+ ((int) page.getCacheTTL() * 1000) > System
-										.currentTimeMillis()) {
-						return cto.getValue();
-					} else {
-						// Remove page from cache if expired and get new version
-						remove(page);
-					}
-				}
-			} catch (DotCacheException e) {
-				Logger.error(this.getClass(), "cache entry :" + key.toString()
-						+ " not found");
+				return inFlight.get(renderWaitMillis, TimeUnit.MILLISECONDS);
+			} catch (ExecutionException e) {
+				// The render we were waiting for failed, try it on this thread
+				Logger.debug(this, "Coalesced render failed for: " + renderKey, e);
+				return renderer.call();
+			} catch (TimeoutException e) {
+				// The render we were waiting for is taking too long, don't stall on it
+				Logger.debug(this, "Coalesced render timed out for: " + renderKey);
+				return renderer.call();
 			}
 		}
-		return null;
+		try {
+			final String value = renderer.call();
+			add(page, value, pageChacheParams);
+			render.complete(value);
+			return value;
+		} catch (Exception e) {
+			render.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlightRenders.remove(renderKey, render);
+		}
 	}
 
 	@Override
 	public void remove(IHTMLPage page) {
 		try {
-			StringBuilder key = new StringBuilder();
-			key.append(page.getInode());
-			key.append("_" + page.getModDate().getTime());
-			this.cache.remove(key.toString(), primaryCacheGroup);
+			this.cache.remove(getPageKey(page), primaryCacheGroup);
 		} catch (Exception e) {
 			Logger.debug(this, "Cache not able to be removed", e);
 		}
 	}
 
+	/**
+	 * Returns the main key of a page: its inode and modification date.
+	 */
+	private String getPageKey(final IHTMLPage page) {
+		return page.getInode() + "_" + page.getModDate().getTime();
+	}
+
+	/**
+	 * Returns the cached versions of a page, or {@code null} if the page is
+	 * not cached.
+	 */
+	@SuppressWarnings("unchecked")
+	private ConcurrentMap<PageCacheParameters, BlockDirectiveCacheObject> getVersions(final String key) {
+		try {
+			final Object cachedPages = this.cache.get(key, primaryCacheGroup);
+			// entries with a different structure (e.g. the ones written by older
+			// versions in a shared cache) are considered a miss
+			return (cachedPages instanceof ConcurrentMap) ?
+					(ConcurrentMap<PageCacheParameters, BlockDirectiveCacheObject>) cachedPages : null;
+		} catch (DotCacheException e) {
+			Logger.debug(this.getClass(), "cache entry :" + key + " not found");
+			return null;
+		}
+	}
+
 }
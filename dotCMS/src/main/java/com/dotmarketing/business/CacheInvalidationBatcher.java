@@ -0,0 +1,389 @@
+package com.dotmarketing.business;
+
+import com.dotmarketing.db.DbConnectionFactory;
+import com.dotmarketing.db.DotRunnable;
+import com.dotmarketing.db.FlushCacheRunnable;
+import com.dotmarketing.db.HibernateUtil;
+import com.dotmarketing.db.HibernateUtil.TransactionListenerStatus;
+import com.dotmarketing.util.Config;
+import com.dotmarketing.util.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Collects the cache keys removed on this node and ships them to the rest of the cluster in
+ * batches, instead of sending one {@code key:group} message per removed key.
+ * <p>
+ * Keys removed inside a transaction are kept with the transaction and handed over to the batcher
+ * when it commits (they are dropped on rollback, the other nodes never saw the uncommitted data).
+ * Keys removed outside of a transaction, and the ones of committed transactions, are queued for
+ * {@code CACHE_INVALIDATION_BATCH_WINDOW_MILLIS} and then sent together. Duplicated keys are sent
+ * once, and a group with more than {@code CACHE_INVALIDATION_GROUP_FLUSH_THRESHOLD} keys is sent as
+ * a flush of the whole group.
+ * </p>
+ * <p>
+ * A flush with a single key is still sent as a plain {@code key:group} message; otherwise the
+ * entries are encoded as a deflated binary payload prefixed by {@link #BATCH_MESSAGE_PREFIX}, see
+ * {@link #encode(Map)} and {@link #decode(String)}.
+ * </p>
+ */
+public class CacheInvalidationBatcher {
+
+	public static final String BATCH_MESSAGE_PREFIX = "cacheInvalidationBatch-";
+
+	/**
+	 * Key used in the messages to flush a whole group.
+	 */
+	static final String FLUSH_GROUP_KEY = "0";
+
+	private static final String COMMIT_LISTENER_TAG = CacheInvalidationBatcher.class.getName();
+	private static final int MESSAGE_VERSION = 1;
+
+	/**
+	 * Sends a message to the rest of the cluster.
+	 */
+	public interface Sender {
+
+		void send(String message) throws Exception;
+	}
+
+	private final Sender sender;
+	private final long windowMillis;
+	private final int groupFlushThreshold;
+	private final int maxPendingKeys;
+
+	private final Object lock = new Object();
+	private Map<String, Set<String>> pending = new LinkedHashMap<>();
+	private int pendingKeys = 0;
+	private boolean flushScheduled = false;
+	private ScheduledExecutorService scheduler;
+
+	private final AtomicLong keysRequested = new AtomicLong();
+	private final AtomicLong keysSent = new AtomicLong();
+	private final AtomicLong messagesSent = new AtomicLong();
+	private final AtomicLong groupFlushes = new AtomicLong();
+
+	public CacheInvalidationBatcher(final Sender sender) {
+		this(sender,
+				Config.getIntProperty("CACHE_INVALIDATION_BATCH_WINDOW_MILLIS", 50),
+				Config.getIntProperty("CACHE_INVALIDATION_GROUP_FLUSH_THRESHOLD", 500),
+				Config.getIntProperty("CACHE_INVALIDATION_BATCH_MAX_KEYS", 5000));
+	}
+
+	CacheInvalidationBatcher(final Sender sender, final long windowMillis, final int groupFlushThreshold,
+			final int maxPendingKeys) {
+		this.sender = sender;
+		this.windowMillis = windowMillis;
+		this.groupFlushThreshold = groupFlushThreshold;
+		this.maxPendingKeys = maxPendingKeys;
+	}
+
+	/**
+	 * Queues the invalidation of a key in the cluster. The key and group are expected to be lower
+	 * cased already.
+	 *
+	 * @param key
+	 *            - The removed key.
+	 * @param group
+	 *            - The group of the key.
+	 */
+	public void invalidate(final String key, final String group) {
+
+		this.keysRequested.incrementAndGet();
+
+		try {
+			if (DbConnectionFactory.inTransaction()
+					&& HibernateUtil.getTransactionListenersStatus() != TransactionListenerStatus.DISABLED) {
+
+				// the batch lives with the listeners of the transaction, so it is dropped with them
+				// on rollback or when the session is closed without committing
+				final DotRunnable listener = HibernateUtil.getCommitListener(COMMIT_LISTENER_TAG);
+				if (!(listener instanceof TransactionBatch) || !((TransactionBatch) listener).add(key, group)) {
+					final TransactionBatch batch = new TransactionBatch();
+					batch.add(key, group);
+					// registered by tag, so there is a single listener per transaction
+					HibernateUtil.addCommitListener(COMMIT_LISTENER_TAG, batch);
+				}
+				return;
+			}
+		} catch (Exception e) {
+			Logger.error(CacheInvalidationBatcher.class, e.getMessage(), e);
+		}
+
+		this.enqueue(key, group);
+	}
+
+	/**
+	 * Adds a key to the current window, scheduling the flush of the window if needed.
+	 */
+	void enqueue(final String key, final String group) {
+
+		boolean flushNow = false;
+		synchronized (this.lock) {
+			if (add(this.pending, key, group)) {
+				this.pendingKeys++;
+			}
+			if (this.windowMillis <= 0 || this.pendingKeys >= this.maxPendingKeys) {
+				flushNow = true;
+			} else if (!this.flushScheduled) {
+				this.flushScheduled = true;
+				this.getScheduler().schedule(this::flush, this.windowMillis, TimeUnit.MILLISECONDS);
+			}
+		}
+
+		if (flushNow) {
+			this.flush();
+		}
+	}
+
+	/**
+	 * Sends all the queued keys to the cluster.
+	 */
+	public void flush() {
+
+		final Map<String, Set<String>> entries;
+		synchronized (this.lock) {
+			entries = this.pending;
+			this.pending = new LinkedHashMap<>();
+			this.pendingKeys = 0;
+			this.flushScheduled = false;
+		}
+
+		if (entries.isEmpty()) {
+			return;
+		}
+
+		int keys = 0;
+		for (final Map.Entry<String, Set<String>> entry : entries.entrySet()) {
+			if (entry.getValue().size() > this.groupFlushThreshold) {
+				entry.getValue().clear();
+				entry.getValue().add(FLUSH_GROUP_KEY);
+				this.groupFlushes.incrementAndGet();
+			}
+			keys += entry.getValue().size();
+		}
+
+		try {
+			final String message;
+			if (keys == 1) {
+				final Map.Entry<String, Set<String>> entry = entries.entrySet().iterator().next();
+				message = entry.getValue().iterator().next() + ":" + entry.getKey();
+			} else {
+				message = encode(entries);
+			}
+			this.sender.send(message);
+			this.messagesSent.incrementAndGet();
+			this.keysSent.addAndGet(keys);
+		} catch (Exception e) {
+			Logger.error(CacheInvalidationBatcher.class,
+					"Unable to send invalidation to cluster : " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Sends the queued keys and stops the flush thread.
+	 */
+	public void shutdown() {
+
+		this.flush();
+		synchronized (this.lock) {
+			if (this.scheduler != null) {
+				this.scheduler.shutdown();
+				this.scheduler = null;
+			}
+		}
+	}
+
+	private ScheduledExecutorService getScheduler() {
+
+		if (this.scheduler == null) {
+			this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				final Thread thread = new Thread(runnable, "CacheInvalidationBatcher");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return this.scheduler;
+	}
+
+	private static boolean add(final Map<String, Set<String>> entries, final String key, final String group) {
+
+		Set<String> keys = entries.get(group);
+		if (keys == null) {
+			keys = new LinkedHashSet<>();
+			entries.put(group, keys);
+		}
+		return keys.add(key);
+	}
+
+	/**
+	 * @return {@code true} if the message was built by {@link #encode(Map)}.
+	 */
+	public static boolean isBatchMessage(final String message) {
+		return message != null && message.startsWith(BATCH_MESSAGE_PREFIX);
+	}
+
+	/**
+	 * Encodes the keys to invalidate per group into a single message.
+	 *
+	 * @param entries
+	 *            - The keys per group, {@link #FLUSH_GROUP_KEY} flushes the whole group.
+	 * @return The message to send.
+	 * @throws IOException
+	 */
+	static String encode(final Map<String, Set<String>> entries) throws IOException {
+
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+			out.writeByte(MESSAGE_VERSION);
+			out.writeInt(entries.size());
+			for (final Map.Entry<String, Set<String>> entry : entries.entrySet()) {
+				out.writeUTF(entry.getKey());
+				out.writeInt(entry.getValue().size());
+				for (final String key : entry.getValue()) {
+					out.writeUTF(key);
+				}
+			}
+		}
+		return BATCH_MESSAGE_PREFIX + Base64.getEncoder().encodeToString(bytes.toByteArray());
+	}
+
+	/**
+	 * Decodes a message built by {@link #encode(Map)}.
+	 *
+	 * @param message
+	 *            - The received message.
+	 * @return The keys to invalidate per group.
+	 * @throws IOException
+	 *             If the message is not a valid batch.
+	 */
+	public static Map<String, Set<String>> decode(final String message) throws IOException {
+
+		final byte[] payload = Base64.getDecoder().decode(message.substring(BATCH_MESSAGE_PREFIX.length()));
+		final Map<String, Set<String>> entries = new LinkedHashMap<>();
+		try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(payload)))) {
+			final int version = in.readByte();
+			if (version != MESSAGE_VERSION) {
+				throw new IOException("Unsupported cache invalidation message version: " + version);
+			}
+			final int groups = in.readInt();
+			for (int i = 0; i < groups; i++) {
+				final String group = in.readUTF();
+				final int keys = in.readInt();
+				for (int j = 0; j < keys; j++) {
+					add(entries, in.readUTF(), group);
+				}
+			}
+		}
+		return entries;
+	}
+
+	/**
+	 * @return Number of keys passed to {@link #invalidate(String, String)}.
+	 */
+	public long getKeysRequested() {
+		return this.keysRequested.get();
+	}
+
+	/**
+	 * @return Number of entries (keys or group flushes) sent to the cluster.
+	 */
+	public long getKeysSent() {
+		return this.keysSent.get();
+	}
+
+	/**
+	 * @return Number of messages sent to the cluster.
+	 */
+	public long getMessagesSent() {
+		return this.messagesSent.get();
+	}
+
+	/**
+	 * @return Number of groups sent as a group flush because they reached the threshold.
+	 */
+	public long getGroupFlushes() {
+		return this.groupFlushes.get();
+	}
+
+	/**
+	 * @return Average number of entries per message sent.
+	 */
+	public double getKeysPerMessage() {
+		final long messages = this.messagesSent.get();
+		return messages == 0 ? 0 : (double) this.keysSent.get() / messages;
+	}
+
+	/**
+	 * @return Number of requested invalidations per message sent.
+	 */
+	public double getCoalescingRatio() {
+		final long messages = this.messagesSent.get();
+		return messages == 0 ? 0 : (double) this.keysRequested.get() / messages;
+	}
+
+	public Map<String, Object> getStats() {
+
+		final Map<String, Object> stats = new LinkedHashMap<>();
+		stats.put("keysRequested", this.getKeysRequested());
+		stats.put("keysSent", this.getKeysSent());
+		stats.put("messagesSent", this.getMessagesSent());
+		stats.put("groupFlushes", this.getGroupFlushes());
+		stats.put("keysPerMessage", this.getKeysPerMessage());
+		stats.put("coalescingRatio", this.getCoalescingRatio());
+		return stats;
+	}
+
+	/**
+	 * Keys removed by the current transaction, handed over to the batcher on commit.
+	 */
+	private class TransactionBatch extends FlushCacheRunnable {
+
+		private final Map<String, Set<String>> entries = new LinkedHashMap<>();
+		private boolean closed = false;
+
+		/**
+		 * @return {@code false} if the transaction already finished, commit
+		 *         listeners can run in a separate thread.
+		 */
+		synchronized boolean add(final String key, final String group) {
+			if (this.closed) {
+				return false;
+			}
+			CacheInvalidationBatcher.add(this.entries, key, group);
+			return true;
+		}
+
+		private synchronized Map<String, Set<String>> close() {
+			this.closed = true;
+			final Map<String, Set<String>> closedEntries = new LinkedHashMap<>(this.entries);
+			this.entries.clear();
+			return closedEntries;
+		}
+
+		@Override
+		public void run() {
+
+			for (final Map.Entry<String, Set<String>> entry : this.close().entrySet()) {
+				for (final String key : entry.getValue()) {
+					enqueue(key, entry.getKey());
+				}
+			}
+		}
+	}
+}
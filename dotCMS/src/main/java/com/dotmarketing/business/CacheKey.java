@@ -0,0 +1,178 @@
+package com.dotmarketing.business;
+
+import java.io.Serializable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Key of an entry in the {@link DotCacheAdministrator}: the group and the key already normalized
+ * (lower cased) the way the cache administrator stores them, so the typed methods of
+ * {@link DotCacheAdministrator} can pass them to the cache chain as they are.
+ * <p>
+ * Callers that read the same entries over and over should get their keys from a {@link Group},
+ * which hands back the same instance for the same key, so a cache hit allocates nothing; the
+ * {@code of} methods build a new key on every call and are meant for the occasional access.
+ * </p>
+ */
+public final class CacheKey implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Default number of keys a {@link Group} keeps before starting over.
+	 */
+	public static final int DEFAULT_MAX_KEYS = 10000;
+
+	private final String key;
+	private final String group;
+	private final int hash;
+
+	private CacheKey(final String key, final String group) {
+		this.key = key;
+		this.group = group;
+		this.hash = 31 * group.hashCode() + key.hashCode();
+	}
+
+	/**
+	 * Builds a key, lower casing the key and the group.
+	 *
+	 * @param key
+	 *            - The key.
+	 * @param group
+	 *            - The group.
+	 * @return The {@link CacheKey}.
+	 */
+	public static CacheKey of(final String key, final String group) {
+		// toLowerCase returns the same instance if there is nothing to change
+		return new CacheKey(key.toLowerCase(), group.toLowerCase());
+	}
+
+	/**
+	 * Builds a key made of a prefix and a key, lower casing them.
+	 *
+	 * @param prefix
+	 *            - The prefix of the key, usually the group name.
+	 * @param key
+	 *            - The key.
+	 * @param group
+	 *            - The group.
+	 * @return The {@link CacheKey}.
+	 */
+	public static CacheKey of(final String prefix, final String key, final String group) {
+		return new CacheKey(prefix.toLowerCase().concat(key.toLowerCase()), group.toLowerCase());
+	}
+
+	/**
+	 * Returns the {@link Group} handing out the keys of a cache group.
+	 *
+	 * @param group
+	 *            - The group.
+	 * @return The {@link Group}.
+	 */
+	public static Group group(final String group) {
+		return new Group("", group, DEFAULT_MAX_KEYS);
+	}
+
+	/**
+	 * Returns the {@link Group} handing out the keys of a cache that prefixes its keys, usually
+	 * with the group name.
+	 *
+	 * @param prefix
+	 *            - The prefix of the keys.
+	 * @param group
+	 *            - The group.
+	 * @return The {@link Group}.
+	 */
+	public static Group group(final String prefix, final String group) {
+		return new Group(prefix, group, DEFAULT_MAX_KEYS);
+	}
+
+	/**
+	 * @return The lower cased key.
+	 */
+	public String getKey() {
+		return this.key;
+	}
+
+	/**
+	 * @return The lower cased group.
+	 */
+	public String getGroup() {
+		return this.group;
+	}
+
+	@Override
+	public int hashCode() {
+		return this.hash;
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof CacheKey)) {
+			return false;
+		}
+		final CacheKey other = (CacheKey) obj;
+		return this.hash == other.hash && this.key.equals(other.key) && this.group.equals(other.group);
+	}
+
+	@Override
+	public String toString() {
+		return this.key + ":" + this.group;
+	}
+
+	/**
+	 * The keys of a cache group, reused across calls. The keys are looked up by the string the
+	 * caller has at hand, before lower casing or prefixing it, and the table is cleared once it
+	 * holds {@code maxKeys} of them, so it never outgrows the working set by much.
+	 */
+	public static final class Group {
+
+		private final String prefix;
+		private final String group;
+		private final int maxKeys;
+		private final ConcurrentMap<String, CacheKey> keys = new ConcurrentHashMap<>();
+
+		Group(final String prefix, final String group, final int maxKeys) {
+			this.prefix = prefix.toLowerCase();
+			this.group = group.toLowerCase();
+			this.maxKeys = maxKeys;
+		}
+
+		/**
+		 * Returns the key of the cache for the given key, built the first time it is asked for.
+		 *
+		 * @param key
+		 *            - The key.
+		 * @return The {@link CacheKey}.
+		 */
+		public CacheKey key(final String key) {
+
+			CacheKey cacheKey = this.keys.get(key);
+			if (cacheKey == null) {
+				cacheKey = new CacheKey(this.prefix.concat(key.toLowerCase()), this.group);
+				if (this.keys.size() >= this.maxKeys) {
+					this.keys.clear();
+				}
+				final CacheKey previous = this.keys.putIfAbsent(key, cacheKey);
+				if (previous != null) {
+					cacheKey = previous;
+				}
+			}
+			return cacheKey;
+		}
+
+		/**
+		 * @return The lower cased group.
+		 */
+		public String getGroup() {
+			return this.group;
+		}
+
+		int size() {
+			return this.keys.size();
+		}
+	}
+}
@@ -27,6 +27,8 @@ import com.dotmarketing.db.DbConnectionFactory;
 import com.dotmarketing.db.FlushCacheRunnable;
 import com.dotmarketing.db.HibernateUtil;
 import com.dotmarketing.exception.DotRuntimeException;
+import com.dotmarketing.filters.UriResolutionCache;
+import com.dotmarketing.filters.UriResolutionCacheImpl;
 import com.dotmarketing.logConsole.model.LogMapperCache;
 import com.dotmarketing.logConsole.model.LogMapperCacheImpl;
 import com.dotmarketing.plugin.business.PluginCache;
@@ -95,6 +97,7 @@ public class CacheLocator extends Locator<CacheIndex>{
         public void flushAlLocalOnly(boolean ignoreDistributed) { dotcache.flushAlLocalOnly(ignoreDistributed); }
         public void flushGroupLocalOnly(String group, boolean ignoreDistributed) { dotcache.flushGroupLocalOnly(group, ignoreDistributed); }
         public Object get(String key, String group) throws DotCacheException { return dotcache.get(key, group); }
+        public Object get(CacheKey key) throws DotCacheException { return dotcache.get(key); }
         public void remove(String key, String group) { dotcache.remove(key,group); }
         public void removeLocalOnly(String key, String group, boolean ignoreDistributed) { dotcache.removeLocalOnly(key, group, ignoreDistributed); }
         public void shutdown() { dotcache.shutdown(); }
@@ -117,6 +120,20 @@ public class CacheLocator extends Locator<CacheIndex>{
                 throw new RuntimeException(e);
             }
         }
+        public void put(final CacheKey key, final Object content) {
+            dotcache.put(key, content);
+            try {
+                if(DbConnectionFactory.inTransaction()) {
+                    HibernateUtil.addRollbackListener(new FlushCacheRunnable() {
+                       public void run() {
+                           dotcache.remove(key);
+                       }
+                    });
+                }
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
         public DotCacheAdministrator getImplementationObject() {
             return dotcache;
         }
@@ -323,6 +340,10 @@ public class CacheLocator extends Locator<CacheIndex>{
     	return (KeyValueCache) getInstance(CacheIndex.KeyValueCache);
     }
 
+    public static UriResolutionCache getUriResolutionCache() {
+    	return (UriResolutionCache) getInstance(CacheIndex.UriResolution);
+    }
+
 
 	/**
 	 * The legacy cache administrator will invalidate cache entries within a cluster
@@ -420,7 +441,8 @@ enum CacheIndex
 	VanityURLCache("Vanity URL Cache"),
 	ContentTypeCache("Legacy Content Type Cache"),
 	ContentTypeCache2("New Content Type Cache"),
-	KeyValueCache("Key/Value Cache");
+	KeyValueCache("Key/Value Cache"),
+	UriResolution("URI Resolution Cache");
 
 	Cachable create() {
 		switch(this) {
@@ -464,6 +486,7 @@ enum CacheIndex
 	      	case ContentTypeCache2: return new ContentTypeCache2Impl();
 	      	case VanityURLCache : return new VanityUrlCacheImpl();
 	      	case KeyValueCache : return new KeyValueCacheImpl();
+	      	case UriResolution : return new UriResolutionCacheImpl();
 		}
 		throw new AssertionError("Unknown Cache index: " + this);
 	}
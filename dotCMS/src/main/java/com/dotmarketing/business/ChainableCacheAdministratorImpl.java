@@ -3,6 +3,8 @@
  */
 package com.dotmarketing.business;
 
+import com.dotcms.api.system.event.SystemEventsBus;
+import com.dotcms.api.system.event.SystemEventsFactory;
 import com.dotcms.cluster.ClusterUtils;
 import com.dotcms.cluster.bean.Server;
 import com.dotcms.cluster.bean.ServerPort;
@@ -11,7 +13,10 @@ import com.dotcms.enterprise.cache.provider.CacheProviderAPI;
 import com.dotcms.enterprise.cluster.ClusterFactory;
 import com.dotcms.repackage.com.google.common.cache.RemovalListener;
 import com.dotcms.repackage.com.google.common.cache.RemovalNotification;
+import com.dotmarketing.business.cache.provider.CacheGroupMetrics;
+import com.dotmarketing.business.cache.provider.CacheMetrics;
 import com.dotmarketing.business.cache.provider.CacheProviderStats;
+import com.dotmarketing.business.cache.provider.CacheStats;
 import com.dotmarketing.business.cache.transport.CacheTransport;
 import com.dotmarketing.business.cache.transport.CacheTransportException;
 import com.dotmarketing.common.business.journal.DistributedJournalAPI;
@@ -28,6 +33,7 @@ import com.dotmarketing.util.WebKeys;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.*;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Cache administrator that uses the CacheProviders infrastructure (Cache chains)
@@ -43,6 +49,15 @@ public class ChainableCacheAdministratorImpl implements DotCacheAdministrator {
 	private DistributedJournalAPI journalAPI;
 	private CacheProviderAPI cacheProviderAPI;
 	private boolean useTransportChannel = false;
+	private final ConcurrentMap<String, CacheGroupMetrics> chainMetrics = CacheMetrics.getInstance().provider(CacheMetrics.CHAIN);
+	private final CacheInvalidationBatcher invalidationBatcher = new CacheInvalidationBatcher(message -> {
+		if ( getTransport() == null ) {
+			throw new CacheTransportException("No Cache transport implementation is defined");
+		}
+		getTransport().send(message);
+	});
+
+	private static final String REMOVE_ON_COMMIT_TAG = "cacheRemove:";
 
 	public static final String TEST_MESSAGE = "HELLO CLUSTER!";
 	public static final String TEST_MESSAGE_NODE = "TESTNODE";
@@ -303,11 +318,25 @@ public class ChainableCacheAdministratorImpl implements DotCacheAdministrator {
 			return null;
 		}
 
-		key = key.toLowerCase();
-		group = group.toLowerCase();
+		return get(key.toLowerCase(), group.toLowerCase(), System.nanoTime());
+	}
+
+	@Override
+	public Object get ( CacheKey key ) throws DotCacheException {
+
+		if ( key == null ) {
+			return null;
+		}
+
+		return get(key.getKey(), key.getGroup(), System.nanoTime());
+	}
+
+	private Object get ( String key, String group, long start ) throws DotCacheException {
 
 		//Find the Object for a given key in a given group
-		return cacheProviderAPI.get(group, key);
+		Object value = cacheProviderAPI.get(group, key);
+		CacheMetrics.group(chainMetrics, group).record(value != null, System.nanoTime() - start);
+		return value;
 	}
 
 	/*
@@ -330,6 +359,16 @@ public class ChainableCacheAdministratorImpl implements DotCacheAdministrator {
 		cacheProviderAPI.put(group, key, content);
 	}
 
+	@Override
+	public void put ( CacheKey key, final Object content ) {
+
+		if ( key == null ) {
+			return;
+		}
+
+		cacheProviderAPI.put(key.getGroup(), key.getKey(), content);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 *
@@ -342,38 +381,42 @@ public class ChainableCacheAdministratorImpl implements DotCacheAdministrator {
 			return;
 		}
 
-		FlushCacheRunnable cacheRemoveRunnable=new FlushCacheRunnable() {
-	         public void run() {
-
-				String k = key.toLowerCase();
-				String g = group.toLowerCase();
-				removeLocalOnly(k, g, false);
-
-				if ( useTransportChannel ) {
-					if (! cacheProviderAPI.isGroupDistributed( group )) {
-						if ( getTransport() != null) {
-							try {
-								getTransport().send(k + ":" + g);
-							} catch ( Exception e ) {
-								Logger.error(ChainableCacheAdministratorImpl.class, "Unable to send invalidation to cluster : " + e.getMessage(), e);
-							}
-						} else {
-							throw new CacheTransportException("No Cache transport implementation is defined");
-						}							
-					}
-				}
-	         }
-		};
+		final String k = key.toLowerCase();
+		final String g = group.toLowerCase();
+		removeLocalOnly(k, g, false);
 
 		try {
-			if(DbConnectionFactory.inTransaction()){
-				HibernateUtil.addCommitListener(cacheRemoveRunnable);
+			if ( DbConnectionFactory.inTransaction() ) {
+				//Removed again on commit, a concurrent read could have cached the previous value meanwhile
+				HibernateUtil.addCommitListener(REMOVE_ON_COMMIT_TAG + g + ":" + k, new FlushCacheRunnable() {
+					public void run () {
+						removeLocalOnly(k, g, false);
+					}
+				});
 			}
-		} catch (Exception e) {
-			Logger.error(ChainableCacheAdministratorImpl.class,e.getMessage(),e);
+		} catch ( Exception e ) {
+			Logger.error(ChainableCacheAdministratorImpl.class, e.getMessage(), e);
 		}
 
-		cacheRemoveRunnable.run();
+		if ( useTransportChannel ) {
+			if (! cacheProviderAPI.isGroupDistributed( g )) {
+				if ( getTransport() != null) {
+					//The invalidation is sent when the transaction commits, batched with other removed keys
+					invalidationBatcher.invalidate(k, g);
+				} else {
+					throw new CacheTransportException("No Cache transport implementation is defined");
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the batcher used to send the removed keys to the cluster, mostly to read its metrics.
+	 *
+	 * @return The {@link CacheInvalidationBatcher}
+	 */
+	public CacheInvalidationBatcher getInvalidationBatcher () {
+		return invalidationBatcher;
 	}
 
 	public void removeLocalOnly ( final String key, final String group, boolean ignoreDistributed ) {
@@ -398,16 +441,38 @@ public class ChainableCacheAdministratorImpl implements DotCacheAdministrator {
 
 	public List<CacheProviderStats> getCacheStatsList () {
 		//Returns the stats for all the cache providers
-		return cacheProviderAPI.getStats();
+		List<CacheProviderStats> providerStats = cacheProviderAPI.getStats();
+		if ( providerStats == null ) {
+			return null;
+		}
+
+		//Adds the reads recorded by each provider and the reads of the whole chain
+		List<CacheProviderStats> stats = new ArrayList<>(providerStats);
+		for ( CacheProviderStats provider : stats ) {
+			if ( provider == null ) {
+				continue;
+			}
+			for ( CacheStats groupStats : provider.getStats() ) {
+				CacheGroupMetrics metrics = CacheMetrics.getInstance().find(provider.getProviderName(), groupStats.getStatValue(CacheStats.REGION));
+				if ( metrics != null ) {
+					metrics.addTo(groupStats);
+					provider.getStatColumns().addAll(groupStats.getStatColumns());
+				}
+			}
+		}
+		stats.add(CacheMetrics.getInstance().getChainStats());
+		return stats;
 	}
 
 	public void shutdown () {
+		invalidationBatcher.shutdown();
 		cacheProviderAPI.shutdown();
 	}
 
 	public void shutdownChannel () {
 
 		if ( getTransport() != null ) {
+			invalidationBatcher.flush();
 			getTransport().shutdown();
 			useTransportChannel = false;
 		} else {
@@ -486,27 +551,47 @@ public class ChainableCacheAdministratorImpl implements DotCacheAdministrator {
 
 	public void invalidateCacheMesageFromCluster ( String message ) {
 		if(message==null){return;};
+
+		if ( SystemEventsBus.isClusterMessage(message) ) {
+			SystemEventsFactory.getInstance().getSystemEventsBus().receive(message);
+			return;
+		}
+
+		if ( CacheInvalidationBatcher.isBatchMessage(message) ) {
+			try {
+				for ( Map.Entry<String, Set<String>> entry : CacheInvalidationBatcher.decode(message).entrySet() ) {
+					for ( String key : entry.getValue() ) {
+						invalidateLocally(key, entry.getKey());
+					}
+				}
+			} catch ( Exception e ) {
+				Logger.error(this, "Unable to decode cache invalidation batch: " + e.getMessage(), e);
+			}
+			return;
+		}
+
 		int i = message.lastIndexOf(":");
 		if ( i > 0 ) {
+			invalidateLocally(message.substring(0, i), message.substring(i + 1, message.length()));
+		} else {
+			Logger.error(this, "The cache to locally remove key is invalid. The value was " + message);
+		}
+	}
 
-			String key = message.substring(0, i);
-			String group = message.substring(i + 1, message.length());
+	private void invalidateLocally ( String key, String group ) {
 
-			key = key.toLowerCase();
-			group = group.toLowerCase();
+		key = key.toLowerCase();
+		group = group.toLowerCase();
 
-			if ( key.equals("0") ) {
+		if ( key.equals("0") ) {
 
-				if ( group.equalsIgnoreCase(DotCacheAdministrator.ROOT_GOUP) ) {
-					CacheLocator.getCacheAdministrator().flushAlLocalOnly(true);
-				} else {
-					CacheLocator.getCacheAdministrator().flushGroupLocalOnly(group, true);
-				}
+			if ( group.equalsIgnoreCase(DotCacheAdministrator.ROOT_GOUP) ) {
+				CacheLocator.getCacheAdministrator().flushAlLocalOnly(true);
 			} else {
-				CacheLocator.getCacheAdministrator().removeLocalOnly(key, group, true);
+				CacheLocator.getCacheAdministrator().flushGroupLocalOnly(group, true);
 			}
 		} else {
-			Logger.error(this, "The cache to locally remove key is invalid. The value was " + message);
+			CacheLocator.getCacheAdministrator().removeLocalOnly(key, group, true);
 		}
 	}
 
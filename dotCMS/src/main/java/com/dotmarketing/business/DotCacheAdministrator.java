@@ -72,6 +72,32 @@ public interface DotCacheAdministrator  {
 	 */
 	void put ( String key, Object content, String group );
 
+	/**
+	 * Get an object from the cache using an already normalized key
+	 * @param key
+	 * @return
+	 */
+	default Object get ( CacheKey key ) throws DotCacheException {
+		return get(key.getKey(), key.getGroup());
+	}
+
+	/**
+	 * Puts an object in a cache using an already normalized key
+	 * @param key
+	 * @param content
+	 */
+	default void put ( CacheKey key, Object content ) {
+		put(key.getKey(), content, key.getGroup());
+	}
+
+	/**
+	 * Remove an object from the cache using an already normalized key
+	 * @param key
+	 */
+	default void remove ( CacheKey key ) {
+		remove(key.getKey(), key.getGroup());
+	}
+
 	/**
 	 * Remove an object from the cache.  
 	 * This will create journal entries for other servers in a clustered environment. 
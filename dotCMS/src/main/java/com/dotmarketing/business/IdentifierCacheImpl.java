@@ -167,6 +167,7 @@ public class IdentifierCacheImpl extends IdentifierCache {
     		final String key = getPrimaryGroup() + id.getHostId() + "-" + uri;
     		cache.remove(key, getPrimaryGroup());
     		cache.remove(key, get404Group());
+    		CacheLocator.getUriResolutionCache().remove(id);
 		}
 		
 		if(UtilMethods.isSet(id.getAssetType()) && id.getAssetType().equals("folder")) {
@@ -201,6 +202,7 @@ public class IdentifierCacheImpl extends IdentifierCache {
     		String key = getPrimaryGroup() + hostId + "-" + URI;
     		cache.remove(key, getPrimaryGroup());
     		cache.remove(key, get404Group());
+    		CacheLocator.getUriResolutionCache().remove(hostId, URI);
 		}
 		else {
 		    removeFromCacheByIdentifier(id);
@@ -147,25 +147,6 @@ public class PermissionBitAPIImpl implements PermissionAPI {
 	}
 
 
-	/**
-	 * This is not intended to be used to check permission because it doesn't check for cms administrator privileges
-	 * @param user
-	 * @param permissions
-	 * @param requiredPermissionType
-	 * @return If the user has the required permission for the collection of permissions passed in
-	 */
-	private boolean doRolesHavePermission(List<String> userRoleIDs, List<Permission> permissions, int requiredPermissionType){
-		
-		for (Permission permission : permissions) {
-			if(permission.matchesPermission(requiredPermissionType)
-					&& userRoleIDs.contains(permission.getRoleId())){
-				return true;
-			}
-		}
-		return false;
-	}
-
-
 	public boolean doesRoleHavePermission(Permissionable permissionable, int permissionType, Role role, boolean respectFrontendRoles) throws DotDataException {
 		return doesRoleHavePermission(permissionable, permissionType, role);
 	}
@@ -319,7 +300,21 @@ public class PermissionBitAPIImpl implements PermissionAPI {
 		if(user!=null && user.getUserId().equals(APILocator.getUserAPI().getSystemUser().getUserId())){
 			return true;
 		}
-		
+
+		final SystemRoles systemRoles = new SystemRoles();
+		return doesUserHavePermission(permissionable, permissionType, user, respectFrontendRoles,
+				systemRoles, (user != null) ? loadUserRoles(user, systemRoles) : null);
+	}
+
+	/**
+	 * Resolves a permission check using the precomputed {@link PermissionBitmap} of the user roles
+	 * and of the permissions of the permissionable. The permissionable must have a permission id
+	 * and the user must not be the system user.
+	 */
+	private boolean doesUserHavePermission(final Permissionable permissionable, int permissionType, final User user,
+										   final boolean respectFrontendRoles, final SystemRoles systemRoles,
+										   final PermissionBitmap.UserRoles userRoles) throws DotDataException {
+
 		// Folders do not have PUBLISH, use EDIT instead
 		if(PermissionableType.FOLDERS.getCanonicalName().equals(permissionable.getPermissionType()) && permissionType == PERMISSION_PUBLISH){
 			permissionType=PERMISSION_EDIT;
@@ -332,51 +327,32 @@ public class PermissionBitAPIImpl implements PermissionAPI {
                 && ((Structure)permissionable).getStructureType()==Structure.STRUCTURE_TYPE_FILEASSET)
             return true;
 
-		Role adminRole;
-		Role anonRole;
-		Role frontEndUserRole;
-		Role cmsOwnerRole;
-		try {
-			adminRole = APILocator.getRoleAPI().loadCMSAdminRole();
-			anonRole = APILocator.getRoleAPI().loadCMSAnonymousRole();
-			frontEndUserRole = APILocator.getRoleAPI().loadLoggedinSiteRole();
-			cmsOwnerRole = APILocator.getRoleAPI().loadCMSOwnerRole();
-		} catch (DotDataException e1) {
-			Logger.error(this, e1.getMessage(), e1);
-			throw new DotRuntimeException(e1.getMessage(), e1);
-		}
-
-		if(user != null && APILocator.getRoleAPI().doesUserHaveRole(user, adminRole))
+		// if CMS Admin return true
+		if(userRoles != null && userRoles.hasRole(systemRoles.adminIndex))
 			return true;
 
-		List<RelatedPermissionableGroup> permissionDependencies = permissionable.permissionDependencies(permissionType);
+		final PermissionBitmap.PermissionableBits permissionBits = loadPermissionBits(permissionable);
 
+		if(respectFrontendRoles){
+			// if we are anonymous
+			if(permissionBits.matches(systemRoles.anonIndex, permissionType)){
+				return true;
+				//if logged in site user has permission
+			}else if(user != null && permissionBits.matches(systemRoles.frontEndUserIndex, permissionType)){
+				return true;
+			}
+		}
 
-		List<Permission> perms =  getPermissions(permissionable, true);
-
-		for(Permission p : perms){
-			if(p.matchesPermission(permissionType)){
-				if(respectFrontendRoles){
-					// if we are anonymous
-					if(p.getRoleId().equals(anonRole.getId())){
-						return true;
-						//if logged in site user has permission
-					}else if(user != null && p.getRoleId().equals(frontEndUserRole.getId())){
-						return true;
-					}
-				} 
-				// if owner and owner has required permission return true
-				try {
-					if(p.getRoleId().equals(cmsOwnerRole.getId()) && user != null &&
-							permissionable.getOwner() != null && permissionable.getOwner().equals(user.getUserId()) &&
-							checkRelatedPermissions(permissionDependencies, user)){
-						return true;
-					}
-				} catch (DotDataException e1) {
-					Logger.error(this, e1.getMessage(), e1);
-					throw new DotRuntimeException(e1.getMessage(), e1);
-				}
+		// if owner and owner has required permission return true
+		try {
+			if(user != null && permissionBits.matches(systemRoles.ownerIndex, permissionType) &&
+					permissionable.getOwner() != null && permissionable.getOwner().equals(user.getUserId()) &&
+					checkRelatedPermissions(permissionable.permissionDependencies(permissionType), user)){
+				return true;
 			}
+		} catch (DotDataException e1) {
+			Logger.error(this, e1.getMessage(), e1);
+			throw new DotRuntimeException(e1.getMessage(), e1);
 		}
 
 		// at this point, there is no anon, logged in site user and the owner do not have permissions
@@ -385,28 +361,21 @@ public class PermissionBitAPIImpl implements PermissionAPI {
 			return false;
 		} 
 
-		List<Role> roles;
-		try {
-			roles = APILocator.getRoleAPI().loadRolesForUser(user.getUserId());
-		} catch (DotDataException e1) {
-			Logger.error(this, e1.getMessage(), e1);
-			throw new DotRuntimeException(e1.getMessage(), e1);
-		}
-		List<String> userRoleIds= new ArrayList<String>();
-		for (Role role : roles) {
-			try{
-				String roleID = role.getId();
-				userRoleIds.add(roleID);
-				if(roleID.equals(adminRole.getId())){
-					// if CMS Admin return true
-					return true;
-				}
-			}catch (Exception e) {
-				Logger.error(this, "Roleid should be a long : ",e);
-			}
+		if(!respectFrontendRoles && userRoles.hasOnlyFrontEndRoles()) {
+			// The user roles are ALL frontEnd roles AND respectFrontEndRoles is false
+			return hasLegacyFormPermission(permissionable);
 		}
+
+		return permissionBits.matches(userRoles, permissionType) || hasLegacyFormPermission(permissionable);
+	}
+
+	/**
+	 * Legacy forms grant access to any user if the form they point to (the {@code formId} in their
+	 * String representation) has any read, edit or publish permission.
+	 */
+	private boolean hasLegacyFormPermission(final Permissionable permissionable) {
+
 		String inode ="";
-        List<String> ids= new ArrayList<String>();
         String s = permissionable.toString();
         
         if(s.contains("formId=")){
@@ -420,42 +389,77 @@ public class PermissionBitAPIImpl implements PermissionAPI {
         }
         
         if(inode != ""){
-                PermissionAPI pAPI;
-                pAPI = APILocator.getPermissionAPI();
-                List<Role> role = pAPI.getRoles(inode, PermissionAPI.PERMISSION_READ + PermissionAPI.PERMISSION_EDIT + PermissionAPI.PERMISSION_PUBLISH, "", 0, 10, true);
-                if(role.size() > 0){
-                        int i = 0;
-                        for (Role r : role) {
-                                ids.add(r.getId());
-                                i++;
-                        }
-                }
-        }
-        if(ids.size() > 0){
-                for(String sId : ids){
-                        userRoleIds.contains(sId);
-                        return true;
-                }
+                List<Role> role = getRoles(inode, PermissionAPI.PERMISSION_READ + PermissionAPI.PERMISSION_EDIT + PermissionAPI.PERMISSION_PUBLISH, "", 0, 10, true);
+                return role.size() > 0;
         }
-        
-        if(!respectFrontendRoles) {
-			List<String> frontEndRoles = new ArrayList<String>(3);
-	
+        return false;
+	}
+
+	/**
+	 * Returns the precomputed roles of a user, building and caching them in the {@link RoleCache} if
+	 * needed.
+	 */
+	private PermissionBitmap.UserRoles loadUserRoles(final User user, final SystemRoles systemRoles) {
+
+		final RoleCache roleCache = CacheLocator.getRoleCache();
+		PermissionBitmap.UserRoles userRoles = roleCache.getRoleBitsForUser(user.getUserId());
+		if (userRoles == null || !userRoles.isLocal()) {
 			try {
-				frontEndRoles.add(APILocator.getRoleAPI().loadCMSAnonymousRole().getId());
-				frontEndRoles.add(APILocator.getRoleAPI().loadLoggedinSiteRole().getId());
-				frontEndRoles.add(APILocator.getRoleAPI().loadRoleByKey("anonymous").getId());
+				userRoles = PermissionBitmap.UserRoles.from(
+						APILocator.getRoleAPI().loadRolesForUser(user.getUserId()), systemRoles.frontEndRoleIds);
 			} catch (DotDataException e1) {
 				Logger.error(this, e1.getMessage(), e1);
 				throw new DotRuntimeException(e1.getMessage(), e1);
 			}
-			
-			if(frontEndRoles.containsAll(userRoleIds)) {
-				return false; // The user roles are ALL frontEnd roles AND respectFrontEndRoles is false, so return false
+			roleCache.addRoleBitsForUser(userRoles, user.getUserId());
+		}
+		return userRoles;
+	}
+
+	/**
+	 * Returns the precomputed resolved (inherited) permissions of a permissionable, building and
+	 * caching them in the {@link PermissionCache} if needed.
+	 */
+	private PermissionBitmap.PermissionableBits loadPermissionBits(final Permissionable permissionable) throws DotDataException {
+
+		final PermissionCache permissionCache = CacheLocator.getPermissionCache();
+		PermissionBitmap.PermissionableBits permissionBits =
+				permissionCache.getPermissionBitsFromCache(permissionable.getPermissionId());
+		if (permissionBits == null || !permissionBits.isLocal()) {
+			permissionBits = PermissionBitmap.PermissionableBits.from(getPermissions(permissionable, true));
+			permissionCache.addToPermissionBitsCache(permissionable.getPermissionId(), permissionBits);
+		}
+		return permissionBits;
+	}
+
+	/**
+	 * Indexes of the system roles used by the permission checks.
+	 */
+	private static final class SystemRoles {
+
+		private final int adminIndex;
+		private final int anonIndex;
+		private final int frontEndUserIndex;
+		private final int ownerIndex;
+		private final Set<String> frontEndRoleIds = new HashSet<String>(3);
+
+		SystemRoles() {
+			try {
+				final RoleAPI roleAPI = APILocator.getRoleAPI();
+				final Role anonRole = roleAPI.loadCMSAnonymousRole();
+				final Role frontEndUserRole = roleAPI.loadLoggedinSiteRole();
+				this.adminIndex = PermissionBitmap.roleIndex(roleAPI.loadCMSAdminRole().getId());
+				this.anonIndex = PermissionBitmap.roleIndex(anonRole.getId());
+				this.frontEndUserIndex = PermissionBitmap.roleIndex(frontEndUserRole.getId());
+				this.ownerIndex = PermissionBitmap.roleIndex(roleAPI.loadCMSOwnerRole().getId());
+				this.frontEndRoleIds.add(anonRole.getId());
+				this.frontEndRoleIds.add(frontEndUserRole.getId());
+				this.frontEndRoleIds.add(roleAPI.loadRoleByKey("anonymous").getId());
+			} catch (DotDataException e1) {
+				Logger.error(PermissionBitAPIImpl.class, e1.getMessage(), e1);
+				throw new DotRuntimeException(e1.getMessage(), e1);
 			}
 		}
-        
-		return doRolesHavePermission(userRoleIds,getPermissions(permissionable, true),permissionType);
 	}
 
 	/* (non-Javadoc)
@@ -1164,25 +1168,30 @@ public class PermissionBitAPIImpl implements PermissionAPI {
 															   final int requiredTypePermission,
 															   final boolean respectFrontendRoles, User user) throws DotDataException, DotSecurityException {
 
-		RoleAPI roleAPI = APILocator.getRoleAPI();
+		if(inputList.isEmpty()){
+			return new ArrayList<P>(inputList);
+		}
 
-		if ((user != null) && roleAPI.doesUserHaveRole(user, roleAPI.loadCMSAdminRole()))
+		if(user!=null && user.getUserId().equals(APILocator.getUserAPI().getSystemUser().getUserId())){
 			return inputList;
-
-		List<P> permissionables = new ArrayList<P>(inputList);
-		if(permissionables.isEmpty()){
-			return permissionables;
 		}
 
-		Permissionable permissionable;
-		int i = 0;
+		// the roles are resolved once for the whole collection
+		final SystemRoles systemRoles = new SystemRoles();
+		final PermissionBitmap.UserRoles userRoles = (user != null) ? loadUserRoles(user, systemRoles) : null;
+
+		if (userRoles != null && userRoles.hasRole(systemRoles.adminIndex))
+			return inputList;
 
-		while (i < permissionables.size()) {
-			permissionable = permissionables.get(i);
-			if(!doesUserHavePermission(permissionable, requiredTypePermission, user, respectFrontendRoles)){
-				permissionables.remove(i);
-			} else {
-				++i;
+		final List<P> permissionables = new ArrayList<P>(inputList.size());
+		for (final P permissionable : inputList) {
+			if (permissionable == null) {
+				Logger.error(this, "Permissionable object is null");
+				throw new NullPointerException("Permissionable object is null");
+			}
+			if (InodeUtils.isSet(permissionable.getPermissionId()) &&
+					doesUserHavePermission(permissionable, requiredTypePermission, user, respectFrontendRoles, systemRoles, userRoles)) {
+				permissionables.add(permissionable);
 			}
 		}
 
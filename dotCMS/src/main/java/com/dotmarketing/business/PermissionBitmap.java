@@ -0,0 +1,209 @@
+package com.dotmarketing.business;
+
+import java.io.Serializable;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.dotmarketing.beans.Permission;
+
+/**
+ * Compact, precomputed representations used to resolve permission checks
+ * without scanning lists of {@link Permission} and {@link Role} objects.
+ * <p>
+ * Every role id is interned into a dense integer index, so the roles of a
+ * user can be kept as a {@link BitSet} ({@link UserRoles}) and the resolved
+ * (inherited) permissions of a permissionable as parallel role/mask arrays
+ * ({@link PermissionableBits}). A check then becomes a few array lookups.
+ * </p>
+ * <p>
+ * The role indexes are only meaningful inside this JVM, so both objects keep
+ * the id of the JVM that built them and are considered a miss if they are
+ * read from a cache shared with other nodes.
+ * </p>
+ * <p>
+ * {@link UserRoles} objects are stored in the {@link RoleCache} and
+ * {@link PermissionableBits} objects in the {@link PermissionCache}, so they
+ * are invalidated along with the role and permission lists they are built
+ * from.
+ * </p>
+ */
+public final class PermissionBitmap {
+
+	private static final String JVM_ID = UUID.randomUUID().toString();
+
+	private static final Map<String, Integer> roleIndexes = new ConcurrentHashMap<String, Integer>();
+	private static final AtomicInteger nextRoleIndex = new AtomicInteger();
+
+	private PermissionBitmap() {
+	}
+
+	/**
+	 * Returns the index of a role id, assigning a new one the first time the
+	 * role is seen. Indexes are never reused, a deleted role just keeps its
+	 * index.
+	 *
+	 * @param roleId
+	 *            - The role id.
+	 * @return The index of the role.
+	 */
+	static int roleIndex(final String roleId) {
+		Integer index = roleIndexes.get(roleId);
+		if (index == null) {
+			synchronized (roleIndexes) {
+				index = roleIndexes.get(roleId);
+				if (index == null) {
+					index = nextRoleIndex.getAndIncrement();
+					roleIndexes.put(roleId, index);
+				}
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Roles of a user, including the implicit ones.
+	 */
+	static final class UserRoles implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private final String jvmId = JVM_ID;
+		private final BitSet roles;
+		private final boolean onlyFrontEndRoles;
+
+		private UserRoles(final BitSet roles, final boolean onlyFrontEndRoles) {
+			this.roles = roles;
+			this.onlyFrontEndRoles = onlyFrontEndRoles;
+		}
+
+		/**
+		 * Builds the roles of a user.
+		 *
+		 * @param roles
+		 *            - The roles returned by
+		 *            {@link RoleAPI#loadRolesForUser(String)}.
+		 * @param frontEndRoleIds
+		 *            - The ids of the front end roles (anonymous, logged in
+		 *            site user), used to flag the users that only have those
+		 *            roles.
+		 * @return The {@link UserRoles}.
+		 */
+		static UserRoles from(final List<Role> roles, final Collection<String> frontEndRoleIds) {
+			final BitSet bits = new BitSet();
+			boolean onlyFrontEndRoles = true;
+			for (final Role role : roles) {
+				bits.set(roleIndex(role.getId()));
+				onlyFrontEndRoles &= frontEndRoleIds.contains(role.getId());
+			}
+			return new UserRoles(bits, onlyFrontEndRoles);
+		}
+
+		boolean hasRole(final int roleIndex) {
+			return this.roles.get(roleIndex);
+		}
+
+		/**
+		 * @return {@code true} if the user has no roles or only front end
+		 *         roles.
+		 */
+		boolean hasOnlyFrontEndRoles() {
+			return this.onlyFrontEndRoles;
+		}
+
+		/**
+		 * @return {@code false} if this object was built by another JVM.
+		 */
+		boolean isLocal() {
+			return JVM_ID.equals(this.jvmId);
+		}
+	}
+
+	/**
+	 * Resolved permissions of a permissionable: for each role with
+	 * permissions, the OR of all its permission bits.
+	 */
+	static final class PermissionableBits implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private final String jvmId = JVM_ID;
+		private final int[] roles;
+		private final int[] masks;
+
+		private PermissionableBits(final int[] roles, final int[] masks) {
+			this.roles = roles;
+			this.masks = masks;
+		}
+
+		/**
+		 * Builds the bits out of a list of bit permissions.
+		 *
+		 * @param permissions
+		 *            - The permissions returned by
+		 *            {@link PermissionAPI#getPermissions(Permissionable, boolean)}
+		 *            with bit permissions.
+		 * @return The {@link PermissionableBits}.
+		 */
+		static PermissionableBits from(final List<Permission> permissions) {
+			final int[] roles = new int[permissions.size()];
+			final int[] masks = new int[permissions.size()];
+			int size = 0;
+			for (final Permission permission : permissions) {
+				final int roleIndex = roleIndex(permission.getRoleId());
+				int i = 0;
+				while (i < size && roles[i] != roleIndex) {
+					i++;
+				}
+				if (i == size) {
+					roles[size] = roleIndex;
+					size++;
+				}
+				masks[i] |= permission.getPermission();
+			}
+			final int[] compactRoles = new int[size];
+			final int[] compactMasks = new int[size];
+			System.arraycopy(roles, 0, compactRoles, 0, size);
+			System.arraycopy(masks, 0, compactMasks, 0, size);
+			return new PermissionableBits(compactRoles, compactMasks);
+		}
+
+		/**
+		 * @return {@code true} if the given role has any of the bits of the
+		 *         permission type.
+		 */
+		boolean matches(final int roleIndex, final int permissionType) {
+			for (int i = 0; i < this.roles.length; i++) {
+				if (this.roles[i] == roleIndex) {
+					return (this.masks[i] & permissionType) > 0;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * @return {@code true} if any of the roles of the user has any of the
+		 *         bits of the permission type.
+		 */
+		boolean matches(final UserRoles userRoles, final int permissionType) {
+			for (int i = 0; i < this.roles.length; i++) {
+				if ((this.masks[i] & permissionType) > 0 && userRoles.hasRole(this.roles[i])) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * @return {@code false} if this object was built by another JVM.
+		 */
+		boolean isLocal() {
+			return JVM_ID.equals(this.jvmId);
+		}
+	}
+
+}
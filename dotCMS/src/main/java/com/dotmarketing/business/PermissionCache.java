@@ -12,6 +12,11 @@ public abstract class PermissionCache implements Cachable{
 
 	abstract protected List<Permission> getPermissionsFromCache(String key);
 
+	abstract protected PermissionBitmap.PermissionableBits addToPermissionBitsCache(String key,
+			PermissionBitmap.PermissionableBits permissionBits);
+
+	abstract protected PermissionBitmap.PermissionableBits getPermissionBitsFromCache(String key);
+
 	abstract public void clearCache();
 
 	abstract protected void remove(String key);
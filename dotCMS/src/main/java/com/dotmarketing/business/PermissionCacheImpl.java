@@ -23,9 +23,14 @@ public class PermissionCacheImpl extends PermissionCache {
 	
 	private String primaryGroup = "PermissionCache";
 	private String secondaryGroup = "ParentPermissionableCache";
+	private String bitsGroup = "PermissionBitsCache";
+
+	// the keys are prefixed with the group name
+	private final CacheKey.Group primaryKeys = CacheKey.group(primaryGroup, primaryGroup);
+	private final CacheKey.Group bitsKeys = CacheKey.group(bitsGroup, bitsGroup);
 
 	// region's name for the cache
-    private String[] groupNames = {primaryGroup, secondaryGroup};
+    private String[] groupNames = {primaryGroup, secondaryGroup, bitsGroup};
 
 	protected PermissionCacheImpl() {
         cache = CacheLocator.getCacheAdministrator();
@@ -35,9 +40,8 @@ public class PermissionCacheImpl extends PermissionCache {
 	 * @see com.dotmarketing.business.PermissionCache#addToPermissionCache(java.lang.String, java.util.List)
 	 */
 	protected List<Permission> addToPermissionCache(String key, List<Permission> permissions) {
-        key = primaryGroup + key;
         // Add the key to the cache
-        cache.put(key, permissions,primaryGroup);
+        cache.put(primaryKeys.key(key), permissions);
 
         return permissions;
     }
@@ -47,16 +51,38 @@ public class PermissionCacheImpl extends PermissionCache {
 	 */
     @SuppressWarnings("unchecked")
 	protected List<Permission> getPermissionsFromCache(String key) {
-    	key = primaryGroup + key;
     	List<Permission> perms = null;
     	try{
-    		perms = (List<Permission>) cache.get(key, primaryGroup);
+    		perms = (List<Permission>) cache.get(primaryKeys.key(key));
     	}catch (DotCacheException e) {
 			Logger.debug(this,"Cache Entry not found", e);
 		}
         return perms;
     }
 
+    /* (non-Javadoc)
+	 * @see com.dotmarketing.business.PermissionCache#addToPermissionBitsCache(java.lang.String, com.dotmarketing.business.PermissionBitmap.PermissionableBits)
+	 */
+    protected PermissionBitmap.PermissionableBits addToPermissionBitsCache(String key,
+            PermissionBitmap.PermissionableBits permissionBits) {
+        cache.put(bitsKeys.key(key), permissionBits);
+
+        return permissionBits;
+    }
+
+    /* (non-Javadoc)
+	 * @see com.dotmarketing.business.PermissionCache#getPermissionBitsFromCache(java.lang.String)
+	 */
+    protected PermissionBitmap.PermissionableBits getPermissionBitsFromCache(String key) {
+        PermissionBitmap.PermissionableBits permissionBits = null;
+        try{
+            permissionBits = (PermissionBitmap.PermissionableBits) cache.get(bitsKeys.key(key));
+        }catch (DotCacheException e) {
+            Logger.debug(this,"Cache Entry not found", e);
+        }
+        return permissionBits;
+    }
+
     /* (non-Javadoc)
 	 * @see com.dotmarketing.business.PermissionCache#clearCache()
 	 */
@@ -64,12 +90,18 @@ public class PermissionCacheImpl extends PermissionCache {
         // clear the cache
         cache.flushGroup(primaryGroup);
         cache.flushGroup(secondaryGroup);
+        cache.flushGroup(bitsGroup);
     }
 
     /* (non-Javadoc)
 	 * @see com.dotmarketing.business.PermissionCache#remove(java.lang.String)
 	 */
     protected void remove(String key){
+    	try{
+	        cache.remove(bitsGroup + key,bitsGroup);
+    	}catch (Exception e) {
+			Logger.debug(this,e.getMessage(), e);
+		} 
     	key = primaryGroup + key;
     	try{
 	        cache.remove(key,primaryGroup);
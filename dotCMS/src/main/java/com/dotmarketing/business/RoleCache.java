@@ -25,6 +25,10 @@ public abstract class RoleCache implements Cachable{
 
 	abstract protected List<UserRoleCacheHelper> getRoleIdsForUser(String userId);
 
+	abstract protected PermissionBitmap.UserRoles addRoleBitsForUser(PermissionBitmap.UserRoles roles, String userId);
+
+	abstract protected PermissionBitmap.UserRoles getRoleBitsForUser(String userId);
+
 	abstract protected List<String> getLayoutsForRole(String roleId);
 
 	abstract protected List<Role> getRootRoles();
@@ -16,6 +16,8 @@ public class RoleCacheImpl extends RoleCache {
 
 	private String userGroup = "dotCMSUserRoleCache";
 
+	private String userBitsGroup = "dotCMSUserRoleBitsCache";
+
 	private String layoutGroup = "dotCMSLayoutCache";
 	
 	private String rootRolesGroup = "dotCMSRootRolesCache";
@@ -23,7 +25,7 @@ public class RoleCacheImpl extends RoleCache {
 	private final String rootRoleKey = "ROOT";
 
 	// region's name for the cache
-	private String[] groupNames = {primaryGroup,userGroup,layoutGroup, rootRolesGroup};
+	private String[] groupNames = {primaryGroup,userGroup,userBitsGroup,layoutGroup, rootRolesGroup};
 
 	public RoleCacheImpl() {
 		cache = CacheLocator.getCacheAdministrator();
@@ -93,6 +95,7 @@ public class RoleCacheImpl extends RoleCache {
 		// clear the cache
 		cache.flushGroup(primaryGroup);
 		cache.flushGroup(userGroup);
+		cache.flushGroup(userBitsGroup);
 		cache.flushGroup(keyGroup);
 		cache.flushGroup(layoutGroup);
 		cache.flushGroup(rootRolesGroup);
@@ -105,6 +108,7 @@ public class RoleCacheImpl extends RoleCache {
 		try{
 			cache.remove(primaryGroup + key,primaryGroup);
 			cache.remove(userGroup + key,userGroup);
+			cache.remove(userBitsGroup + key,userBitsGroup);
 			cache.remove(keyGroup + key,keyGroup);
 			cache.flushGroup(rootRolesGroup);
 		}catch (Exception e) {
@@ -132,6 +136,7 @@ public class RoleCacheImpl extends RoleCache {
 	@Override
 	protected void clearUserRoleCache() {
 		cache.flushGroup(userGroup);
+		cache.flushGroup(userBitsGroup);
 	}
 
 	@Override
@@ -146,6 +151,24 @@ public class RoleCacheImpl extends RoleCache {
 		return l;
 	}
 
+	@Override
+	protected PermissionBitmap.UserRoles getRoleBitsForUser(String userId) {
+		String key = userBitsGroup + userId;
+		PermissionBitmap.UserRoles roles = null;
+		try {
+			roles = (PermissionBitmap.UserRoles)cache.get(key, userBitsGroup);
+		} catch (DotCacheException e) {
+			Logger.debug(this, "Cache not find role bits for user in cache", e);
+		}
+		return roles;
+	}
+
+	@Override
+	protected PermissionBitmap.UserRoles addRoleBitsForUser(PermissionBitmap.UserRoles roles, String userId) {
+		cache.put(userBitsGroup + userId, roles, userBitsGroup);
+		return roles;
+	}
+
 	protected List<UserRoleCacheHelper> addRoleListForUser(List<UserRoleCacheHelper> roles, String userId){
 		String key = userGroup + userId;
 		cache.put(key, roles, userGroup);		
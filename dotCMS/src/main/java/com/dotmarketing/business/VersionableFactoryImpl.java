@@ -320,6 +320,15 @@ public class VersionableFactoryImpl extends VersionableFactory {
         }
     	HibernateUtil.saveOrUpdate(vi);
     	this.icache.removeContentletVersionInfoToCache(cvInfo.getIdentifier(),cvInfo.getLang());
+    	this.removeUriResolution(ident);
+    }
+
+    /**
+     * The resolution of the URI of the asset depends on its versions, see
+     * {@link com.dotmarketing.filters.CMSUrlUtil#resolve}
+     */
+    private void removeUriResolution(Identifier ident) {
+        CacheLocator.getUriResolutionCache().remove(ident);
     }
 
     @Override
@@ -334,6 +343,7 @@ public class VersionableFactoryImpl extends VersionableFactory {
         cVer.setVersionTs(new Date());
 
         HibernateUtil.save(cVer);
+        this.removeUriResolution(identifier);
         return cVer;
     }
 
@@ -379,6 +389,7 @@ public class VersionableFactoryImpl extends VersionableFactory {
         if(UtilMethods.isSet(contv.getIdentifier())) {
         	HibernateUtil.delete(contv);
         	this.icache.removeContentletVersionInfoToCache(id, lang);
+        	this.removeUriResolution(this.iapi.find(id));
         }
 	}
 
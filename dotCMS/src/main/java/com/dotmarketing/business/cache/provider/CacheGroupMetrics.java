@@ -0,0 +1,129 @@
+package com.dotmarketing.business.cache.provider;
+
+import java.text.DecimalFormat;
+import java.text.NumberFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hits, misses and read latency of a cache group in a cache provider (or in the whole chain).
+ * <p>
+ * The latency is kept as an histogram with power of two buckets in nanoseconds, so recording a
+ * read is a couple of {@link LongAdder} increments and the percentiles are approximated by the
+ * upper bound of their bucket.
+ * </p>
+ */
+public class CacheGroupMetrics {
+
+    private static final int BUCKETS = 40;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder[] latencyBuckets = new LongAdder[BUCKETS];
+
+    CacheGroupMetrics() {
+        for (int i = 0; i < BUCKETS; i++) {
+            latencyBuckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a read.
+     *
+     * @param hit   true if the read found a value
+     * @param nanos time spent in the read
+     */
+    public void record(final boolean hit, final long nanos) {
+
+        if (hit) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+
+        final long elapsed = Math.max(nanos, 0);
+        totalNanos.add(elapsed);
+        latencyBuckets[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(elapsed))].increment();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getReads() {
+        return getHits() + getMisses();
+    }
+
+    public double getHitRate() {
+        final long reads = getReads();
+        return reads == 0 ? 0 : (double) getHits() / reads;
+    }
+
+    /**
+     * @return average read time in nanoseconds
+     */
+    public long getAverageNanos() {
+        final long reads = getReads();
+        return reads == 0 ? 0 : totalNanos.sum() / reads;
+    }
+
+    /**
+     * Returns the approximated read time percentile.
+     *
+     * @param percentile between 0 and 1
+     * @return the read time in nanoseconds
+     */
+    public long getPercentileNanos(final double percentile) {
+
+        final long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = latencyBuckets[i].sum();
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        final long target = (long) Math.ceil(total * percentile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return i == 0 ? 0 : 1L << i;
+            }
+        }
+        return 1L << (BUCKETS - 1);
+    }
+
+    /**
+     * Adds the metrics as columns of a {@link CacheStats} record.
+     */
+    public void addTo(final CacheStats stats) {
+
+        final NumberFormat nf = DecimalFormat.getInstance();
+        final DecimalFormat pf = new DecimalFormat("##.##%");
+        stats.addStat(CacheStats.REGION_READS, nf.format(getReads()));
+        stats.addStat(CacheStats.REGION_READ_HIT_RATE, pf.format(getHitRate()));
+        stats.addStat(CacheStats.REGION_READ_TIME_AVG, nf.format(getAverageNanos() / 1000000.0) + " ms");
+        stats.addStat(CacheStats.REGION_READ_TIME_P99, nf.format(getPercentileNanos(0.99) / 1000000.0) + " ms");
+    }
+
+    public Map<String, Object> toMap() {
+
+        final Map<String, Object> map = new LinkedHashMap<>();
+        map.put("hits", getHits());
+        map.put("misses", getMisses());
+        map.put("hitRate", getHitRate());
+        map.put("avgNanos", getAverageNanos());
+        map.put("p50Nanos", getPercentileNanos(0.5));
+        map.put("p99Nanos", getPercentileNanos(0.99));
+        return map;
+    }
+}
@@ -0,0 +1,121 @@
+package com.dotmarketing.business.cache.provider;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of the read metrics ({@link CacheGroupMetrics}) of every cache provider and group.
+ * <p>
+ * Each {@link CacheProvider} records its own reads, and the cache administrator records the reads
+ * of the whole chain under {@link #CHAIN}, so comparing both shows which layer is serving the
+ * traffic. The metrics are published as extra columns of the {@link CacheProviderStats} and
+ * through JMX.
+ * </p>
+ */
+public class CacheMetrics implements CacheMetricsMBean {
+
+    public static final String CHAIN = "Cache Chain";
+
+    private static final String MBEAN_OBJECT_NAME = "org.dotcms:type=CacheMetrics";
+
+    private final ConcurrentMap<String, ConcurrentMap<String, CacheGroupMetrics>> providers =
+            new ConcurrentHashMap<>();
+
+    private CacheMetrics() {
+    }
+
+    public static CacheMetrics getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * Returns the metrics of all the groups of a provider, the returned map is live and can be
+     * kept by the provider to avoid this lookup.
+     *
+     * @param provider provider name
+     * @return group name to metrics
+     */
+    public ConcurrentMap<String, CacheGroupMetrics> provider(final String provider) {
+
+        ConcurrentMap<String, CacheGroupMetrics> groups = providers.get(provider);
+        if (groups == null) {
+            groups = providers.computeIfAbsent(provider, name -> new ConcurrentHashMap<>());
+        }
+        return groups;
+    }
+
+    /**
+     * Returns the metrics of a group in a map returned by {@link #provider(String)}.
+     */
+    public static CacheGroupMetrics group(final ConcurrentMap<String, CacheGroupMetrics> groups,
+                                          final String group) {
+
+        CacheGroupMetrics metrics = groups.get(group);
+        if (metrics == null) {
+            metrics = groups.computeIfAbsent(group, name -> new CacheGroupMetrics());
+        }
+        return metrics;
+    }
+
+    /**
+     * Returns the metrics of a group in a provider, null if nothing was recorded yet.
+     */
+    public CacheGroupMetrics find(final String provider, final String group) {
+
+        final Map<String, CacheGroupMetrics> groups = providers.get(provider);
+        return groups == null || group == null ? null : groups.get(group);
+    }
+
+    /**
+     * Builds the {@link CacheProviderStats} of the whole chain.
+     */
+    public CacheProviderStats getChainStats() {
+
+        final CacheProviderStats stats = new CacheProviderStats(new CacheStats(), CHAIN);
+        for (final Map.Entry<String, CacheGroupMetrics> entry : new TreeMap<>(provider(CHAIN)).entrySet()) {
+            final CacheStats groupStats = new CacheStats();
+            groupStats.addStat(CacheStats.REGION, entry.getKey());
+            entry.getValue().addTo(groupStats);
+            stats.addStatRecord(groupStats);
+        }
+        return stats;
+    }
+
+    @Override
+    public Set<String> getProviders() {
+        return providers.keySet();
+    }
+
+    @Override
+    public Map<String, Map<String, Object>> getStats(final String provider) {
+
+        final Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        final Map<String, CacheGroupMetrics> groups = providers.get(provider);
+        if (groups != null) {
+            for (final Map.Entry<String, CacheGroupMetrics> entry : new TreeMap<>(groups).entrySet()) {
+                stats.put(entry.getKey(), entry.getValue().toMap());
+            }
+        }
+        return stats;
+    }
+
+    @Override
+    public void reset() {
+        for (final ConcurrentMap<String, CacheGroupMetrics> groups : providers.values()) {
+            groups.clear();
+        }
+    }
+
+    @Override
+    public String getObjectName() {
+        return MBEAN_OBJECT_NAME;
+    }
+
+    private static class SingletonHolder {
+        private static final CacheMetrics INSTANCE = new CacheMetrics();
+    }
+}
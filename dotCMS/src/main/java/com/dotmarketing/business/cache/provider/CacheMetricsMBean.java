@@ -0,0 +1,31 @@
+package com.dotmarketing.business.cache.provider;
+
+import com.dotcms.jmx.DotMBean;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Encapsulates the MBean interfaces for the {@link CacheMetrics}
+ */
+public interface CacheMetricsMBean extends DotMBean {
+
+    /**
+     * Gets the names of the providers with metrics, {@link CacheMetrics#CHAIN} holds the
+     * metrics of the whole cache chain.
+     * @return Set
+     */
+    Set<String> getProviders ();
+
+    /**
+     * Gets the hits, misses and read latency of every group of a provider
+     * @param provider {@link String}
+     * @return Map
+     */
+    Map<String, Map<String, Object>> getStats (String provider);
+
+    /**
+     * Clears all the metrics
+     */
+    void reset ();
+} // E:O:F:CacheMetricsMBean.
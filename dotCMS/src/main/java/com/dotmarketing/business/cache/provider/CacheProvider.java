@@ -2,6 +2,7 @@ package com.dotmarketing.business.cache.provider;
 
 import java.io.Serializable;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * This class will be extended by any Cache implementation that needs/want to belong to the Cache Providers execution chain.
@@ -34,6 +35,8 @@ public abstract class CacheProvider implements Serializable {
     protected static final String ONLY_MEMORY_GROUP = "VelocityMemoryOnlyCache".toLowerCase();
     protected static final String USER_VTLS_GROUP = "VelocityUserVTLCache".toLowerCase();
 
+    private transient volatile ConcurrentMap<String, CacheGroupMetrics> metrics;
+
     /**
      * Returns the human readable name for this Cache Provider
      *
@@ -132,4 +135,28 @@ public abstract class CacheProvider implements Serializable {
      */
     public abstract void shutdown ();
 
+    /**
+     * Records a read of this provider in the {@link CacheMetrics} and returns the read value, meant
+     * to wrap the result of {@link #get(String, String)}:
+     * <pre>
+     * final long start = System.nanoTime();
+     * ...
+     * return recordGet(group, value, start);
+     * </pre>
+     *
+     * @param group
+     * @param value      the value found, null on a miss
+     * @param startNanos {@link System#nanoTime()} when the read started
+     * @return the value
+     */
+    protected final Object recordGet ( final String group, final Object value, final long startNanos ) {
+
+        ConcurrentMap<String, CacheGroupMetrics> groups = metrics;
+        if ( groups == null ) {
+            groups = metrics = CacheMetrics.getInstance().provider(getName());
+        }
+        CacheMetrics.group(groups, group).record(value != null, System.nanoTime() - startNanos);
+        return value;
+    }
+
 }
\ No newline at end of file
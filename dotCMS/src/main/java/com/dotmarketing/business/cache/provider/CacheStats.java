@@ -22,6 +22,10 @@ public class CacheStats {
   public final static String REGION_MEM_PER_OBJECT_PRETTY="cache.stats.region.mem.per.object";
   public final static String REGION_AVG_LOAD_TIME="cache.stats.region.load.time.avg";
   public final static String REGION_EVICTIONS="cache.stats.region.evictions";
+  public final static String REGION_READS="cache.stats.region.reads";
+  public final static String REGION_READ_HIT_RATE="cache.stats.region.read.hit.rate";
+  public final static String REGION_READ_TIME_AVG="cache.stats.region.read.time.avg";
+  public final static String REGION_READ_TIME_P99="cache.stats.region.read.time.p99";
   
   
     Map<String, String> stats = new LinkedHashMap<>();
@@ -95,13 +95,13 @@ public class CaffineCache extends CacheProvider {
     @Override
     public Object get(String group, String key) {
 
+        final long start = System.nanoTime();
+
         // Get the cache for the given group
         Cache<String, Object> cache = getCache(group);
 
-
-
         // Get the content from the group and for a given key
-        return cache.getIfPresent(key);
+        return recordGet(group, cache.getIfPresent(key), start);
 
 
     }
@@ -99,6 +99,8 @@ public class GuavaCache extends CacheProvider {
     @Override
     public Object get ( String group, String key ) {
 
+        final long start = System.nanoTime();
+
         //Get the cache for the given group
         Cache cache = getCache(group);
 
@@ -113,7 +115,7 @@ public class GuavaCache extends CacheProvider {
             Logger.error(this.getClass(), "Error getting value from cache from group [" + group + "] and key [" + key + "].", e);
         }
 
-        return foundObject;
+        return recordGet(group, foundObject, start);
     }
 
     @Override
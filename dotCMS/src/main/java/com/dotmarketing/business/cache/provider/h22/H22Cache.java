@@ -1,16 +1,7 @@
 package com.dotmarketing.business.cache.provider.h22;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileFilter;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.io.OutputStream;
 import java.io.Serializable;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -38,6 +29,8 @@ import com.dotcms.util.CloseUtils;
 import com.dotmarketing.business.cache.provider.CacheProvider;
 import com.dotmarketing.business.cache.provider.CacheProviderStats;
 import com.dotmarketing.business.cache.provider.CacheStats;
+import com.dotmarketing.business.cache.serializer.CacheSerializer;
+import com.dotmarketing.business.cache.serializer.CacheSerializerFactory;
 import com.dotmarketing.util.Config;
 import com.dotmarketing.util.ConfigUtils;
 import com.dotmarketing.util.Logger;
@@ -58,6 +51,8 @@ public class H22Cache extends CacheProvider {
 	// number of different dbs to shard against
 	private final int numberOfDbs = Config.getIntProperty("cache.h22.number.of.dbs", 2);
 
+	private final transient CacheSerializer serializer = CacheSerializerFactory.getSerializer("cache.h22.serializer");
+
 	// number of tables in each db shard
 	private final int numberOfTablesPerDb = Config.getIntProperty("cache.h22.number.of.tables.per.db", 9);
 
@@ -156,7 +151,7 @@ public class H22Cache extends CacheProvider {
 		
 		
 
-		return foundObject;
+		return recordGet(group, foundObject, start);
 	}
 
 	@Override
@@ -480,15 +475,7 @@ public class H22Cache extends CacheProvider {
 			upsertStmt = c.prepareStatement(upsertSQL);
 			upsertStmt.setString(1, fqn.id);
 			upsertStmt.setString(2, fqn.group);
-			ObjectOutputStream output = null;
-			OutputStream bout;
-			ByteArrayOutputStream os = new ByteArrayOutputStream();
-			bout = new BufferedOutputStream(os, 8192);
-
-			output = new ObjectOutputStream(bout);
-			output.writeObject(obj);
-			output.flush();
-			byte[] data = os.toByteArray();
+			byte[] data = serializer.serialize(obj);
 			bytes = data.length;
 			upsertStmt.setBytes(3, data);
 
@@ -511,9 +498,6 @@ public class H22Cache extends CacheProvider {
 			return null;
 		}
 
-		ObjectInputStream input=null;
-		InputStream bin=null;
-		InputStream is=null;
 		Optional<Connection> opt = createConnection(true, db(fqn));
 		if (!opt.isPresent()) {
 			return null;
@@ -529,38 +513,12 @@ public class H22Cache extends CacheProvider {
 			if (!rs.next()) {
 				return null;
 			}
-			is = new ByteArrayInputStream(rs.getBytes(1));
-			bin = new BufferedInputStream(is, 8192);
-
-			input = new ObjectInputStream(bin);
-			return input.readObject();
+			return serializer.deserialize(rs.getBytes(1));
 
 		} finally {
 
 			if (stmt != null) stmt.close();
 			c.close();
-			if (input != null){
-				try {
-					input.close();
-				} catch (IOException e) {
-					Logger.warn(getClass(), "should not be here:" + e.getMessage(),e);
-				}
-			}
-			if (bin != null){
-				try {
-					bin.close();
-				} catch (IOException e) {
-					Logger.warn(getClass(), "should not be here:" + e.getMessage(),e);
-				}
-			}
-			
-			if (is != null){
-				try {
-					is.close();
-				} catch (IOException e) {
-					Logger.warn(getClass(), "should not be here:" + e.getMessage(),e);
-				}
-			}
 		}
 	}
 
@@ -100,8 +100,9 @@ public abstract class AbstractHazelcastCacheProvider extends CacheProvider {
         if(isRecovering()){
             return null;
         }
+        final long start = System.nanoTime();
         try {
-            return getHazelcastInstance().getMap(group).get(key);
+            return recordGet(group, getHazelcastInstance().getMap(group).get(key), start);
         } catch (HazelcastInstanceNotActiveException hce){
             reInitialize();
             return null;
@@ -4,6 +4,8 @@ import com.dotcms.repackage.org.apache.commons.collections.map.LRUMap;
 import com.dotmarketing.business.cache.provider.CacheProvider;
 import com.dotmarketing.business.cache.provider.CacheProviderStats;
 import com.dotmarketing.business.cache.provider.CacheStats;
+import com.dotmarketing.business.cache.serializer.CacheSerializer;
+import com.dotmarketing.business.cache.serializer.CacheSerializerFactory;
 import com.dotmarketing.util.Config;
 import com.dotmarketing.util.Logger;
 import com.dotmarketing.util.UtilMethods;
@@ -31,6 +33,7 @@ public class RedisProvider extends CacheProvider {
     private JedisPool writePool;//Master
     private JedisPool readPool;//Slave
     private final char delimit = ';';
+    private final transient CacheSerializer serializer = CacheSerializerFactory.getSerializer("cache.redis.serializer");
 
     @Override
     public String getName () {
@@ -132,20 +135,10 @@ public class RedisProvider extends CacheProvider {
             return;
         }
 
-        ObjectOutputStream output = null;
-        OutputStream outputStream;
-
         try ( Jedis jedis = writePool.getResource() ) {
 
             //Prepare the object to be store
-            ByteArrayOutputStream arrayOutputStream = new ByteArrayOutputStream();
-            outputStream = new BufferedOutputStream(arrayOutputStream, 8192);
-
-            output = new ObjectOutputStream(outputStream);
-            output.writeObject(content);
-            output.flush();
-
-            byte[] data = arrayOutputStream.toByteArray();
+            byte[] data = serializer.serialize(content);
             if ( data == null || data.length == 0 ) {
                 return;
             }
@@ -159,14 +152,6 @@ public class RedisProvider extends CacheProvider {
             Logger.error(this, "Error Adding to Redis [NotSerializableException]: group [" + group + "] - key [" + key + "].", ex);
         } catch ( Exception e ) {
             Logger.error(this, "Error Adding to Redis: group [" + group + "] - key [" + key + "].", e);
-        } finally {
-            try {
-                if ( output != null ) {
-                    output.close();
-                }
-            } catch ( Exception e ) {
-                Logger.error(this, "Error trying to close Stream.", e);
-            }
         }
     }
 
@@ -177,6 +162,12 @@ public class RedisProvider extends CacheProvider {
             return null;
         }
 
+        final long start = System.nanoTime();
+        return recordGet(group, read(group, key), start);
+    }
+
+    private Object read ( String group, String key ) {
+
         //Building the key
         StringWriter compoundKey = new StringWriter();
         compoundKey.append(group.toLowerCase());
@@ -196,39 +187,10 @@ public class RedisProvider extends CacheProvider {
         }
 
         //Reconstructing the object to send it back
-        ObjectInputStream input = null;
-        InputStream bin = null;
-        InputStream is = null;
-
         try {
-            is = new ByteArrayInputStream(data);
-            bin = new BufferedInputStream(is, 8192);
-            input = new ObjectInputStream(bin);
-            return input.readObject();
+            return serializer.deserialize(data);
         } catch ( Exception e ) {
             Logger.error(this, "Error retrieving from Redis: group [" + group + "] - key [" + key + "].", e);
-        } finally {
-            try {
-                if ( input != null ) {
-                    input.close();
-                }
-            } catch ( Exception e ) {
-                Logger.error(this, "Error trying to close Stream.", e);
-            }
-            try {
-                if ( bin != null ) {
-                    bin.close();
-                }
-            } catch ( Exception e ) {
-                Logger.error(this, "Error trying to close Stream.", e);
-            }
-            try {
-                if ( is != null ) {
-                    is.close();
-                }
-            } catch ( Exception e ) {
-                Logger.error(this, "Error trying to close Stream.", e);
-            }
         }
 
         return null;
@@ -101,6 +101,7 @@ public class TimedCacheProvider extends CacheProvider {
 
 	@Override
 	public synchronized Object get(String group, String key) {
+		final long start = System.nanoTime();
 		// Get the cache for the given group
 		Cache cache = getCache(group);
 		Object foundObject = null;
@@ -115,7 +116,7 @@ public class TimedCacheProvider extends CacheProvider {
 					"Error getting value from cache from group [" + group
 							+ "] and key [" + key + "].", e);
 		}
-		return foundObject;
+		return recordGet(group, foundObject, start);
 	}
 
 	@Override
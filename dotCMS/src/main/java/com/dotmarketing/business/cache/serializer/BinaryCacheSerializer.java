@@ -0,0 +1,641 @@
+package com.dotmarketing.business.cache.serializer;
+
+import com.dotmarketing.beans.Identifier;
+import com.dotmarketing.beans.Permission;
+import com.dotmarketing.portlets.contentlet.model.Contentlet;
+import com.dotmarketing.util.Config;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compact binary {@link CacheSerializer}.
+ * <p>
+ * Every value is written as a one byte tag followed by its data. The JDK types commonly found in
+ * the cached objects (strings, boxed primitives, dates, byte and string arrays and the standard
+ * lists, sets and maps) have their own tags, and the main cached model classes are written field
+ * by field through a {@link TypeCodec} registered with a fixed id, so neither class descriptors nor
+ * field names are stored. Any other object, including subclasses of the registered or standard
+ * classes, is written with the Java serialization inside the binary stream, so every
+ * {@link java.io.Serializable} object is still supported.
+ * </p>
+ * <p>
+ * Entries bigger than <strong>cache.serializer.compression.threshold</strong> bytes (4096 by
+ * default, 0 disables it) are compressed with the fastest {@link Deflater} level. Entries written
+ * by the {@link JavaCacheSerializer} are detected and read as they are.
+ * </p>
+ */
+public class BinaryCacheSerializer implements CacheSerializer {
+
+    public static final String NAME = "binary";
+
+    private static final int FORMAT = 0xD0;
+    private static final int FORMAT_MASK = 0xF0;
+    private static final int COMPRESSED = 0x01;
+
+    private static final int NULL = 0;
+    private static final int STRING = 1;
+    private static final int INTEGER = 2;
+    private static final int LONG = 3;
+    private static final int TRUE = 4;
+    private static final int FALSE = 5;
+    private static final int DOUBLE = 6;
+    private static final int FLOAT = 7;
+    private static final int SHORT = 8;
+    private static final int BYTE = 9;
+    private static final int CHARACTER = 10;
+    private static final int BYTES = 11;
+    private static final int STRINGS = 12;
+    private static final int DATE = 13;
+    private static final int TIMESTAMP = 14;
+    private static final int ARRAY_LIST = 15;
+    private static final int HASH_SET = 16;
+    private static final int LINKED_HASH_SET = 17;
+    private static final int HASH_MAP = 18;
+    private static final int LINKED_HASH_MAP = 19;
+    private static final int REGISTERED = 20;
+    private static final int JAVA = 21;
+
+    private static final int MAX_REGISTERED_ID = 255;
+
+    private static final Map<Class<?>, Registration> registrationsByClass = new ConcurrentHashMap<>();
+    private static final Registration[] registrationsById = new Registration[MAX_REGISTERED_ID + 1];
+
+    static {
+        register(1, Contentlet.class, new ContentletCodec());
+        register(2, Identifier.class, new IdentifierCodec());
+        register(3, Permission.class, new PermissionCodec());
+    }
+
+    private final JavaCacheSerializer javaSerializer = new JavaCacheSerializer();
+    private final int compressionThreshold;
+
+    public BinaryCacheSerializer () {
+        this(Config.getIntProperty("cache.serializer.compression.threshold", 4096));
+    }
+
+    BinaryCacheSerializer ( final int compressionThreshold ) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    /**
+     * Writes and reads the fields of a registered class.
+     *
+     * @param <T>
+     */
+    public interface TypeCodec<T> {
+
+        void write ( T value, Output output ) throws IOException;
+
+        T read ( Input input ) throws IOException, ClassNotFoundException;
+    }
+
+    /**
+     * Registers the codec of a class. Only objects of exactly that class use the codec. The id is
+     * stored with every entry, so it must never change nor be reused for another class once the
+     * entries were written.
+     *
+     * @param id    between 1 and 255
+     * @param clazz
+     * @param codec
+     * @param <T>
+     */
+    public static synchronized <T> void register ( final int id, final Class<T> clazz, final TypeCodec<T> codec ) {
+
+        if ( id < 1 || id > MAX_REGISTERED_ID ) {
+            throw new IllegalArgumentException("Invalid codec id " + id + " for " + clazz.getName());
+        }
+        if ( registrationsById[id] != null && registrationsById[id].clazz != clazz ) {
+            throw new IllegalArgumentException("Codec id " + id + " already used by " + registrationsById[id].clazz.getName());
+        }
+
+        final Registration registration = new Registration(id, clazz, codec);
+        registrationsById[id] = registration;
+        registrationsByClass.put(clazz, registration);
+    }
+
+    @Override
+    public String getName () {
+        return NAME;
+    }
+
+    @Override
+    public byte[] serialize ( final Object object ) throws IOException {
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        bytes.write(FORMAT);
+        final Output output = new Output(new DataOutputStream(bytes));
+        output.writeObject(object);
+        output.out.flush();
+
+        final byte[] data = bytes.toByteArray();
+        if ( compressionThreshold <= 0 || data.length < compressionThreshold ) {
+            return data;
+        }
+        return compress(data);
+    }
+
+    @Override
+    public Object deserialize ( final byte[] data ) throws IOException, ClassNotFoundException {
+
+        if ( JavaCacheSerializer.isJavaSerialized(data) ) {
+            return javaSerializer.deserialize(data);
+        }
+        if ( data.length == 0 || (data[0] & FORMAT_MASK) != FORMAT ) {
+            throw new IOException("Unknown cache entry format");
+        }
+
+        final byte[] body = (data[0] & COMPRESSED) != 0 ? decompress(data) : data;
+        final Input input = new Input(new DataInputStream(new ByteArrayInputStream(body, 1, body.length - 1)));
+        return input.readObject();
+    }
+
+    /**
+     * Compressed entries: format byte, uncompressed length and the deflated uncompressed entry
+     * (without its format byte).
+     */
+    private byte[] compress ( final byte[] data ) throws IOException {
+
+        final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data, 1, data.length - 1);
+            deflater.finish();
+
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length / 2);
+            bytes.write(FORMAT | COMPRESSED);
+            final DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(data.length - 1);
+            final byte[] buffer = new byte[8192];
+            while ( !deflater.finished() ) {
+                final int length = deflater.deflate(buffer);
+                out.write(buffer, 0, length);
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private byte[] decompress ( final byte[] data ) throws IOException {
+
+        final int length = new DataInputStream(new ByteArrayInputStream(data, 1, 4)).readInt();
+        final byte[] body = new byte[length + 1];
+        body[0] = (byte) FORMAT;
+
+        final Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, 5, data.length - 5);
+            int offset = 1;
+            while ( offset < body.length ) {
+                final int read = inflater.inflate(body, offset, body.length - offset);
+                if ( read == 0 && (inflater.finished() || inflater.needsInput()) ) {
+                    throw new IOException("Truncated cache entry");
+                }
+                offset += read;
+            }
+            return body;
+        } catch ( DataFormatException e ) {
+            throw new IOException(e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Writes the values of a binary cache entry
+     */
+    public final class Output {
+
+        private final DataOutputStream out;
+
+        private Output ( final DataOutputStream out ) {
+            this.out = out;
+        }
+
+        public void writeVarInt ( int value ) throws IOException {
+            while ( (value & ~0x7F) != 0 ) {
+                out.writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.writeByte(value);
+        }
+
+        public void writeVarLong ( long value ) throws IOException {
+            while ( (value & ~0x7FL) != 0 ) {
+                out.writeByte(((int) value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.writeByte((int) value);
+        }
+
+        public void writeBoolean ( final boolean value ) throws IOException {
+            out.writeBoolean(value);
+        }
+
+        /**
+         * Writes a nullable string
+         */
+        public void writeString ( final String value ) throws IOException {
+            if ( value == null ) {
+                writeVarInt(0);
+                return;
+            }
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length + 1);
+            out.write(bytes);
+        }
+
+        /**
+         * Writes a nullable date, keeping only its time
+         */
+        public void writeDate ( final Date value ) throws IOException {
+            out.writeBoolean(value != null);
+            if ( value != null ) {
+                out.writeLong(value.getTime());
+            }
+        }
+
+        /**
+         * Writes any value, see {@link BinaryCacheSerializer}
+         */
+        public void writeObject ( final Object value ) throws IOException {
+
+            if ( value == null ) {
+                out.writeByte(NULL);
+                return;
+            }
+
+            final Class<?> clazz = value.getClass();
+            if ( clazz == String.class ) {
+                out.writeByte(STRING);
+                writeString((String) value);
+            } else if ( clazz == Integer.class ) {
+                out.writeByte(INTEGER);
+                out.writeInt((Integer) value);
+            } else if ( clazz == Long.class ) {
+                // zigzag, so small negative numbers stay small
+                final long number = (Long) value;
+                out.writeByte(LONG);
+                writeVarLong((number << 1) ^ (number >> 63));
+            } else if ( clazz == Boolean.class ) {
+                out.writeByte((Boolean) value ? TRUE : FALSE);
+            } else if ( clazz == Double.class ) {
+                out.writeByte(DOUBLE);
+                out.writeDouble((Double) value);
+            } else if ( clazz == Float.class ) {
+                out.writeByte(FLOAT);
+                out.writeFloat((Float) value);
+            } else if ( clazz == Short.class ) {
+                out.writeByte(SHORT);
+                out.writeShort((Short) value);
+            } else if ( clazz == Byte.class ) {
+                out.writeByte(BYTE);
+                out.writeByte((Byte) value);
+            } else if ( clazz == Character.class ) {
+                out.writeByte(CHARACTER);
+                out.writeChar((Character) value);
+            } else if ( clazz == byte[].class ) {
+                final byte[] bytes = (byte[]) value;
+                out.writeByte(BYTES);
+                writeVarInt(bytes.length);
+                out.write(bytes);
+            } else if ( clazz == String[].class ) {
+                final String[] strings = (String[]) value;
+                out.writeByte(STRINGS);
+                writeVarInt(strings.length);
+                for ( final String string : strings ) {
+                    writeString(string);
+                }
+            } else if ( clazz == Date.class ) {
+                out.writeByte(DATE);
+                out.writeLong(((Date) value).getTime());
+            } else if ( clazz == Timestamp.class ) {
+                out.writeByte(TIMESTAMP);
+                out.writeLong(((Timestamp) value).getTime());
+                out.writeInt(((Timestamp) value).getNanos());
+            } else if ( clazz == ArrayList.class ) {
+                writeCollection(ARRAY_LIST, (Collection<?>) value);
+            } else if ( clazz == HashSet.class ) {
+                writeCollection(HASH_SET, (Collection<?>) value);
+            } else if ( clazz == LinkedHashSet.class ) {
+                writeCollection(LINKED_HASH_SET, (Collection<?>) value);
+            } else if ( clazz == HashMap.class ) {
+                writeMap(HASH_MAP, (Map<?, ?>) value);
+            } else if ( clazz == LinkedHashMap.class ) {
+                writeMap(LINKED_HASH_MAP, (Map<?, ?>) value);
+            } else {
+                writeOther(clazz, value);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void writeOther ( final Class<?> clazz, final Object value ) throws IOException {
+
+            final Registration registration = registrationsByClass.get(clazz);
+            if ( registration != null ) {
+                out.writeByte(REGISTERED);
+                out.writeByte(registration.id);
+                ((TypeCodec<Object>) registration.codec).write(value, this);
+                return;
+            }
+
+            final byte[] bytes = javaSerializer.serialize(value);
+            out.writeByte(JAVA);
+            writeVarInt(bytes.length);
+            out.write(bytes);
+        }
+
+        private void writeCollection ( final int tag, final Collection<?> values ) throws IOException {
+            out.writeByte(tag);
+            writeVarInt(values.size());
+            for ( final Object value : values ) {
+                writeObject(value);
+            }
+        }
+
+        private void writeMap ( final int tag, final Map<?, ?> values ) throws IOException {
+            out.writeByte(tag);
+            writeVarInt(values.size());
+            for ( final Map.Entry<?, ?> entry : values.entrySet() ) {
+                writeObject(entry.getKey());
+                writeObject(entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Reads the values of a binary cache entry
+     */
+    public final class Input {
+
+        private final DataInputStream in;
+
+        private Input ( final DataInputStream in ) {
+            this.in = in;
+        }
+
+        public int readVarInt () throws IOException {
+            int value = 0;
+            for ( int shift = 0; shift < 35; shift += 7 ) {
+                final int b = in.readUnsignedByte();
+                value |= (b & 0x7F) << shift;
+                if ( (b & 0x80) == 0 ) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed variable length int");
+        }
+
+        public long readVarLong () throws IOException {
+            long value = 0;
+            for ( int shift = 0; shift < 70; shift += 7 ) {
+                final int b = in.readUnsignedByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ( (b & 0x80) == 0 ) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed variable length long");
+        }
+
+        public boolean readBoolean () throws IOException {
+            return in.readBoolean();
+        }
+
+        public String readString () throws IOException {
+            final int length = readVarInt();
+            if ( length == 0 ) {
+                return null;
+            }
+            final byte[] bytes = new byte[length - 1];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        public Date readDate () throws IOException {
+            return in.readBoolean() ? new Date(in.readLong()) : null;
+        }
+
+        public Object readObject () throws IOException, ClassNotFoundException {
+
+            final int tag = in.readUnsignedByte();
+            switch ( tag ) {
+                case NULL:
+                    return null;
+                case STRING:
+                    return readString();
+                case INTEGER:
+                    return in.readInt();
+                case LONG: {
+                    final long number = readVarLong();
+                    return (number >>> 1) ^ -(number & 1);
+                }
+                case TRUE:
+                    return Boolean.TRUE;
+                case FALSE:
+                    return Boolean.FALSE;
+                case DOUBLE:
+                    return in.readDouble();
+                case FLOAT:
+                    return in.readFloat();
+                case SHORT:
+                    return in.readShort();
+                case BYTE:
+                    return in.readByte();
+                case CHARACTER:
+                    return in.readChar();
+                case BYTES: {
+                    final byte[] bytes = new byte[readVarInt()];
+                    in.readFully(bytes);
+                    return bytes;
+                }
+                case STRINGS: {
+                    final String[] strings = new String[readVarInt()];
+                    for ( int i = 0; i < strings.length; i++ ) {
+                        strings[i] = readString();
+                    }
+                    return strings;
+                }
+                case DATE:
+                    return new Date(in.readLong());
+                case TIMESTAMP: {
+                    final Timestamp timestamp = new Timestamp(in.readLong());
+                    timestamp.setNanos(in.readInt());
+                    return timestamp;
+                }
+                case ARRAY_LIST: {
+                    final int size = readVarInt();
+                    return readCollection(new ArrayList<>(size), size);
+                }
+                case HASH_SET: {
+                    final int size = readVarInt();
+                    return readCollection(new HashSet<>(capacity(size)), size);
+                }
+                case LINKED_HASH_SET: {
+                    final int size = readVarInt();
+                    return readCollection(new LinkedHashSet<>(capacity(size)), size);
+                }
+                case HASH_MAP: {
+                    final int size = readVarInt();
+                    return readMap(new HashMap<>(capacity(size)), size);
+                }
+                case LINKED_HASH_MAP: {
+                    final int size = readVarInt();
+                    return readMap(new LinkedHashMap<>(capacity(size)), size);
+                }
+                case REGISTERED: {
+                    final int id = in.readUnsignedByte();
+                    final Registration registration = registrationsById[id];
+                    if ( registration == null ) {
+                        throw new ClassNotFoundException("No cache codec registered with id " + id);
+                    }
+                    return registration.codec.read(this);
+                }
+                case JAVA: {
+                    final byte[] bytes = new byte[readVarInt()];
+                    in.readFully(bytes);
+                    return javaSerializer.deserialize(bytes);
+                }
+                default:
+                    throw new IOException("Unknown cache entry tag " + tag);
+            }
+        }
+
+        private Collection<Object> readCollection ( final Collection<Object> values, final int size )
+                throws IOException, ClassNotFoundException {
+            for ( int i = 0; i < size; i++ ) {
+                values.add(readObject());
+            }
+            return values;
+        }
+
+        private Map<Object, Object> readMap ( final Map<Object, Object> values, final int size )
+                throws IOException, ClassNotFoundException {
+            for ( int i = 0; i < size; i++ ) {
+                values.put(readObject(), readObject());
+            }
+            return values;
+        }
+
+        private int capacity ( final int size ) {
+            return Math.max((int) (size / .75f) + 1, 16);
+        }
+    }
+
+    private static final class Registration {
+
+        private final int id;
+        private final Class<?> clazz;
+        private final TypeCodec<?> codec;
+
+        private Registration ( final int id, final Class<?> clazz, final TypeCodec<?> codec ) {
+            this.id = id;
+            this.clazz = clazz;
+            this.codec = codec;
+        }
+    }
+
+    /**
+     * A {@link Contentlet} is its map of properties, the values are written with
+     * {@link Output#writeObject(Object)}.
+     */
+    private static final class ContentletCodec implements TypeCodec<Contentlet> {
+
+        @Override
+        public void write ( final Contentlet contentlet, final Output output ) throws IOException {
+
+            final Map<String, Object> map = contentlet.getMap();
+            output.writeBoolean(contentlet.isLowIndexPriority());
+            output.writeVarInt(map.size());
+            for ( final Map.Entry<String, Object> entry : map.entrySet() ) {
+                output.writeString(entry.getKey());
+                output.writeObject(entry.getValue());
+            }
+        }
+
+        @Override
+        public Contentlet read ( final Input input ) throws IOException, ClassNotFoundException {
+
+            final Contentlet contentlet = new Contentlet();
+            contentlet.setLowIndexPriority(input.readBoolean());
+            final Map<String, Object> map = contentlet.getMap();
+            map.clear();
+            final int size = input.readVarInt();
+            for ( int i = 0; i < size; i++ ) {
+                map.put(input.readString(), input.readObject());
+            }
+            return contentlet;
+        }
+    }
+
+    private static final class IdentifierCodec implements TypeCodec<Identifier> {
+
+        @Override
+        public void write ( final Identifier identifier, final Output output ) throws IOException {
+            output.writeString(identifier.getId());
+            output.writeString(identifier.getAssetName());
+            output.writeString(identifier.getAssetType());
+            output.writeString(identifier.getParentPath());
+            output.writeString(identifier.getHostId());
+            output.writeDate(identifier.getSysPublishDate());
+            output.writeDate(identifier.getSysExpireDate());
+        }
+
+        @Override
+        public Identifier read ( final Input input ) throws IOException {
+            final Identifier identifier = new Identifier();
+            identifier.setId(input.readString());
+            identifier.setAssetName(input.readString());
+            identifier.setAssetType(input.readString());
+            identifier.setParentPath(input.readString());
+            identifier.setHostId(input.readString());
+            identifier.setSysPublishDate(input.readDate());
+            identifier.setSysExpireDate(input.readDate());
+            return identifier;
+        }
+    }
+
+    private static final class PermissionCodec implements TypeCodec<Permission> {
+
+        @Override
+        public void write ( final Permission permission, final Output output ) throws IOException {
+            output.writeVarLong(permission.getId());
+            output.writeString(permission.getType());
+            output.writeString(permission.getInode());
+            output.writeString(permission.getRoleId());
+            output.writeVarInt(permission.getPermission());
+            output.writeBoolean(permission.isBitPermission());
+        }
+
+        @Override
+        public Permission read ( final Input input ) throws IOException {
+            final Permission permission = new Permission();
+            permission.setId(input.readVarLong());
+            permission.setType(input.readString());
+            permission.setInode(input.readString());
+            permission.setRoleId(input.readString());
+            permission.setPermission(input.readVarInt());
+            permission.setBitPermission(input.readBoolean());
+            return permission;
+        }
+    }
+
+}
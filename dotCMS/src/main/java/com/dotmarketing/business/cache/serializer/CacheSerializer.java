@@ -0,0 +1,41 @@
+package com.dotmarketing.business.cache.serializer;
+
+import java.io.IOException;
+
+/**
+ * Converts the objects stored by the cache providers that keep their entries outside of the heap
+ * (H22 disk cache, Redis) to bytes and back.
+ * <p>
+ * Implementations must be thread safe. The serializer to use by each provider is selected with
+ * {@link CacheSerializerFactory}.
+ * </p>
+ */
+public interface CacheSerializer {
+
+    /**
+     * Returns the name used to select this serializer in the configuration
+     *
+     * @return
+     */
+    String getName ();
+
+    /**
+     * Serializes the given object
+     *
+     * @param object
+     * @return
+     * @throws IOException if the object can not be serialized
+     */
+    byte[] serialize ( Object object ) throws IOException;
+
+    /**
+     * Rebuilds an object from the bytes returned by {@link #serialize(Object)}
+     *
+     * @param data
+     * @return
+     * @throws IOException            if the data is not valid
+     * @throws ClassNotFoundException if a class of the serialized object is not found
+     */
+    Object deserialize ( byte[] data ) throws IOException, ClassNotFoundException;
+
+}
@@ -0,0 +1,57 @@
+package com.dotmarketing.business.cache.serializer;
+
+import com.dotmarketing.util.Config;
+import com.dotmarketing.util.Logger;
+
+/**
+ * Selects the {@link CacheSerializer} used by a cache provider. The property can hold
+ * {@link BinaryCacheSerializer#NAME}, {@link JavaCacheSerializer#NAME} or the class name of a
+ * custom {@link CacheSerializer} implementation:
+ * <ul>
+ * <li>cache.h22.serializer=binary</li>
+ * <li>cache.redis.serializer=java</li>
+ * </ul>
+ * The Java serializer is the default; the binary one is opt-in. It reads the entries written by
+ * the Java serializer, so a provider can switch to it without flushing the stored entries, but
+ * not the other way around.
+ */
+public class CacheSerializerFactory {
+
+    private static final CacheSerializer JAVA = new JavaCacheSerializer();
+
+    private CacheSerializerFactory () {
+    }
+
+    /**
+     * Returns the serializer configured in the given property
+     *
+     * @param property the name of the property, like <strong>cache.h22.serializer</strong>
+     * @return
+     */
+    public static CacheSerializer getSerializer ( final String property ) {
+
+        final String name = Config.getStringProperty(property, JavaCacheSerializer.NAME);
+        if ( JavaCacheSerializer.NAME.equalsIgnoreCase(name) ) {
+            return JAVA;
+        }
+        if ( BinaryCacheSerializer.NAME.equalsIgnoreCase(name) ) {
+            return BinaryHolder.BINARY;
+        }
+
+        try {
+            return (CacheSerializer) Class.forName(name).newInstance();
+        } catch ( Exception e ) {
+            Logger.error(CacheSerializerFactory.class, "Unable to create the cache serializer [" + name
+                    + "] set in [" + property + "], using " + JavaCacheSerializer.NAME, e);
+            return JAVA;
+        }
+    }
+
+    /**
+     * Built on first use, only when a provider opts in
+     */
+    private static final class BinaryHolder {
+        static final CacheSerializer BINARY = new BinaryCacheSerializer();
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.dotmarketing.business.cache.serializer;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * {@link CacheSerializer} based on the standard Java serialization, the format the H22 and Redis
+ * providers always used.
+ */
+public class JavaCacheSerializer implements CacheSerializer {
+
+    public static final String NAME = "java";
+
+    /**
+     * First bytes of every Java serialization stream
+     */
+    static final int STREAM_MAGIC_FIRST_BYTE = 0xAC;
+
+    @Override
+    public String getName () {
+        return NAME;
+    }
+
+    @Override
+    public byte[] serialize ( final Object object ) throws IOException {
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try ( ObjectOutputStream output = new ObjectOutputStream(new BufferedOutputStream(bytes, 8192)) ) {
+            output.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public Object deserialize ( final byte[] data ) throws IOException, ClassNotFoundException {
+
+        try ( ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(data)) ) {
+            return input.readObject();
+        }
+    }
+
+    /**
+     * Returns true if the given data was written by the Java serialization
+     *
+     * @param data
+     * @return
+     */
+    static boolean isJavaSerialized ( final byte[] data ) {
+        return data.length > 1 && (data[0] & 0xFF) == STREAM_MAGIC_FIRST_BYTE && (data[1] & 0xFF) == 0xED;
+    }
+
+}
@@ -52,6 +52,8 @@ public class DotConnect {
     
     boolean forceQuery=false;
 
+    int fetchSize = Config.getIntProperty("DOTCONNECT_FETCH_SIZE", 500);
+
     private static Map<Class, StatementObjectSetter> statementSetterHandlerMap =
             map(DotTimezonedTimestamp.class, DotConnect::setTimestampWithTimezone);
 
@@ -295,6 +297,46 @@ public class DotConnect {
         return this;
     }
 
+    /**
+     * Sets a query that only returns the rows from <strong>offset</strong> to
+     * <strong>offset + limit</strong>. Unlike {@link #setStartRow(int)} and
+     * {@link #setMaxRows(int)}, which skip and discard the rows once they were sent by the
+     * database, the pagination is added to the SQL with the syntax of the current database:
+     * LIMIT/OFFSET on PostgreSQL, MySQL and H2, OFFSET/FETCH on SQL Server 2012 and later and a
+     * ROWNUM filter on Oracle (which adds a <strong>rnum</strong> column to the results).
+     * <p>
+     * The query should have an order by to get stable pages, on SQL Server one is added if it is
+     * missing because it is required by OFFSET/FETCH.
+     * </p>
+     *
+     * @param x      the query
+     * @param offset number of rows to skip
+     * @param limit  maximum number of rows to return
+     * @return this
+     */
+    public DotConnect setPaginatedSQL(String x, int offset, int limit) {
+        return setSQL(paginate(x, offset, limit));
+    }
+
+    /**
+     * Returns the given query with the pagination syntax of the current database
+     *
+     * @see #setPaginatedSQL(String, int, int)
+     */
+    public static String paginate(String x, int offset, int limit) {
+
+        if(DbConnectionFactory.isMsSql()) {
+            final String query = x.trim();
+            return query + (query.toLowerCase().contains("order by") ? "" : " order by (select null)")
+                    + " offset " + offset + " rows fetch next " + limit + " rows only";
+        }
+        else if(DbConnectionFactory.isOracle()) {
+            return "select * from (select paginated_.*, rownum rnum from (" + x + ") paginated_ where rownum <= "
+                    + (offset + limit) + ") where rnum > " + offset;
+        }
+        return x + " limit " + limit + " offset " + offset;
+    }
+
     public String getSQL() {
         return SQL;
     }
@@ -589,14 +631,7 @@ public class DotConnect {
 
 	        	//statement.setMaxRows(maxRows);
 		        Logger.debug(this, "SQL = " + statement.toString());
-		        for (int i = 0; i < paramList.size(); i++) {
-		            Object param = paramList.get(i);
-		            if(param!=null && statementSetterHandlerMap.containsKey(param.getClass())) {
-		                statementSetterHandlerMap.get(param.getClass()).execute(statement, i+1, param);
-                    } else {
-                        statement.setObject(i + 1, paramList.get(i));
-                    }
-		        }
+		        bindParams(statement);
 				if (!starter.toLowerCase().trim().contains("select")) { // if it is NOT a read operation
 		        	beforeQueryExecution = System.nanoTime();
 		            statement.execute();
@@ -720,6 +755,171 @@ public class DotConnect {
     }
     
     
+    private void bindParams(final PreparedStatement statement) throws SQLException {
+
+        for (int i = 0; i < paramList.size(); i++) {
+            Object param = paramList.get(i);
+            if(param!=null && statementSetterHandlerMap.containsKey(param.getClass())) {
+                statementSetterHandlerMap.get(param.getClass()).execute(statement, i+1, param);
+            } else {
+                statement.setObject(i + 1, param);
+            }
+        }
+    }
+
+    /**
+     * Sets the number of rows the JDBC driver reads from the database on each round trip when
+     * the results are streamed with {@link #forEachRow(RowCallback)} or
+     * {@link #loadMappedResults(RowMapper)}. The default is taken from
+     * <strong>DOTCONNECT_FETCH_SIZE</strong> (500).
+     *
+     * @param fetchSize
+     * @return this
+     */
+    public DotConnect setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+        return this;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * Executes the query with a forward only cursor and calls the callback for every row, without
+     * keeping the rows in memory. The start row and max rows are honored.
+     * <p>
+     * The rows are read from the database in groups of {@link #getFetchSize()}. PostgreSQL only
+     * uses a cursor when the connection is not in auto commit, so it is disabled while the rows
+     * are read if needed. MySQL only streams when the connection url has
+     * <strong>useCursorFetch=true</strong>, use {@link #forEachRowByKey(String, int, RowCallback)}
+     * to keep the memory bounded on every database.
+     * </p>
+     *
+     * @param callback called for every row
+     * @return the number of rows processed
+     * @throws DotDataException if the query or the callback fail
+     */
+    public int forEachRow(final RowCallback callback) throws DotDataException {
+
+        try {
+            return stream(DbConnectionFactory.getConnection(), callback);
+        } catch (DotDataException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new DotDataException(e.getMessage() + toString(), e);
+        }
+    }
+
+    /**
+     * Executes the query with a forward only cursor and maps every row with the given mapper,
+     * reading the values by column index instead of building two maps per row like
+     * {@link #loadResults()} and {@link #loadObjectResults()}.
+     *
+     * @param mapper maps every row
+     * @return the mapped rows
+     * @throws DotDataException if the query or the mapper fail
+     */
+    public <T> List<T> loadMappedResults(final RowMapper<T> mapper) throws DotDataException {
+
+        final List<T> mapped = new ArrayList<>();
+        forEachRow(row -> mapped.add(mapper.mapRow(row)));
+        return mapped;
+    }
+
+    /**
+     * Walks all the rows of the query in pages of <strong>pageSize</strong> rows using keyset
+     * pagination: every page is a new query ordered by <strong>keyColumn</strong> that starts after
+     * the last key of the previous page, so no page has to skip rows (like OFFSET does) and no
+     * cursor stays open between pages.
+     * <p>
+     * The query set with {@link #setSQL(String)} is wrapped as a sub query, so it must not have an
+     * order by and <strong>keyColumn</strong> must be one of its unique, not null columns. The
+     * parameters added to the query are kept for every page.
+     * </p>
+     *
+     * @param keyColumn unique column used to order the rows and start every page
+     * @param pageSize  number of rows of every page
+     * @param callback  called for every row
+     * @return the number of rows processed
+     * @throws DotDataException if a query or the callback fail
+     */
+    public int forEachRowByKey(final String keyColumn, final int pageSize, final RowCallback callback)
+            throws DotDataException {
+
+        final String baseSQL = SQL;
+        final ArrayList<Object> baseParams = paramList;
+        final Object[] lastKey = new Object[1];
+        int total = 0;
+
+        try {
+            while (true) {
+
+                SQL = paginate("select * from (" + baseSQL + ") keyset_" + (lastKey[0] != null ? " where "
+                        + keyColumn + " > ?" : "") + " order by " + keyColumn, 0, pageSize);
+                paramList = new ArrayList<>(baseParams);
+                if (lastKey[0] != null) {
+                    paramList.add(lastKey[0]);
+                }
+
+                final int rows = forEachRow(row -> {
+                    callback.processRow(row);
+                    lastKey[0] = row.getObject(keyColumn);
+                });
+                total += rows;
+                if (rows < pageSize) {
+                    return total;
+                }
+            }
+        } finally {
+            SQL = baseSQL;
+            paramList = baseParams;
+        }
+    }
+
+    private int stream(final Connection conn, final RowCallback callback) throws Exception {
+
+        final boolean disableAutoCommit = DbConnectionFactory.isPostgres() && fetchSize > 0 && conn.getAutoCommit();
+        if (disableAutoCommit) {
+            conn.setAutoCommit(false);
+        }
+
+        try (PreparedStatement statement = conn.prepareStatement(SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            if (fetchSize > 0) {
+                statement.setFetchSize(fetchSize);
+            }
+            if (maxRows > 0) {
+                statement.setMaxRows(startRow + maxRows);
+            }
+            bindParams(statement);
+
+            int count = 0;
+            try (ResultSet rs = statement.executeQuery()) {
+
+                final ResultRow row = new ResultRow(rs);
+                int skipped = 0;
+                while (skipped < startRow && rs.next()) {
+                    skipped++;
+                }
+                while (rs.next()) {
+                    row.next();
+                    callback.processRow(row);
+                    count++;
+                }
+            }
+            return count;
+        } finally {
+            if (disableAutoCommit) {
+                try {
+                    conn.setAutoCommit(true);
+                } catch (SQLException e) {
+                    Logger.warn(this, "Unable to restore the auto commit: " + e.getMessage(), e);
+                }
+            }
+        }
+    }
+
     /**
      * Returns the correct Concatenation SQL syntax for a particular RDBMS
      * @param elements
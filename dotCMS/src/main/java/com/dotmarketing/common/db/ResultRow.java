@@ -0,0 +1,155 @@
+package com.dotmarketing.common.db;
+
+import java.sql.Clob;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.dotmarketing.db.DbConnectionFactory;
+
+/**
+ * Read only view of the current row of a {@link ResultSet} used by the streaming methods of
+ * {@link DotConnect}.
+ * <p>
+ * The column labels are read once from the {@link ResultSetMetaData} and resolved by their
+ * lower case name to the column index, so reading a value costs a map lookup and a JDBC call
+ * instead of a {@link java.util.HashMap} per row. The same instance is reused for all the rows
+ * of a query, the values must be copied if they are needed after the callback returns.
+ * </p>
+ */
+public class ResultRow {
+
+    private final ResultSet resultSet;
+    private final String[] labels;
+    private final Map<String, Integer> indexes;
+    private final boolean oracle;
+    private int rowNumber = -1;
+
+    ResultRow(final ResultSet resultSet) throws SQLException {
+        this(resultSet, DbConnectionFactory.isOracle());
+    }
+
+    ResultRow(final ResultSet resultSet, final boolean oracle) throws SQLException {
+
+        final ResultSetMetaData metaData = resultSet.getMetaData();
+        this.resultSet = resultSet;
+        this.labels = new String[metaData.getColumnCount()];
+        this.indexes = new HashMap<>(this.labels.length * 2);
+        for (int i = 0; i < this.labels.length; i++) {
+            this.labels[i] = String.valueOf(metaData.getColumnLabel(i + 1)).toLowerCase();
+            this.indexes.putIfAbsent(this.labels[i], i + 1);
+        }
+        this.oracle = oracle;
+    }
+
+    void next() {
+        this.rowNumber++;
+    }
+
+    /**
+     * Returns the number of the current row, starting at 0
+     */
+    public int getRowNumber() {
+        return this.rowNumber;
+    }
+
+    public int getColumnCount() {
+        return this.labels.length;
+    }
+
+    /**
+     * Returns the lower case label of the column, the first column is 1
+     */
+    public String getColumnLabel(final int column) {
+        return this.labels[column - 1];
+    }
+
+    /**
+     * Returns the index of the column with the given label (case insensitive)
+     *
+     * @throws SQLException if the query does not have the column
+     */
+    public int findColumn(final String label) throws SQLException {
+
+        Integer index = this.indexes.get(label);
+        if (index == null) {
+            index = this.indexes.get(label.toLowerCase());
+            if (index == null) {
+                throw new SQLException("Column [" + label + "] not found in the query, available: "
+                        + this.indexes.keySet());
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Returns the value of the column the same way {@link DotConnect#loadObjectResults()} does:
+     * clobs are read as strings and Oracle timestamps as {@link Date}
+     */
+    public Object getObject(final int column) throws SQLException {
+
+        final Object value = this.resultSet.getObject(column);
+        if (value instanceof Clob) {
+            return this.resultSet.getString(column);
+        }
+        if (this.oracle && value instanceof oracle.sql.TIMESTAMP) {
+            return new Date(((oracle.sql.TIMESTAMP) value).timestampValue().getTime());
+        }
+        return value;
+    }
+
+    public Object getObject(final String label) throws SQLException {
+        return getObject(findColumn(label));
+    }
+
+    /**
+     * Returns the value of the column as string, null if it is null
+     */
+    public String getString(final int column) throws SQLException {
+        return this.resultSet.getString(column);
+    }
+
+    public String getString(final String label) throws SQLException {
+        return getString(findColumn(label));
+    }
+
+    /**
+     * Returns the value of the column as long, 0 if it is null
+     */
+    public long getLong(final String label) throws SQLException {
+        return this.resultSet.getLong(findColumn(label));
+    }
+
+    /**
+     * Returns the value of the column as int, 0 if it is null
+     */
+    public int getInt(final String label) throws SQLException {
+        return this.resultSet.getInt(findColumn(label));
+    }
+
+    /**
+     * Returns the value of the column as a {@link Date}, null if it is null
+     */
+    public Date getDate(final String label) throws SQLException {
+
+        final Timestamp timestamp = this.resultSet.getTimestamp(findColumn(label));
+        return timestamp != null ? new Date(timestamp.getTime()) : null;
+    }
+
+    /**
+     * Copies the current row to a map with the lower case labels as keys, like the rows returned
+     * by {@link DotConnect#loadObjectResults()}
+     */
+    public Map<String, Object> toMap() throws SQLException {
+
+        final Map<String, Object> map = new HashMap<>(this.labels.length * 2);
+        for (int i = 0; i < this.labels.length; i++) {
+            map.put(this.labels[i], getObject(i + 1));
+        }
+        return map;
+    }
+}
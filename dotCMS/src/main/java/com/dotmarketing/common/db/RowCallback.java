@@ -0,0 +1,18 @@
+package com.dotmarketing.common.db;
+
+/**
+ * Callback invoked for every row read by {@link DotConnect#forEachRow(RowCallback)} and
+ * {@link DotConnect#forEachRowByKey(String, int, RowCallback)}.
+ */
+@FunctionalInterface
+public interface RowCallback {
+
+    /**
+     * Processes the current row
+     *
+     * @param row the current row, only valid during this call
+     * @throws Exception any exception stops the iteration and is rethrown wrapped in a
+     *                   {@link com.dotmarketing.exception.DotDataException}
+     */
+    void processRow(ResultRow row) throws Exception;
+}
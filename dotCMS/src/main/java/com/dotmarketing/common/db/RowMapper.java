@@ -0,0 +1,22 @@
+package com.dotmarketing.common.db;
+
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of a query executed by {@link DotConnect#loadMappedResults(RowMapper)}
+ * to an object, without building the intermediate map of every row.
+ *
+ * @param <T> type of the mapped object
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    /**
+     * Maps the current row
+     *
+     * @param row the current row, only valid during this call
+     * @return the mapped object
+     * @throws SQLException
+     */
+    T mapRow(ResultRow row) throws SQLException;
+}
@@ -0,0 +1,193 @@
+package com.dotmarketing.common.reindex;
+
+import com.dotcms.business.CloseDBIfOpened;
+import com.dotmarketing.business.FactoryLocator;
+import com.dotmarketing.common.business.journal.IndexJournal;
+import com.dotmarketing.common.db.DotConnect;
+import com.dotmarketing.db.HibernateUtil;
+import com.dotmarketing.exception.DotDataException;
+import com.dotmarketing.exception.DotSecurityException;
+import com.dotmarketing.portlets.contentlet.business.ContentletFactory;
+import com.dotmarketing.portlets.contentlet.model.Contentlet;
+import com.dotmarketing.util.UtilMethods;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Loads all the contentlets referenced by a batch of {@link IndexJournal} records using a few
+ * set-based queries, instead of querying the {@code contentlet_version_info} table and loading
+ * each inode one by one.
+ * <p>
+ * The version info is read with {@code identifier in (...)} queries split in chunks of
+ * {@link #CHUNK_SIZE} parameters, and the contentlets are loaded from the database in chunks
+ * of the same size. The contentlet cache is never read: it may still hold the version that was
+ * replaced, and the index must get the one in the database.
+ * </p>
+ */
+class ReindexBatchLoader {
+
+    static final int CHUNK_SIZE = 200;
+
+    private static final String VERSION_INFO_SQL =
+            "select identifier,working_inode,live_inode from contentlet_version_info where identifier in (";
+
+    private static final String CONTENTLET_SQL = "select {contentlet.*} from contentlet join inode contentlet_1_ "
+            + "on contentlet_1_.inode = contentlet.inode and contentlet_1_.type = 'contentlet' where contentlet.inode in (";
+
+    private final ContentletFactory contentletFactory;
+
+    ReindexBatchLoader() {
+        this(FactoryLocator.getContentletFactory());
+    }
+
+    ReindexBatchLoader(final ContentletFactory contentletFactory) {
+        this.contentletFactory = contentletFactory;
+    }
+
+    /**
+     * Result of a batch load: the inodes (working and live) to index per identifier and the
+     * contentlets found for those inodes.
+     */
+    static class Batch {
+
+        private final Map<String, List<String>> inodesByIdentifier;
+        private final Map<String, Contentlet> contentletsByInode;
+
+        Batch(final Map<String, List<String>> inodesByIdentifier,
+              final Map<String, Contentlet> contentletsByInode) {
+            this.inodesByIdentifier = inodesByIdentifier;
+            this.contentletsByInode = contentletsByInode;
+        }
+
+        /**
+         * Returns the contentlets (working and live versions for every language) to index for
+         * the given journal record.
+         *
+         * @throws DotDataException if one of the inodes referenced by the version info could not
+         *                          be loaded
+         */
+        List<Contentlet> getContentlets(final IndexJournal<String> idx) throws DotDataException {
+
+            final List<String> inodes = this.inodesByIdentifier.get(idx.getIdentToIndex());
+            final List<Contentlet> contentlets = new ArrayList<>();
+            if (inodes == null) {
+                return contentlets;
+            }
+
+            for (final String inode : inodes) {
+                final Contentlet contentlet = this.contentletsByInode.get(inode);
+                if (contentlet == null) {
+                    throw new DotDataException("Unable to load contentlet with inode [" + inode
+                            + "] for identifier [" + idx.getIdentToIndex() + "]");
+                }
+                contentlets.add(contentlet);
+            }
+            return contentlets;
+        }
+    }
+
+    /**
+     * Loads the version info and contentlets for all the records of the batch.
+     *
+     * @param records journal records returned by
+     *                {@link com.dotmarketing.common.business.journal.DistributedJournalAPI#findContentReindexEntriesToReindex()}
+     * @return the loaded {@link Batch}
+     */
+    @CloseDBIfOpened
+    Batch load(final Collection<IndexJournal<String>> records) throws DotDataException, DotSecurityException {
+
+        final Set<String> identifiers = new LinkedHashSet<>();
+        for (final IndexJournal<String> idx : records) {
+            identifiers.add(idx.getIdentToIndex());
+        }
+
+        final Map<String, List<String>> inodesByIdentifier = this.loadInodes(new ArrayList<>(identifiers));
+        final List<String> inodes = new ArrayList<>();
+        for (final List<String> identifierInodes : inodesByIdentifier.values()) {
+            inodes.addAll(identifierInodes);
+        }
+
+        return new Batch(inodesByIdentifier, this.loadContentlets(inodes));
+    }
+
+    /**
+     * Loads the contentlets from the database, bypassing the contentlet cache.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Contentlet> loadContentlets(final List<String> inodes) throws DotDataException, DotSecurityException {
+
+        final Map<String, Contentlet> contentletsByInode = new HashMap<>();
+
+        for (int init = 0; init < inodes.size(); init += CHUNK_SIZE) {
+
+            final List<String> chunk = inodes.subList(init, Math.min(init + CHUNK_SIZE, inodes.size()));
+            final StringBuilder sql = new StringBuilder(CONTENTLET_SQL);
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i == 0 ? "?" : ",?");
+            }
+            sql.append(')');
+
+            final HibernateUtil hu = new HibernateUtil(com.dotmarketing.portlets.contentlet.business.Contentlet.class);
+            hu.setSQLQuery(sql.toString());
+            for (final String inode : chunk) {
+                hu.setParam(inode);
+            }
+
+            final List<com.dotmarketing.portlets.contentlet.business.Contentlet> fatties = hu.list();
+            for (final com.dotmarketing.portlets.contentlet.business.Contentlet fatty : fatties) {
+                final Contentlet contentlet = this.contentletFactory.convertFatContentletToContentlet(fatty);
+                contentletsByInode.put(contentlet.getInode(), contentlet);
+            }
+            // the fat contentlets are not needed once converted, don't let the session keep them
+            HibernateUtil.getSession().clear();
+        }
+
+        return contentletsByInode;
+    }
+
+    private Map<String, List<String>> loadInodes(final List<String> identifiers) throws DotDataException {
+
+        final Map<String, List<String>> inodesByIdentifier = new HashMap<>();
+
+        for (int init = 0; init < identifiers.size(); init += CHUNK_SIZE) {
+
+            final List<String> chunk = identifiers.subList(init, Math.min(init + CHUNK_SIZE, identifiers.size()));
+            final StringBuilder sql = new StringBuilder(VERSION_INFO_SQL);
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i == 0 ? "?" : ",?");
+            }
+            sql.append(')');
+
+            final DotConnect dc = new DotConnect();
+            dc.setSQL(sql.toString());
+            for (final String identifier : chunk) {
+                dc.addParam(identifier);
+            }
+
+            final List<Map<String, String>> results = dc.loadResults();
+            for (final Map<String, String> row : results) {
+
+                final String workingInode = row.get("working_inode");
+                final String liveInode = row.get("live_inode");
+                List<String> inodes = inodesByIdentifier.get(row.get("identifier"));
+                if (inodes == null) {
+                    inodes = new ArrayList<>();
+                    inodesByIdentifier.put(row.get("identifier"), inodes);
+                }
+
+                inodes.add(workingInode);
+                if (UtilMethods.isSet(liveInode) && !workingInode.equals(liveInode)) {
+                    inodes.add(liveInode);
+                }
+            }
+        }
+
+        return inodesByIdentifier;
+    }
+}
@@ -1,7 +1,9 @@
 package com.dotmarketing.common.reindex;
 
 import com.dotcms.api.system.event.Visibility;
-import com.dotcms.business.CloseDBIfOpened;
+import com.dotcms.concurrent.DotConcurrentException;
+import com.dotcms.concurrent.DotConcurrentFactory;
+import com.dotcms.concurrent.DotSubmitter;
 import com.dotcms.content.elasticsearch.business.ContentletIndexAPI;
 import com.dotcms.content.elasticsearch.util.ESClient;
 import com.dotcms.content.elasticsearch.util.ESReindexationProcessStatus;
@@ -15,7 +17,6 @@ import com.dotmarketing.business.*;
 import com.dotmarketing.common.business.journal.DistributedJournalAPI;
 import com.dotmarketing.common.business.journal.DistributedJournalFactory;
 import com.dotmarketing.common.business.journal.IndexJournal;
-import com.dotmarketing.common.db.DotConnect;
 import com.dotmarketing.db.DbConnectionFactory;
 import com.dotmarketing.db.HibernateUtil;
 import com.dotmarketing.exception.DotDataException;
@@ -24,20 +25,21 @@ import com.dotmarketing.exception.DotSecurityException;
 import com.dotmarketing.portlets.contentlet.model.Contentlet;
 import com.dotmarketing.util.Config;
 import com.dotmarketing.util.Logger;
-import com.dotmarketing.util.UtilMethods;
 import com.liferay.portal.language.LanguageException;
 import com.liferay.portal.model.User;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkRequestBuilder;
 import org.elasticsearch.action.bulk.BulkResponse;
-import org.elasticsearch.client.Client;
 
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.*;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
 /**
  * This thread is in charge of re-indexing the contenlet information placed in
@@ -102,6 +104,15 @@ public class ReindexThread extends Thread {
 	private int failedAttemptsCount = 0;
 	private boolean reindexSleepDuringIndex = false;
 	private int reindexSleepDuringIndexTime = 0;
+	private int mappingWorkers = 1;
+	private Semaphore inFlightBulks = new Semaphore(1);
+	private ReindexBatchLoader batchLoader;
+
+	/**
+	 * Name of the {@link DotSubmitter} used by the mapping workers, its pool can be tuned using the
+	 * {@code dotReindexPool} prefix on the {@link DotConcurrentFactory} properties.
+	 */
+	public static final String REINDEX_THREAD_POOL = "dotReindexPool";
 
 	public ReindexThread() {
 
@@ -200,6 +211,7 @@ public class ReindexThread extends Thread {
 	private void startProcessing(int sleep, int delay) {
 		this.sleep = sleep;
 		this.delay = delay;
+		ESReindexationProcessStatus.resetThroughput();
 		start = true;
 	}
 	
@@ -276,218 +288,9 @@ public class ReindexThread extends Thread {
 					}
 					else if(!remoteQ.isEmpty()) {
 					    wait=false;
-					    Client client=new ESClient().getClient();
-						BulkRequestBuilder bulk=client.prepareBulk();
-						final ArrayList<IndexJournal<String>> recordsToDelete= new ArrayList<>();
-						while(!remoteQ.isEmpty()) {
-
-							IndexJournal<String> idx = remoteQ.removeFirst();
-
-							try {
-								writeDocumentToIndex(bulk, idx);
-							} catch ( Exception e ) {
-
-								Logger.error(this, "Unable to index record with id [" + idx.getIdentToIndex() + "]", e);
-
-								//Counts the failed attempts when indexing and handles error notifications
-								addIndexingFailedAttempt();
-
-								try {
-									/*
-									Reset to null the server id of the failed records in the reindex journal table
-									in order to make them available again for the reindex process.
-									 */
-									List<IndexJournal<String>> failedRecords = new ArrayList<>();
-									failedRecords.add(idx);
-									jAPI.resetServerForReindexEntry(failedRecords);
-								} catch ( DotDataException dataException ) {
-									Logger.error(this, "Error adding back failed records to reindex queue", dataException);
-								}
-								// The total number of re-tries minus 1 will
-								// indicate the last opportunity of a record to
-								// be re-indexed.
-								int totalAttempts = (DistributedJournalFactory.REINDEX_JOURNAL_PRIORITY_FAILED_FIRST_ATTEMPT + DistributedJournalFactory.RETRY_FAILED_INDEX_TIMES);
-								String identToIndex = idx.getIdentToIndex();
-								if (!this.notifiedFailingRecords.contains(identToIndex) && idx.getPriority() >= totalAttempts) {
-									// The record was not able to be re-indexed,
-									// so a notification will be generated and
-									// the record will not be processed anymore
-									String msg = "Could not re-index record with the Identifier '"
-											+ identToIndex
-											+ "'. The record is in a bad state or can be associated to orphaned records. You can try running the Fix Assets Inconsistencies tool and re-start the reindex.";
-
-                                    //Generate and send an user notification
-									sendNotification("notification.reindexing.error.processrecord", new Object[] {identToIndex}, msg, true);
-									this.notifiedFailingRecords.add(identToIndex);
-								}
-
-								try {
-									Thread.sleep(delayOnError);
-								} catch ( InterruptedException ie ) {
-									Logger.error(this, ie.getMessage(), ie);
-								}
-
-								/*
-								This continue will avoid to remove this failed record from the index journal table so
-								can be grab it again in another iteration.
-								 */
-								continue;
-							}
-
-							recordsToDelete.add(idx);
-
-							//If the REINDEX_SLEEP_DURING_INDEX was set
-							if ( reindexSleepDuringIndex ) {
-								try {
-									int sleepTime = getReindexSleepDuringIndexTime();
-									Thread.sleep(sleepTime);
-								} catch ( InterruptedException e ) {
-									Logger.error(this, e.getMessage(), e);
-								}
-							}
-
-						}
-
-						HibernateUtil.closeSession();
-
-				        if(bulk.numberOfActions()>0) {
-				            bulk.execute(new ActionListener<BulkResponse>() {
-
-								void handleRecords (List<IndexJournal<String>> failedRecords) {
-
-									//List of records to delete from the reindex journal table
-									addRecordsToDelete(recordsToDelete);
-
-									try {
-										if ( failedRecords != null && !failedRecords.isEmpty() ) {
-											/*
-											Reset to null the server id of the failed records in the reindex journal table
-											in order to make them available again for the reindex process.
-											 */
-											jAPI.resetServerForReindexEntry(failedRecords);
-										}
-									} catch ( DotDataException e ) {
-										Logger.error(this, "Error adding back failed records to reindex queue", e);
-									}
-								}
-
-								public void onResponse ( BulkResponse resp ) {
-
-									//Handle failures on the re-index process if any
-									List<IndexJournal<String>> failedRecords = failureHandler(resp);
-
-									//Handle the processed records
-									handleRecords(failedRecords);
-								}
-
-								public void onFailure ( Throwable ex ) {
-
-									Logger.error(ReindexThread.class, "Indexing process failed", ex);
-
-									//Handle the processed records
-									handleRecords(null);
-
-									//Reset the failed attempts count as the onFailure will finish the indexing process
-									failedAttemptsCount = 0;
-								}
-
-								/**
-								 * Checks if we had failures when indexing, on failure we will retry the indexing process of the records that failed,
-								 * the process WON'T continue with failed records.
-								 *
-								 * @param resp
-								 */
-								private List<IndexJournal<String>> failureHandler ( BulkResponse resp ) {
-
-									//List of records that failed and will be added to the queue for more attempts
-									List<IndexJournal<String>> failedRecords = new ArrayList<>();
-
-									//Verify if we have failures to handle
-									if ( resp.hasFailures() && isWorking() ) {
-
-										Logger.error(this, "Error indexing content [" + resp.buildFailureMessage() + "]");
-
-										//Counts the failed attempts when indexing and handles error notifications
-										addIndexingFailedAttempt();
-
-										//Search for the failed items
-										for ( BulkItemResponse itemResponse : resp.getItems() ) {
-
-											//Check if the indexing process failed for this item
-											if ( itemResponse.isFailed() ) {
-
-												//Get the data of the failed record
-												String initialId = itemResponse.getId();
-												//Remove the language from the id in order to get just the inode/identifier
-												int languageIndex = initialId.lastIndexOf("_");
-												String failedId = initialId;
-												if ( languageIndex != -1 ) {
-													failedId = initialId.substring(0, languageIndex);
-												}
-
-												//Search the failed record into the list of records to delete
-												Iterator<IndexJournal<String>> toDeleteIterator = recordsToDelete.iterator();
-												while ( toDeleteIterator.hasNext() ) {
-
-													IndexJournal<String> indexToDelete = toDeleteIterator.next();
-													if ( indexToDelete.getInodeToIndex().equals(failedId) || indexToDelete.getIdentToIndex().equals(failedId) ) {
-
-														//Add it to the list of records that failed and needs to be added back to the reindex queue
-														if ( !exist(failedRecords, indexToDelete) ) {
-															failedRecords.add(indexToDelete);
-														}
-
-														/*
-														Remove the record from the list of contents to remove from the index journal table
-														as it indexing process failed and we want a re-try with those records.
-														 */
-														toDeleteIterator.remove();
-													}
-												}
-											}
-										}
-
-										if ( !failedRecords.isEmpty() ) {
-
-											Logger.error(this, "Reindex thread will try to re-index [" + String.valueOf(failedRecords.size()) + "] failed records.");
-
-											try {
-												Thread.sleep(delayOnError);
-											} catch ( InterruptedException e ) {
-												Logger.error(this, e.getMessage(), e);
-											}
-										}
-									}
-
-									return failedRecords;
-								}
-
-								/**
-								 * Checks if a given record already exist on a given list
-								 *
-								 * @param toRestore
-								 * @param toCompare
-								 * @return
-								 */
-								private boolean exist ( List<IndexJournal<String>> toRestore, IndexJournal<String> toCompare ) {
-
-									boolean exist = false;
-									for ( IndexJournal<String> current : toRestore ) {
-
-										if ( current.getId() == toCompare.getId() ) {
-											exist = true;
-											break;
-										}
-									}
-
-									return exist;
-								}
-
-							});
-				        }
-				        else if(recordsToDelete.size()>0) {
-				            addRecordsToDelete(recordsToDelete);
-				        }
+					    final List<IndexJournal<String>> batch = new ArrayList<>(remoteQ);
+					    remoteQ.clear();
+					    indexBatch(batch);
 					}
 					
 				} catch (Exception ex) {
@@ -620,6 +423,8 @@ public class ReindexThread extends Thread {
 			instance.delay = Config.getIntProperty("reindex.thread.delay", 7500);
 			instance.delayOnError = Config.getIntProperty("reindex.thread.delayonerror", 500);
 			instance.reindexSleepDuringIndex = Config.getBooleanProperty("reindex.thread.reindexsleepduringindex", false);
+			instance.mappingWorkers = Config.getIntProperty("reindex.thread.workers", 1);
+			instance.inFlightBulks = new Semaphore(Math.max(1, Config.getIntProperty("reindex.thread.maxinflightbulks", 2)));
 			instance.start();
 			int i = Config.getIntProperty("REINDEX_SLEEP_DURING_INDEX", 0);
 			if(i>0){
@@ -672,64 +477,399 @@ public class ReindexThread extends Thread {
 	    }
 	}
 
-	@CloseDBIfOpened
-	private List<Map<String,String>> getContentletVersionInfoByIdentifier (final String id) throws DotDataException {
+	/**
+	 * Indexes a batch of journal records. The contentlets of the whole batch are loaded with a few
+	 * set-based queries by the {@link ReindexBatchLoader}, then the records are split among the
+	 * mapping workers (see {@code reindex.thread.workers}), each of them building its own
+	 * {@link BulkRequestBuilder}. Each bulk request is sent asynchronously, but no more than
+	 * {@code reindex.thread.maxinflightbulks} requests can be in flight at the same time: if the limit
+	 * is reached this thread waits for Elastic to catch up before sending more data.
+	 *
+	 * @param batch records taken from the {@code dist_reindex_journal} table
+	 */
+	private void indexBatch(final List<IndexJournal<String>> batch) throws DotHibernateException {
+
+	    System.setProperty("IN_FULL_REINDEX", "true");
+
+	    ReindexBatchLoader.Batch loadedBatch = null;
+	    try {
+	        loadedBatch = getBatchLoader().load(batch);
+	    } catch (Exception e) {
+	        // the records will be loaded one by one, so a bad record does not fail the whole batch
+	        Logger.warn(this, "Unable to load the reindex batch of [" + batch.size() + "] records, loading them one by one: " + e.getMessage());
+	    } finally {
+	        HibernateUtil.closeSession();
+	    }
+
+	    final List<MappingResult> results = mapBatch(batch, loadedBatch);
+
+	    for (final MappingResult result : results) {
+
+	        for (final Map.Entry<IndexJournal<String>, Exception> failed : result.failedRecords.entrySet()) {
+	            handleFailedRecord(failed.getKey(), failed.getValue());
+	        }
+
+	        if (result.bulk.numberOfActions() > 0) {
+	            sendBulk(result.bulk, result.indexedRecords);
+	        } else if (!result.indexedRecords.isEmpty()) {
+	            ESReindexationProcessStatus.addIndexedRecords(result.indexedRecords.size());
+	            addRecordsToDelete(result.indexedRecords);
+	        }
+	    }
+	}
+
+	/**
+	 * Splits the batch among the mapping workers and waits for all of them to finish. When only one
+	 * worker is configured, the mapping runs in this thread.
+	 */
+	private List<MappingResult> mapBatch(final List<IndexJournal<String>> batch,
+	                                     final ReindexBatchLoader.Batch loadedBatch) {
+
+	    final List<MappingResult> results = new ArrayList<>();
+	    final int workers = Math.max(1, Math.min(this.mappingWorkers, batch.size()));
+
+	    if (workers == 1) {
+	        results.add(mapRecords(batch, loadedBatch));
+	        return results;
+	    }
+
+	    final DotSubmitter submitter = DotConcurrentFactory.getInstance().getSubmitter(REINDEX_THREAD_POOL);
+	    final List<Future<MappingResult>> futures = new ArrayList<>();
+	    final int chunkSize = (batch.size() + workers - 1) / workers;
+
+	    for (int init = 0; init < batch.size(); init += chunkSize) {
+
+	        final List<IndexJournal<String>> chunk = batch.subList(init, Math.min(init + chunkSize, batch.size()));
+	        try {
+	            futures.add(submitter.submit(() -> {
+	                try {
+	                    return mapRecords(chunk, loadedBatch);
+	                } finally {
+	                    DbConnectionFactory.closeSilently();
+	                }
+	            }));
+	        } catch (DotConcurrentException e) {
+	            // the pool is saturated, map this chunk in the current thread
+	            Logger.debug(this, "Reindex pool rejected a mapping task: " + e.getMessage());
+	            results.add(mapRecords(chunk, loadedBatch));
+	        }
+	    }
+
+	    for (final Future<MappingResult> future : futures) {
+	        try {
+	            results.add(future.get());
+	        } catch (InterruptedException | ExecutionException e) {
+	            // should not happen, mapRecords handles the errors per record
+	            Logger.error(this, "Mapping worker failed: " + e.getMessage(), e);
+	        }
+	    }
+
+	    return results;
+	}
+
+	/**
+	 * Maps each record of the list into a new {@link BulkRequestBuilder}, the records that can not be
+	 * mapped are collected with their error so they can be retried later.
+	 */
+	private MappingResult mapRecords(final List<IndexJournal<String>> records,
+	                                 final ReindexBatchLoader.Batch loadedBatch) {
+
+	    final MappingResult result = new MappingResult(new ESClient().getClient().prepareBulk());
+
+	    for (final IndexJournal<String> idx : records) {
+
+	        try {
+	            writeDocumentToIndex(result.bulk, idx, loadedBatch);
+	        } catch (Exception e) {
+	            result.failedRecords.put(idx, e);
+	            continue;
+	        }
+
+	        result.indexedRecords.add(idx);
+
+	        //If the REINDEX_SLEEP_DURING_INDEX was set
+	        if ( reindexSleepDuringIndex ) {
+	            try {
+	                Thread.sleep(getReindexSleepDuringIndexTime());
+	            } catch ( InterruptedException e ) {
+	                Logger.error(this, e.getMessage(), e);
+	            }
+	        }
+	    }
 
-		final String sql = "select working_inode,live_inode from contentlet_version_info where identifier=?";
-		final DotConnect dc = new DotConnect();
-		dc.setSQL(sql);
-		dc.addParam(id);
-		return dc.loadResults();
+	    return result;
 	}
 
-	@CloseDBIfOpened
-	private com.dotmarketing.portlets.contentlet.business.Contentlet getContentletByINode (final String inode) throws DotHibernateException {
+	/**
+	 * Sends the bulk request to Elastic, blocking while the maximum number of in-flight bulk requests
+	 * has been reached.
+	 */
+	private void sendBulk(final BulkRequestBuilder bulk, final List<IndexJournal<String>> recordsToDelete) {
+
+	    try {
+	        this.inFlightBulks.acquire();
+	    } catch (InterruptedException e) {
+	        Thread.currentThread().interrupt();
+	        Logger.error(this, e.getMessage(), e);
+	        // releases the records so the reindex process picks them up again
+	        try {
+	            jAPI.resetServerForReindexEntry(recordsToDelete);
+	        } catch (DotDataException dataException) {
+	            Logger.error(this, "Error adding back the records of the bulk request to reindex queue", dataException);
+	        }
+	        return;
+	    }
 
-		return (com.dotmarketing.portlets.contentlet.business.Contentlet)
-				HibernateUtil.load(com.dotmarketing.portlets.contentlet.business.Contentlet.class, inode);
+	    ESReindexationProcessStatus.bulkRequestStarted();
+	    try {
+	        bulk.execute(new BulkIndexListener(recordsToDelete));
+	    } catch (RuntimeException e) {
+	        ESReindexationProcessStatus.bulkRequestFinished();
+	        this.inFlightBulks.release();
+	        throw e;
+	    }
 	}
 
-	@CloseDBIfOpened
-	private Contentlet convertFatContentletToContentlet (final com.dotmarketing.portlets.contentlet.business.Contentlet fattyContentlet) throws DotDataException, DotSecurityException {
+	/**
+	 * Handles a record that could not be mapped: the record is put back in the journal and, if it
+	 * already used all its attempts, a notification is sent to the CMS Administrators.
+	 */
+	private void handleFailedRecord(final IndexJournal<String> idx, final Exception e) {
+
+	    Logger.error(this, "Unable to index record with id [" + idx.getIdentToIndex() + "]", e);
+	    ESReindexationProcessStatus.addFailedRecords(1);
+
+	    //Counts the failed attempts when indexing and handles error notifications
+	    addIndexingFailedAttempt();
+
+	    try {
+	        /*
+	        Reset to null the server id of the failed records in the reindex journal table
+	        in order to make them available again for the reindex process.
+	         */
+	        List<IndexJournal<String>> failedRecords = new ArrayList<>();
+	        failedRecords.add(idx);
+	        jAPI.resetServerForReindexEntry(failedRecords);
+	    } catch ( DotDataException dataException ) {
+	        Logger.error(this, "Error adding back failed records to reindex queue", dataException);
+	    }
+	    // The total number of re-tries minus 1 will
+	    // indicate the last opportunity of a record to
+	    // be re-indexed.
+	    int totalAttempts = (DistributedJournalFactory.REINDEX_JOURNAL_PRIORITY_FAILED_FIRST_ATTEMPT + DistributedJournalFactory.RETRY_FAILED_INDEX_TIMES);
+	    String identToIndex = idx.getIdentToIndex();
+	    if (!this.notifiedFailingRecords.contains(identToIndex) && idx.getPriority() >= totalAttempts) {
+	        // The record was not able to be re-indexed,
+	        // so a notification will be generated and
+	        // the record will not be processed anymore
+	        String msg = "Could not re-index record with the Identifier '"
+	                + identToIndex
+	                + "'. The record is in a bad state or can be associated to orphaned records. You can try running the Fix Assets Inconsistencies tool and re-start the reindex.";
+
+	        try {
+	            //Generate and send an user notification
+	            sendNotification("notification.reindexing.error.processrecord", new Object[] {identToIndex}, msg, true);
+	        } catch ( DotDataException | LanguageException notificationException ) {
+	            Logger.error(this, "Error creating a system notification for the record [" + identToIndex + "]", notificationException);
+	        }
+	        this.notifiedFailingRecords.add(identToIndex);
+	    }
+
+	    try {
+	        Thread.sleep(delayOnError);
+	    } catch ( InterruptedException ie ) {
+	        Logger.error(this, ie.getMessage(), ie);
+	    }
+	}
 
-		return FactoryLocator.getContentletFactory()
-				.convertFatContentletToContentlet(fattyContentlet);
+	private ReindexBatchLoader getBatchLoader() {
+	    if (this.batchLoader == null) {
+	        this.batchLoader = new ReindexBatchLoader();
+	    }
+	    return this.batchLoader;
 	}
 
-	@SuppressWarnings("unchecked")
-	private void writeDocumentToIndex(BulkRequestBuilder bulk, IndexJournal<String> idx) throws DotDataException, DotSecurityException {
+	private void writeDocumentToIndex(final BulkRequestBuilder bulk, final IndexJournal<String> idx,
+	                                  final ReindexBatchLoader.Batch loadedBatch) throws DotDataException, DotSecurityException {
 
 	    Logger.debug(this, "Indexing document "+idx.getIdentToIndex());
-	    System.setProperty("IN_FULL_REINDEX", "true");
 
-	    final List<Map<String,String>> ret =
-				this.getContentletVersionInfoByIdentifier(idx.getIdentToIndex());
-        final List<String> inodes = new ArrayList<>();
-
-        for(Map<String,String> mapResult : ret) {
-        	String workingInode = mapResult.get("working_inode");
-        	String liveInode = mapResult.get("live_inode");
-        	inodes.add(workingInode);
-        	if(UtilMethods.isSet(liveInode) && !workingInode.equals(liveInode)){
-        		inodes.add(liveInode);
-        	}
-        }
+	    final ReindexBatchLoader.Batch batch = (loadedBatch != null) ?
+	            loadedBatch : getBatchLoader().load(Collections.singletonList(idx));
 
-        for(String inode : inodes) {
+	    for(final Contentlet contentlet : batch.getContentlets(idx)) {
 
-        	final com.dotmarketing.portlets.contentlet.business.Contentlet fattyContentlet =
-					this.getContentletByINode(inode);
-            final Contentlet contentlet =
-					this.convertFatContentletToContentlet(fattyContentlet);
-            
-            if(idx.isDelete() && idx.getIdentToIndex().equals(contentlet.getIdentifier())) {
+	        if(idx.isDelete() && idx.getIdentToIndex().equals(contentlet.getIdentifier())) {
 				// we delete contentlets from the identifier pointed on index journal record
 				// its dependencies are reindexed in order to update its relationships fields
 				indexAPI.removeContentFromIndex(contentlet);
 			} else {
 				indexAPI.addContentToIndex(contentlet, false, true, indexAPI.isInFullReindex(), bulk);
 			}
-        }
+	    }
+	}
+
+	/**
+	 * Output of a mapping worker: the bulk request built by the worker, the records included on it and
+	 * the records that failed with their error.
+	 */
+	private static class MappingResult {
+
+	    private final BulkRequestBuilder bulk;
+	    private final List<IndexJournal<String>> indexedRecords = new ArrayList<>();
+	    private final Map<IndexJournal<String>, Exception> failedRecords = new LinkedHashMap<>();
+
+	    MappingResult(final BulkRequestBuilder bulk) {
+	        this.bulk = bulk;
+	    }
+	}
+
+	/**
+	 * Listener for the asynchronous bulk requests, it queues the indexed records to be removed from the
+	 * journal, puts back the failed ones and releases the in-flight permit of the request.
+	 */
+	private class BulkIndexListener implements ActionListener<BulkResponse> {
+
+	    private final List<IndexJournal<String>> recordsToDelete;
+
+	    BulkIndexListener(final List<IndexJournal<String>> recordsToDelete) {
+	        this.recordsToDelete = recordsToDelete;
+	    }
+
+	    void handleRecords (List<IndexJournal<String>> failedRecords) {
+
+	        try {
+	            //List of records to delete from the reindex journal table
+	            addRecordsToDelete(recordsToDelete);
+	            ESReindexationProcessStatus.addIndexedRecords(recordsToDelete.size());
+
+	            if ( failedRecords != null && !failedRecords.isEmpty() ) {
+	                ESReindexationProcessStatus.addFailedRecords(failedRecords.size());
+	                /*
+	                Reset to null the server id of the failed records in the reindex journal table
+	                in order to make them available again for the reindex process.
+	                 */
+	                jAPI.resetServerForReindexEntry(failedRecords);
+	            }
+	        } catch ( DotDataException e ) {
+	            Logger.error(this, "Error adding back failed records to reindex queue", e);
+	        } finally {
+	            ESReindexationProcessStatus.bulkRequestFinished();
+	            inFlightBulks.release();
+	        }
+	    }
+
+	    public void onResponse ( BulkResponse resp ) {
+
+	        //Handle failures on the re-index process if any
+	        List<IndexJournal<String>> failedRecords = failureHandler(resp);
+
+	        //Handle the processed records
+	        handleRecords(failedRecords);
+	    }
+
+	    public void onFailure ( Throwable ex ) {
+
+	        Logger.error(ReindexThread.class, "Indexing process failed", ex);
+
+	        //Handle the processed records
+	        handleRecords(null);
+
+	        //Reset the failed attempts count as the onFailure will finish the indexing process
+	        failedAttemptsCount = 0;
+	    }
+
+	    /**
+	     * Checks if we had failures when indexing, on failure we will retry the indexing process of the records that failed,
+	     * the process WON'T continue with failed records.
+	     *
+	     * @param resp
+	     */
+	    private List<IndexJournal<String>> failureHandler ( BulkResponse resp ) {
+
+	        //List of records that failed and will be added to the queue for more attempts
+	        List<IndexJournal<String>> failedRecords = new ArrayList<>();
+
+	        //Verify if we have failures to handle
+	        if ( resp.hasFailures() && isWorking() ) {
+
+	            Logger.error(this, "Error indexing content [" + resp.buildFailureMessage() + "]");
+
+	            //Counts the failed attempts when indexing and handles error notifications
+	            addIndexingFailedAttempt();
+
+	            //Search for the failed items
+	            for ( BulkItemResponse itemResponse : resp.getItems() ) {
+
+	                //Check if the indexing process failed for this item
+	                if ( itemResponse.isFailed() ) {
+
+	                    //Get the data of the failed record
+	                    String initialId = itemResponse.getId();
+	                    //Remove the language from the id in order to get just the inode/identifier
+	                    int languageIndex = initialId.lastIndexOf("_");
+	                    String failedId = initialId;
+	                    if ( languageIndex != -1 ) {
+	                        failedId = initialId.substring(0, languageIndex);
+	                    }
+
+	                    //Search the failed record into the list of records to delete
+	                    Iterator<IndexJournal<String>> toDeleteIterator = recordsToDelete.iterator();
+	                    while ( toDeleteIterator.hasNext() ) {
+
+	                        IndexJournal<String> indexToDelete = toDeleteIterator.next();
+	                        if ( indexToDelete.getInodeToIndex().equals(failedId) || indexToDelete.getIdentToIndex().equals(failedId) ) {
+
+	                            //Add it to the list of records that failed and needs to be added back to the reindex queue
+	                            if ( !exist(failedRecords, indexToDelete) ) {
+	                                failedRecords.add(indexToDelete);
+	                            }
+
+	                            /*
+	                            Remove the record from the list of contents to remove from the index journal table
+	                            as it indexing process failed and we want a re-try with those records.
+	                             */
+	                            toDeleteIterator.remove();
+	                        }
+	                    }
+	                }
+	            }
+
+	            if ( !failedRecords.isEmpty() ) {
+
+	                Logger.error(this, "Reindex thread will try to re-index [" + String.valueOf(failedRecords.size()) + "] failed records.");
+
+	                try {
+	                    Thread.sleep(delayOnError);
+	                } catch ( InterruptedException e ) {
+	                    Logger.error(this, e.getMessage(), e);
+	                }
+	            }
+	        }
+
+	        return failedRecords;
+	    }
+
+	    /**
+	     * Checks if a given record already exist on a given list
+	     *
+	     * @param toRestore
+	     * @param toCompare
+	     * @return
+	     */
+	    private boolean exist ( List<IndexJournal<String>> toRestore, IndexJournal<String> toCompare ) {
+
+	        boolean exist = false;
+	        for ( IndexJournal<String> current : toRestore ) {
+
+	            if ( current.getId() == toCompare.getId() ) {
+	                exist = true;
+	                break;
+	            }
+	        }
+
+	        return exist;
+	    }
 	}
 	
 	int threadsPausing = 0;
@@ -803,6 +803,14 @@ public class HibernateUtil {
 		}
 	}
 
+	/**
+	 * Returns the commit listener registered with the given tag in the current transaction, if any.
+	 * The listeners are cleared when the transaction commits, rolls back or its session is closed.
+	 */
+	public static DotRunnable getCommitListener(String tag) {
+		return commitListeners.get().get(tag);
+	}
+
 	public static void addRollbackListener(DotRunnable listener) throws DotHibernateException{
 		if (getTransactionListenersStatus() != TransactionListenerStatus.DISABLED) {
 	        try {
@@ -59,8 +59,6 @@ public class CMSFilter implements Filter {
         HttpServletRequest request = (HttpServletRequest) req;
         HttpServletResponse response = (HttpServletResponse) res;
 
-        IAm iAm = IAm.NOTHING_IN_THE_CMS;
-
         // Set the request in the thread local.
         this.requestThreadLocal.setRequest(request);
 
@@ -101,13 +99,8 @@ public class CMSFilter implements Filter {
         // Get the user language
         long languageId = WebAPILocator.getLanguageWebAPI().getLanguage(request).getId();
 
-        if (urlUtil.isFileAsset(uri, site, languageId)) {
-            iAm = IAm.FILE;
-        } else if (urlUtil.isPageAsset(uri, site, languageId)) {
-            iAm = IAm.PAGE;
-        } else if (urlUtil.isFolder(uri, site)) {
-            iAm = IAm.FOLDER;
-        }
+        // What the URI is in the CMS, resolved in one cache lookup for all the asset types
+        IAm iAm = urlUtil.resolve(uri, site, languageId).getKind();
 
         if (iAm == IAm.FOLDER) {
 
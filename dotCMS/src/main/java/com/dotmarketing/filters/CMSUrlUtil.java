@@ -4,18 +4,27 @@ import static com.dotmarketing.business.PermissionAPI.PERMISSION_READ;
 import static com.dotmarketing.filters.Constants.CMS_FILTER_QUERY_STRING_OVERRIDE;
 import static com.dotmarketing.filters.Constants.CMS_FILTER_URI_OVERRIDE;
 
+import com.dotcms.repackage.com.google.common.annotations.VisibleForTesting;
 import com.dotcms.vanityurl.business.VanityUrlAPI;
 import com.dotcms.vanityurl.model.CachedVanityUrl;
 import com.dotmarketing.beans.Host;
 import com.dotmarketing.beans.Identifier;
 import com.dotmarketing.business.APILocator;
+import com.dotmarketing.business.CacheLocator;
 import com.dotmarketing.business.DotStateException;
+import com.dotmarketing.business.IdentifierAPI;
 import com.dotmarketing.business.PermissionAPI;
 import com.dotmarketing.business.Permissionable;
+import com.dotmarketing.business.UserAPI;
 import com.dotmarketing.business.Versionable;
+import com.dotmarketing.business.VersionableAPI;
 import com.dotmarketing.exception.DotDataException;
+import com.dotmarketing.exception.DotSecurityException;
+import com.dotmarketing.filters.CMSFilter.IAm;
+import com.dotmarketing.portlets.contentlet.business.ContentletAPI;
 import com.dotmarketing.portlets.contentlet.model.Contentlet;
 import com.dotmarketing.portlets.contentlet.model.ContentletVersionInfo;
+import com.dotmarketing.portlets.languagesmanager.business.LanguageAPI;
 import com.dotmarketing.portlets.languagesmanager.model.Language;
 import com.dotmarketing.portlets.structure.model.Structure;
 import com.dotmarketing.util.Config;
@@ -26,7 +35,6 @@ import com.liferay.util.Xss;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
-import java.util.List;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -63,7 +71,28 @@ public class CMSUrlUtil {
 		return urlUtil;
 	}
 
+	private final UriResolutionCache uriResolutionCache;
+	private final IdentifierAPI identifierAPI;
+	private final VersionableAPI versionableAPI;
+	private final LanguageAPI languageAPI;
+	private final ContentletAPI contentletAPI;
+	private final UserAPI userAPI;
+
 	private CMSUrlUtil() {
+		this(CacheLocator.getUriResolutionCache(), APILocator.getIdentifierAPI(), APILocator.getVersionableAPI(),
+				APILocator.getLanguageAPI(), APILocator.getContentletAPI(), APILocator.getUserAPI());
+	}
+
+	@VisibleForTesting
+	CMSUrlUtil(final UriResolutionCache uriResolutionCache, final IdentifierAPI identifierAPI,
+			final VersionableAPI versionableAPI, final LanguageAPI languageAPI, final ContentletAPI contentletAPI,
+			final UserAPI userAPI) {
+		this.uriResolutionCache = uriResolutionCache;
+		this.identifierAPI = identifierAPI;
+		this.versionableAPI = versionableAPI;
+		this.languageAPI = languageAPI;
+		this.contentletAPI = contentletAPI;
+		this.userAPI = userAPI;
 	}
 
 	/**
@@ -98,65 +127,7 @@ public class CMSUrlUtil {
 	 * @return true if the URI is a Page Asset, false if not
 	 */
 	public boolean isPageAsset(String uri, Host host, Long languageId) {
-		Identifier id;
-		if (!UtilMethods.isSet(uri)) {
-			return false;
-		}
-		try {
-			id = APILocator.getIdentifierAPI().find(host, uri);
-		} catch (Exception e) {
-			Logger.error(this.getClass(), UNABLE_TO_FIND + uri);
-			return false;
-		}
-		if (id == null || id.getId() == null) {
-			return false;
-		}
-		if (HTMLPAGE.equals(id.getAssetType())) {
-			return true;
-		}
-		if (CONTENTLET.equals(id.getAssetType())) {
-			try {
-
-				//Get the list of languages use by the application
-				List<Language> languages = APILocator.getLanguageAPI().getLanguages();
-
-				//First try with the given language
-				ContentletVersionInfo cinfo = APILocator.getVersionableAPI()
-						.getContentletVersionInfo(id.getId(), languageId);
-				if (cinfo == null || cinfo.getWorkingInode().equals(NOT_FOUND)) {
-
-					for (Language language : languages) {
-                        /*
-                        If we found nothing with the given language it does not mean is not a page,
-						could be just a page but it does not exist for the given language.
-						Trying with the other languages use in the app.
-						 */
-						if (languageId != language.getId()) {
-							cinfo = APILocator.getVersionableAPI()
-									.getContentletVersionInfo(id.getId(), language.getId());
-							if (cinfo != null && !cinfo.getWorkingInode().equals(NOT_FOUND)) {
-								//Found it
-								break;
-							}
-						}
-					}
-
-				}
-				if (cinfo == null || cinfo.getWorkingInode().equals(NOT_FOUND)) {
-					return false;//At this point we know is not a page
-				} else {
-					Contentlet c = APILocator.getContentletAPI()
-							.find(cinfo.getWorkingInode(), APILocator.getUserAPI().getSystemUser(),
-									false);
-					return (c.getStructure().getStructureType()
-							== Structure.STRUCTURE_TYPE_HTMLPAGE);
-				}
-			} catch (Exception e) {
-				Logger.error(this.getClass(), UNABLE_TO_FIND + uri);
-				return false;
-			}
-		}
-		return false;
+		return resolve(uri, host, languageId).getKind() == IAm.PAGE;
 	}
 
 	/**
@@ -168,52 +139,129 @@ public class CMSUrlUtil {
 	 * @return true if the URI is a File Asset, false if not
 	 */
 	public boolean isFileAsset(String uri, Host host, Long languageId) {
+		return resolve(uri, host, languageId).getKind() == IAm.FILE;
+	}
 
-		// languageId is not used now, but will be used in future functionality. Issue #7141
+	/**
+	 * Resolves what the uri is in the CMS: a File Asset, a Page Asset, a Folder or nothing, in
+	 * that order. The resolution is kept in the {@link UriResolutionCache}, the uris that are
+	 * nothing included.
+	 * <p>
+	 * A content resolves to a File Asset if it exists in the given language, or in the default
+	 * language when DEFAULT_FILE_TO_DEFAULT_LANGUAGE is set, and to a Page Asset if it exists in
+	 * any language.
+	 * </p>
+	 *
+	 * @param uri The current uri
+	 * @param host The current host
+	 * @param languageId The current language Id
+	 * @return The {@link UriResolution}, never null
+	 */
+	public UriResolution resolve(String uri, Host host, Long languageId) {
+		if (!UtilMethods.isSet(uri)) {
+			return UriResolution.NOTHING;
+		}
+		if (host == null) {
+			return "/".equals(uri) ? new UriResolution(IAm.FOLDER, null, null, languageId) : UriResolution.NOTHING;
+		}
 
-		Identifier id;
-		try {
-			id = APILocator.getIdentifierAPI().find(host, uri);
-		} catch (Exception e) {
-			Logger.error(this.getClass(), UNABLE_TO_FIND + uri);
-			return false;
+		final UriResolutionCache cache = this.uriResolutionCache;
+		UriResolution resolution = cache.get(host.getIdentifier(), languageId, uri);
+		if (resolution == null) {
+			try {
+				resolution = resolveAsset(uri, host, languageId);
+				cache.put(host.getIdentifier(), languageId, uri, resolution);
+			} catch (Exception e) {
+				// not cached, the next request tries again
+				Logger.error(this.getClass(), UNABLE_TO_FIND + uri);
+				Logger.debug(this.getClass(), e.getMessage(), e);
+				resolution = UriResolution.NOTHING;
+			}
 		}
-		if (id == null || id.getId() == null) {
-			return false;
+		return resolution;
+	}
+
+	private UriResolution resolveAsset(String uri, Host host, long languageId)
+			throws DotDataException, DotSecurityException {
+		if ("/".equals(uri)) {
+			return new UriResolution(IAm.FOLDER, null, null, languageId);
 		}
-		if (FILE_ASSET.equals(id.getAssetType())) {
-			return true;
+
+		final Identifier id = this.identifierAPI.find(host, uri);
+		if (id != null && id.getId() != null) {
+			if (FILE_ASSET.equals(id.getAssetType())) {
+				return new UriResolution(IAm.FILE, id.getId(), null, languageId);
+			} else if (HTMLPAGE.equals(id.getAssetType())) {
+				return new UriResolution(IAm.PAGE, id.getId(), null, languageId);
+			} else if (FOLDER.equals(id.getAssetType())) {
+				return new UriResolution(IAm.FOLDER, id.getId(), null, languageId);
+			} else if (CONTENTLET.equals(id.getAssetType())) {
+				return resolveContent(id, languageId);
+			}
+			return UriResolution.NOTHING;
 		}
 
-		if (CONTENTLET.equals(id.getAssetType())) {
-			try {
-				ContentletVersionInfo cinfo = APILocator.getVersionableAPI()
-						.getContentletVersionInfo(id.getId(), languageId);
+		String folderUri = uri;
+		while (folderUri.endsWith("/") && folderUri.length() > 1) {
+			folderUri = folderUri.substring(0, folderUri.length() - 1);
+		}
+		if (!folderUri.startsWith("/")) {
+			folderUri = "/" + folderUri;
+		}
+		if (!folderUri.equals(uri)) {
+			final Identifier folderId = this.identifierAPI.find(host, folderUri);
+			if (folderId != null && folderId.getId() != null && FOLDER.equals(folderId.getAssetType())) {
+				return new UriResolution(IAm.FOLDER, folderId.getId(), null, languageId);
+			}
+		}
 
-				if ((cinfo == null || cinfo.getWorkingInode().equals(NOT_FOUND)) && Config
-						.getBooleanProperty("DEFAULT_FILE_TO_DEFAULT_LANGUAGE", false)) {
-					//Get the Default Language
-					Language defaultLang = APILocator.getLanguageAPI().getDefaultLanguage();
-					//If the fallback to Default Language is set to true, let's see if the requested file is stored with Default Language
-					cinfo = APILocator.getVersionableAPI()
-							.getContentletVersionInfo(id.getId(), defaultLang.getId());
-				}
+		return UriResolution.NOTHING;
+	}
 
-				if (cinfo == null || cinfo.getWorkingInode().equals(NOT_FOUND)) {
-					return false;//At this point we know is not a File Asset
-				} else {
-					Contentlet c = APILocator.getContentletAPI()
-							.find(cinfo.getWorkingInode(), APILocator.getUserAPI().getSystemUser(),
-									false);
-					return (c.getStructure().getStructureType()
-							== Structure.STRUCTURE_TYPE_FILEASSET);
+	private UriResolution resolveContent(Identifier id, long languageId)
+			throws DotDataException, DotSecurityException {
+		//First try with the given language
+		ContentletVersionInfo cinfo = findVersionInfo(id, languageId);
+		if (cinfo == null && Config.getBooleanProperty("DEFAULT_FILE_TO_DEFAULT_LANGUAGE", false)) {
+			//If the fallback to Default Language is set to true, let's see if the requested file is stored with Default Language
+			cinfo = findVersionInfo(id, this.languageAPI.getDefaultLanguage().getId());
+		}
+		final boolean fileLanguage = cinfo != null;
+
+		if (cinfo == null) {
+			for (Language language : this.languageAPI.getLanguages()) {
+				/*
+				If we found nothing with the given language it does not mean is not a page,
+				could be just a page but it does not exist for the given language.
+				Trying with the other languages use in the app.
+				 */
+				if (languageId != language.getId()) {
+					cinfo = findVersionInfo(id, language.getId());
+					if (cinfo != null) {
+						//Found it
+						break;
+					}
 				}
-			} catch (Exception e) {
-				Logger.error(this.getClass(), UNABLE_TO_FIND + uri);
-				return false;
 			}
 		}
-		return false;
+		if (cinfo == null) {
+			return UriResolution.NOTHING;
+		}
+
+		final Contentlet c = this.contentletAPI
+				.find(cinfo.getWorkingInode(), this.userAPI.getSystemUser(), false);
+		final int structureType = c.getStructure().getStructureType();
+		if (structureType == Structure.STRUCTURE_TYPE_HTMLPAGE) {
+			return new UriResolution(IAm.PAGE, id.getId(), cinfo.getLiveInode(), cinfo.getLang());
+		} else if (structureType == Structure.STRUCTURE_TYPE_FILEASSET && fileLanguage) {
+			return new UriResolution(IAm.FILE, id.getId(), cinfo.getLiveInode(), cinfo.getLang());
+		}
+		return UriResolution.NOTHING;
+	}
+
+	private ContentletVersionInfo findVersionInfo(Identifier id, long languageId) throws DotDataException {
+		final ContentletVersionInfo cinfo = this.versionableAPI.getContentletVersionInfo(id.getId(), languageId);
+		return cinfo == null || NOT_FOUND.equals(cinfo.getWorkingInode()) ? null : cinfo;
 	}
 
 	/**
@@ -341,9 +389,7 @@ public class CMSUrlUtil {
 	 * @return true if is a File Asset or Vanity Url or Page Asset or Folder, false if not
 	 */
 	public boolean amISomething(String uri, Host host, Long languageId) {
-		return (urlUtil.isFileAsset(uri, host, languageId) || urlUtil
-				.isVanityUrl(uri, host, languageId)
-				|| urlUtil.isPageAsset(uri, host, languageId) || urlUtil.isFolder(uri, host));
+		return !resolve(uri, host, languageId).isNothing() || isVanityUrl(uri, host, languageId);
 	}
 
 	/**
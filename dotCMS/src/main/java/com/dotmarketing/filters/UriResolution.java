@@ -0,0 +1,71 @@
+package com.dotmarketing.filters;
+
+import java.io.Serializable;
+
+import com.dotmarketing.filters.CMSFilter.IAm;
+
+/**
+ * What a URI of a site is in the CMS for a language: the kind of asset, its identifier and, for
+ * contents, the live inode of the version it resolved to. Kept in the {@link UriResolutionCache}
+ * so the filters resolve a URI with one cache lookup instead of the identifier and contentlet
+ * lookups of every asset type.
+ */
+public final class UriResolution implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The resolution of a URI that is nothing in the CMS.
+     */
+    public static final UriResolution NOTHING = new UriResolution(IAm.NOTHING_IN_THE_CMS, null, null, 0);
+
+    private final IAm kind;
+    private final String identifier;
+    private final String liveInode;
+    private final long languageId;
+
+    public UriResolution(IAm kind, String identifier, String liveInode, long languageId) {
+        this.kind = kind;
+        this.identifier = identifier;
+        this.liveInode = liveInode;
+        this.languageId = languageId;
+    }
+
+    public IAm getKind() {
+        return kind;
+    }
+
+    /**
+     * @return The identifier of the asset, {@code null} if the URI is nothing in the CMS.
+     */
+    public String getIdentifier() {
+        return identifier;
+    }
+
+    /**
+     * @return The live inode of the content the URI resolved to, {@code null} for the other
+     *         assets or if the content has no live version.
+     */
+    public String getLiveInode() {
+        return liveInode;
+    }
+
+    /**
+     * @return The language of the version of the content the URI resolved to, that can be the
+     *         default language or any other when the content doesn't exist in the requested one.
+     */
+    public long getLanguageId() {
+        return languageId;
+    }
+
+    public boolean isNothing() {
+        return kind == IAm.NOTHING_IN_THE_CMS;
+    }
+
+    @Override
+    public String toString() {
+        return "UriResolution{kind=" + kind + ", identifier=" + identifier + ", liveInode=" + liveInode
+                + ", languageId=" + languageId + "}";
+    }
+
+}
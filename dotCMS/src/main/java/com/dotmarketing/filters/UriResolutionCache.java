@@ -0,0 +1,73 @@
+package com.dotmarketing.filters;
+
+import com.dotmarketing.beans.Host;
+import com.dotmarketing.beans.Identifier;
+import com.dotmarketing.business.Cachable;
+import com.dotmarketing.util.UtilMethods;
+
+/**
+ * Cache of the {@link UriResolution} of the URIs requested to the sites, by site, language and
+ * URI. The URIs that are nothing in the CMS are kept in their own, smaller, region so the
+ * requests of crawlers for missing URIs can't evict the resolved ones.
+ * <p>
+ * The entries of a URI are removed, in every language, when the identifier at that URI or the
+ * version info of its asset change.
+ * </p>
+ */
+public abstract class UriResolutionCache implements Cachable {
+
+    /**
+     * @return The resolution of the URI, or {@code null} if it is not in the cache.
+     */
+    public abstract UriResolution get(String hostId, long languageId, String uri);
+
+    public abstract void put(String hostId, long languageId, String uri, UriResolution resolution);
+
+    /**
+     * Removes the resolution of the URI, with or without the trailing slash, in every language.
+     */
+    public abstract void remove(String hostId, String uri);
+
+    /**
+     * Removes the resolution of the URI of an identifier, see {@link #remove(String, String)}. The
+     * identifiers that can't be requested by URI, e.g. the ones of contents, links or sites, have
+     * no resolution and are skipped.
+     */
+    public void remove(Identifier identifier) {
+        if (isUrlAddressable(identifier)) {
+            remove(identifier.getHostId(), identifier.getURI());
+        }
+    }
+
+    /**
+     * @return true if the identifier is a folder, a page or a file, the only assets a URI resolves to.
+     */
+    static boolean isUrlAddressable(Identifier identifier) {
+        if (identifier == null || !UtilMethods.isSet(identifier.getId()) || Host.SYSTEM_HOST.equals(identifier.getHostId())) {
+            return false;
+        }
+        final String assetType = identifier.getAssetType();
+        if (Identifier.ASSET_TYPE_CONTENTLET.equals(assetType)) {
+            // the contents that are neither pages nor files are named after their inode
+            final String assetName = identifier.getAssetName();
+            return UtilMethods.isSet(assetName) && !assetName.startsWith("content.");
+        }
+        return Identifier.ASSET_TYPE_FOLDER.equals(assetType) || Identifier.ASSET_TYPE_HTML_PAGE.equals(assetType)
+                || "file_asset".equals(assetType);
+    }
+
+    @Override
+    public String getPrimaryGroup() {
+        return "UriResolutionCache";
+    }
+
+    public String get404Group() {
+        return "UriResolution404Cache";
+    }
+
+    @Override
+    public String[] getGroups() {
+        return new String[] { getPrimaryGroup(), get404Group() };
+    }
+
+}
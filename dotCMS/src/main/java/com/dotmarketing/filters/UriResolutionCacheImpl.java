@@ -0,0 +1,71 @@
+package com.dotmarketing.filters;
+
+import com.dotmarketing.business.APILocator;
+import com.dotmarketing.business.CacheLocator;
+import com.dotmarketing.business.DotCacheAdministrator;
+import com.dotmarketing.business.DotCacheException;
+import com.dotmarketing.portlets.languagesmanager.model.Language;
+import com.dotmarketing.util.Logger;
+import com.dotmarketing.util.UtilMethods;
+
+/**
+ * {@link UriResolutionCache} on the cache administrator, the removals are sent to the cluster.
+ */
+public class UriResolutionCacheImpl extends UriResolutionCache {
+
+    private final DotCacheAdministrator cache;
+
+    public UriResolutionCacheImpl() {
+        cache = CacheLocator.getCacheAdministrator();
+    }
+
+    @Override
+    public UriResolution get(String hostId, long languageId, String uri) {
+        final String key = key(hostId, languageId, uri);
+        try {
+            UriResolution resolution = (UriResolution) cache.get(key, getPrimaryGroup());
+            if (resolution == null) {
+                resolution = (UriResolution) cache.get(key, get404Group());
+            }
+            return resolution;
+        } catch (DotCacheException e) {
+            Logger.debug(this, "Cache Entry not found", e);
+            return null;
+        }
+    }
+
+    @Override
+    public void put(String hostId, long languageId, String uri, UriResolution resolution) {
+        cache.put(key(hostId, languageId, uri), resolution,
+                resolution.isNothing() ? get404Group() : getPrimaryGroup());
+    }
+
+    @Override
+    public void remove(String hostId, String uri) {
+        if (!UtilMethods.isSet(hostId) || !UtilMethods.isSet(uri)) {
+            return;
+        }
+        final String path = uri.length() > 1 && uri.endsWith("/") ? uri.substring(0, uri.length() - 1) : uri;
+        for (Language language : APILocator.getLanguageAPI().getLanguages()) {
+            remove(key(hostId, language.getId(), path));
+            remove(key(hostId, language.getId(), path + "/"));
+        }
+    }
+
+    private void remove(String key) {
+        cache.remove(key, getPrimaryGroup());
+        cache.remove(key, get404Group());
+    }
+
+    @Override
+    public void clearCache() {
+        for (String group : getGroups()) {
+            cache.flushGroup(group);
+        }
+    }
+
+    private String key(String hostId, long languageId, String uri) {
+        return hostId + ":" + languageId + ":" + uri;
+    }
+
+}
@@ -1,13 +1,8 @@
 package com.dotmarketing.image.filter;
 
 import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
 import java.util.Map;
 
-import javax.imageio.ImageIO;
-
-import com.dotmarketing.util.Logger;
 import com.dotcms.repackage.com.dotmarketing.jhlabs.image.GrayscaleFilter;
 
 public class GrayscaleImageFilter extends ImageFilter {
@@ -16,25 +11,11 @@ public class GrayscaleImageFilter extends ImageFilter {
 		return new String[] { "none" };
 	}
 
-	public File runFilter(File file,  Map<String, String[]> parameters) {
-
-		File resultFile = getResultsFile(file, parameters);
+	@Override
+	public BufferedImage filter(BufferedImage src, Map<String, String[]> parameters) {
 		GrayscaleFilter filter = new GrayscaleFilter();
 
-		if (!overwrite(resultFile, parameters)) {
-			return resultFile;
-		}
-
-		try {
-			BufferedImage src = ImageIO.read(file);
-
-			BufferedImage dst = filter.filter(src, null);
-			ImageIO.write(dst, "png", resultFile);
-		} catch (IOException e) {
-			Logger.error(this.getClass(), e.getMessage());
-		}
-
-		return resultFile;
+		return filter.filter(src, null);
 	}
 
 }
@@ -1,7 +1,12 @@
 package com.dotmarketing.image.filter;
 
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
@@ -10,6 +15,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import javax.imageio.ImageIO;
+
 import com.dotmarketing.business.APILocator;
 import com.dotmarketing.business.DotStateException;
 import com.dotmarketing.exception.DotRuntimeException;
@@ -119,6 +126,123 @@ public abstract class ImageFilter implements ImageFilterIf {
 		return getFilterName() + "_";
 	}
 
+	/**
+	 * Applies this filter to an image that is already decoded, this is what allows the
+	 * {@link ImageFilterPipeline} to decode the source once, run the whole chain in memory and
+	 * encode the result once. Filters that can only work over files keep the default, which
+	 * returns null, and the pipeline chains their {@link #runFilter(File, Map)} instead.
+	 * @param src
+	 * @param parameters
+	 * @return the filtered image, <code>src</code> if there is nothing to do or null if not supported
+	 * @throws IOException
+	 */
+	public BufferedImage filter(BufferedImage src, Map<String, String[]> parameters) throws IOException {
+		return null;
+	}
+
+	/**
+	 * Decodes the source file of a chain, the first filter of the chain is the one reading it
+	 * @param file
+	 * @param parameters
+	 * @return
+	 * @throws IOException
+	 */
+	public BufferedImage read(File file, Map<String, String[]> parameters) throws IOException {
+		BufferedImage image = ImageIO.read(file);
+		if (image == null) {
+			throw new IOException("Unable to read the image : " + file.getName());
+		}
+		return image;
+	}
+
+	/**
+	 * Encodes the result of a chain, the last filter of the chain is the one writing it
+	 * @param image
+	 * @param parameters
+	 * @param out
+	 * @throws IOException
+	 */
+	public void write(BufferedImage image, Map<String, String[]> parameters, OutputStream out) throws IOException {
+		if (!ImageIO.write(image, getFileExtension(), out)) {
+			throw new IOException("No image writer for : " + getFileExtension());
+		}
+	}
+
+	/**
+	 * The extension of the files written by this filter
+	 * @return
+	 */
+	protected String getFileExtension() {
+		return FILE_EXT;
+	}
+
+	/**
+	 * Returns the file this filter produces for the given file and parameters without running the
+	 * filter, the given file itself when the parameters ask for nothing.
+	 * @param file
+	 * @param parameters
+	 * @return
+	 * @throws DotRuntimeException
+	 */
+	public File getResultFile(File file, Map<String, String[]> parameters) throws DotRuntimeException {
+		return getResultsFile(file, parameters, getFileExtension());
+	}
+
+	/**
+	 * Runs this filter over a file using {@link #filter(BufferedImage, Map)}, filters that only
+	 * work over files override this method
+	 */
+	public File runFilter(File file, Map<String, String[]> parameters) {
+
+		File resultFile = getResultFile(file, parameters);
+
+		if (resultFile.equals(file) || !overwrite(resultFile, parameters)) {
+			return resultFile;
+		}
+
+		try {
+			BufferedImage dst = filter(read(file, parameters), parameters);
+			if (dst == null) {
+				throw new DotStateException(this.getClass() + " does not support filtering in memory");
+			}
+			save(resultFile, encode(dst, parameters));
+		} catch (IOException e) {
+			Logger.error(this.getClass(), e.getMessage());
+		}
+
+		return resultFile;
+	}
+
+	/**
+	 * Encodes the given image with {@link #write(BufferedImage, Map, OutputStream)}
+	 * @param image
+	 * @param parameters
+	 * @return
+	 * @throws IOException
+	 */
+	protected byte[] encode(BufferedImage image, Map<String, String[]> parameters) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+		write(image, parameters, out);
+		return out.toByteArray();
+	}
+
+	/**
+	 * Writes a result file through a temporary file in the same folder so concurrent readers never
+	 * see a partially written image
+	 * @param resultFile
+	 * @param data
+	 * @throws IOException
+	 */
+	static void save(File resultFile, byte[] data) throws IOException {
+		File tmp = File.createTempFile(resultFile.getName(), ".tmp", resultFile.getParentFile());
+		try {
+			Files.write(tmp.toPath(), data);
+			Files.move(tmp.toPath(), resultFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			tmp.delete();
+		}
+	}
+
 	protected boolean overwrite(File resultFile, Map<String, String[]> parameters){
 		boolean overwrite = false;
 		long test = resultFile.length();
@@ -0,0 +1,293 @@
+package com.dotmarketing.image.filter;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.dotcms.concurrent.DotConcurrentException;
+import com.dotcms.concurrent.DotConcurrentFactory;
+import com.dotmarketing.util.Config;
+import com.dotmarketing.util.Logger;
+
+/**
+ * Runs a chain of {@link ImageFilter}s over a file. The source is decoded once, every filter of
+ * the chain is applied in memory and the result is encoded once, only the final image is written
+ * to the <strong>dotGenerated</strong> folder, under the same name the chained
+ * {@link ImageFilter#runFilter(java.io.File, Map)} calls produced.
+ * <p>
+ * Concurrent requests for the same result share one run, the runs are done by the
+ * <strong>imagefilter.</strong> submitter of the {@link DotConcurrentFactory} so its pool and
+ * queue sizes bound the cpu and memory used by the image generation, once the queue is full new
+ * runs are rejected with a {@link DotConcurrentException}. The bytes of the results are kept in a
+ * size bounded LRU so the most requested images are served without reading them from disk.
+ */
+public class ImageFilterPipeline {
+
+    public static final String IMAGE_FILTER_SUBMITTER_NAME = "imagefilter.";
+
+    private static final ImageFilterPipeline INSTANCE = new ImageFilterPipeline();
+
+    private final ConcurrentMap<String, CompletableFuture<Result>> inFlight = new ConcurrentHashMap<>();
+    private final BytesCache cache = new BytesCache(
+            Config.getLongProperty("IMAGE_FILTER_CACHE_MAX_BYTES", 32 * 1024 * 1024),
+            Config.getLongProperty("IMAGE_FILTER_CACHE_MAX_ENTRY_BYTES", 1024 * 1024));
+    private final long timeoutSeconds = Config.getLongProperty("IMAGE_FILTER_TIMEOUT_SECONDS", 60);
+
+    private ImageFilterPipeline () {
+    }
+
+    public static ImageFilterPipeline getInstance () {
+        return INSTANCE;
+    }
+
+    /**
+     * Runs the given filters over the file, or returns the result generated by a previous run.
+     *
+     * @param file       the source image
+     * @param filters    the chain, in order
+     * @param parameters the request parameters, the <strong>filter</strong> one must list the chain
+     * @return the result file and, when small enough to be cached, its bytes
+     * @throws IOException           if the image can not be generated
+     * @throws DotConcurrentException if the image filter queue is full
+     */
+    public Result run ( final File file, final List<ImageFilter> filters,
+                        final Map<String, String[]> parameters ) throws IOException {
+
+        File resultFile = file;
+        ImageFilter writer = null;
+        for ( final ImageFilter filter : filters ) {
+            final File next = filter.getResultFile(resultFile, parameters);
+            if ( !next.equals(resultFile) ) {
+                writer = filter;
+                resultFile = next;
+            }
+        }
+
+        if ( writer == null ) {
+            return new Result(file, null);
+        }
+        if ( !writer.overwrite(resultFile, parameters) ) {
+            return new Result(resultFile, this.cache.load(resultFile));
+        }
+
+        final String key = resultFile.getAbsolutePath();
+        final CompletableFuture<Result> future = new CompletableFuture<>();
+        final CompletableFuture<Result> running = this.inFlight.putIfAbsent(key, future);
+        if ( running != null ) {
+            return this.await(running, key);
+        }
+
+        final File target = resultFile;
+        final ImageFilter encoder = writer;
+        try {
+            DotConcurrentFactory.getInstance().getSubmitter(IMAGE_FILTER_SUBMITTER_NAME).execute(() -> {
+                try {
+                    future.complete(this.generate(file, filters, parameters, encoder, target));
+                } catch ( Throwable e ) {
+                    future.completeExceptionally(e);
+                } finally {
+                    this.inFlight.remove(key, future);
+                }
+            });
+        } catch ( DotConcurrentException e ) {
+            this.inFlight.remove(key, future);
+            future.completeExceptionally(e);
+            Logger.warn(this, "Image filter queue is full, rejecting: " + key);
+            throw e;
+        }
+
+        return this.await(future, key);
+    }
+
+    /**
+     * Drops the cached bytes of every result
+     */
+    public void clearCache () {
+        this.cache.clear();
+    }
+
+    private Result await ( final CompletableFuture<Result> future, final String key ) throws IOException {
+
+        try {
+            return future.get(this.timeoutSeconds, TimeUnit.SECONDS);
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while generating: " + key, e);
+        } catch ( TimeoutException e ) {
+            throw new IOException("Timeout generating: " + key, e);
+        } catch ( ExecutionException e ) {
+            final Throwable cause = e.getCause();
+            if ( cause instanceof IOException ) {
+                throw (IOException) cause;
+            }
+            if ( cause instanceof RuntimeException ) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        }
+    }
+
+    private Result generate ( final File file, final List<ImageFilter> filters, final Map<String, String[]> parameters,
+                              final ImageFilter writer, final File resultFile ) throws IOException {
+
+        BufferedImage image = filters.get(0).read(file, parameters);
+        for ( final ImageFilter filter : filters ) {
+            image = filter.filter(image, parameters);
+            if ( image == null ) {
+                Logger.debug(this, filter.getClass() + " can not filter in memory, chaining the filter files");
+                return new Result(this.chain(file, filters, parameters), null);
+            }
+        }
+
+        final byte[] data = writer.encode(image, parameters);
+        ImageFilter.save(resultFile, data);
+        this.cache.put(resultFile, data);
+        return new Result(resultFile, data);
+    }
+
+    private File chain ( File file, final List<ImageFilter> filters, final Map<String, String[]> parameters ) {
+
+        for ( final ImageFilter filter : filters ) {
+            file = filter.runFilter(file, parameters);
+        }
+        return file;
+    }
+
+    /**
+     * The result of a run
+     */
+    public static class Result {
+
+        private final File file;
+        private final byte[] data;
+
+        Result ( final File file, final byte[] data ) {
+            this.file = file;
+            this.data = data;
+        }
+
+        public File getFile () {
+            return file;
+        }
+
+        /**
+         * The bytes of the file, null if they are not cached
+         *
+         * @return
+         */
+        public byte[] getData () {
+            return data;
+        }
+    }
+
+    /**
+     * LRU of result bytes bounded by their total size, an entry is only valid while the file keeps
+     * the length and modification date it had when cached.
+     */
+    static class BytesCache {
+
+        private final long maxBytes;
+        private final long maxEntryBytes;
+        private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+        private long size;
+
+        BytesCache ( final long maxBytes, final long maxEntryBytes ) {
+            this.maxBytes = maxBytes;
+            this.maxEntryBytes = Math.min(maxBytes, maxEntryBytes);
+        }
+
+        byte[] get ( final File file ) {
+
+            final String key = file.getAbsolutePath();
+            synchronized ( this ) {
+                final Entry entry = this.entries.get(key);
+                if ( entry == null ) {
+                    return null;
+                }
+                if ( entry.lastModified == file.lastModified() && entry.data.length == file.length() ) {
+                    return entry.data;
+                }
+                this.remove(key);
+                return null;
+            }
+        }
+
+        /**
+         * Returns the cached bytes of the file, reading and caching them if missing
+         */
+        byte[] load ( final File file ) {
+
+            byte[] data = this.get(file);
+            if ( data != null || file.length() > this.maxEntryBytes ) {
+                return data;
+            }
+            try {
+                data = Files.readAllBytes(file.toPath());
+                this.put(file, data);
+                return data;
+            } catch ( IOException e ) {
+                Logger.debug(this, "Unable to read " + file + ": " + e.getMessage());
+                return null;
+            }
+        }
+
+        void put ( final File file, final byte[] data ) {
+
+            if ( data.length > this.maxEntryBytes ) {
+                return;
+            }
+            final String key = file.getAbsolutePath();
+            final Entry entry = new Entry(file.lastModified(), data);
+            synchronized ( this ) {
+                this.remove(key);
+                this.entries.put(key, entry);
+                this.size += data.length;
+
+                final Iterator<Entry> eldest = this.entries.values().iterator();
+                while ( this.size > this.maxBytes && eldest.hasNext() ) {
+                    this.size -= eldest.next().data.length;
+                    eldest.remove();
+                }
+            }
+        }
+
+        synchronized long size () {
+            return this.size;
+        }
+
+        synchronized void clear () {
+            this.entries.clear();
+            this.size = 0;
+        }
+
+        private void remove ( final String key ) {
+            final Entry old = this.entries.remove(key);
+            if ( old != null ) {
+                this.size -= old.data.length;
+            }
+        }
+
+        private static class Entry {
+
+            private final long lastModified;
+            private final byte[] data;
+
+            Entry ( final long lastModified, final byte[] data ) {
+                this.lastModified = lastModified;
+                this.data = data;
+            }
+        }
+    }
+
+}
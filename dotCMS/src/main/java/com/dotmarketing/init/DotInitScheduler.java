@@ -4,6 +4,7 @@ import static com.dotmarketing.util.WebKeys.DOTCMS_DISABLE_WEBSOCKET_PROTOCOL;
 
 import com.dotcms.enterprise.DashboardProxy;
 import com.dotcms.enterprise.linkchecker.LinkCheckerJob;
+import com.dotcms.api.system.event.SystemEventsBus;
 import com.dotcms.job.system.event.DeleteOldSystemEventsJob;
 import com.dotcms.job.system.event.SystemEventsJob;
 import com.dotcms.publisher.business.PublisherQueueJob;
@@ -819,7 +820,8 @@ public class DotInitScheduler {
 
 	private static void addSystemEventsJob () {
 
-		if (Config.getBooleanProperty("ENABLE_SYSTEM_EVENTS", true)) {
+		// the system events bus delivers the events as soon as they are published, the table is only polled as a fallback
+		if (Config.getBooleanProperty("ENABLE_SYSTEM_EVENTS", true) && !SystemEventsBus.isEnabled()) {
 			try {
 
 				final int initialDelay = Config.getIntProperty("SYSTEM_EVENTS_INITIAL_DELAY", 0);
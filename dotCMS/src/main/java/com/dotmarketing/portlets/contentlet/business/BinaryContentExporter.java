@@ -24,6 +24,8 @@ public interface BinaryContentExporter {
 	public static class BinaryContentExporterData {
 		
 		private File dataFile;
+
+		private byte[] dataBytes;
 		
 		public BinaryContentExporterData(File dataFile) {
 			this.setDataFile(dataFile);
@@ -36,6 +38,18 @@ public interface BinaryContentExporter {
 		public File getDataFile() {
 			return dataFile;
 		}
+
+		/**
+		 * The content of the data file when the exporter already has it in memory, null otherwise
+		 * @param dataBytes
+		 */
+		public void setDataBytes(byte[] dataBytes) {
+			this.dataBytes = dataBytes;
+		}
+
+		public byte[] getDataBytes() {
+			return dataBytes;
+		}
 		
 	}
 
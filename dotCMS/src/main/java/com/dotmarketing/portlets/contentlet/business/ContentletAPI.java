@@ -4,6 +4,8 @@
 package com.dotmarketing.portlets.contentlet.business;
 
 import com.dotcms.content.business.DotMappingException;
+import com.dotcms.content.elasticsearch.business.ContentletScrollIterator;
+import com.dotcms.content.elasticsearch.business.IndexScrollIterator;
 import com.dotcms.content.elasticsearch.business.ESSearchResults;
 import com.dotmarketing.beans.Host;
 import com.dotmarketing.beans.Identifier;
@@ -311,6 +313,38 @@ public interface ContentletAPI {
 	 * @throws DotDataException 
 	 */
 	public List<ContentletSearch> searchIndex(String luceneQuery, int limit, int offset, String sortBy, User user, boolean respectFrontendRoles) throws DotSecurityException, DotDataException;
+
+	/**
+	 * Iterates over all the contentlets that match the lucene query and the user can read, loading
+	 * them in batches with the scroll API of the index. Unlike the paginated searches, the memory
+	 * used does not depend on the number of results, nor does the cost of reading the last ones,
+	 * but the results are not sorted. The iterator must be closed if it is not read to the end.
+	 * @param luceneQuery
+	 * @param batchSize number of contentlets loaded at once per index shard, 0 for the default of 500, at most 5000
+	 * @param user
+	 * @param respectFrontendRoles
+	 * @return
+	 * @throws DotSecurityException if user is null and respectFrontendRoles is false
+	 * @throws DotDataException
+	 * @throws IllegalArgumentException if the batch size is negative or greater than 5000
+	 */
+	public ContentletScrollIterator scroll(String luceneQuery, int batchSize, User user, boolean respectFrontendRoles) throws DotSecurityException, DotDataException;
+
+	/**
+	 * Iterates over the inode and identifier of all the contentlets that match the lucene query and
+	 * the user can read, as {@link #scroll(String, int, User, boolean)} does, but reading them from
+	 * the index hits instead of loading the contentlets. The iterator must be closed if it is not
+	 * read to the end.
+	 * @param luceneQuery
+	 * @param batchSize number of results read at once per index shard, 0 for the default of 500, at most 5000
+	 * @param user
+	 * @param respectFrontendRoles
+	 * @return
+	 * @throws DotSecurityException if user is null and respectFrontendRoles is false
+	 * @throws DotDataException
+	 * @throws IllegalArgumentException if the batch size is negative or greater than 5000
+	 */
+	public IndexScrollIterator<ContentletSearch> scrollIndex(String luceneQuery, int batchSize, User user, boolean respectFrontendRoles) throws DotSecurityException, DotDataException;
 	
 	/**
 	 * Publishes all related HTMLPage
@@ -1,6 +1,8 @@
 package com.dotmarketing.portlets.contentlet.business;
 
 import com.dotcms.content.business.DotMappingException;
+import com.dotcms.content.elasticsearch.business.ContentletScrollIterator;
+import com.dotcms.content.elasticsearch.business.IndexScrollIterator;
 import com.dotcms.content.elasticsearch.business.ESSearchResults;
 import com.dotcms.enterprise.license.LicenseManager;
 import com.dotmarketing.beans.Host;
@@ -1102,6 +1104,38 @@ public class ContentletAPIInterceptor implements ContentletAPI, Interceptor {
 		return c;
 	}
 
+	@Override
+	public ContentletScrollIterator scroll(String luceneQuery, int batchSize, User user, boolean respectFrontendRoles) throws DotSecurityException, DotDataException {
+		for(ContentletAPIPreHook pre : preHooks){
+			boolean preResult = pre.scroll(luceneQuery, batchSize, user, respectFrontendRoles);
+			if(!preResult){
+				Logger.error(this, "The following prehook failed " + pre.getClass().getName());
+				throw new DotRuntimeException("The following prehook failed " + pre.getClass().getName());
+			}
+		}
+		ContentletScrollIterator c = conAPI.scroll(luceneQuery, batchSize, user, respectFrontendRoles);
+		for(ContentletAPIPostHook post : postHooks){
+			post.scroll(luceneQuery, batchSize, user, respectFrontendRoles, c);
+		}
+		return c;
+	}
+
+	@Override
+	public IndexScrollIterator<ContentletSearch> scrollIndex(String luceneQuery, int batchSize, User user, boolean respectFrontendRoles) throws DotSecurityException, DotDataException {
+		for(ContentletAPIPreHook pre : preHooks){
+			boolean preResult = pre.scrollIndex(luceneQuery, batchSize, user, respectFrontendRoles);
+			if(!preResult){
+				Logger.error(this, "The following prehook failed " + pre.getClass().getName());
+				throw new DotRuntimeException("The following prehook failed " + pre.getClass().getName());
+			}
+		}
+		IndexScrollIterator<ContentletSearch> c = conAPI.scrollIndex(luceneQuery, batchSize, user, respectFrontendRoles);
+		for(ContentletAPIPostHook post : postHooks){
+			post.scrollIndex(luceneQuery, batchSize, user, respectFrontendRoles, c);
+		}
+		return c;
+	}
+
 	@Override
 	public boolean isContentEqual(Contentlet contentlet1, Contentlet contentlet2, User user, boolean respectFrontendRoles) throws DotSecurityException, DotDataException {
 		for(ContentletAPIPreHook pre : preHooks){
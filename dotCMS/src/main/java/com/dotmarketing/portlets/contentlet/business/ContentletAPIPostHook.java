@@ -5,6 +5,8 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
+import com.dotcms.content.elasticsearch.business.ContentletScrollIterator;
+import com.dotcms.content.elasticsearch.business.IndexScrollIterator;
 import com.dotmarketing.beans.Host;
 import com.dotmarketing.beans.Identifier;
 import com.dotmarketing.beans.Permission;
@@ -219,6 +221,26 @@ public interface ContentletAPIPostHook {
 	 */
 
 	public default void searchIndex(String luceneQuery, int limit, int offset, String sortBy, User user, boolean respectFrontendRoles,List<ContentletSearch> returnValue){}
+
+	/**
+	 * Iterates over all the contentlets that match the lucene query
+	 * @param luceneQuery
+	 * @param batchSize
+	 * @param user
+	 * @param respectFrontendRoles
+	 * @param returnValue - value returned by primary API Method
+	 */
+	public default void scroll(String luceneQuery, int batchSize, User user, boolean respectFrontendRoles, ContentletScrollIterator returnValue){}
+
+	/**
+	 * Iterates over the inode and identifier of all the contentlets that match the lucene query
+	 * @param luceneQuery
+	 * @param batchSize
+	 * @param user
+	 * @param respectFrontendRoles
+	 * @param returnValue - value returned by primary API Method
+	 */
+	public default void scrollIndex(String luceneQuery, int batchSize, User user, boolean respectFrontendRoles, IndexScrollIterator<ContentletSearch> returnValue){}
 	
 	/**
 	 * Publishes all related HTMLPage
@@ -250,6 +250,30 @@ public interface ContentletAPIPreHook {
 	public default boolean searchIndex(String luceneQuery, int limit, int offset, String sortBy, User user, boolean respectFrontendRoles){
       return true;
     }
+
+	/**
+	 * Iterates over all the contentlets that match the lucene query
+	 * @param luceneQuery
+	 * @param batchSize
+	 * @param user
+	 * @param respectFrontendRoles
+	 * @return
+	 */
+	public default boolean scroll(String luceneQuery, int batchSize, User user, boolean respectFrontendRoles){
+      return true;
+    }
+
+	/**
+	 * Iterates over the inode and identifier of all the contentlets that match the lucene query
+	 * @param luceneQuery
+	 * @param batchSize
+	 * @param user
+	 * @param respectFrontendRoles
+	 * @return
+	 */
+	public default boolean scrollIndex(String luceneQuery, int batchSize, User user, boolean respectFrontendRoles){
+      return true;
+    }
 	
 	/**
 	 * Publishes all related HTMLPage
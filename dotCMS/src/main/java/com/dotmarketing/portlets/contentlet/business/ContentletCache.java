@@ -1,5 +1,6 @@
 package com.dotmarketing.portlets.contentlet.business;
 
+import com.dotcms.content.elasticsearch.business.CompiledQuery;
 import com.dotcms.content.elasticsearch.business.ESContentFactoryImpl.TranslatedQuery;
 import com.dotmarketing.business.Cachable;
 import com.dotmarketing.portlets.contentlet.model.Contentlet;
@@ -22,6 +23,16 @@ public abstract class ContentletCache implements Cachable {
     public abstract void addTranslatedQuery(String key, TranslatedQuery translatedQuery);
 
     public abstract TranslatedQuery getTranslatedQuery(String key);
+
+    public abstract void addCompiledQuery(String key, CompiledQuery compiledQuery);
+
+    public abstract CompiledQuery getCompiledQuery(String key);
+
+    /**
+     * Removes the translated and compiled queries, as they depend on the content types and
+     * fields.
+     */
+    public abstract void clearTranslatedQueries();
     
     public abstract String getMetadata(String key);
 
@@ -1,5 +1,6 @@
 package com.dotmarketing.portlets.contentlet.business;
 
+import com.dotcms.content.elasticsearch.business.CompiledQuery;
 import com.dotcms.content.elasticsearch.business.ESContentFactoryImpl.TranslatedQuery;
 import com.dotcms.services.VanityUrlServices;
 import com.dotmarketing.beans.Host;
@@ -26,8 +27,9 @@ public class ContentletCacheImpl extends ContentletCache {
 	private String primaryGroup = "ContentletCache";
 	private String metadataGroup = "FileAssetMetadataCache";
 	private String translatedQueryGroup = "TranslatedQueryCache";
+	private String compiledQueryGroup = "CompiledQueryCache";
 	// region's name for the cache
-	private String[] groupNames = {primaryGroup, HostCache.PRIMARY_GROUP, metadataGroup,translatedQueryGroup};
+	private String[] groupNames = {primaryGroup, HostCache.PRIMARY_GROUP, metadataGroup,translatedQueryGroup,compiledQueryGroup};
 
 	public ContentletCacheImpl() {
 		cache = CacheLocator.getCacheAdministrator();
@@ -53,6 +55,27 @@ public class ContentletCacheImpl extends ContentletCache {
 		}
 	}
 
+	@Override
+	public void addCompiledQuery(String key, CompiledQuery compiledQuery) {
+		cache.put(key, compiledQuery, compiledQueryGroup);
+	}
+
+	@Override
+	public CompiledQuery getCompiledQuery(String key) {
+		try {
+			return (CompiledQuery) cache.get(key, compiledQueryGroup);
+		} catch (DotCacheException e) {
+			Logger.debug(this, "Cache Entry not found", e);
+			return null;
+		}
+	}
+
+	@Override
+	public void clearTranslatedQueries() {
+		cache.flushGroup(translatedQueryGroup);
+		cache.flushGroup(compiledQueryGroup);
+	}
+
 	@Override
 	public void addMetadata(String key, String metadata) {
 		key = metadataGroup + key;
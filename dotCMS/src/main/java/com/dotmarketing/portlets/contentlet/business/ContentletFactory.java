@@ -1,10 +1,13 @@
 package com.dotmarketing.portlets.contentlet.business;
 
 import com.dotcms.content.business.DotMappingException;
+import com.dotcms.content.elasticsearch.business.ContentletScrollIterator;
+import com.dotcms.content.elasticsearch.business.IndexScrollIterator;
 import com.dotmarketing.beans.Identifier;
 import com.dotmarketing.business.DotStateException;
 import com.dotmarketing.business.query.GenericQueryFactory.Query;
 import com.dotmarketing.business.query.ValidationException;
+import com.dotmarketing.common.model.ContentletSearch;
 import com.dotmarketing.exception.DotDataException;
 import com.dotmarketing.exception.DotSecurityException;
 import com.dotmarketing.portlets.contentlet.model.Contentlet;
@@ -48,6 +51,24 @@ public abstract class ContentletFactory {
 	 * @throws DotDataException
 	 */
 	protected abstract List<Contentlet> findAllCurrent(int offset, int limit) throws DotDataException;
+
+	/**
+	 * Iterates over all the contentlets that match the lucene query, in batches of the given size
+	 * @param query
+	 * @param batchSize
+	 * @return
+	 * @throws DotDataException
+	 */
+	protected abstract ContentletScrollIterator scroll(String query, int batchSize) throws DotDataException;
+
+	/**
+	 * Iterates over the inode and identifier of all the contentlets that match the lucene query, in batches of the given size
+	 * @param query
+	 * @param batchSize
+	 * @return
+	 * @throws DotDataException
+	 */
+	protected abstract IndexScrollIterator<ContentletSearch> scrollIndex(String query, int batchSize) throws DotDataException;
 	
 	/**
 	 * This method gets a Contentlet object given the inode
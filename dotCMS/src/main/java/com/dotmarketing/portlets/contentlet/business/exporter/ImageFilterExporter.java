@@ -9,7 +9,7 @@ import java.util.Map;
 import com.dotmarketing.business.APILocator;
 import com.dotmarketing.business.UserAPI;
 import com.dotmarketing.image.filter.ImageFilter;
-import com.dotmarketing.image.filter.PDFImageFilter;
+import com.dotmarketing.image.filter.ImageFilterPipeline;
 import com.dotmarketing.portlets.contentlet.business.BinaryContentExporter;
 import com.dotmarketing.portlets.contentlet.business.BinaryContentExporterException;
 import com.dotmarketing.portlets.contentlet.business.ContentletAPI;
@@ -21,7 +21,8 @@ import com.dotmarketing.util.Logger;
  * 
  * the chain is provided by the "filter=" parameter
  * You can chain filters so that you resize then crop to 
- * produce the resulting image
+ * produce the resulting image, the chain is run in memory
+ * by the {@link ImageFilterPipeline}
  * 
  * 
  */
@@ -62,13 +63,13 @@ public class ImageFilterExporter implements BinaryContentExporter {
 
            parameters.put("filter", filters.toArray(new String[filters.size()]));
            parameters.put("filters", filters.toArray(new String[filters.size()]));
+			List<ImageFilter> imageFilters = new ArrayList<>();
 			for(String s : filters){
 				String clazz =null;
 				try {
 					clazz ="com.dotmarketing.image.filter." + s + "ImageFilter";
 					Class<ImageFilter> iFilter = (Class<ImageFilter>) Class.forName( clazz );
-					ImageFilter i=	iFilter.newInstance();
-					file = i.runFilter(file,   parameters);
+					imageFilters.add(iFilter.newInstance());
 				} catch (ClassNotFoundException e) {
 					Logger.error(ImageFilterExporter.class, "Unable to instanciate : " +  clazz );
 				} catch (InstantiationException e) {
@@ -76,13 +77,12 @@ public class ImageFilterExporter implements BinaryContentExporter {
 				} catch (IllegalAccessException e) {
 					Logger.error(ImageFilterExporter.class, "IllegalAccessException : " +  clazz );
 				}
-				catch (Exception e) {
-					Logger.error(ImageFilterExporter.class, "Exception in " +  clazz + " :" + e.getMessage() + e.getStackTrace()[0] );
-				}
 			}
 
+			ImageFilterPipeline.Result result = ImageFilterPipeline.getInstance().run(file, imageFilters, parameters);
+			data = new BinaryContentExporterData(result.getFile());
+			data.setDataBytes(result.getData());
 
-			data = new BinaryContentExporterData(file);
 			
 		} catch (Exception e) {
 			Logger.error(ImageFilterExporter.class, e.getMessage(), e);
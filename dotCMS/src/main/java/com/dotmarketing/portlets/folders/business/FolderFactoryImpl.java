@@ -628,6 +628,8 @@ public class FolderFactoryImpl extends FolderFactory {
 		folderId.setParentPath(newParentPath);
 		folderId.setHostId(newParentHostId);
 		identAPI.save(folderId);
+		// the cached navigation of the folder and its subfolders still has the old paths
+		CacheLocator.getNavToolCache().removeNav(folder.getHostId(), folder.getInode());
 
 		for (Object link : links) {
 			if (((Link) link).isWorking()) {
@@ -0,0 +1,122 @@
+package com.dotmarketing.portlets.rules.business;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of the execution times of a single rule, as measured by the {@link RulesEngine}.
+ * The executions are counted in fixed buckets (up to 1ms, up to 5ms, etc.) so recording an
+ * execution is lock free and the memory used does not grow with the traffic.
+ */
+public class RuleTimingHistogram {
+
+    /**
+     * Upper bounds, in milliseconds, of the buckets. The last bucket counts the slower executions.
+     */
+    static final long[] BUCKETS_MILLIS = {1, 5, 10, 25, 50, 100, 250, 500, 1000};
+
+    private final String ruleId;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS_MILLIS.length + 1);
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final LongAdder fired = new LongAdder();
+    private final AtomicLong lastReportMillis = new AtomicLong();
+
+    public RuleTimingHistogram(String ruleId) {
+        this.ruleId = ruleId;
+    }
+
+    /**
+     * Records an execution of the rule.
+     *
+     * @param nanos - The duration of the execution, in nanoseconds.
+     * @param wasFired - If the conditions of the rule were met.
+     */
+    public void record(long nanos, boolean wasFired) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        int bucket = 0;
+        while (bucket < BUCKETS_MILLIS.length && millis >= BUCKETS_MILLIS[bucket]) {
+            bucket++;
+        }
+        counts.incrementAndGet(bucket);
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+        if (wasFired) {
+            fired.increment();
+        }
+    }
+
+    public String getRuleId() {
+        return ruleId;
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    public long getFiredCount() {
+        return fired.sum();
+    }
+
+    public long getMaxMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+    }
+
+    public double getMeanMillis() {
+        long count = getCount();
+        return count == 0 ? 0 : totalNanos.sum() / (count * 1000000d);
+    }
+
+    /**
+     * Allows a single slow execution report every interval, so a slow rule on a busy site does
+     * not flood the log.
+     *
+     * @return {@code true} if no report was made in the last interval.
+     */
+    boolean tryReport(long nowMillis, long intervalMillis) {
+        long last = lastReportMillis.get();
+        return (last == 0 || nowMillis - last >= intervalMillis) && lastReportMillis.compareAndSet(last, nowMillis);
+    }
+
+    /**
+     * @return The number of executions of each bucket, keyed by its label, e.g. "<5ms".
+     */
+    public Map<String, Long> getBuckets() {
+        Map<String, Long> buckets = new LinkedHashMap<>();
+        for (int i = 0; i < counts.length(); i++) {
+            String label = i < BUCKETS_MILLIS.length ? "<" + BUCKETS_MILLIS[i] + "ms"
+                                                    : ">=" + BUCKETS_MILLIS[BUCKETS_MILLIS.length - 1] + "ms";
+            buckets.put(label, counts.get(i));
+        }
+        return buckets;
+    }
+
+    /**
+     * @return A summary of the histogram, used by the REST API.
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("ruleId", ruleId);
+        map.put("count", getCount());
+        map.put("fired", getFiredCount());
+        map.put("meanMillis", getMeanMillis());
+        map.put("maxMillis", getMaxMillis());
+        map.put("buckets", getBuckets());
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return "RuleTimingHistogram [ruleId=" + ruleId + ", count=" + getCount() + ", fired=" + getFiredCount()
+               + ", meanMillis=" + String.format("%.2f", getMeanMillis()) + ", maxMillis=" + getMaxMillis()
+               + ", buckets=" + getBuckets() + "]";
+    }
+}
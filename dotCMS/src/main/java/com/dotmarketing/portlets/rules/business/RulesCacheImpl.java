@@ -49,6 +49,7 @@ public class RulesCacheImpl extends RulesCache {
             throw new IllegalArgumentException("Rule must have an id.");
         }
 
+        compile(rule);
         this.cache.put(rule.getId(), rule, getPrimaryGroup());
     }
 
@@ -72,6 +73,7 @@ public class RulesCacheImpl extends RulesCache {
         }
 
         this.cache.remove(rule.getId(), getPrimaryGroup());
+        RulesEngine.clearRuleTimings(rule.getId());
 
         for(Rule.FireOn fireOn: Rule.FireOn.values()) {
             cache.remove(rule.getParent() + ":" + fireOn, getPrimaryGroup());
@@ -130,6 +132,9 @@ public class RulesCacheImpl extends RulesCache {
 
         fireOn = checkNotNull(fireOn, "FireOn is required.");
 
+        for (Rule rule : rules) {
+            compile(rule);
+        }
 
         cache.put(parentIdentifier + ":" + fireOn, rules, getPrimaryGroup());
     }
@@ -150,6 +155,19 @@ public class RulesCacheImpl extends RulesCache {
         return null;
     }
 
+    /**
+     * Compiles the {@link RuleEvaluationPlan} of a rule as it enters the cache, so the requests
+     * that fire it do not validate its parameters again. A rule that does not compile is cached
+     * anyway, the error is reported by the {@link RulesEngine} when it is fired.
+     */
+    private void compile(Rule rule) {
+        try {
+            rule.getEvaluationPlan();
+        } catch (Exception e) {
+            Logger.debug(RulesCacheImpl.class, "Rule " + rule.getId() + " could not be compiled: " + e.getMessage(), e);
+        }
+    }
+
 
     @Override
     public void addCondition(Condition condition) {
@@ -18,6 +18,9 @@ import com.dotmarketing.util.WebKeys;
 import com.liferay.portal.model.User;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -42,6 +45,10 @@ import javax.servlet.http.HttpSession;
 public final class RulesEngine {
 	
 	private static int SLOW_RULE_LOG_MIN=Config.getIntProperty("SLOW_RULE_LOG_MIN", 100);
+
+	private static long SLOW_RULE_LOG_INTERVAL=Config.getLongProperty("SLOW_RULE_LOG_INTERVAL_MILLIS", 60000);
+
+	private static final ConcurrentMap<String, RuleTimingHistogram> ruleTimings = new ConcurrentHashMap<>();
 	
 	private static final String SKIP_RULES_EXECUTION = "skip"; 
 
@@ -111,9 +118,9 @@ public final class RulesEngine {
 					fireOn);
             for (Rule rule : rules) {
                 try {
-                	long before = System.currentTimeMillis();
-                    rule.checkValid(); // @todo ggranum: this should actually be done on writing to the DB, or at worst reading from.
-                    boolean evaled = rule.evaluate(req, res);
+                	long before = System.nanoTime();
+                    boolean evaled = rule.getEvaluationPlan().evaluate(req, res);
+                    recordTiming(rule, System.nanoTime() - before, evaled);
 
                     if(res.isCommitted()) {
                       return;
@@ -131,11 +138,6 @@ public final class RulesEngine {
 						
 						trackFiredRule(rCopy, req);
 					}
-                    long after = System.currentTimeMillis();
-        			if((after - before) > SLOW_RULE_LOG_MIN) {
-						Logger.warn(RulesEngine.class, "Rule ID: " + rule.getId()
-								+ " is running too slow. The rule is fired on: " + rule.getFireOn().name());
-        			}
                 } catch (RuleEngineException e) {
                     Logger.error(RulesEngine.class, "Rule could not be evaluated. Rule ID: " + rule.getId(), e);
                 }
@@ -149,6 +151,54 @@ public final class RulesEngine {
         }
     }
 
+	/**
+	 * Returns the execution times of the given rule on this server, since it was last
+	 * saved or the server started.
+	 * 
+	 * @param ruleId
+	 *            - The ID of the {@link Rule}.
+	 * @return The {@link RuleTimingHistogram} of the rule, or <code>null</code>
+	 *         if the rule has not been fired yet.
+	 */
+	public static RuleTimingHistogram getRuleTimings(String ruleId) {
+		return ruleTimings.get(ruleId);
+	}
+
+	/**
+	 * Returns the execution times of all the rules fired on this server.
+	 * 
+	 * @return The {@link RuleTimingHistogram} of each rule, keyed by rule ID.
+	 */
+	public static Map<String, RuleTimingHistogram> getRuleTimings() {
+		return Collections.unmodifiableMap(ruleTimings);
+	}
+
+	/**
+	 * Discards the execution times of the given rule, e.g. because it has been
+	 * modified.
+	 * 
+	 * @param ruleId
+	 *            - The ID of the {@link Rule}.
+	 */
+	public static void clearRuleTimings(String ruleId) {
+		ruleTimings.remove(ruleId);
+	}
+
+	/**
+	 * Adds an execution of the rule to its histogram. Executions slower than
+	 * {@code SLOW_RULE_LOG_MIN} are reported along with the histogram, at most
+	 * once every {@code SLOW_RULE_LOG_INTERVAL_MILLIS} per rule.
+	 */
+	private static void recordTiming(Rule rule, long nanos, boolean evaled) {
+		RuleTimingHistogram timings = ruleTimings.computeIfAbsent(rule.getId(), RuleTimingHistogram::new);
+		timings.record(nanos, evaled);
+		long now = System.currentTimeMillis();
+		if (TimeUnit.NANOSECONDS.toMillis(nanos) > SLOW_RULE_LOG_MIN && timings.tryReport(now, SLOW_RULE_LOG_INTERVAL)) {
+			Logger.warn(RulesEngine.class, "Rule ID: " + rule.getId() + " is running too slow. The rule is fired on: "
+					+ rule.getFireOn().name() + ". " + timings);
+		}
+	}
+
 	/**
 	 * Keeps track of the rules that have been fired for a given HTTP request.
 	 * This will allow Web developers to access the list of rules that were
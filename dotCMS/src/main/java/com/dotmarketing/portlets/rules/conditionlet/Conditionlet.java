@@ -8,7 +8,23 @@ public abstract class Conditionlet<T extends RuleComponentInstance> extends Rule
 
     public static final String COMPARISON_KEY = "comparison";
 
+    /**
+     * Relative costs of evaluating a conditionlet, see {@link #getEvaluationCost()}.
+     */
+    public static final int LOW_COST = 10;
+    public static final int MEDIUM_COST = 100;
+    public static final int HIGH_COST = 1000;
+
     protected Conditionlet(String i18nKey, ParameterDefinition... parameterDefinitions) {
         super(i18nKey, parameterDefinitions);
     }
+
+    /**
+     * The relative cost of evaluating this conditionlet, the conditions of a group are evaluated
+     * cheapest first. Reading the request is {@link #LOW_COST}, parsing it or reading the visitor
+     * is {@link #MEDIUM_COST}, and external lookups such as the geolocation are {@link #HIGH_COST}.
+     */
+    public int getEvaluationCost() {
+        return MEDIUM_COST;
+    }
 }
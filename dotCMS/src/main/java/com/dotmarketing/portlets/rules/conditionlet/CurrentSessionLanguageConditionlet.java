@@ -61,6 +61,11 @@ public class CurrentSessionLanguageConditionlet extends Conditionlet<CurrentSess
         this.langApi = langApi;
     }
 
+    @Override
+    public int getEvaluationCost() {
+        return LOW_COST;
+    }
+
     @Override
     public boolean evaluate(HttpServletRequest request, HttpServletResponse response, Instance instance) {
         Language lang = langApi.getLanguage(request);
@@ -1,30 +1,29 @@
 package com.dotmarketing.portlets.rules.conditionlet;
 
 import com.dotcms.repackage.com.google.common.annotations.VisibleForTesting;
-import com.dotcms.repackage.com.maxmind.geoip2.exception.GeoIp2Exception;
 import com.dotcms.repackage.org.apache.logging.log4j.util.Strings;
 import com.dotcms.util.GeoIp2CityDbUtil;
-import com.dotcms.util.HttpRequestDataUtil;
+import com.dotcms.util.GeoLocation;
+import com.dotcms.visitor.business.VisitorAPI;
+import com.dotmarketing.business.APILocator;
 import com.dotmarketing.portlets.rules.RuleComponentInstance;
 import com.dotmarketing.portlets.rules.exception.ComparisonNotPresentException;
 import com.dotmarketing.portlets.rules.exception.ComparisonNotSupportedException;
-import com.dotmarketing.portlets.rules.exception.RuleEvaluationFailedException;
 import com.dotmarketing.portlets.rules.model.ParameterModel;
 import com.dotmarketing.portlets.rules.parameter.ParameterDefinition;
 import com.dotmarketing.portlets.rules.parameter.comparison.Comparison;
 import com.dotmarketing.portlets.rules.parameter.display.*;
 import com.dotmarketing.portlets.rules.parameter.type.*;
+import com.dotmarketing.portlets.rules.util.RequestFacts;
 import com.dotmarketing.util.Logger;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.io.IOException;
-import java.net.InetAddress;
-import java.net.UnknownHostException;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Calendar;
 import java.util.Map;
+import java.util.Optional;
 
 import static com.dotcms.repackage.com.google.common.base.Preconditions.checkState;
 import static com.dotmarketing.portlets.rules.parameter.comparison.Comparison.*;
@@ -54,6 +53,7 @@ public class DateTimeConditionlet extends Conditionlet<DateTimeConditionlet.Inst
     public static final String DATE_TIME_1_KEY = "datetime-1";
     public static final String DATE_TIME_2_KEY = "datetime-2";
 
+    private final VisitorAPI visitorAPI;
     private final GeoIp2CityDbUtil geoIp2Util;
 
     private static final ParameterDefinition<DateTimeType> dateTime1 = new ParameterDefinition<>(
@@ -67,14 +67,15 @@ public class DateTimeConditionlet extends Conditionlet<DateTimeConditionlet.Inst
     );
 
     public DateTimeConditionlet() {
-        this(GeoIp2CityDbUtil.getInstance());
+        this(APILocator.getVisitorAPI(), GeoIp2CityDbUtil.getInstance());
     }
 
     @VisibleForTesting
-    DateTimeConditionlet(GeoIp2CityDbUtil geoIp2Util) {
+    DateTimeConditionlet(VisitorAPI visitorAPI, GeoIp2CityDbUtil geoIp2Util) {
         super("api.ruleengine.system.conditionlet.VisitorsDateTime",
                 new ComparisonParameterDefinition(2, BETWEEN, GREATER_THAN, LESS_THAN),
                 dateTime1, dateTime2);
+        this.visitorAPI = visitorAPI;
         this.geoIp2Util = geoIp2Util;
     }
 
@@ -94,18 +95,12 @@ public class DateTimeConditionlet extends Conditionlet<DateTimeConditionlet.Inst
 
     private LocalDateTime lookupDateTime(HttpServletRequest request) {
         LocalDateTime localDateTime = null;
-        InetAddress address;
-        try {
-            address = HttpRequestDataUtil.getIpAddress(request);
-        } catch (UnknownHostException e) {
-            throw new RuleEvaluationFailedException(e, "Unknown host.");
-        }
-        String ipAddress = address.getHostAddress();
+        Optional<GeoLocation> geoLocation = RequestFacts.getGeoLocation(request, visitorAPI);
         Calendar dateTime = null;
-        try {
-            dateTime = geoIp2Util.getDateTime(ipAddress);
-        } catch (IOException | GeoIp2Exception e) {
-            Logger.error(this, "Could not look up country for request. Using 'unknown': " + request.getRequestURL());
+        if (geoLocation.isPresent() && geoLocation.get().getTimeZone() != null) {
+            dateTime = geoIp2Util.getDateTime(geoLocation.get());
+        } else {
+            Logger.error(this, "Could not look up the time zone for request: " + request.getRequestURL());
         }
 
         if(dateTime!=null) {
@@ -53,6 +53,11 @@ public class ReferringURLConditionlet extends Conditionlet<ReferringURLCondition
                 referringURLValue);
     }
 
+    @Override
+    public int getEvaluationCost() {
+        return LOW_COST;
+    }
+
     @Override
     public boolean evaluate(HttpServletRequest request, HttpServletResponse response, Instance instance) {
         String referringUrlActualValue = request.getHeader("referer");
@@ -56,6 +56,11 @@ public class RequestAttributeConditionlet extends Conditionlet<RequestAttributeC
               attributeValue);
     }
     
+    @Override
+    public int getEvaluationCost() {
+        return LOW_COST;
+    }
+
     @Override
     public boolean evaluate(HttpServletRequest request, HttpServletResponse response, Instance instance) {
         String attributeActualValue = request.getAttribute(instance.attributeKey).toString();
@@ -108,6 +108,11 @@ public class RequestHeaderConditionlet extends Conditionlet<RequestHeaderConditi
               headerValue);
     }
 
+    @Override
+    public int getEvaluationCost() {
+        return LOW_COST;
+    }
+
     @Override
     public boolean evaluate(HttpServletRequest request, HttpServletResponse response, Instance instance) {
         String headerActualValue = request.getHeader(instance.headerKey);
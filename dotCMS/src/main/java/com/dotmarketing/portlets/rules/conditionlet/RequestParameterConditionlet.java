@@ -44,6 +44,11 @@ public class RequestParameterConditionlet extends Conditionlet<RequestParameterC
               parameterValue);
     }
     
+    @Override
+    public int getEvaluationCost() {
+        return LOW_COST;
+    }
+
     @Override
     public boolean evaluate(HttpServletRequest request, HttpServletResponse response, Instance instance) {
         String parameterActualValue = request.getParameter(instance.parameterKey);
@@ -49,6 +49,11 @@ public class SessionAttributeConditionlet extends Conditionlet<SessionAttributeC
                 sessionValue);
     }
 
+    @Override
+    public int getEvaluationCost() {
+        return LOW_COST;
+    }
+
     @Override
     public boolean evaluate(HttpServletRequest request, HttpServletResponse response, Instance instance) {
         boolean evalSuccess;
@@ -10,6 +10,7 @@ import com.dotmarketing.portlets.rules.parameter.ParameterDefinition;
 import com.dotmarketing.portlets.rules.parameter.comparison.Comparison;
 import com.dotmarketing.portlets.rules.parameter.display.DropdownInput;
 import com.dotmarketing.portlets.rules.parameter.type.TextType;
+import com.dotmarketing.portlets.rules.util.RequestFacts;
 import com.dotmarketing.util.Logger;
 
 import static com.dotcms.repackage.com.google.common.base.Preconditions.checkState;
@@ -80,8 +81,7 @@ public class UsersBrowserConditionlet extends Conditionlet<UsersBrowserCondition
     private String lookupBrowser(HttpServletRequest request, Instance instance) {
         String browser = "unknown";
         try {
-            String userAgentInfo = request.getHeader("User-Agent");
-            UserAgent agent = UserAgent.parseUserAgentString(userAgentInfo);
+            UserAgent agent = RequestFacts.getUserAgent(request);
             if (agent != null && agent.getBrowser() != null) {
                 browser = agent.getBrowser().getName().replaceAll("[0-9]*$", "").trim();//remove version number of the browser name e.g Firefox4
                 if(browser.toLowerCase().contains(instance.browser.toLowerCase())){// avoid issues with the device e.g Chrome_Mobile
@@ -238,6 +238,11 @@ public class UsersBrowserLanguageConditionlet extends Conditionlet<UsersBrowserL
                 browserLanguageParameter);
     }
 
+    @Override
+    public int getEvaluationCost () {
+        return LOW_COST;
+    }
+
     @Override
     public boolean evaluate ( HttpServletRequest request, HttpServletResponse response, Instance instance ) {
 
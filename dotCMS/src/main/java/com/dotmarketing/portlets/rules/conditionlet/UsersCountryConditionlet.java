@@ -1,23 +1,21 @@
 package com.dotmarketing.portlets.rules.conditionlet;
 
 import com.dotcms.repackage.com.google.common.annotations.VisibleForTesting;
-import com.dotcms.repackage.com.maxmind.geoip2.exception.GeoIp2Exception;
-import com.dotcms.util.GeoIp2CityDbUtil;
-import com.dotcms.util.HttpRequestDataUtil;
+import com.dotcms.util.GeoLocation;
+import com.dotcms.visitor.business.VisitorAPI;
+import com.dotmarketing.business.APILocator;
 import com.dotmarketing.portlets.rules.RuleComponentInstance;
 import com.dotmarketing.portlets.rules.exception.ComparisonNotPresentException;
 import com.dotmarketing.portlets.rules.exception.ComparisonNotSupportedException;
-import com.dotmarketing.portlets.rules.exception.RuleEvaluationFailedException;
 import com.dotmarketing.portlets.rules.model.ParameterModel;
 import com.dotmarketing.portlets.rules.parameter.ParameterDefinition;
 import com.dotmarketing.portlets.rules.parameter.comparison.Comparison;
 import com.dotmarketing.portlets.rules.parameter.display.DropdownInput;
 import com.dotmarketing.portlets.rules.parameter.type.TextType;
+import com.dotmarketing.portlets.rules.util.RequestFacts;
 import com.dotmarketing.util.Logger;
-import java.io.IOException;
-import java.net.InetAddress;
-import java.net.UnknownHostException;
 import java.util.Map;
+import java.util.Optional;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
@@ -47,7 +45,7 @@ public class UsersCountryConditionlet extends Conditionlet<UsersCountryCondition
 
     public static final String COUNTRY_KEY = "country";
 
-    private final GeoIp2CityDbUtil geoIp2Util;
+    private final VisitorAPI visitorAPI;
 
     private static final DropdownInput countries = new DropdownInput()
         .allowAdditions()
@@ -291,15 +289,20 @@ public class UsersCountryConditionlet extends Conditionlet<UsersCountryCondition
 
 
     public UsersCountryConditionlet() {
-        this(GeoIp2CityDbUtil.getInstance());
+        this(APILocator.getVisitorAPI());
     }
 
     @VisibleForTesting
-    UsersCountryConditionlet(GeoIp2CityDbUtil geoIp2Util) {
+    UsersCountryConditionlet(VisitorAPI visitorAPI) {
         super("api.system.ruleengine.conditionlet.VisitorCountry",
               new ComparisonParameterDefinition(2, IS, IS_NOT),
               country);
-        this.geoIp2Util = geoIp2Util;
+        this.visitorAPI = visitorAPI;
+    }
+
+    @Override
+    public int getEvaluationCost() {
+        return HIGH_COST;
     }
 
     /**
@@ -312,20 +315,12 @@ public class UsersCountryConditionlet extends Conditionlet<UsersCountryCondition
     }
 
     private String lookupCountry(HttpServletRequest request) {
-        String country = "unknown";
-        InetAddress address;
-        try {
-            address = HttpRequestDataUtil.getIpAddress(request);
-        } catch (UnknownHostException e) {
-            throw new RuleEvaluationFailedException(e, "Unknown host.");
-        }
-        String ipAddress = address.getHostAddress();
-        try {
-            country = geoIp2Util.getCountryIsoCode(ipAddress);
-        } catch (IOException | GeoIp2Exception e) {
+        Optional<GeoLocation> geoLocation = RequestFacts.getGeoLocation(request, visitorAPI);
+        if (!geoLocation.isPresent()) {
             Logger.error(this, "Could not look up country for request. Using 'unknown': " + request.getRequestURL());
+            return "unknown";
         }
-        return country;
+        return geoLocation.get().getCountryIsoCode();
     }
 
     @Override
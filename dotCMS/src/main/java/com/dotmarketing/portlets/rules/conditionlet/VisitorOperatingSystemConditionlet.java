@@ -1,7 +1,5 @@
 package com.dotmarketing.portlets.rules.conditionlet;
 
-import eu.bitwalker.useragentutils.Browser;
-import eu.bitwalker.useragentutils.UserAgent;
 import com.dotmarketing.portlets.rules.RuleComponentInstance;
 import com.dotmarketing.portlets.rules.exception.ComparisonNotPresentException;
 import com.dotmarketing.portlets.rules.exception.ComparisonNotSupportedException;
@@ -10,8 +8,7 @@ import com.dotmarketing.portlets.rules.parameter.ParameterDefinition;
 import com.dotmarketing.portlets.rules.parameter.comparison.Comparison;
 import com.dotmarketing.portlets.rules.parameter.display.DropdownInput;
 import com.dotmarketing.portlets.rules.parameter.type.TextType;
-import com.dotmarketing.util.Logger;
-import com.dotmarketing.viewtools.UserAgentTool;
+import com.dotmarketing.portlets.rules.util.RequestFacts;
 import eu.bitwalker.useragentutils.OperatingSystem;
 
 import javax.servlet.http.HttpServletRequest;
@@ -57,9 +54,7 @@ public class VisitorOperatingSystemConditionlet extends Conditionlet<VisitorOper
 
     @Override
     public boolean evaluate(HttpServletRequest request, HttpServletResponse response, Instance instance) {
-        UserAgentTool userAgentTool = new UserAgentTool();
-        userAgentTool.init( request );
-        OperatingSystem os = userAgentTool.getOs();
+        OperatingSystem os = RequestFacts.getUserAgent(request).getOperatingSystem();
 
         return instance.comparison.perform(os.getName().toLowerCase(), instance.os.toLowerCase());
     }
@@ -1,9 +1,9 @@
 package com.dotmarketing.portlets.rules.conditionlet;
 
 import com.dotcms.repackage.com.google.common.annotations.VisibleForTesting;
-import com.dotcms.repackage.com.maxmind.geoip2.exception.GeoIp2Exception;
-import com.dotcms.util.GeoIp2CityDbUtil;
-import com.dotcms.util.HttpRequestDataUtil;
+import com.dotcms.util.GeoLocation;
+import com.dotcms.visitor.business.VisitorAPI;
+import com.dotmarketing.business.APILocator;
 import com.dotmarketing.portlets.rules.RuleComponentInstance;
 import com.dotmarketing.portlets.rules.exception.ComparisonNotPresentException;
 import com.dotmarketing.portlets.rules.exception.ComparisonNotSupportedException;
@@ -17,12 +17,10 @@ import com.dotmarketing.portlets.rules.parameter.display.NumericInput;
 import com.dotmarketing.portlets.rules.parameter.display.TextInput;
 import com.dotmarketing.portlets.rules.parameter.type.NumericType;
 import com.dotmarketing.portlets.rules.parameter.type.TextType;
+import com.dotmarketing.portlets.rules.util.RequestFacts;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.io.IOException;
-import java.net.InetAddress;
-import java.net.UnknownHostException;
 import java.util.Map;
 
 import static com.dotcms.repackage.com.google.common.base.Preconditions.checkState;
@@ -66,7 +64,7 @@ public class VisitorsGeolocationConditionlet extends Conditionlet<VisitorsGeoloc
     public static final String LATITUDE_KEY = "latitude";
     public static final String LONGITUDE_KEY = "longitude";
 
-    private final GeoIp2CityDbUtil geoIp2Util;
+    private final VisitorAPI visitorAPI;
 
     private static final ParameterDefinition<NumericType> distance = new ParameterDefinition<>(
         3, RADIUS_KEY, new NumericInput<>(new NumericType().required().minValue(10).maxValue(40000*1000).defaultValue(100*1000)));
@@ -88,17 +86,22 @@ public class VisitorsGeolocationConditionlet extends Conditionlet<VisitorsGeoloc
             6, LONGITUDE_KEY, new TextInput<>(new TextType().required().defaultValue("-77.0365")));
 
     public VisitorsGeolocationConditionlet() {
-        this(GeoIp2CityDbUtil.getInstance());
+        this(APILocator.getVisitorAPI());
     }
 
     @VisibleForTesting
-    VisitorsGeolocationConditionlet(GeoIp2CityDbUtil geoIp2Util) {
+    VisitorsGeolocationConditionlet(VisitorAPI visitorAPI) {
         super("api.ruleengine.system.conditionlet.VisitorsLocation",
               new ComparisonParameterDefinition(2, WITHIN_DISTANCE, NOT_WITHIN_DISTANCE),
                 distance, unitOfDistance, latitude, longitude);
-        this.geoIp2Util = geoIp2Util;
+        this.visitorAPI = visitorAPI;
     }
     
+    @Override
+    public int getEvaluationCost() {
+        return HIGH_COST;
+    }
+
     @Override
     public boolean evaluate(HttpServletRequest request, HttpServletResponse response, Instance instance) {
         Location visitorsLocation = lookupLocation(request);
@@ -108,15 +111,9 @@ public class VisitorsGeolocationConditionlet extends Conditionlet<VisitorsGeoloc
     }
 
     private Location lookupLocation(HttpServletRequest request) {
-        try {
-            InetAddress address = HttpRequestDataUtil.getIpAddress(request);
-            String ipAddress = address.getHostAddress();
-            return geoIp2Util.getLocationByIp(ipAddress);
-        } catch (UnknownHostException e) {
-            throw new RuleEvaluationFailedException(e, "Unknown host.");
-        } catch (IOException | GeoIp2Exception e) {
-            throw new RuleEvaluationFailedException(e, "Unable to get Location from IP. ");
-        }
+        GeoLocation geoLocation = RequestFacts.getGeoLocation(request, visitorAPI)
+                .orElseThrow(() -> new RuleEvaluationFailedException("Unable to get Location from IP. "));
+        return new Location(geoLocation.getLatitude(), geoLocation.getLongitude());
     }
 
     @Override
@@ -70,6 +70,7 @@ public class Rule implements Permissionable, Serializable {
     private List<ConditionGroup> groups;
     private List<RuleAction> ruleActions;
     private Permissionable parentPermissionable;
+    private transient volatile RuleEvaluationPlan evaluationPlan;
 
     public Rule(){
 
@@ -260,6 +261,23 @@ public class Rule implements Permissionable, Serializable {
         }
     }
 
+    /**
+     * Returns the compiled form of this rule, compiling it the first time it is requested. The
+     * plan is not serialized, a rule read from a distributed cache compiles it again.
+     *
+     * @return The {@link RuleEvaluationPlan} of this rule.
+     * @throws RuleEngineException If a condition or action has invalid parameters.
+     */
+    @JsonIgnore
+    public RuleEvaluationPlan getEvaluationPlan() {
+        RuleEvaluationPlan plan = evaluationPlan;
+        if(plan == null) {
+            plan = RuleEvaluationPlan.compile(this);
+            evaluationPlan = plan;
+        }
+        return plan;
+    }
+
 	/**
 	 * Evaluates the set of conditions that make up this rule based on the
 	 * issued HTTP request. If the final result of such an evaluation is true,
@@ -0,0 +1,241 @@
+package com.dotmarketing.portlets.rules.model;
+
+import com.dotcms.repackage.com.google.common.collect.ImmutableList;
+import com.dotcms.repackage.com.google.common.collect.Lists;
+import com.dotmarketing.portlets.rules.RuleComponentInstance;
+import com.dotmarketing.portlets.rules.actionlet.RuleActionlet;
+import com.dotmarketing.portlets.rules.conditionlet.Conditionlet;
+import com.dotmarketing.util.Logger;
+import java.util.Comparator;
+import java.util.List;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Immutable, pre-validated form of a {@link Rule}. The parameters of every condition and action
+ * are validated and parsed once, when the plan is compiled, instead of on every request.
+ * <p>
+ * The groups and conditions are evaluated with the same precedence as {@link Rule#evaluateConditions}
+ * (AND before OR), so they are compiled into a list of alternatives, each one a list of terms that
+ * must all be true. As the order of the terms of an alternative, and of the alternatives
+ * themselves, does not change the result, they are sorted cheapest first using
+ * {@link Conditionlet#getEvaluationCost()}, so the expensive conditions (e.g. the geolocation
+ * ones) are only evaluated when the cheap ones did not decide the result.
+ * </p>
+ */
+public final class RuleEvaluationPlan {
+
+    private final String ruleId;
+    private final String ruleName;
+    private final Step conditions;
+    private final List<CompiledAction> actions;
+
+    private RuleEvaluationPlan(Rule rule, Step conditions, List<CompiledAction> actions) {
+        this.ruleId = rule.getId();
+        this.ruleName = rule.getName();
+        this.conditions = conditions;
+        this.actions = actions;
+    }
+
+    /**
+     * Validates the conditions and actions of the given rule and builds its plan.
+     *
+     * @param rule - The {@link Rule} to compile.
+     * @return The evaluation plan of the rule.
+     * @throws com.dotmarketing.portlets.rules.exception.RuleEngineException If a condition or
+     *         action has invalid parameters.
+     */
+    public static RuleEvaluationPlan compile(Rule rule) {
+        List<LogicalOperator> groupOperators = Lists.newArrayList();
+        List<Step> groups = Lists.newArrayList();
+        for (ConditionGroup group : rule.getGroups()) {
+            List<LogicalOperator> conditionOperators = Lists.newArrayList();
+            List<Step> conditions = Lists.newArrayList();
+            for (Condition condition : group.getConditions()) {
+                Conditionlet conditionlet = condition.getConditionlet();
+                conditionOperators.add(condition.getOperator());
+                conditions.add(new ConditionStep(conditionlet, conditionlet.doCheckValid(condition)));
+            }
+            groupOperators.add(group.getOperator());
+            groups.add(anyOf(conditionOperators, conditions));
+        }
+
+        List<CompiledAction> actions = Lists.newArrayList();
+        for (RuleAction action : rule.getRuleActions()) {
+            RuleActionlet actionDefinition = action.getActionDefinition();
+            if (actionDefinition == null) {
+                throw new IllegalArgumentException(String.format("RuleActionlet %1$s doesn't exist", action.getActionlet()));
+            }
+            actions.add(new CompiledAction(action.getId(), actionDefinition, actionDefinition.doCheckValid(action)));
+        }
+
+        return new RuleEvaluationPlan(rule, anyOf(groupOperators, groups), ImmutableList.copyOf(actions));
+    }
+
+    /**
+     * Evaluates the conditions of the rule and, if they are met, fires its actions.
+     *
+     * @param req - The {@link HttpServletRequest} object that is triggering the rules evaluation.
+     * @param res - The {@link HttpServletResponse} object.
+     * @return If the conditions are met, returns <code>true</code>. Otherwise, returns
+     *         <code>false</code>.
+     */
+    public boolean evaluate(HttpServletRequest req, HttpServletResponse res) {
+        if (this.conditions.evaluate(req, res)) {
+            for (CompiledAction action : this.actions) {
+                try {
+                    action.evaluate(req, res);
+                } catch (Exception e) {
+                    Logger.warn(this.getClass(),
+                                String.format("Rule evaluation failed on action '%s' for rule %s. Skipping any remaining actions.",
+                                              action.id,
+                                              this.ruleName), e);
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    public String getRuleId() {
+        return ruleId;
+    }
+
+    /**
+     * Splits the terms on their OR operators; the operator of the first term is ignored, as it is
+     * by {@link com.dotmarketing.portlets.rules.util.LogicalStatement}.
+     */
+    private static Step anyOf(List<LogicalOperator> operators, List<Step> terms) {
+        if (terms.isEmpty()) {
+            return new AllOf(terms);
+        }
+        List<Step> alternatives = Lists.newArrayList();
+        List<Step> current = Lists.newArrayList();
+        for (int i = 0; i < terms.size(); i++) {
+            if (i > 0 && operators.get(i) != LogicalOperator.AND) {
+                alternatives.add(allOf(current));
+                current = Lists.newArrayList();
+            }
+            current.add(terms.get(i));
+        }
+        alternatives.add(allOf(current));
+        return alternatives.size() == 1 ? alternatives.get(0) : new AnyOf(alternatives);
+    }
+
+    private static Step allOf(List<Step> terms) {
+        return terms.size() == 1 ? terms.get(0) : new AllOf(terms);
+    }
+
+    /**
+     * A part of the plan that evaluates to true or false.
+     */
+    private interface Step {
+
+        boolean evaluate(HttpServletRequest req, HttpServletResponse res);
+
+        int getCost();
+    }
+
+    private static final Comparator<Step> CHEAPEST_FIRST = Comparator.comparingInt(Step::getCost);
+
+    private static final class ConditionStep implements Step {
+
+        private final Conditionlet conditionlet;
+        private final RuleComponentInstance instance;
+        private final int cost;
+
+        private ConditionStep(Conditionlet conditionlet, RuleComponentInstance instance) {
+            this.conditionlet = conditionlet;
+            this.instance = instance;
+            this.cost = conditionlet.getEvaluationCost();
+        }
+
+        @Override
+        public boolean evaluate(HttpServletRequest req, HttpServletResponse res) {
+            //noinspection unchecked
+            return conditionlet.doEvaluate(req, res, instance);
+        }
+
+        @Override
+        public int getCost() {
+            return cost;
+        }
+    }
+
+    /**
+     * True when all of its terms are true, an empty list is true.
+     */
+    private static final class AllOf implements Step {
+
+        private final List<Step> terms;
+        private final int cost;
+
+        private AllOf(List<Step> terms) {
+            // the sort is stable, terms with the same cost keep their priority order
+            this.terms = ImmutableList.copyOf(terms.stream().sorted(CHEAPEST_FIRST).iterator());
+            this.cost = this.terms.stream().mapToInt(Step::getCost).sum();
+        }
+
+        @Override
+        public boolean evaluate(HttpServletRequest req, HttpServletResponse res) {
+            for (Step term : terms) {
+                if (!term.evaluate(req, res)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int getCost() {
+            return cost;
+        }
+    }
+
+    /**
+     * True when any of its alternatives is true.
+     */
+    private static final class AnyOf implements Step {
+
+        private final List<Step> alternatives;
+        private final int cost;
+
+        private AnyOf(List<Step> alternatives) {
+            this.alternatives = ImmutableList.copyOf(alternatives.stream().sorted(CHEAPEST_FIRST).iterator());
+            this.cost = this.alternatives.stream().mapToInt(Step::getCost).sum();
+        }
+
+        @Override
+        public boolean evaluate(HttpServletRequest req, HttpServletResponse res) {
+            for (Step alternative : alternatives) {
+                if (alternative.evaluate(req, res)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public int getCost() {
+            return cost;
+        }
+    }
+
+    private static final class CompiledAction {
+
+        private final String id;
+        private final RuleActionlet actionlet;
+        private final RuleComponentInstance instance;
+
+        private CompiledAction(String id, RuleActionlet actionlet, RuleComponentInstance instance) {
+            this.id = id;
+            this.actionlet = actionlet;
+            this.instance = instance;
+        }
+
+        private void evaluate(HttpServletRequest req, HttpServletResponse res) {
+            //noinspection unchecked
+            actionlet.doEvaluate(req, res, instance);
+        }
+    }
+}
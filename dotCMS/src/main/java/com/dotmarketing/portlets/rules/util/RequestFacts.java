@@ -0,0 +1,120 @@
+package com.dotmarketing.portlets.rules.util;
+
+import com.dotcms.util.GeoLocation;
+import com.dotcms.util.HttpRequestDataUtil;
+import com.dotcms.visitor.business.VisitorAPI;
+import eu.bitwalker.useragentutils.UserAgent;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Per request cache of the facts the conditionlets read from a request, such as the parsed
+ * {@code User-Agent} header or the geolocation of the visitor's IP address. Each fact is computed
+ * once per request, no matter how many rules or conditions use it. A failed lookup is remembered
+ * too, and its error is thrown to every conditionlet that asks for the fact.
+ * <p>
+ * The facts are kept in a request attribute, so they go away with the request.
+ * </p>
+ */
+public final class RequestFacts {
+
+    public static final String IP_ADDRESS = "ipAddress";
+    public static final String USER_AGENT = "userAgent";
+    public static final String GEO_LOCATION = "geo.location";
+
+    private static final String REQUEST_ATTRIBUTE = RequestFacts.class.getName();
+    private static final Object NULL_FACT = new Object();
+
+    /**
+     * Computes a fact that is not cached yet.
+     */
+    public interface FactLoader<T> {
+
+        T load() throws Exception;
+    }
+
+    private RequestFacts() {
+    }
+
+    /**
+     * Returns the given fact of the request, computing it if this is the first time it is asked for.
+     *
+     * @param request - The {@link HttpServletRequest} the fact belongs to.
+     * @param fact - The name of the fact.
+     * @param loader - Computes the fact.
+     * @return The value of the fact.
+     * @throws Exception The error of the loader, now or when the fact was computed.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T get(HttpServletRequest request, String fact, FactLoader<T> loader) throws Exception {
+        Map<String, Object> facts = (Map<String, Object>) request.getAttribute(REQUEST_ATTRIBUTE);
+        if (facts == null) {
+            facts = new HashMap<>();
+            request.setAttribute(REQUEST_ATTRIBUTE, facts);
+        }
+
+        Object value = facts.get(fact);
+        if (value == null) {
+            try {
+                T loaded = loader.load();
+                value = loaded == null ? NULL_FACT : loaded;
+            } catch (Exception e) {
+                value = new Failure(e);
+            }
+            facts.put(fact, value);
+        }
+
+        if (value instanceof Failure) {
+            throw ((Failure) value).error;
+        }
+        return value == NULL_FACT ? null : (T) value;
+    }
+
+    public static InetAddress getIpAddress(HttpServletRequest request) throws UnknownHostException {
+        try {
+            return get(request, IP_ADDRESS, () -> HttpRequestDataUtil.getIpAddress(request));
+        } catch (UnknownHostException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static UserAgent getUserAgent(HttpServletRequest request) {
+        try {
+            return get(request, USER_AGENT, () -> UserAgent.parseUserAgentString(request.getHeader("User-Agent")));
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the geolocation of the visitor, see {@link VisitorAPI#getGeoLocation(HttpServletRequest)}.
+     * It is kept by the {@link com.dotcms.visitor.domain.Visitor} of the session, so the GeoIP2
+     * database is queried at most once per visitor.
+     */
+    public static Optional<GeoLocation> getGeoLocation(HttpServletRequest request, VisitorAPI visitorAPI) {
+        try {
+            return get(request, GEO_LOCATION, () -> visitorAPI.getGeoLocation(request));
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Failure {
+
+        private final Exception error;
+
+        private Failure(Exception error) {
+            this.error = error;
+        }
+    }
+}
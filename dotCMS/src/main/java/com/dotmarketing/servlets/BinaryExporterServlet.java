@@ -1,8 +1,8 @@
 package com.dotmarketing.servlets;
 
+import com.dotcms.concurrent.DotConcurrentException;
 import com.dotcms.contenttype.exception.NotFoundInDbException;
 import com.dotcms.contenttype.model.type.ContentType;
-import com.dotcms.repackage.com.google.common.io.Files;
 import com.dotcms.repackage.org.apache.commons.collections.LRUMap;
 import com.dotcms.util.DownloadUtil;
 import com.dotcms.uuid.shorty.ShortType;
@@ -39,6 +39,8 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.text.SimpleDateFormat;
 import java.util.*;
 
@@ -177,8 +179,7 @@ public class BinaryExporterServlet extends HttpServlet {
         boolean isTempBinaryImage = tempBinaryImageInodes.contains(assetInode);
         
 		ServletOutputStream out = null;
-		RandomAccessFile input = null;
-		InputStream is = null;
+		FileChannel input = null;
         
 		try {
 			User user = userWebAPI.getLoggedInUser(req);
@@ -346,16 +347,35 @@ public class BinaryExporterServlet extends HttpServlet {
 			 *  Start serving the data
 			 *
 			 *******************************/
-			long _fileLength = data.getDataFile().length();
+			final File dataFile = data.getDataFile();
+			// the length and the ETag come from the file metadata, the file is never read to compute them
+			long _fileLength = dataFile.length();
+			String _eTag = SpeedyAssetServletUtil.eTag(assetInode, dataFile);
 			
-			String mimeType = fileAssetAPI.getMimeType(data.getDataFile().getName());
+			String mimeType = fileAssetAPI.getMimeType(dataFile.getName());
 
 			if (mimeType == null) {
 				mimeType = "application/octet-stream";
 			}
+
+			// text files are sent compressed once for every version of the file, not for every request
+			CompressedAssetVariants.Variant variant = null;
+			if (data.getDataBytes() == null && CompressedAssetVariants.isCompressible(mimeType, _fileLength)) {
+				resp.setHeader("Vary", "Accept-Encoding");
+				// the ranges are of the file as it is
+				if (!UtilMethods.isSet(req.getHeader("range"))) {
+					variant = CompressedAssetVariants.getVariant(assetInode, dataFile, req.getHeader("Accept-Encoding"));
+				}
+				if (variant != null) {
+					_fileLength = variant.getLength();
+					_eTag = variant.eTag(_eTag);
+					resp.setHeader("Content-Encoding", variant.getEncoding());
+				}
+			}
 			
 			resp.setHeader("Content-Disposition", "inline; filename=\"" + UtilMethods.encodeURL(downloadName) + "\"" );
 			resp.setHeader("Content-Length", String.valueOf(_fileLength));
+			resp.setHeader("Accept-Ranges", "bytes");
 
 			resp.setContentType(mimeType);
 			
@@ -363,7 +383,7 @@ public class BinaryExporterServlet extends HttpServlet {
 
 				// if we are downloading a jpeg version of a png or gif
 				String x = UtilMethods.getFileExtension(downloadName);
-				String y = UtilMethods.getFileExtension(data.getDataFile().getName());
+				String y = UtilMethods.getFileExtension(dataFile.getName());
 				if(!x.equals(y)){
 					downloadName = downloadName.replaceAll("\\." + x, "\\." + y);
 				}
@@ -387,18 +407,10 @@ public class BinaryExporterServlet extends HttpServlet {
 					expiration.add(java.util.Calendar.DAY_OF_MONTH, _daysCache);
 					int seconds = (_daysCache * 24 * 60 * 60);
 
-					long _lastModified = data.getDataFile().lastModified();
-					if(_lastModified < 0) {
-					    _lastModified = 0;
-					}
 					// we need to round the _lastmodified to get rid of the milliseconds.
-					_lastModified = _lastModified / 1000;
-					_lastModified = _lastModified * 1000;
+					long _lastModified = SpeedyAssetServletUtil.lastModified(dataFile);
 					Date _lastModifiedDate = new java.util.Date(_lastModified);
 
-					
-					String _eTag = "dot:" + assetInode + ":" + _lastModified + ":" + _fileLength;
-
 					SimpleDateFormat httpDate = new SimpleDateFormat(Constants.RFC2822_FORMAT);
 					httpDate.setTimeZone(TimeZone.getTimeZone("GMT"));
 		            /* Setting cache friendly headers */
@@ -415,11 +427,9 @@ public class BinaryExporterServlet extends HttpServlet {
 		             * If the etag matches then the file is the same
 		             *
 		            */
-		            if(ifNoneMatch != null){
-		                if(_eTag.equals(ifNoneMatch) || ifNoneMatch.equals("*")){
-		                    resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED );
-		                    return;
-		                }
+		            if(SpeedyAssetServletUtil.eTagMatches(ifNoneMatch, _eTag)){
+		                resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED );
+		                return;
 		            }
 
 		            resp.setHeader("Last-Modified", httpDate.format(_lastModifiedDate));
@@ -441,71 +451,73 @@ public class BinaryExporterServlet extends HttpServlet {
 			}
 
 			String rangeHeader = req.getHeader("range");
+			String ifRange = req.getHeader("If-Range");
+			if(UtilMethods.isSet(rangeHeader) && UtilMethods.isSet(ifRange) && !SpeedyAssetServletUtil.eTagMatches(ifRange, _eTag)){
+				// the file changed since the client got its first part, or it can't tell: send it whole
+				rangeHeader = null;
+			}
 			if(UtilMethods.isSet(rangeHeader)){
 
 				try {
-					out = resp.getOutputStream();
-
-					byte[] dataBytes = Files.toByteArray(data.getDataFile());
-
 					//extract range header
 					 resp.setHeader("Accept-Ranges", "bytes");
 					// Range header should match format "bytes=n-n,n-n,n-n...". If not, then return 416.
 					if (!rangeHeader.matches("^bytes=\\d*-\\d*(,\\d*-\\d*)*$")) {
-						resp.setHeader("Content-Range", "bytes */" + dataBytes.length); // Required in 416.
+						resp.setHeader("Content-Range", "bytes */" + _fileLength); // Required in 416.
 						resp.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
 						return;
 					}
 					//parse multiple range bytes
-					ArrayList<SpeedyAssetServletUtil.ByteRange> ranges = SpeedyAssetServletUtil.parseRange(rangeHeader, dataBytes.length);
+					ArrayList<SpeedyAssetServletUtil.ByteRange> ranges = SpeedyAssetServletUtil.parseRange(rangeHeader, _fileLength);
 					if (ranges != null){
-						SpeedyAssetServletUtil.ByteRange full = new SpeedyAssetServletUtil.ByteRange(0, data.getDataFile().length() - 1, data.getDataFile().length());
+						// Check if every Range is syntactically valid before sending anything. If not, then return 416.
+						for (SpeedyAssetServletUtil.ByteRange r : ranges) {
+							if (r.start > r.end) {
+								resp.setHeader("Content-Range", "bytes */" + _fileLength); // Required in 416.
+								resp.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+								return;
+							}
+						}
+						SpeedyAssetServletUtil.ByteRange full = new SpeedyAssetServletUtil.ByteRange(0, _fileLength - 1, _fileLength);
 						if (ranges.isEmpty() || ranges.get(0).equals(full)) {
 							// Return full file.
-							input = new RandomAccessFile(data.getDataFile(), "r");
 							SpeedyAssetServletUtil.ByteRange r = full;
-							resp.setContentType(fileAssetAPI.getMimeType(data.getDataFile().getName()));
+							resp.setContentType(mimeType);
 							resp.setHeader("Content-Range", "bytes " + r.start + "-" + r.end + "/" + r.total);
 							resp.setHeader("Content-Length", String.valueOf(r.length));
 							// Copy full range.
-							SpeedyAssetServletUtil.copy(input, out, r.start, r.length);
+							if (!SpeedyAssetServletUtil.sendFile(req, dataFile, r.start, r.length)) {
+								out = resp.getOutputStream();
+								input = FileChannel.open(dataFile.toPath(), StandardOpenOption.READ);
+								SpeedyAssetServletUtil.copy(input, out, r.start, r.length);
+							}
 						} else if (ranges.size() == 1){
 							SpeedyAssetServletUtil.ByteRange range = ranges.get(0);
-							input = new RandomAccessFile(data.getDataFile(), "r");
-							// Check if Range is syntactically valid. If not, then return 416.
-							if (range.start > range.end) {
-								resp.setHeader("Content-Range", "bytes */" + dataBytes.length); // Required in 416.
-								resp.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
-								return;
-							}
-							resp.setContentType(fileAssetAPI.getMimeType(data.getDataFile().getName()));
+							resp.setContentType(mimeType);
 							resp.setHeader("Content-Range", "bytes " + range.start + "-" + range.end + "/" + range.total);
 							resp.setHeader("Content-Length", String.valueOf(range.length));
 				            resp.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT); // 206.
-							SpeedyAssetServletUtil.copy(input, out, range.start, range.length);
+							if (!SpeedyAssetServletUtil.sendFile(req, dataFile, range.start, range.length)) {
+								out = resp.getOutputStream();
+								input = FileChannel.open(dataFile.toPath(), StandardOpenOption.READ);
+								SpeedyAssetServletUtil.copy(input, out, range.start, range.length);
+							}
 						}else{
 							resp.setContentType("multipart/byteranges; boundary=" + SpeedyAssetServletUtil.MULTIPART_BOUNDARY);
+							// The length of the file was set above, the body is the parts with their headers.
+							resp.setHeader("Content-Length", String.valueOf(SpeedyAssetServletUtil.multipartLength(ranges, mimeType)));
 							resp.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
-						    input = new RandomAccessFile(data.getDataFile(), "r");
+							out = resp.getOutputStream();
+						    input = FileChannel.open(dataFile.toPath(), StandardOpenOption.READ);
 							for (SpeedyAssetServletUtil.ByteRange r : ranges) {
-								if (r.start > r.end) {
-									resp.setHeader("Content-Range", "bytes */" + dataBytes.length); // Required in 416.
-									resp.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
-									return;
-								}
 								// Add multipart boundary and header fields for every range.
-								out.println();
-								out.println("--" + SpeedyAssetServletUtil.MULTIPART_BOUNDARY);
-								out.println("Content-Type: " + fileAssetAPI.getMimeType(data.getDataFile().getName()));
-								out.println("Content-Range: bytes " + r.start + "-" + r.end + "/" + r.total);
-								out.println();
+								out.print(SpeedyAssetServletUtil.multipartHeader(r, mimeType));
 
 								// Copy single part range of multi part range.
 								SpeedyAssetServletUtil.copy(input, out, r.start, r.length);
 							}
 							// End with multipart boundary.
-							out.println();
-							out.println("--" + SpeedyAssetServletUtil.MULTIPART_BOUNDARY + "--");
+							out.print(SpeedyAssetServletUtil.MULTIPART_END);
 						}
 					}
 				} catch (Exception e) {
@@ -513,16 +525,19 @@ public class BinaryExporterServlet extends HttpServlet {
 					Logger.debug(this, "Error serving asset = " + req.getRequestURI() + (req.getQueryString() != null?"?"+req.getQueryString():""), e);
 
 				}
+			}else if(data.getDataBytes() != null){
+				out = resp.getOutputStream();
+				out.write(data.getDataBytes());
+			}else if(variant != null && variant.getBytes() != null){
+				out = resp.getOutputStream();
+				out.write(variant.getBytes());
 			}else{
-				is = java.nio.file.Files.newInputStream(data.getDataFile().toPath());
-	            int count = 0;
-	            byte[] buffer = new byte[4096];
-	            out = resp.getOutputStream();
-	            
-	            while((count = is.read(buffer)) > 0) {
-	            	out.write(buffer, 0, count);
-	            }
-	            
+				final File toSend = variant != null ? variant.getFile() : dataFile;
+				if(!SpeedyAssetServletUtil.sendFile(req, toSend, 0, _fileLength)){
+					out = resp.getOutputStream();
+					input = FileChannel.open(toSend.toPath(), StandardOpenOption.READ);
+					SpeedyAssetServletUtil.copy(input, out, 0, _fileLength);
+				}
 			}
             
 		} catch (DotContentletStateException e) {
@@ -574,7 +589,13 @@ public class BinaryExporterServlet extends HttpServlet {
 			Logger.debug(BinaryExporterServlet.class, e.getMessage(),e);
 			Logger.error(BinaryExporterServlet.class, e.getMessage());
 			if(!resp.isCommitted()){
-			  resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+			  if(e.getCause() instanceof DotConcurrentException){
+			    // the image filter queue is full, ask the client to come back later
+			    resp.setHeader("Retry-After", "5");
+			    resp.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+			  }else{
+			    resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+			  }
 			}
 		}catch (Exception e) {
 			Logger.debug(BinaryExporterServlet.class, e.getMessage(),e);
@@ -595,15 +616,6 @@ public class BinaryExporterServlet extends HttpServlet {
 				}
 			}
 			
-			if(is!=null){
-				try{
-					is.close();
-				}
-				catch(Exception e){
-					Logger.debug(BinaryExporterServlet.class, e.getMessage());
-				}
-			}
-			
 			if(out!=null){
 				try{
 					out.close();
@@ -0,0 +1,340 @@
+package com.dotmarketing.servlets;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import com.dotmarketing.business.APILocator;
+import com.dotmarketing.util.Config;
+import com.dotmarketing.util.Logger;
+import com.dotmarketing.util.WebKeys;
+
+/**
+ * Compressed variants of the text files of the assets (CSS, JS, SVG, JSON...), so they are
+ * compressed once per version of the file instead of on every request.
+ * <p>
+ * The variant of a file is written the first time a client that accepts its encoding asks for
+ * it, to the dotGenerated folder of the asset like the resized images, under a name made of the
+ * inode, the path, the modification date and the length of the file: a new version of the file
+ * gets new variants and the old ones are removed with the generated files of the asset. The
+ * smallest variants are also kept in memory, in a cache bounded by its size in bytes, so the
+ * hottest files are served without any disk I/O.
+ * </p>
+ */
+public final class CompressedAssetVariants {
+
+	/**
+	 * The encodings of the variants, in order of preference. Brotli would go first, but the JDK
+	 * has no encoder for it.
+	 */
+	enum Encoding {
+
+		GZIP("gzip", ".gz");
+
+		private final String name;
+		private final String extension;
+
+		Encoding(String name, String extension) {
+			this.name = name;
+			this.extension = extension;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		OutputStream wrap(OutputStream out) throws IOException {
+			return new GZIPOutputStream(out, 8192) {
+				{
+					// compressed once, it is worth the time
+					def.setLevel(Deflater.BEST_COMPRESSION);
+				}
+			};
+		}
+	}
+
+	/**
+	 * A compressed variant of a file.
+	 */
+	public static final class Variant {
+
+		private final Encoding encoding;
+		private final File file;
+		private final long length;
+		private final byte[] bytes;
+
+		private Variant(Encoding encoding, File file, long length, byte[] bytes) {
+			this.encoding = encoding;
+			this.file = file;
+			this.length = length;
+			this.bytes = bytes;
+		}
+
+		/**
+		 * @return The value of the Content-Encoding header.
+		 */
+		public String getEncoding() {
+			return encoding.getName();
+		}
+
+		public File getFile() {
+			return file;
+		}
+
+		public long getLength() {
+			return length;
+		}
+
+		/**
+		 * @return The content of the variant if it is in memory, {@code null} if it must be read
+		 *         from its file.
+		 */
+		public byte[] getBytes() {
+			return bytes;
+		}
+
+		/**
+		 * @return The ETag of the variant, a representation of the file has its own strong
+		 *         ETag.
+		 */
+		public String eTag(String fileETag) {
+			return fileETag.substring(0, fileETag.length() - 1) + "-" + encoding.getName() + "\"";
+		}
+	}
+
+	private static final String[] DEFAULT_MIME_TYPES = { "text/*", "application/javascript", "application/x-javascript",
+			"application/json", "application/xml", "image/svg+xml" };
+
+	private static final ConcurrentMap<String, CompletableFuture<File>> inFlightCompressions = new ConcurrentHashMap<>();
+
+	private CompressedAssetVariants() {
+	}
+
+	/**
+	 * Checks whether the files of the given type and length are sent compressed, see the
+	 * ASSET_COMPRESSION_* properties. When they are, the responses must vary on the
+	 * Accept-Encoding header even if this client gets the file as it is.
+	 */
+	public static boolean isCompressible(String mimeType, long length) {
+		if (!Config.getBooleanProperty("ASSET_COMPRESSION_ENABLED", true)
+				|| length < Config.getIntProperty("ASSET_COMPRESSION_MIN_SIZE", 1024)
+				|| length > Config.getIntProperty("ASSET_COMPRESSION_MAX_SIZE", 10 * 1024 * 1024)
+				|| mimeType == null) {
+			return false;
+		}
+		final String type = mimeType.toLowerCase();
+		String[] compressibles = Config.getStringArrayProperty("ASSET_COMPRESSION_MIME_TYPES");
+		if (compressibles == null || compressibles.length == 0) {
+			compressibles = DEFAULT_MIME_TYPES;
+		}
+		for (String compressible : compressibles) {
+			compressible = compressible.trim().toLowerCase();
+			if (compressible.endsWith("/*") ? type.startsWith(compressible.substring(0, compressible.length() - 1))
+					: type.equals(compressible)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the compressed variant of the file to send to a client, writing it if it is the
+	 * first time it is asked for.
+	 *
+	 * @param assetInode The inode of the asset of the file.
+	 * @param file The file, of a type and length that {@link #isCompressible(String, long)}.
+	 * @param acceptEncoding The Accept-Encoding header of the request.
+	 * @return The variant, or {@code null} if the client accepts none of the encodings, the
+	 *         variant isn't smaller than the file or it couldn't be written.
+	 */
+	public static Variant getVariant(String assetInode, File file, String acceptEncoding) {
+		final Encoding encoding = acceptedEncoding(acceptEncoding);
+		if (encoding == null) {
+			return null;
+		}
+		try {
+			final File variantFile = variantFile(assetInode, file, encoding);
+			final String key = variantFile.getPath();
+
+			byte[] bytes = MemoryCacheHolder.INSTANCE.get(key);
+			if (bytes != null) {
+				return bytes.length < file.length() ? new Variant(encoding, variantFile, bytes.length, bytes) : null;
+			}
+
+			if (!variantFile.exists()) {
+				compress(file, variantFile, encoding);
+			}
+			final long length = variantFile.length();
+			if (length >= file.length()) {
+				// nothing to gain, the file is sent as it is
+				return null;
+			}
+			if (length <= Config.getIntProperty("ASSET_COMPRESSION_MEMORY_MAX_ENTRY_SIZE", 64 * 1024)) {
+				bytes = Files.readAllBytes(variantFile.toPath());
+				MemoryCacheHolder.INSTANCE.put(key, bytes);
+			}
+			return new Variant(encoding, variantFile, length, bytes);
+		} catch (IOException e) {
+			Logger.warn(CompressedAssetVariants.class,
+					"Unable to compress " + file.getPath() + " with " + encoding.getName() + ": " + e.getMessage());
+			Logger.debug(CompressedAssetVariants.class, e.getMessage(), e);
+			return null;
+		}
+	}
+
+	/**
+	 * @return The preferred encoding of the ones accepted by the header, {@code null} if none. An
+	 *         encoding the header doesn't name is accepted by a {@code *}.
+	 */
+	static Encoding acceptedEncoding(String acceptEncoding) {
+		if (acceptEncoding == null) {
+			return null;
+		}
+		for (Encoding encoding : Encoding.values()) {
+			float quality = -1;
+			float anyQuality = -1;
+			for (String coding : acceptEncoding.split(",")) {
+				final String[] parts = coding.split(";");
+				final String name = parts[0].trim();
+				if (name.equalsIgnoreCase(encoding.getName())) {
+					quality = quality(parts);
+				} else if ("*".equals(name)) {
+					anyQuality = quality(parts);
+				}
+			}
+			if ((quality < 0 ? anyQuality : quality) > 0) {
+				return encoding;
+			}
+		}
+		return null;
+	}
+
+	private static float quality(String[] parts) {
+		for (int i = 1; i < parts.length; i++) {
+			final String parameter = parts[i].trim();
+			if (parameter.startsWith("q=")) {
+				try {
+					return Float.parseFloat(parameter.substring(2));
+				} catch (NumberFormatException e) {
+					return 0;
+				}
+			}
+		}
+		return 1;
+	}
+
+	private static File variantFile(String assetInode, File file, Encoding encoding) throws IOException {
+		final File folder = new File(APILocator.getFileAssetAPI().getRealAssetsRootPath() + File.separator + "dotGenerated"
+				+ File.separator + assetInode.charAt(0) + File.separator + assetInode.charAt(1));
+		return new File(folder, WebKeys.GENERATED_FILE + assetInode + "_" + Integer.toHexString(file.getCanonicalPath().hashCode())
+				+ "_" + file.lastModified() + "_" + file.length() + encoding.extension);
+	}
+
+	/**
+	 * Writes the variant to a temporary file moved in place once complete, the concurrent
+	 * requests for the same variant wait for the first one to write it, for up to
+	 * ASSET_COMPRESSION_WAIT_MILLIS before writing it themselves.
+	 */
+	private static void compress(File file, File variantFile, Encoding encoding) throws IOException {
+		final String key = variantFile.getPath();
+		final CompletableFuture<File> future = new CompletableFuture<>();
+		final CompletableFuture<File> inFlight = inFlightCompressions.putIfAbsent(key, future);
+		if (inFlight != null) {
+			try {
+				inFlight.get(Config.getLongProperty("ASSET_COMPRESSION_WAIT_MILLIS", 10000), TimeUnit.MILLISECONDS);
+				return;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted waiting for " + key, e);
+			} catch (ExecutionException e) {
+				throw new IOException(e.getCause());
+			} catch (TimeoutException e) {
+				// the other request is stuck, write our own temporary file
+				Logger.debug(CompressedAssetVariants.class, "Timed out waiting for " + key + ", compressing it again");
+			}
+		}
+
+		File tmp = null;
+		try {
+			variantFile.getParentFile().mkdirs();
+			tmp = File.createTempFile(variantFile.getName(), ".tmp", variantFile.getParentFile());
+			try (InputStream in = Files.newInputStream(file.toPath()); OutputStream out = encoding.wrap(Files.newOutputStream(tmp.toPath()))) {
+				final byte[] buffer = new byte[8192];
+				int read;
+				while ((read = in.read(buffer)) > 0) {
+					out.write(buffer, 0, read);
+				}
+			}
+			Files.move(tmp.toPath(), variantFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			future.complete(variantFile);
+		} catch (IOException | RuntimeException e) {
+			if (tmp != null) {
+				tmp.delete();
+			}
+			future.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlightCompressions.remove(key, future);
+		}
+	}
+
+	private static final class MemoryCacheHolder {
+		static final MemoryCache INSTANCE = new MemoryCache();
+	}
+
+	/**
+	 * Least recently used variants, evicted when the total of their lengths goes over
+	 * ASSET_COMPRESSION_MEMORY_SIZE. The keys hold the version of the file, so the entries are
+	 * never stale.
+	 */
+	static final class MemoryCache {
+
+		private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(256, 0.75f, true);
+		private final long maxSize;
+		private long size;
+
+		MemoryCache() {
+			this(Config.getIntProperty("ASSET_COMPRESSION_MEMORY_SIZE", 16 * 1024 * 1024));
+		}
+
+		MemoryCache(long maxSize) {
+			this.maxSize = maxSize;
+		}
+
+		synchronized byte[] get(String key) {
+			return entries.get(key);
+		}
+
+		synchronized void put(String key, byte[] bytes) {
+			if (bytes.length > maxSize) {
+				return;
+			}
+			final byte[] previous = entries.put(key, bytes);
+			size += bytes.length - (previous == null ? 0 : previous.length);
+			final Iterator<Map.Entry<String, byte[]>> eldest = entries.entrySet().iterator();
+			while (size > maxSize && eldest.hasNext()) {
+				size -= eldest.next().getValue().length;
+				eldest.remove();
+			}
+		}
+
+		synchronized long size() {
+			return size;
+		}
+	}
+
+}
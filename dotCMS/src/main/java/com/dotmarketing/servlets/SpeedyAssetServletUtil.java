@@ -1,20 +1,47 @@
 package com.dotmarketing.servlets;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
+import java.util.List;
+
+import javax.servlet.http.HttpServletRequest;
+
+import com.dotmarketing.util.Config;
 
 /**
+ * Serves the files of the assets, for the {@link BinaryExporterServlet} and so for the
+ * {@link SpeedyAssetServlet} that forwards to it, without ever reading a whole file in memory:
+ * <ul>
+ *     <li>Full files and single ranges are handed to the container with the Tomcat sendfile
+ *     attributes when it supports them, so the bytes go from the file to the socket without
+ *     being copied to the heap (see {@link #sendFile(HttpServletRequest, File, long, long)}).</li>
+ *     <li>Otherwise, and for every part of a multi-range response, the range is transferred from
+ *     a {@link FileChannel}, see {@link #copy(FileChannel, OutputStream, long, long)}.</li>
+ *     <li>The length and the ETag come from the file metadata, see
+ *     {@link #eTag(String, File)}.</li>
+ * </ul>
+ *
  * @see {@link http://programmaremobile.blogspot.com/2009/01/iphone-file-download-eng-ver.html}
  * @author Roger
  *
  */
 public class SpeedyAssetServletUtil {
-	
+
 	protected static final String MULTIPART_BOUNDARY = "MULTIPART_BYTERANGES";
-	protected static final int DEFAULT_BUFFER_SIZE = 10240; // ..bytes = 10KB.
-	
+
+	private static final String CRLF = "\r\n";
+	protected static final String MULTIPART_END = CRLF + "--" + MULTIPART_BOUNDARY + "--" + CRLF;
+
+	private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+	private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+	private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+	private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
 	/**
      * Returns a substring of the given string value from the given begin index to the given end
      * index as a long. If the substring is empty, then -1 will be returned
@@ -32,12 +59,12 @@ public class SpeedyAssetServletUtil {
 	/**
 	 * Parse the range values of the given string
 	 * @param rangeHeader String containing the range format "bytes=n-n,n-n,n-n...".
-	 * @param dataLen length of the byte range
+	 * @param length length of the file, any range that starts after its end has a start greater than its end
 	 * @return
 	 */
-	protected static ArrayList<ByteRange> parseRange(String rangeHeader, int length){
+	protected static ArrayList<ByteRange> parseRange(String rangeHeader, long length){
         ArrayList<ByteRange> ranges = null;
-        if (rangeHeader != null && rangeHeader.startsWith("bytes")){            
+        if (rangeHeader != null && rangeHeader.startsWith("bytes")){
             ranges = new ArrayList<ByteRange>(8);
         for (String part : rangeHeader.substring(6).split(",")) {
             // Assuming a file with length of 100, the following examples returns bytes at:
@@ -46,7 +73,7 @@ public class SpeedyAssetServletUtil {
             long end = sublong(part, part.indexOf("-") + 1, part.length());
 
             if (start == -1) {
-                start = length - end;
+                start = Math.max(0, length - end);
                 end = length - 1;
             } else if (end == -1 || end > length - 1) {
                 end = length - 1;
@@ -57,42 +84,135 @@ public class SpeedyAssetServletUtil {
         }
 
         return ranges;
-    } 
-	
+    }
+
+	/**
+	 * Builds the ETag of the file of an asset from its metadata, without reading it. It is a
+	 * strong validator: the file of an inode is only replaced by the exporters, that change its
+	 * modification date, and its length is part of the tag.
+	 *
+	 * @param assetInode The inode of the asset.
+	 * @param file The file served.
+	 * @return The quoted ETag.
+	 */
+	protected static String eTag(String assetInode, File file) {
+		return "\"dot:" + assetInode + ":" + lastModified(file) + ":" + file.length() + "\"";
+	}
+
+	/**
+	 * @return The modification date of the file, rounded down to the second as it is sent in the
+	 *         Last-Modified header.
+	 */
+	protected static long lastModified(File file) {
+		final long lastModified = Math.max(0, file.lastModified());
+		return lastModified / 1000 * 1000;
+	}
+
+	/**
+	 * Checks an If-None-Match or If-Range header against the ETag of the file. Tags sent before
+	 * they were quoted still match.
+	 *
+	 * @param header The value of the header, a list of tags or *.
+	 * @param eTag The quoted ETag of the file.
+	 * @return true if any of the tags of the header is the ETag.
+	 */
+	protected static boolean eTagMatches(String header, String eTag) {
+		if (header == null) {
+			return false;
+		}
+		final String unquoted = eTag.substring(1, eTag.length() - 1);
+		for (String tag : header.split(",")) {
+			tag = tag.trim();
+			if (tag.startsWith("W/")) {
+				tag = tag.substring(2);
+			}
+			if ("*".equals(tag) || eTag.equals(tag) || unquoted.equals(tag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Hands a range of the file to the container to send once the servlet returns, if it
+	 * supports it (Tomcat with sendfile enabled on its connector) and the range is big enough to
+	 * be worth it, see ASSET_SENDFILE_MIN_SIZE. The headers, Content-Length included, must be
+	 * set by the caller and nothing must be written to the response.
+	 *
+	 * @param request The current request.
+	 * @param file The file to send.
+	 * @param start Start of the byte range.
+	 * @param length Length of the byte range.
+	 * @return true if the container sends the range, false if it must be copied to the response.
+	 * @throws IOException If the canonical path of the file can't be read.
+	 */
+	protected static boolean sendFile(HttpServletRequest request, File file, long start, long length) throws IOException {
+		if (!Config.getBooleanProperty("ASSET_SENDFILE_ENABLED", true)
+				|| length < Config.getIntProperty("ASSET_SENDFILE_MIN_SIZE", 48 * 1024)
+				|| "HEAD".equals(request.getMethod())
+				|| !Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+			return false;
+		}
+		request.setAttribute(SENDFILE_FILENAME, file.getCanonicalPath());
+		request.setAttribute(SENDFILE_START, start);
+		request.setAttribute(SENDFILE_END, start + length);
+		return true;
+	}
+
     /**
-     * Copy the given byte range of the given input to the given output.
+     * Copy the given byte range of the given input to the given output. The range is
+     * transferred by the channel through a small buffer, whatever its length.
      * @param input The input to copy the given range to the given output for.
      * @param output The output to copy the given range from the given input for.
      * @param start Start of the byte range.
      * @param length Length of the byte range.
      * @throws IOException If something fails at I/O level.
      */
-	protected static void copy(RandomAccessFile input, OutputStream output, long start, long length)throws IOException{
-		byte[] buffer = new byte[DEFAULT_BUFFER_SIZE];
-		int read;
-
-		if (input.length() == length) {
-			// Write full range.
-			while ((read = input.read(buffer)) > 0) {
-				output.write(buffer, 0, read);
-			}
-		} else {
-			// Write partial range.
-			input.seek(start);
-			long toRead = length;
-
-			while ((read = input.read(buffer)) > 0) {
-				if ((toRead -= read) > 0) {
-					output.write(buffer, 0, read);
-				} else {
-					output.write(buffer, 0, (int) toRead + read);
-					break;
-				}
+	protected static void copy(FileChannel input, OutputStream output, long start, long length)throws IOException{
+		final WritableByteChannel target = Channels.newChannel(output);
+		long position = start;
+		final long end = start + length;
+		while (position < end) {
+			final long transferred = input.transferTo(position, end - position, target);
+			if (transferred <= 0) {
+				// the file is shorter than the range, it was truncated while being sent
+				throw new IOException("Unable to read the bytes " + position + "-" + (end - 1) + " of the file");
 			}
+			position += transferred;
 		}
 	}
 
-    
+
+    /**
+     * Returns the boundary and the header fields that come before the bytes of the given range
+     * in a multipart/byteranges response.
+     * @param range The range of the part.
+     * @param contentType The content type of the file.
+     * @return The header of the part, with its line breaks.
+     */
+	protected static String multipartHeader(ByteRange range, String contentType){
+		return CRLF + "--" + MULTIPART_BOUNDARY + CRLF
+				+ "Content-Type: " + contentType + CRLF
+				+ "Content-Range: bytes " + range.start + "-" + range.end + "/" + range.total + CRLF
+				+ CRLF;
+	}
+
+    /**
+     * Returns the length of a multipart/byteranges response with the given ranges, that is the
+     * headers of every part, the bytes of its range and the {@link #MULTIPART_END}.
+     * @param ranges The ranges of the parts.
+     * @param contentType The content type of the file.
+     * @return The length of the response body in bytes.
+     */
+	protected static long multipartLength(List<ByteRange> ranges, String contentType){
+		long length = MULTIPART_END.length();
+		for (ByteRange range : ranges) {
+			length += multipartHeader(range, contentType).length() + range.length;
+		}
+		return length;
+	}
+
+
    protected static class ByteRange {
 	   long start;
        long end;
@@ -17,6 +17,7 @@ import org.apache.velocity.runtime.resource.ResourceManager;
 
 import com.dotcms.repackage.com.google.common.collect.ImmutableSet;
 import com.dotmarketing.business.Cachable;
+import com.dotmarketing.business.CacheKey;
 import com.dotmarketing.business.CacheLocator;
 import com.dotmarketing.business.DotCacheAdministrator;
 import com.dotmarketing.business.DotCacheException;
@@ -40,9 +41,15 @@ public class DotResourceCache implements ResourceCache,Cachable {
 	
 	private String primaryGroup = "VelocityCache";
     private String macroCacheGroup = "VelocityMacroCache";
+    // bytes generated by the DotResourceLoader for the CMS velocity files, removed along with their resource
+    private String generatedCacheGroup = "VelocityGeneratedCache";
     // region's name for the cache
-    private String[] groupNames = {primaryGroup, macroCacheGroup};
+    private String[] groupNames = {primaryGroup, macroCacheGroup, generatedCacheGroup};
     private static final String MACRO_PREFIX ="MACRO_PREFIX";
+    // keys reused across lookups, the resources are prefixed with the group name
+    private final CacheKey.Group macroKeys = CacheKey.group(MACRO_PREFIX, macroCacheGroup);
+    private final CacheKey.Group primaryKeys = CacheKey.group(primaryGroup, primaryGroup);
+    private final CacheKey.Group generatedKeys = CacheKey.group(generatedCacheGroup);
     private final Set<String> ignoreGlobalVM;
     
     
@@ -65,7 +72,7 @@ public class DotResourceCache implements ResourceCache,Cachable {
       
       String[] rw = null;
       try {
-          rw = (String[]) cache.get(MACRO_PREFIX + name, macroCacheGroup);
+          rw = (String[]) cache.get(macroKeys.key(name));
       } catch ( DotCacheException e ) {
           Logger.debug(this, "Cache Entry not found", e);
       }
@@ -79,20 +86,40 @@ public class DotResourceCache implements ResourceCache,Cachable {
 			return;
 		}
 		String[] rw = {name, content};
-		cache.put(MACRO_PREFIX + name, rw, macroCacheGroup);
+		cache.put(macroKeys.key(name), rw);
     }
+	/**
+	 * Returns the source the {@link DotResourceLoader} generated for a CMS velocity file, it
+	 * stays cached until the resource is removed so evicting the parsed resource does not
+	 * rebuild the file
+	 * @param resourceKey
+	 * @return
+	 */
+	public byte[] getGenerated(Object resourceKey) {
+
+		byte[] data = null;
+		try {
+			data = (byte[]) cache.get(generatedKeys.key(cleanKey(resourceKey.toString())));
+		} catch ( DotCacheException e ) {
+			Logger.debug(this, "Cache Entry not found", e);
+		}
+		return data;
+	}
+
+	public void putGenerated(Object resourceKey, byte[] data) {
+		cache.put(generatedKeys.key(cleanKey(resourceKey.toString())), data);
+	}
+
 	/* (non-Javadoc)
 	 * @see org.apache.velocity.runtime.resource.ResourceCache#get(java.lang.Object)
 	 */
 	public Resource get(Object resourceKey) {
 
 		String cleanedResourceKey = cleanKey(resourceKey.toString());
-		String group = primaryGroup;
 
 		Resource resource=null;
-		String key = group + cleanedResourceKey;
 		try {
-		  resource = (Resource) cache.get(key, group);
+		  resource = (Resource) cache.get(primaryKeys.key(cleanedResourceKey));
 		} catch ( DotCacheException e ) {
 			Logger.debug(this, "Cache Entry not found", e);
 		}
@@ -123,13 +150,9 @@ public class DotResourceCache implements ResourceCache,Cachable {
 	    }
 
 		String cleanedResourceKey = cleanKey(resourceKey.toString());
-		String group = primaryGroup;
-
 
-
-		String key = group + cleanedResourceKey;
 		// Add the key to the cache
-		cache.put(key, resource, group);
+		cache.put(primaryKeys.key(cleanedResourceKey), resource);
 
         return resource;
 
@@ -148,6 +171,7 @@ public class DotResourceCache implements ResourceCache,Cachable {
 
     	try{
 	       cache.remove(key,group);
+	       cache.remove(generatedKeys.key(cleanedResourceKey));
 		} catch ( Exception e ) {
 			Logger.debug(this, e.getMessage(), e);
 		} 
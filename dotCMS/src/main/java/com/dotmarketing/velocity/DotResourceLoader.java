@@ -7,6 +7,12 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import com.dotcms.contenttype.business.ContentTypeAPI;
 import com.dotcms.contenttype.model.type.ContentType;
@@ -14,6 +20,7 @@ import com.dotcms.contenttype.transform.contenttype.StructureTransformer;
 import com.dotcms.repackage.org.apache.commons.collections.ExtendedProperties;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.velocity.exception.ResourceNotFoundException;
 import org.apache.velocity.runtime.resource.Resource;
 import org.apache.velocity.runtime.resource.loader.ResourceLoader;
@@ -74,10 +81,15 @@ public class DotResourceLoader extends ResourceLoader {
     private String VELOCITY_HOST_EXTENSION= null;
     private ContentletAPI conAPI = APILocator.getContentletAPI();
     private DotResourceCache resourceCache = CacheLocator.getVeloctyResourceCache();
+    // CMS velocity files being generated, concurrent loads of the same key wait for the same result
+    private final ConcurrentMap<String, CompletableFuture<byte[]>> inFlightLoads = new ConcurrentHashMap<>();
+    // how long a load waits for the same key to be generated by another thread before doing it itself
+    private final long loadWaitMillis = Config.getLongProperty("VELOCITY_LOAD_WAIT_MILLIS", 10000);
 
     private static String velocityCanoncalPath;
     private static String assetCanoncalPath;
     private static String assetRealCanoncalPath;
+    private static String dynamicContentCanoncalPath;
     private static DotResourceLoader instance;
 
     /* (non-Javadoc)
@@ -141,6 +153,11 @@ public class DotResourceLoader extends ResourceLoader {
         } catch (IOException e) {
             Logger.fatal(this,e.getMessage(),e);
         }
+        try {
+            dynamicContentCanoncalPath = new File(ConfigUtils.getDynamicContentPath()).getCanonicalPath();
+        } catch (IOException e) {
+            Logger.fatal(this,e.getMessage(),e);
+        }
         instance = this;
     }
 
@@ -165,67 +182,60 @@ public class DotResourceLoader extends ResourceLoader {
         long timer = System.currentTimeMillis();
         InputStream result = null;
 
-        synchronized (arg0.intern()) {
-	        try {
-	            if(!UtilMethods.isSet(arg0)) {
-	               throw new ResourceNotFoundException("cannot find resource");
-	            }
+        try {
+            Logger.debug(this, "Thread " + Thread.currentThread().getId() + ":" + Thread.currentThread().getName() + " VelocityKey " + arg0 + " Time " + timer);
 
-	            Logger.debug(this, "Thread " + Thread.currentThread().getId() + ":" + Thread.currentThread().getName() + " VelocityKey " + arg0 + " Time " + timer);
-
-	            if (isACMSVelocityFile(arg0)) {
-	            	result = new BufferedInputStream(generateStream(arg0));
-	            }else{
-	            	boolean serveFile = false;
-	            	Logger.debug(this, "Not a CMS Velocity File : " + arg0);
-
-	            	java.io.File f=null;
-	            	String lookingFor="";
-	            	if (arg0.startsWith("dynamic")) {
-	            		lookingFor =ConfigUtils.getDynamicContentPath() + File.separator +  "velocity" + File.separator+arg0;
-
-	            	} else {
-	            		lookingFor = VELOCITY_ROOT + arg0;
-	            	}
-	            	f = new java.io.File(lookingFor);
-	                if(!f.exists()){
-	                    f = new java.io.File(arg0);
-	                }
-	                if(!f.exists()){
-	                	throw new ResourceNotFoundException("cannot find resource");
-	                }
-	            	String canon = f.getCanonicalPath();
-	            	File dynamicContent=new File(ConfigUtils.getDynamicContentPath());
-
-	                if(assetRealCanoncalPath != null && canon.startsWith(assetRealCanoncalPath)){
-	                    serveFile = true;
-	                }
-	                else if(velocityCanoncalPath != null && canon.startsWith(velocityCanoncalPath)){
-	                    serveFile = true;
-	                }
-	                else if (assetCanoncalPath != null && canon.startsWith(assetCanoncalPath)){
-	                    serveFile = true;
-	                }
-	                else if (canon.startsWith(dynamicContent.getCanonicalPath())) {
-	                	serveFile =true;
-	                }
-	                if(!serveFile){
-	                    Logger.warn(this, "POSSIBLE HACK ATTACK DotResourceLoader: " + lookingFor);
-	                    throw new ResourceNotFoundException("cannot find resource");
-	                }
-	                result = new BufferedInputStream(new FileInputStream(f));
-	            }
-	        }catch (Exception e) {
-	            Logger.warn(this,"Error ocurred finding resource '" + arg0 + "' exception: " + e.toString());
-	            if(e instanceof ResourceNotFoundException){
-	            	throw (ResourceNotFoundException)e;
-	            }
-	            try {
-					result = new ByteArrayInputStream("".getBytes("UTF-8"));
-				} catch (UnsupportedEncodingException e1) {
-					Logger.error(DotResourceLoader.class,e1.getMessage(),e1);
-				}
-	        }
+            if (isACMSVelocityFile(arg0)) {
+            	result = new ByteArrayInputStream(loadVelocityFile(arg0));
+            }else{
+            	boolean serveFile = false;
+            	Logger.debug(this, "Not a CMS Velocity File : " + arg0);
+
+            	java.io.File f=null;
+            	String lookingFor="";
+            	if (arg0.startsWith("dynamic")) {
+            		lookingFor =ConfigUtils.getDynamicContentPath() + File.separator +  "velocity" + File.separator+arg0;
+
+            	} else {
+            		lookingFor = VELOCITY_ROOT + arg0;
+            	}
+            	f = new java.io.File(lookingFor);
+                if(!f.exists()){
+                    f = new java.io.File(arg0);
+                }
+                if(!f.exists()){
+                	throw new ResourceNotFoundException("cannot find resource");
+                }
+            	String canon = f.getCanonicalPath();
+
+                if(assetRealCanoncalPath != null && canon.startsWith(assetRealCanoncalPath)){
+                    serveFile = true;
+                }
+                else if(velocityCanoncalPath != null && canon.startsWith(velocityCanoncalPath)){
+                    serveFile = true;
+                }
+                else if (assetCanoncalPath != null && canon.startsWith(assetCanoncalPath)){
+                    serveFile = true;
+                }
+                else if (dynamicContentCanoncalPath != null && canon.startsWith(dynamicContentCanoncalPath)) {
+                	serveFile =true;
+                }
+                if(!serveFile){
+                    Logger.warn(this, "POSSIBLE HACK ATTACK DotResourceLoader: " + lookingFor);
+                    throw new ResourceNotFoundException("cannot find resource");
+                }
+                result = new BufferedInputStream(new FileInputStream(f));
+            }
+        }catch (Exception e) {
+            Logger.warn(this,"Error ocurred finding resource '" + arg0 + "' exception: " + e.toString());
+            if(e instanceof ResourceNotFoundException){
+            	throw (ResourceNotFoundException)e;
+            }
+            try {
+				result = new ByteArrayInputStream("".getBytes("UTF-8"));
+			} catch (UnsupportedEncodingException e1) {
+				Logger.error(DotResourceLoader.class,e1.getMessage(),e1);
+			}
         }
         if(result == null){
         	try {
@@ -239,6 +249,64 @@ public class DotResourceLoader extends ResourceLoader {
         return result;
     }
 
+    /**
+     * Returns the source of a CMS velocity file. The generated bytes are kept in the
+     * {@link DotResourceCache} until the resource is removed, and concurrent loads of the same
+     * key share a single generation while loads of different keys never wait for each other. A
+     * load waits at most VELOCITY_LOAD_WAIT_MILLIS for the generation in progress, then generates
+     * the file itself.
+     *
+     * @param arg0 the velocity key
+     * @return
+     * @throws Exception
+     */
+    private byte[] loadVelocityFile(final String arg0) throws Exception {
+
+        byte[] data = resourceCache.getGenerated(arg0);
+        if (data != null) {
+            return data;
+        }
+
+        final CompletableFuture<byte[]> load = new CompletableFuture<>();
+        final CompletableFuture<byte[]> inFlight = inFlightLoads.putIfAbsent(arg0, load);
+        if (inFlight != null) {
+            try {
+                return inFlight.get(loadWaitMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                Logger.debug(this, "Timed out waiting for " + arg0 + " to be generated, generating it again");
+                return generate(arg0);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Exception) {
+                    throw (Exception) e.getCause();
+                }
+                throw e;
+            }
+        }
+
+        try {
+            data = generate(arg0);
+            load.complete(data);
+            return data;
+        } catch (Throwable t) {
+            load.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlightLoads.remove(arg0, load);
+        }
+    }
+
+    private byte[] generate(final String arg0) throws Exception {
+
+        final byte[] data;
+        try (InputStream stream = generateStream(arg0)) {
+            data = (stream != null) ? IOUtils.toByteArray(stream) : new byte[0];
+        }
+        if (data.length > 0) {
+            resourceCache.putGenerated(arg0, data);
+        }
+        return data;
+    }
+
     @SuppressWarnings("resource")
     private InputStream generateStream(String arg0) throws Exception {
     	User user=APILocator.getUserAPI().getSystemUser();
@@ -555,35 +555,25 @@ public abstract class VelocityServlet extends HttpServlet {
     			}
     		}
     
-    		Writer out = (buildCache) ? new StringWriter(4096) : new VelocityFilterWriter(response.getWriter());
     		//get the context from the requst if possible
-    		Context context = VelocityUtil.getWebContext(request, response);
+    		final Context context = VelocityUtil.getWebContext(request, response);
     		request.setAttribute("velocityContext", context);
     		Logger.debug(VelocityServlet.class, "HTMLPage Identifier:" + ident.getInode());
 
-    		try {
-
-				if ( page.isContent() ) {
-					VelocityUtil.getEngine().getTemplate("/live/" + ident.getInode() + "_" + page.getLanguageId()
-							+ "." + VELOCITY_HTMLPAGE_EXTENSION).merge(context, out);
-				} else {
-					VelocityUtil.getEngine().getTemplate("/live/" + ident.getInode()
-							+ "." + VELOCITY_HTMLPAGE_EXTENSION).merge(context, out);
-				}
-
-			} catch (Throwable e) {
-    			Logger.warn(this, "can't do live mode merge", e);
-    		}
-    		session = request.getSession(false);
     		if (buildCache) {
-    			String trimmedPage = out.toString().trim();
+    			final IHTMLPage livePage = page;
+    			final Identifier liveIdent = ident;
+    			// concurrent misses for the same page version are rendered only once
+    			final String trimmedPage = CacheLocator.getBlockPageCache().render(page, cacheParameters, () -> {
+    				final Writer out = new StringWriter(4096);
+    				mergeLivePage(livePage, liveIdent, context, out);
+    				return out.toString().trim();
+    			});
     			response.getWriter().write(trimmedPage);
     			response.getWriter().close();
-    			synchronized (key.intern()) {
-    				//CacheLocator.getHTMLPageCache().remove(page);
-    				CacheLocator.getBlockPageCache().add(page, trimmedPage, cacheParameters);
-    			}
     		} else {
+    			final Writer out = new VelocityFilterWriter(response.getWriter());
+    			mergeLivePage(page, ident, context, out);
     			out.close();
     		}
 	    }
@@ -593,6 +583,25 @@ public abstract class VelocityServlet extends HttpServlet {
 
 	}
 
+	/**
+	 * Merges the live version of a page into the given writer.
+	 */
+	private void mergeLivePage(final IHTMLPage page, final Identifier ident, final Context context, final Writer out) {
+		try {
+
+			if ( page.isContent() ) {
+				VelocityUtil.getEngine().getTemplate("/live/" + ident.getInode() + "_" + page.getLanguageId()
+						+ "." + VELOCITY_HTMLPAGE_EXTENSION).merge(context, out);
+			} else {
+				VelocityUtil.getEngine().getTemplate("/live/" + ident.getInode()
+						+ "." + VELOCITY_HTMLPAGE_EXTENSION).merge(context, out);
+			}
+
+		} catch (Throwable e) {
+			Logger.warn(this, "can't do live mode merge", e);
+		}
+	}
+
 	@SuppressWarnings("unchecked")
 	public void doPreviewMode(HttpServletRequest request, HttpServletResponse response) throws Exception {
 
@@ -0,0 +1,73 @@
+package com.dotmarketing.viewtools.navigation;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.servlet.http.HttpServletRequest;
+
+import com.dotmarketing.business.APILocator;
+import com.dotmarketing.business.Role;
+import com.dotmarketing.business.web.WebAPILocator;
+import com.dotmarketing.exception.DotDataException;
+import com.liferay.portal.model.User;
+
+/**
+ * The roles a visitor reads the navigation with, resolved once per request, so filtering the
+ * menu items is a match against the precomputed read roles of every item (see
+ * {@link NavResult#getReadRoleIds()}) instead of a full permission check per item.
+ * <p>
+ * Same rules as a READ check that respects the front end roles: CMS Administrators read
+ * everything, and the items readable by the anonymous role, or by the logged in site user role
+ * for a logged in visitor, are readable by any of them.
+ * </p>
+ */
+final class NavReadAccess {
+
+    private static final String REQUEST_ATTRIBUTE = NavReadAccess.class.getName();
+
+    private final boolean admin;
+    private final Set<String> roleIds;
+
+    private NavReadAccess(boolean admin, Set<String> roleIds) {
+        this.admin = admin;
+        this.roleIds = roleIds;
+    }
+
+    /**
+     * @param request - The current request, or {@code null} to read as the anonymous user.
+     * @return The read access of the visitor of the request.
+     */
+    static NavReadAccess forRequest(HttpServletRequest request) throws DotDataException {
+        NavReadAccess access = request != null ? (NavReadAccess) request.getAttribute(REQUEST_ATTRIBUTE) : null;
+        if (access == null) {
+            final User loggedInUser = request != null ? WebAPILocator.getUserWebAPI().getLoggedInUser(request) : null;
+            access = forUser(loggedInUser);
+            if (request != null) {
+                request.setAttribute(REQUEST_ATTRIBUTE, access);
+            }
+        }
+        return access;
+    }
+
+    private static NavReadAccess forUser(User loggedInUser) throws DotDataException {
+        final User user = loggedInUser != null ? loggedInUser : APILocator.getUserAPI().getAnonymousUser();
+        if (APILocator.getUserAPI().isCMSAdmin(user)) {
+            return new NavReadAccess(true, Collections.<String>emptySet());
+        }
+        final Set<String> roleIds = new HashSet<String>();
+        for (Role role : APILocator.getRoleAPI().loadRolesForUser(user.getUserId())) {
+            roleIds.add(role.getId());
+        }
+        roleIds.add(APILocator.getRoleAPI().loadCMSAnonymousRole().getId());
+        if (loggedInUser != null) {
+            roleIds.add(APILocator.getRoleAPI().loadLoggedinSiteRole().getId());
+        }
+        return new NavReadAccess(false, roleIds);
+    }
+
+    boolean canRead(NavResult nav) throws DotDataException {
+        return admin || !Collections.disjoint(nav.getReadRoleIds(), roleIds);
+    }
+
+}
@@ -2,12 +2,12 @@ package com.dotmarketing.viewtools.navigation;
 
 import com.dotmarketing.beans.Host;
 import com.dotmarketing.beans.Identifier;
+import com.dotmarketing.beans.Permission;
 import com.dotmarketing.business.APILocator;
 import com.dotmarketing.business.PermissionAPI;
 import com.dotmarketing.business.PermissionSummary;
 import com.dotmarketing.business.Permissionable;
 import com.dotmarketing.business.RelatedPermissionableGroup;
-import com.dotmarketing.business.web.WebAPILocator;
 import com.dotmarketing.exception.DotDataException;
 import com.dotmarketing.exception.DotSecurityException;
 import com.dotmarketing.portlets.folders.business.FolderAPI;
@@ -28,8 +28,11 @@ import org.apache.velocity.tools.view.tools.ViewRenderTool;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 import javax.servlet.http.HttpServletRequest;
 
@@ -59,6 +62,7 @@ public class NavResult implements Iterable<NavResult>, Permissionable, Serializa
     private List<NavResult> children;
     private User sysuser=null;
     private boolean checkPermissions;
+    private transient volatile ReadRoles readRoles;
     
     public NavResult(String parent, String hostId, String folderId, Long languageId) {
         this.hostId=hostId;
@@ -172,49 +176,34 @@ public class NavResult implements Iterable<NavResult>, Permissionable, Serializa
         return folderId!=null;
     }
     
+    String getFolderId() {
+        return folderId;
+    }
+    
+    long getLanguageId() {
+        return languageId;
+    }
+    
     public List<NavResult> getChildren() throws Exception {
-        if(children==null && hostId!=null && folderId!=null) {
-            // lazy loadinge children
-            Host host=APILocator.getHostAPI().find(hostId, sysuser, true);
-            Folder folder=APILocator.getFolderAPI().find(folderId, sysuser, true);
-            Identifier ident=APILocator.getIdentifierAPI().find(folder);
-            NavResult lazyMe=NavTool.getNav(host, ident.getPath(), languageId, sysuser);
-            children=lazyMe.getChildren();
-            childrenFolderIds=lazyMe.getChildrenFolderIds();
+        List<NavResult> items=children;
+        if(items==null && hostId!=null && folderId!=null) {
+            // the children of a folder are read from the navigation tree of its site,
+            // they are not kept here so this item always shows the current ones
+            NavResult folder=NavTool.getNav(hostId, folderId, languageId);
+            items=folder!=null ? folder.children : null;
         }
-        if(children!=null) {
-            ArrayList<NavResult> list=new ArrayList<NavResult>();
-            for(NavResult nn : children) {
-                if(nn.isFolder()) {
-                    // for folders we avoid returning the same instance
-                    // it could be changed elsewhere and we need it to
-                    // load its children lazily
-                    NavResult ff=new NavResult(folderId,nn.hostId,nn.folderId,nn.languageId);
-                    ff.setTitle(nn.getTitle());
-                    ff.setHref(nn.getHref());
-                    ff.setOrder(nn.getOrder());
-                    ff.setType(nn.getType());
-                    ff.setPermissionId(nn.getPermissionId());
-                    ff.setShowOnMenu(nn.isShowOnMenu());
-                    list.add(ff);
-                }
-                else {
-                    list.add(nn);
-                }
-            }
-            
+        if(items!=null) {
             if(checkPermissions) {
                 // now filtering permissions
-                List<NavResult> allow=new ArrayList<NavResult>(list.size());
+                List<NavResult> allow=new ArrayList<NavResult>(items.size());
                 Context ctx=(VelocityContext) VelocityServlet.velocityCtx.get();
-                HttpServletRequest req=(HttpServletRequest) ctx.get("request");
-                User currentUser=WebAPILocator.getUserWebAPI().getLoggedInUser(req);
-                if(currentUser==null) currentUser=APILocator.getUserAPI().getAnonymousUser();
-                for(NavResult nv : list) {
+                HttpServletRequest req=ctx!=null ? (HttpServletRequest) ctx.get("request") : null;
+                NavReadAccess access=NavReadAccess.forRequest(req);
+                for(NavResult nv : items) {
                     try {
-                    if(APILocator.getPermissionAPI().doesUserHavePermission(nv, PermissionAPI.PERMISSION_READ, currentUser)) {
-                        allow.add(nv);
-                    }
+                        if(access.canRead(nv)) {
+                            allow.add(nv);
+                        }
                     }catch(Exception ex) {
                         Logger.error(this, ex.getMessage(), ex);
                     }
@@ -222,27 +211,36 @@ public class NavResult implements Iterable<NavResult>, Permissionable, Serializa
                 return allow;
             }
             else
-                return list;
+                return new ArrayList<NavResult>(items);
         }
         else {
             return new ArrayList<NavResult>();
         }
     }
     
+    /**
+     * Returns the ids of the roles that can read this item. They are computed once from the
+     * resolved permissions of the item and kept until those permissions change.
+     */
+    Set<String> getReadRoleIds() throws DotDataException {
+        List<Permission> permissions=APILocator.getPermissionAPI().getPermissions(this, true);
+        ReadRoles current=readRoles;
+        if(current==null || !current.permissions.equals(permissions)) {
+            current=new ReadRoles(permissions);
+            readRoles=current;
+        }
+        return current.roleIds;
+    }
+    
     public String getParentPath() throws DotDataException, DotSecurityException {
         if(parent==null) return null; // no parent! I'm the root folder
         if(parent.equals(FolderAPI.SYSTEM_FOLDER)) return "/";
-        Folder folder=APILocator.getFolderAPI().find(parent, sysuser, true);
-        Identifier ident=APILocator.getIdentifierAPI().find(folder);
-        return ident.getURI();
+        NavResult parentNav=NavTool.getNav(hostId, parent, languageId);
+        return parentNav!=null ? parentNav.getHref() : null;
     }
 
     public NavResult getParent() throws DotDataException, DotSecurityException {
-        String path=getParentPath();
-        if(path!=null) {
-            return NavTool.getNav(APILocator.getHostAPI().find(hostId,sysuser,true), path, languageId, sysuser);
-        }
-        else return null;
+        return parent!=null ? NavTool.getNav(hostId, parent, languageId) : null;
     }
     
     public String toString() {
@@ -369,4 +367,24 @@ public class NavResult implements Iterable<NavResult>, Permissionable, Serializa
         throw new IllegalStateException("unknow internal type "+type); // we shouldn't reach this point
     }
 
+    /**
+     * The ids of the roles with READ permission, and the permissions they were computed from.
+     */
+    private static final class ReadRoles {
+
+        private final List<Permission> permissions;
+        private final Set<String> roleIds;
+
+        private ReadRoles(List<Permission> permissions) {
+            Set<String> ids=new HashSet<String>();
+            for(Permission permission : permissions) {
+                if((permission.getPermission() & PermissionAPI.PERMISSION_READ) > 0) {
+                    ids.add(permission.getRoleId());
+                }
+            }
+            this.permissions=new ArrayList<Permission>(permissions);
+            this.roleIds=Collections.unmodifiableSet(ids);
+        }
+    }
+
 }
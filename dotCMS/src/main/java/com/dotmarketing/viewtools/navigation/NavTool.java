@@ -1,6 +1,5 @@
 package com.dotmarketing.viewtools.navigation;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import javax.servlet.http.HttpServletRequest;
@@ -9,23 +8,17 @@ import org.apache.velocity.tools.view.context.ViewContext;
 import org.apache.velocity.tools.view.tools.ViewTool;
 
 import com.dotmarketing.beans.Host;
-import com.dotmarketing.beans.Identifier;
 import com.dotmarketing.business.APILocator;
 import com.dotmarketing.business.CacheLocator;
 import com.dotmarketing.business.web.WebAPILocator;
 import com.dotmarketing.exception.DotDataException;
 import com.dotmarketing.exception.DotSecurityException;
-import com.dotmarketing.portlets.fileassets.business.IFileAsset;
 import com.dotmarketing.portlets.folders.business.FolderAPI;
 import com.dotmarketing.portlets.folders.model.Folder;
-import com.dotmarketing.portlets.htmlpageasset.model.IHTMLPage;
-import com.dotmarketing.portlets.links.model.Link;
-import com.dotmarketing.portlets.links.model.Link.LinkType;
 import com.dotmarketing.util.Logger;
 import com.dotmarketing.util.RegEX;
 import com.dotmarketing.util.RegExMatch;
 import com.dotmarketing.util.UtilMethods;
-import com.dotmarketing.viewtools.LanguageWebAPI;
 import com.liferay.portal.model.User;
 
 public class NavTool implements ViewTool {
@@ -67,125 +60,70 @@ public class NavTool implements ViewTool {
         	path = path.substring(0, path.lastIndexOf("/"));
         }
 
-        Folder folder=!path.equals("/") ? APILocator.getFolderAPI().findFolderByPath(path, host, systemUserParam, true) : APILocator.getFolderAPI().findSystemFolder();
-        if(folder==null || !UtilMethods.isSet(folder.getIdentifier()))
-            return null;
-        
-        NavResult result=CacheLocator.getNavToolCache().getNav(host.getIdentifier(), folder.getInode(), languageId);
+        NavTree tree=getNavTree(host.getIdentifier(), languageId);
+        String folderId=tree.getFolderId(path);
+        NavResult result=folderId!=null ? tree.getFolder(folderId) : null;
 
-        if(result != null) {
+        if(result != null && isCurrent(result, path)) {
         	
         	return result;
         	
         } else {
-        	String parentId;
-            if(!folder.getInode().equals(FolderAPI.SYSTEM_FOLDER)) {
-                Identifier ident=APILocator.getIdentifierAPI().find(folder);
-                parentId=ident.getParentPath().equals("/") ? 
-                        FolderAPI.SYSTEM_FOLDER : APILocator.getFolderAPI().findFolderByPath(ident.getParentPath(), host, systemUserParam, false).getInode();
-            } else {
-                parentId=null;
-            }
-            result=new NavResult(parentId, host.getIdentifier(),folder.getInode(),languageId);
-            Identifier ident=APILocator.getIdentifierAPI().find(folder);
-            result.setHref(ident.getURI());
-            result.setTitle(folder.getTitle());
-            result.setOrder(folder.getSortOrder());
-            result.setType("folder");
-            result.setPermissionId(folder.getPermissionId());
-            List<NavResult> children=new ArrayList<NavResult>();
-            List<String> folderIds=new ArrayList<String>();
-            result.setChildren(children);
-            result.setChildrenFolderIds(folderIds);
-            result.setShowOnMenu(folder.isShowOnMenu());
-
-            List menuItems;
-            if(path.equals("/"))
-                menuItems = APILocator.getFolderAPI().findSubFolders(host, true);
-            else
-                menuItems = APILocator.getFolderAPI().findMenuItems(folder, systemUserParam, true);
-            
-            for(Object item : menuItems) {
-                if(item instanceof Folder) {
-                    Folder itemFolder=(Folder)item;
-                    ident=APILocator.getIdentifierAPI().find(itemFolder);
-                    NavResult nav=new NavResult(folder.getInode(),host.getIdentifier(),itemFolder.getInode(),languageId);
-                    nav.setTitle(itemFolder.getTitle());
-                    nav.setHref(ident.getURI());
-                    nav.setOrder(itemFolder.getSortOrder());
-                    nav.setType("folder");
-                    nav.setPermissionId(itemFolder.getPermissionId());
-                    nav.setShowOnMenu(itemFolder.isShowOnMenu());
-                    
-                    // it will load lazily its children
-                    folderIds.add(itemFolder.getInode());
-                    children.add(nav);
-                }
-                else if(item instanceof IHTMLPage) {
-                	final String httpProtocol = "http://";
-                	final String httpsProtocol = "https://";
-                    IHTMLPage itemPage=(IHTMLPage)item;
-                    ident=APILocator.getIdentifierAPI().find(itemPage);
-
-                    String redirectUri = itemPage.getRedirect();
-                    NavResult nav=new NavResult(folder.getInode(),host.getIdentifier(),languageId);
-                    nav.setTitle(itemPage.getTitle());
-                    if(UtilMethods.isSet(redirectUri) && !redirectUri.startsWith("/")){
-                        if(redirectUri.startsWith(httpsProtocol) || redirectUri.startsWith(httpProtocol)){
-                      	  nav.setHref(redirectUri);	
-                        }else{
-                      	  	if(itemPage.isHttpsRequired())
-                      	  		nav.setHref(httpsProtocol+redirectUri);	
-                    		else	
-                    			nav.setHref(httpProtocol+redirectUri);
-                        }
-                      	
-                      }else{
-                      	nav.setHref(ident.getURI());
-                      }
-                    nav.setOrder(itemPage.getMenuOrder());
-                    nav.setType("htmlpage");
-                    nav.setPermissionId(itemPage.getPermissionId());
-                    nav.setShowOnMenu(itemPage.isShowOnMenu());
-                    if(!itemPage.isContent() || (itemPage.isContent() && (itemPage.getLanguageId() == languageId || LanguageWebAPI.canDefaultPageToDefaultLanguage()) )) {
-                    	children.add(nav);
-                    }
-                }
-                else if(item instanceof Link) {
-                    Link itemLink=(Link)item;
-                    NavResult nav=new NavResult(folder.getInode(),host.getIdentifier(),languageId);
-                    if(itemLink.getLinkType().equals(LinkType.CODE.toString()) && LinkType.CODE.toString() !=null  ) {
-                        nav.setCodeLink(itemLink.getLinkCode());
-                    }
-                    else {
-                        nav.setHref(itemLink.getWorkingURL());
-                    }
-                    nav.setTitle(itemLink.getTitle());
-                    nav.setOrder(itemLink.getSortOrder());
-                    nav.setType("link");
-                    nav.setTarget(itemLink.getTarget());
-                    nav.setPermissionId(itemLink.getPermissionId());
-                    nav.setShowOnMenu(itemLink.isShowOnMenu());
-                    children.add(nav);
-                }
-                else if(item instanceof IFileAsset) {
-                    IFileAsset itemFile=(IFileAsset)item;
-                    ident=APILocator.getIdentifierAPI().find(itemFile.getPermissionId());
-                    NavResult nav=new NavResult(folder.getInode(),host.getIdentifier(),languageId);
-                    nav.setTitle(itemFile.getFriendlyName());
-                    nav.setHref(ident.getURI());
-                    nav.setOrder(itemFile.getMenuOrder());
-                    nav.setType("file");
-                    nav.setPermissionId(itemFile.getPermissionId());
-                    nav.setShowOnMenu(itemFile.isShowOnMenu());
-                    children.add(nav);
+            // the folder changed, or was created, after the tree was loaded
+            Folder folder=!path.equals("/") ? APILocator.getFolderAPI().findFolderByPath(path, host, systemUserParam, true) : APILocator.getFolderAPI().findSystemFolder();
+            if(folder==null || !UtilMethods.isSet(folder.getIdentifier())) {
+                if(folderId!=null) {
+                    final String removedId=folderId;
+                    CacheLocator.getNavToolCache().updateNavTree(host.getIdentifier(), languageId, t -> t.withoutFolder(removedId));
                 }
+                return null;
             }
 
-            CacheLocator.getNavToolCache().putNav(host.getIdentifier(), folder.getInode(), result, languageId);
+            final NavResult loaded=NavTreeLoader.loadFolder(host, folder, languageId, systemUserParam);
+            CacheLocator.getNavToolCache().updateNavTree(host.getIdentifier(), languageId, t -> t.withFolder(loaded));
+            CacheLocator.getNavToolCache().putNav(host.getIdentifier(), folder.getInode(), loaded, languageId);
             
+            return loaded;
+        }
+    }
+
+    /**
+     * Returns the navigation of a folder by its inode.
+     */
+    static NavResult getNav(String hostId, String folderInode, long languageId) throws DotDataException, DotSecurityException {
+        NavResult result=getNavTree(hostId, languageId).getFolder(folderInode);
+        if(result != null && CacheLocator.getNavToolCache().getNav(hostId, folderInode, languageId) != null) {
             return result;
         }
+
+        Folder folder=APILocator.getFolderAPI().find(folderInode, systemUser, true);
+        if(folder==null || !UtilMethods.isSet(folder.getIdentifier())) {
+            return null;
+        }
+        String path=FolderAPI.SYSTEM_FOLDER.equals(folder.getInode()) ? "/" : APILocator.getIdentifierAPI().find(folder).getPath();
+        return getNav(APILocator.getHostAPI().find(hostId, systemUser, true), path, languageId, systemUser);
+    }
+
+    /**
+     * Returns the navigation tree of a site, loading it if needed.
+     */
+    private static NavTree getNavTree(final String hostId, final long languageId) throws DotDataException, DotSecurityException {
+        try {
+            return CacheLocator.getNavToolCache().getNavTree(hostId, languageId, () -> NavTreeLoader.load(hostId, languageId, systemUser));
+        } catch (DotDataException | DotSecurityException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new DotDataException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * The entry of a folder in the tree is current while its navigation is in the cache, as
+     * removing it tells the folder changed, and while its path is the requested one.
+     */
+    private static boolean isCurrent(NavResult folder, String path) {
+        return CacheLocator.getNavToolCache().getNav(folder.getHostId(), folder.getFolderId(), folder.getLanguageId()) != null
+                && (FolderAPI.SYSTEM_FOLDER.equals(folder.getFolderId()) || NavTree.normalize(folder.getHref()).equals(NavTree.normalize(path)));
     }
     
     /**
@@ -1,9 +1,31 @@
 package com.dotmarketing.viewtools.navigation;
 
+import java.util.concurrent.Callable;
+import java.util.function.UnaryOperator;
+
 import com.dotmarketing.business.Cachable;
 
 public interface NavToolCache extends Cachable {
     
+    /**
+     * Returns the navigation tree of a site in a language, loading it with the given loader if
+     * this server has none or if the cache was flushed since it was loaded. Concurrent loads of
+     * the same tree are coalesced: one thread runs the loader and the others wait for its result.
+     * The navigation of every folder of a loaded tree is also put in the cache, see
+     * {@link #getNav(String, String, long)}.
+     */
+    NavTree getNavTree(String hostid, long languageId, Callable<NavTree> loader) throws Exception;
+
+    /**
+     * Replaces the navigation tree of a site in a language with the result of the update, if
+     * this server has one. Concurrent updates are applied one after the other.
+     */
+    void updateNavTree(String hostid, long languageId, UnaryOperator<NavTree> update);
+
+    /**
+     * Returns the navigation of a folder. Removing it with the removeNav methods, on any
+     * server, tells that the entry of the folder in the navigation tree must be reloaded.
+     */
     NavResult getNav(String hostid, String folderInode, long languageId);
 
     void putNav(String hostid, String folderInode, NavResult result, long languageId);
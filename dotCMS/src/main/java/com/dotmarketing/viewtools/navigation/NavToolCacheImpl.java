@@ -2,6 +2,14 @@ package com.dotmarketing.viewtools.navigation;
 
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.UnaryOperator;
 
 import com.dotmarketing.beans.Identifier;
 import com.dotmarketing.business.APILocator;
@@ -11,6 +19,7 @@ import com.dotmarketing.business.DotCacheException;
 import com.dotmarketing.portlets.folders.business.FolderAPI;
 import com.dotmarketing.portlets.folders.model.Folder;
 import com.dotmarketing.portlets.languagesmanager.model.Language;
+import com.dotmarketing.util.Config;
 import com.dotmarketing.util.Logger;
 import com.dotmarketing.util.UtilMethods;
 
@@ -18,7 +27,18 @@ public class NavToolCacheImpl implements NavToolCache {
 
     public final String GROUP="navCache";
 
+    // the navigation of every folder of the loaded trees, kept apart from the tree markers so
+    // the folders of a big site can't push the trees out of their group
+    public final String FOLDER_GROUP="navFolderCache";
+
     private DotCacheAdministrator cache;
+
+    // navigation trees of this server, only used while their marker is in the cache group,
+    // so flushing the group on any server drops them
+    private final ConcurrentMap<String, NavTree> trees = new ConcurrentHashMap<>();
+
+    // tree loads in progress, keyed like the trees
+    private final ConcurrentMap<String, CompletableFuture<NavTree>> inFlightLoads = new ConcurrentHashMap<>();
     
     public NavToolCacheImpl() {
         cache = CacheLocator.getCacheAdministrator();
@@ -31,22 +51,83 @@ public class NavToolCacheImpl implements NavToolCache {
 
     @Override
     public String[] getGroups() {
-        return new String[] {GROUP};
+        return new String[] {GROUP, FOLDER_GROUP};
     }
 
     protected static String key(String hostid, String folderInode, long languageId) {
         return hostid + ":" + folderInode + ":" + languageId;
     }
 
+    protected static String treeKey(String hostid, long languageId) {
+        return hostid + ":navtree:" + languageId;
+    }
+
     @Override
     public void clearCache() {
+        trees.clear();
         cache.flushGroup(GROUP);
+        cache.flushGroup(FOLDER_GROUP);
+    }
+
+    @Override
+    public NavTree getNavTree(String hostid, long languageId, Callable<NavTree> loader) throws Exception {
+        final String treeKey = treeKey(hostid, languageId);
+        final NavTree tree = trees.get(treeKey);
+        if (tree != null && isMarked(treeKey)) {
+            return tree;
+        }
+
+        final CompletableFuture<NavTree> load = new CompletableFuture<>();
+        final CompletableFuture<NavTree> inFlight = inFlightLoads.putIfAbsent(treeKey, load);
+        if (inFlight != null) {
+            try {
+                return inFlight.get(Config.getLongProperty("NAVTOOL_LOAD_WAIT_MILLIS", 10000), TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                // The load we were waiting for failed, try it on this thread
+                Logger.debug(this, "Coalesced navigation tree load failed for: " + treeKey, e);
+                return loader.call();
+            } catch (TimeoutException e) {
+                // The load we were waiting for is stuck, don't hold this request any longer
+                Logger.debug(this, "Timed out waiting for the navigation tree load of: " + treeKey);
+                return loader.call();
+            }
+        }
+
+        try {
+            final NavTree loaded = loader.call();
+            for (NavResult folder : loaded.getFolders()) {
+                putNav(hostid, folder.getFolderId(), folder, languageId);
+            }
+            trees.put(treeKey, loaded);
+            cache.put(treeKey, Boolean.TRUE, GROUP);
+            load.complete(loaded);
+            return loaded;
+        } catch (Exception e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLoads.remove(treeKey, load);
+        }
+    }
+
+    @Override
+    public void updateNavTree(String hostid, long languageId, UnaryOperator<NavTree> update) {
+        trees.computeIfPresent(treeKey(hostid, languageId), (treeKey, tree) -> update.apply(tree));
+    }
+
+    private boolean isMarked(String treeKey) {
+        try {
+            return cache.get(treeKey, GROUP) != null;
+        } catch (DotCacheException e) {
+            Logger.warn(this, e.getMessage(), e);
+            return false;
+        }
     }
     
     @Override
     public NavResult getNav(String hostid, String folderInode, long languageId) {
         try {
-            return (NavResult)cache.get(key(hostid,folderInode, languageId), GROUP);
+            return (NavResult)cache.get(key(hostid,folderInode, languageId), FOLDER_GROUP);
         } catch (DotCacheException e) {
             Logger.warn(this, e.getMessage(), e);
             return null;
@@ -55,7 +136,7 @@ public class NavToolCacheImpl implements NavToolCache {
 
     @Override
     public void putNav(String hostid, String folderInode, NavResult result, long languageId) {
-        cache.put(key(hostid,folderInode, languageId), result, GROUP);
+        cache.put(key(hostid,folderInode, languageId), result, FOLDER_GROUP);
     }
 
     @Override
@@ -80,9 +161,10 @@ public class NavToolCacheImpl implements NavToolCache {
                     // here we catch the when it have been deleted
                     folder = null;
                 }
-                if(folder==null || !UtilMethods.isSet(folder.getIdentifier()) || !folder.isShowOnMenu()) {
-                    // if the folder have been deleted or should not be shown on menu lets 
-                    // remove cache recursively
+                if(folder==null || !UtilMethods.isSet(folder.getIdentifier()) || !folder.isShowOnMenu()
+                        || isMoved(hostid, folder, languageId)) {
+                    // if the folder have been deleted, should not be shown on menu or was moved
+                    // lets remove cache recursively, the paths of its subfolders changed too
                     LinkedList<String> ids=new LinkedList<String>();
                     ids.add(folderInode);
                     while(!ids.isEmpty()) {
@@ -90,13 +172,13 @@ public class NavToolCacheImpl implements NavToolCache {
                         NavResult nav=getNav(hostid, fid, languageId);
                         if(nav!=null)
                             ids.addAll(nav.getChildrenFolderIds());
-                        cache.remove(key(hostid,fid, languageId), GROUP);
+                        cache.remove(key(hostid,fid, languageId), FOLDER_GROUP);
                     }
                     return;
                 }
             }
             
-            cache.remove(key(hostid,folderInode, languageId), GROUP);
+            cache.remove(key(hostid,folderInode, languageId), FOLDER_GROUP);
             
         } catch (Exception e) {
             Logger.warn(this, e.getMessage(), e);
@@ -104,6 +186,15 @@ public class NavToolCacheImpl implements NavToolCache {
         
     }
 
+    /**
+     * Tells if the cached navigation of a folder has a different path than the folder.
+     */
+    private boolean isMoved(String hostid, Folder folder, long languageId) throws Exception {
+        final NavResult nav = getNav(hostid, folder.getInode(), languageId);
+        return nav != null && !NavTree.normalize(nav.getHref())
+                .equals(NavTree.normalize(APILocator.getIdentifierAPI().find(folder).getPath()));
+    }
+
     @Override
     public void removeNavByPath(String hostid, String path) {
         List<Language> allLanguages = APILocator.getLanguageAPI().getLanguages();
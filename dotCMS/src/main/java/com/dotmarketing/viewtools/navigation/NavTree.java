@@ -0,0 +1,132 @@
+package com.dotmarketing.viewtools.navigation;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import com.dotmarketing.portlets.folders.business.FolderAPI;
+
+/**
+ * Immutable snapshot of the navigation of a site in a language: the {@link NavResult} of every
+ * folder of the site, with its menu items already loaded, and an index of the folders by path.
+ * <p>
+ * A tree is never changed: {@link #withFolder(NavResult)} and {@link #withoutFolder(String)}
+ * return a copy with the entry of one folder replaced, so the readers of the current tree are
+ * never blocked by an update. The maps are copied, not the entries, so an update costs a copy
+ * of the references of the folders of the site.
+ * </p>
+ */
+public final class NavTree {
+
+    private final String hostId;
+    private final long languageId;
+    private final Map<String, NavResult> folders;
+    private final Map<String, String> folderIdsByPath;
+
+    NavTree(String hostId, long languageId, Map<String, NavResult> folders, Map<String, String> folderIdsByPath) {
+        this.hostId = hostId;
+        this.languageId = languageId;
+        this.folders = Collections.unmodifiableMap(folders);
+        this.folderIdsByPath = Collections.unmodifiableMap(folderIdsByPath);
+    }
+
+    public String getHostId() {
+        return hostId;
+    }
+
+    public long getLanguageId() {
+        return languageId;
+    }
+
+    /**
+     * @param folderInode - The inode of the folder, {@link FolderAPI#SYSTEM_FOLDER} for the root
+     *            of the site.
+     * @return The navigation of the folder, or {@code null} if the folder is not in the tree.
+     */
+    public NavResult getFolder(String folderInode) {
+        return folders.get(folderInode);
+    }
+
+    /**
+     * @param path - The path of the folder, with or without the trailing slash.
+     * @return The inode of the folder with that path when the tree was built, or {@code null}.
+     */
+    public String getFolderId(String path) {
+        return folderIdsByPath.get(normalize(path));
+    }
+
+    /**
+     * @return The navigation of all the folders of the tree.
+     */
+    public Collection<NavResult> getFolders() {
+        return folders.values();
+    }
+
+    public int size() {
+        return folders.size();
+    }
+
+    /**
+     * Returns a copy of this tree with the navigation of a folder added or replaced. If the path
+     * of the folder changed, the old path no longer points to it, and the subfolders under the
+     * old path are dropped, as their paths changed too; they are reloaded when read.
+     *
+     * @param folder - The navigation of the folder, with its children.
+     * @return The new tree.
+     */
+    public NavTree withFolder(NavResult folder) {
+        final Map<String, NavResult> newFolders = new HashMap<String, NavResult>(folders);
+        final Map<String, String> newPaths = new HashMap<String, String>(folderIdsByPath);
+        final NavResult previous = newFolders.put(folder.getFolderId(), folder);
+        if (previous != null && !pathOf(previous).equals(pathOf(folder))) {
+            final String oldPath = pathOf(previous);
+            newPaths.remove(oldPath, folder.getFolderId());
+            final String oldPrefix = oldPath.endsWith("/") ? oldPath : oldPath + "/";
+            final Iterator<Map.Entry<String, String>> paths = newPaths.entrySet().iterator();
+            while (paths.hasNext()) {
+                final Map.Entry<String, String> path = paths.next();
+                if (path.getKey().startsWith(oldPrefix) && !path.getValue().equals(folder.getFolderId())) {
+                    newFolders.remove(path.getValue());
+                    paths.remove();
+                }
+            }
+        }
+        newPaths.put(pathOf(folder), folder.getFolderId());
+        return new NavTree(hostId, languageId, newFolders, newPaths);
+    }
+
+    /**
+     * Returns a copy of this tree without a folder, e.g. because it was deleted.
+     *
+     * @param folderInode - The inode of the folder.
+     * @return The new tree, or this one if the folder is not in it.
+     */
+    public NavTree withoutFolder(String folderInode) {
+        if (!folders.containsKey(folderInode)) {
+            return this;
+        }
+        final Map<String, NavResult> newFolders = new HashMap<String, NavResult>(folders);
+        final Map<String, String> newPaths = new HashMap<String, String>(folderIdsByPath);
+        final NavResult previous = newFolders.remove(folderInode);
+        newPaths.remove(pathOf(previous), folderInode);
+        return new NavTree(hostId, languageId, newFolders, newPaths);
+    }
+
+    static String pathOf(NavResult folder) {
+        return FolderAPI.SYSTEM_FOLDER.equals(folder.getFolderId()) ? "/" : normalize(folder.getHref());
+    }
+
+    static String normalize(String path) {
+        if (path == null) {
+            return null;
+        }
+        String normalized = path.toLowerCase();
+        while (normalized.length() > 1 && normalized.endsWith("/")) {
+            normalized = normalized.substring(0, normalized.length() - 1);
+        }
+        return normalized;
+    }
+
+}
@@ -0,0 +1,396 @@
+package com.dotmarketing.viewtools.navigation;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.dotcms.content.elasticsearch.business.ContentletScrollIterator;
+import com.dotcms.contenttype.model.type.BaseContentType;
+import com.dotcms.contenttype.model.type.ContentType;
+import com.dotmarketing.beans.Host;
+import com.dotmarketing.beans.Identifier;
+import com.dotmarketing.business.APILocator;
+import com.dotmarketing.common.db.DotConnect;
+import com.dotmarketing.common.db.ResultRow;
+import com.dotmarketing.db.DbConnectionFactory;
+import com.dotmarketing.exception.DotDataException;
+import com.dotmarketing.exception.DotSecurityException;
+import com.dotmarketing.portlets.contentlet.model.Contentlet;
+import com.dotmarketing.portlets.fileassets.business.IFileAsset;
+import com.dotmarketing.portlets.folders.business.FolderAPI;
+import com.dotmarketing.portlets.folders.model.Folder;
+import com.dotmarketing.portlets.htmlpageasset.model.IHTMLPage;
+import com.dotmarketing.portlets.links.model.Link;
+import com.dotmarketing.portlets.links.model.Link.LinkType;
+import com.dotmarketing.portlets.structure.model.Structure;
+import com.dotmarketing.util.UtilMethods;
+import com.dotmarketing.viewtools.LanguageWebAPI;
+import com.liferay.portal.model.User;
+
+/**
+ * Loads the {@link NavTree} of a site. The whole tree is built with a few set based queries: one
+ * for the folders of the site, one for its menu links, one scroll over the index for its pages
+ * and files and chunked {@code in (...)} queries for the identifiers of the pages and files,
+ * instead of loading the menu items and the identifier of every item folder by folder.
+ * <p>
+ * {@link #loadFolder(Host, Folder, long, User)} loads the navigation of a single folder through
+ * the {@link FolderAPI}, to update a tree after a change.
+ * </p>
+ */
+final class NavTreeLoader {
+
+    private static final String FOLDERS_SQL = "select folder.inode, folder.title, folder.sort_order, folder.show_on_menu, "
+            + "identifier.parent_path, identifier.asset_name from folder, identifier "
+            + "where folder.identifier = identifier.id and identifier.host_inode = ? order by folder.sort_order, folder.name";
+
+    private static final String LINKS_SQL = "select links.inode, links.identifier, links.title, links.sort_order, "
+            + "links.protocal, links.url, links.target, links.link_type, links.link_code, identifier.parent_path "
+            + "from links, identifier, link_version_info where links.identifier = identifier.id "
+            + "and link_version_info.identifier = identifier.id and link_version_info.live_inode = links.inode "
+            + "and link_version_info.deleted = %s and links.show_on_menu = %s and identifier.host_inode = ? "
+            + "order by links.sort_order";
+
+    private static final String IDENTIFIERS_SQL = "select id, parent_path, asset_name from identifier where id in (";
+
+    private static final int CHUNK_SIZE = 200;
+
+    // menu items per shard read by every scroll request
+    private static final int SCROLL_BATCH_SIZE = 100;
+
+    private static final String SHOW_ON_MENU_FIELD = "showonmenu";
+
+    private static final Comparator<NavResult> MENU_ORDER = Comparator.comparingInt(NavResult::getOrder);
+
+    private static final String HTTP_PROTOCOL = "http://";
+    private static final String HTTPS_PROTOCOL = "https://";
+
+    private NavTreeLoader() {
+    }
+
+    /**
+     * Loads the navigation of all the folders of a site.
+     *
+     * @param hostId - The identifier of the site.
+     * @param languageId - The language of the pages.
+     * @param systemUser - The system user.
+     * @return The {@link NavTree} of the site.
+     */
+    static NavTree load(final String hostId, final long languageId, final User systemUser)
+            throws DotDataException, DotSecurityException {
+
+        final Map<String, String> folderIdsByPath = new HashMap<String, String>();
+        final Map<String, NavResult> folders = new HashMap<String, NavResult>();
+        final Map<String, List<NavResult>> children = new HashMap<String, List<NavResult>>();
+
+        final Folder systemFolder = APILocator.getFolderAPI().findSystemFolder();
+        folderIdsByPath.put("/", FolderAPI.SYSTEM_FOLDER);
+        folders.put(FolderAPI.SYSTEM_FOLDER, folderNav(null, hostId, systemFolder.getInode(), systemFolder.getTitle(),
+                APILocator.getIdentifierAPI().find(systemFolder).getURI(), systemFolder.getSortOrder(),
+                systemFolder.isShowOnMenu(), languageId));
+        children.put(FolderAPI.SYSTEM_FOLDER, new ArrayList<NavResult>());
+
+        // folders, sorted by menu order and name like the subfolders of the root
+        final List<FolderRow> folderRows = new DotConnect().setSQL(FOLDERS_SQL).addParam(hostId)
+                .loadMappedResults(FolderRow::new);
+        for (final FolderRow row : folderRows) {
+            folderIdsByPath.put(NavTree.normalize(row.path), row.inode);
+        }
+        for (final FolderRow row : folderRows) {
+            final String parentId = folderIdsByPath.get(NavTree.normalize(row.parentPath));
+            if (parentId != null) {
+                folders.put(row.inode, folderNav(parentId, hostId, row.inode, row.title, row.path, row.order,
+                        row.showOnMenu, languageId));
+                children.put(row.inode, new ArrayList<NavResult>());
+            }
+        }
+        for (final FolderRow row : folderRows) {
+            final String parentId = folderIdsByPath.get(NavTree.normalize(row.parentPath));
+            if (row.showOnMenu && children.containsKey(parentId) && folders.containsKey(row.inode)) {
+                // the children are not the entries of the folders, they get their own children from the tree
+                children.get(parentId).add(folderNav(parentId, hostId, row.inode, row.title, row.path, row.order,
+                        row.showOnMenu, languageId));
+            }
+        }
+
+        // live links, the root of the site only shows its folders
+        final DotConnect links = new DotConnect()
+                .setSQL(String.format(LINKS_SQL, DbConnectionFactory.getDBFalse(), DbConnectionFactory.getDBTrue()))
+                .addParam(hostId);
+        links.forEachRow(row -> {
+            final String folderId = folderIdsByPath.get(NavTree.normalize(row.getString("parent_path")));
+            if (children.containsKey(folderId) && !FolderAPI.SYSTEM_FOLDER.equals(folderId)) {
+                children.get(folderId).add(linkNav(folderId, hostId, toLink(row), languageId));
+            }
+        });
+
+        // live files and pages
+        final List<Contentlet> files = new ArrayList<Contentlet>();
+        final List<Contentlet> pages = new ArrayList<Contentlet>();
+        final String query = "+conHost:" + hostId + " +(structureType:" + Structure.STRUCTURE_TYPE_FILEASSET
+                + " OR structureType:" + Structure.STRUCTURE_TYPE_HTMLPAGE + ") +live:true -deleted:true"
+                + showOnMenuQuery(systemUser);
+        try (ContentletScrollIterator contents = APILocator.getContentletAPI().scroll(query, SCROLL_BATCH_SIZE,
+                systemUser, false)) {
+            while (contents.hasNext()) {
+                final Contentlet content = contents.next();
+                if (!children.containsKey(content.getFolder()) || FolderAPI.SYSTEM_FOLDER.equals(content.getFolder())
+                        || !isShowOnMenu(content)) {
+                    continue;
+                }
+                if (content.isFileAsset()) {
+                    files.add(content);
+                } else if (content.getLanguageId() == languageId || LanguageWebAPI.canDefaultPageToDefaultLanguage()) {
+                    pages.add(content);
+                }
+            }
+        }
+        final List<String> identifiers = new ArrayList<String>(files.size() + pages.size());
+        for (final Contentlet content : files) {
+            identifiers.add(content.getIdentifier());
+        }
+        for (final Contentlet content : pages) {
+            identifiers.add(content.getIdentifier());
+        }
+        final Map<String, String> uris = loadURIs(identifiers);
+        for (final Contentlet file : files) {
+            children.get(file.getFolder()).add(fileNav(file.getFolder(), hostId, file.getIdentifier(),
+                    file.getStringProperty("title"), uris.get(file.getIdentifier()), (int) file.getSortOrder(), true,
+                    languageId));
+        }
+        for (final Contentlet page : pages) {
+            children.get(page.getFolder()).add(pageNav(page.getFolder(), hostId, page.getIdentifier(),
+                    page.getStringProperty("title"), uris.get(page.getIdentifier()), page.getStringProperty("redirecturl"),
+                    "true".equals(page.getStringProperty("httpsreq")), (int) page.getSortOrder(), true, languageId));
+        }
+
+        for (final Map.Entry<String, List<NavResult>> entry : children.entrySet()) {
+            // stable sort: folders, links, files and pages keep that order within the same menu order
+            entry.getValue().sort(MENU_ORDER);
+            setChildren(folders.get(entry.getKey()), entry.getValue());
+        }
+        return new NavTree(hostId, languageId, folders, folderIdsByPath);
+    }
+
+    /**
+     * Loads the navigation of a single folder.
+     *
+     * @param host - The site of the folder.
+     * @param folder - The folder, the system folder for the root of the site.
+     * @param languageId - The language of the pages.
+     * @param user - The user to load the folders with.
+     * @return The navigation of the folder, with its children.
+     */
+    static NavResult loadFolder(final Host host, final Folder folder, final long languageId, final User user)
+            throws DotDataException, DotSecurityException {
+
+        final boolean root = FolderAPI.SYSTEM_FOLDER.equals(folder.getInode());
+        String parentId = null;
+        if (!root) {
+            final Identifier ident = APILocator.getIdentifierAPI().find(folder);
+            parentId = ident.getParentPath().equals("/") ? FolderAPI.SYSTEM_FOLDER
+                    : APILocator.getFolderAPI().findFolderByPath(ident.getParentPath(), host, user, false).getInode();
+        }
+        final NavResult result = folderNav(parentId, host.getIdentifier(), folder.getInode(), folder.getTitle(),
+                APILocator.getIdentifierAPI().find(folder).getURI(), folder.getSortOrder(), folder.isShowOnMenu(),
+                languageId);
+
+        final List<NavResult> children = new ArrayList<NavResult>();
+        final List<?> menuItems = root ? APILocator.getFolderAPI().findSubFolders(host, true)
+                : APILocator.getFolderAPI().findMenuItems(folder, user, true);
+        for (final Object item : menuItems) {
+            if (item instanceof Folder) {
+                final Folder itemFolder = (Folder) item;
+                children.add(folderNav(folder.getInode(), host.getIdentifier(), itemFolder.getInode(),
+                        itemFolder.getTitle(), APILocator.getIdentifierAPI().find(itemFolder).getURI(),
+                        itemFolder.getSortOrder(), itemFolder.isShowOnMenu(), languageId));
+            } else if (item instanceof IHTMLPage) {
+                final IHTMLPage itemPage = (IHTMLPage) item;
+                if (!itemPage.isContent() || itemPage.getLanguageId() == languageId
+                        || LanguageWebAPI.canDefaultPageToDefaultLanguage()) {
+                    children.add(pageNav(folder.getInode(), host.getIdentifier(), itemPage.getPermissionId(),
+                            itemPage.getTitle(), APILocator.getIdentifierAPI().find(itemPage).getURI(),
+                            itemPage.getRedirect(), itemPage.isHttpsRequired(), itemPage.getMenuOrder(),
+                            itemPage.isShowOnMenu(), languageId));
+                }
+            } else if (item instanceof Link) {
+                children.add(linkNav(folder.getInode(), host.getIdentifier(), (Link) item, languageId));
+            } else if (item instanceof IFileAsset) {
+                final IFileAsset itemFile = (IFileAsset) item;
+                children.add(fileNav(folder.getInode(), host.getIdentifier(), itemFile.getPermissionId(),
+                        itemFile.getFriendlyName(), APILocator.getIdentifierAPI().find(itemFile.getPermissionId()).getURI(),
+                        itemFile.getMenuOrder(), itemFile.isShowOnMenu(), languageId));
+            }
+        }
+        setChildren(result, children);
+        return result;
+    }
+
+    private static void setChildren(final NavResult folder, final List<NavResult> children) {
+        final List<String> folderIds = new ArrayList<String>();
+        for (final NavResult child : children) {
+            if (child.isFolder()) {
+                folderIds.add(child.getFolderId());
+            }
+        }
+        folder.setChildren(Collections.unmodifiableList(children));
+        folder.setChildrenFolderIds(Collections.unmodifiableList(folderIds));
+    }
+
+    private static NavResult folderNav(final String parentId, final String hostId, final String folderInode,
+            final String title, final String href, final int order, final boolean showOnMenu, final long languageId) {
+        final NavResult nav = new NavResult(parentId, hostId, folderInode, languageId);
+        nav.setTitle(title);
+        nav.setHref(href);
+        nav.setOrder(order);
+        nav.setType("folder");
+        nav.setPermissionId(folderInode);
+        nav.setShowOnMenu(showOnMenu);
+        return nav;
+    }
+
+    private static NavResult pageNav(final String folderId, final String hostId, final String identifier,
+            final String title, final String uri, final String redirectUri, final boolean httpsRequired,
+            final int order, final boolean showOnMenu, final long languageId) {
+        final NavResult nav = new NavResult(folderId, hostId, languageId);
+        nav.setTitle(title);
+        if (UtilMethods.isSet(redirectUri) && !redirectUri.startsWith("/")) {
+            if (redirectUri.startsWith(HTTPS_PROTOCOL) || redirectUri.startsWith(HTTP_PROTOCOL)) {
+                nav.setHref(redirectUri);
+            } else {
+                nav.setHref((httpsRequired ? HTTPS_PROTOCOL : HTTP_PROTOCOL) + redirectUri);
+            }
+        } else {
+            nav.setHref(uri);
+        }
+        nav.setOrder(order);
+        nav.setType("htmlpage");
+        nav.setPermissionId(identifier);
+        nav.setShowOnMenu(showOnMenu);
+        return nav;
+    }
+
+    private static NavResult linkNav(final String folderId, final String hostId, final Link link, final long languageId) {
+        final NavResult nav = new NavResult(folderId, hostId, languageId);
+        if (LinkType.CODE.toString().equals(link.getLinkType())) {
+            nav.setCodeLink(link.getLinkCode());
+        } else {
+            nav.setHref(link.getWorkingURL());
+        }
+        nav.setTitle(link.getTitle());
+        nav.setOrder(link.getSortOrder());
+        nav.setType("link");
+        nav.setTarget(link.getTarget());
+        nav.setPermissionId(link.getPermissionId());
+        nav.setShowOnMenu(link.isShowOnMenu());
+        return nav;
+    }
+
+    private static NavResult fileNav(final String folderId, final String hostId, final String identifier,
+            final String title, final String uri, final int order, final boolean showOnMenu, final long languageId) {
+        final NavResult nav = new NavResult(folderId, hostId, languageId);
+        nav.setTitle(title);
+        nav.setHref(uri);
+        nav.setOrder(order);
+        nav.setType("file");
+        nav.setPermissionId(identifier);
+        nav.setShowOnMenu(showOnMenu);
+        return nav;
+    }
+
+    private static Link toLink(final ResultRow row) throws SQLException {
+        final Link link = new Link();
+        link.setInode(row.getString("inode"));
+        link.setIdentifier(row.getString("identifier"));
+        link.setTitle(row.getString("title"));
+        link.setSortOrder(row.getInt("sort_order"));
+        link.setProtocal(row.getString("protocal"));
+        link.setUrl(row.getString("url"));
+        link.setTarget(row.getString("target"));
+        link.setLinkType(row.getString("link_type"));
+        link.setLinkCode(row.getString("link_code"));
+        link.setShowOnMenu(true);
+        return link;
+    }
+
+    /**
+     * Builds the clause that only matches the files and pages shown on menu, so the items that are
+     * not on the menu are neither read from the index nor loaded.
+     */
+    private static String showOnMenuQuery(final User systemUser) throws DotDataException, DotSecurityException {
+        final List<ContentType> types = new ArrayList<ContentType>(
+                APILocator.getContentTypeAPI(systemUser).findByType(BaseContentType.FILEASSET));
+        types.addAll(APILocator.getContentTypeAPI(systemUser).findByType(BaseContentType.HTMLPAGE));
+        if (types.isEmpty()) {
+            return "";
+        }
+        final List<String> clauses = new ArrayList<String>(types.size());
+        for (final ContentType type : types) {
+            clauses.add(type.variable().toLowerCase() + "." + SHOW_ON_MENU_FIELD + ":*true*");
+        }
+        return " +(" + String.join(" ", clauses) + ")";
+    }
+
+    private static boolean isShowOnMenu(final Contentlet content) {
+        final String showOnMenu = content.getStringProperty("showOnMenu");
+        return showOnMenu != null && showOnMenu.contains("true");
+    }
+
+    /**
+     * Reads the URIs of the given identifiers with chunked {@code in (...)} queries.
+     */
+    private static Map<String, String> loadURIs(final Collection<String> identifiers) throws DotDataException {
+        final Map<String, String> uris = new HashMap<String, String>();
+        final List<String> ids = new ArrayList<String>(identifiers);
+        for (int init = 0; init < ids.size(); init += CHUNK_SIZE) {
+            final List<String> chunk = ids.subList(init, Math.min(init + CHUNK_SIZE, ids.size()));
+            final DotConnect dc = new DotConnect()
+                    .setSQL(IDENTIFIERS_SQL + String.join(",", Collections.nCopies(chunk.size(), "?")) + ")");
+            for (final String id : chunk) {
+                dc.addParam(id);
+            }
+            dc.forEachRow(row -> {
+                final String parentPath = row.getString("parent_path");
+                uris.put(row.getString("id"), (UtilMethods.isSet(parentPath) ? parentPath : "")
+                        + row.getString("asset_name"));
+            });
+        }
+        return uris;
+    }
+
+    private static boolean toBoolean(final Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        } else if (value instanceof Number) {
+            return ((Number) value).intValue() != 0;
+        }
+        return value != null && DbConnectionFactory.isDBTrue(value.toString());
+    }
+
+    /**
+     * The columns of a folder used by the navigation.
+     */
+    private static final class FolderRow {
+
+        private final String inode;
+        private final String title;
+        private final int order;
+        private final boolean showOnMenu;
+        private final String parentPath;
+        private final String path;
+
+        private FolderRow(final ResultRow row) throws SQLException {
+            this.inode = row.getString("inode");
+            this.title = row.getString("title");
+            this.order = row.getInt("sort_order");
+            this.showOnMenu = toBoolean(row.getObject("show_on_menu"));
+            this.parentPath = row.getString("parent_path");
+            this.path = this.parentPath + row.getString("asset_name");
+        }
+    }
+
+}
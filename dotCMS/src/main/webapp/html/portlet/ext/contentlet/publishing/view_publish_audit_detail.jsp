@@ -140,6 +140,26 @@
     </tr>
 </table>
 
+<% if(!currentEndpointHistory.getHandlerTimes().isEmpty()) {%>
+<div>&nbsp;</div>
+<table class="listingTable shadowBox">
+    <tr>
+        <th><strong><%= LanguageUtil.get(pageContext, "publisher_Audit_Handler") %></strong></th>
+        <th><strong><%= LanguageUtil.get(pageContext, "publisher_Audit_Handler_Time") %></strong></th>
+    </tr>
+    <% for(Map.Entry<String, Long> handlerTime : currentEndpointHistory.getHandlerTimes().entrySet()) {%>
+    <tr>
+        <td nowrap="nowrap" valign="top"><%=UtilMethods.xmlEscape(handlerTime.getKey())%></td>
+        <td valign="top"><%=handlerTime.getValue()%></td>
+    </tr>
+    <%}%>
+    <tr>
+        <td nowrap="nowrap" valign="top"><%= LanguageUtil.get(pageContext, "publisher_Audit_Indexed_Contents") %>: <%=currentEndpointHistory.getIndexedContents()%></td>
+        <td valign="top"><%=currentEndpointHistory.getIndexTime()%></td>
+    </tr>
+</table>
+<%}%>
+
 <div>&nbsp;</div>
 <table class="listingTable shadowBox">
     <tr>
@@ -0,0 +1,88 @@
+package com.dotcms.api.system.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.dotcms.api.system.event.dto.SystemEventDTO;
+import com.dotcms.util.marshal.MarshalUtils;
+
+/**
+ * Test for the delivery, cluster relay and batched persistence of the {@link SystemEventsBus}
+ */
+public class SystemEventsBusTest {
+
+    private final List<SystemEvent> delivered = new CopyOnWriteArrayList<>();
+    private final List<String> sent = new CopyOnWriteArrayList<>();
+    private final List<List<SystemEventDTO>> persisted = new CopyOnWriteArrayList<>();
+    private final MarshalUtils marshalUtils = mock(MarshalUtils.class);
+    private SystemEventsBus bus;
+
+    @After
+    public void shutdown() {
+        if (bus != null) {
+            bus.shutdown();
+        }
+    }
+
+    @Test
+    public void testPublishDeliversRelaysAndPersistsInBatches() throws Exception {
+
+        final CountDownLatch persistedLatch = new CountDownLatch(1);
+        bus = new SystemEventsBus(delivered::add, () -> sent::add, events -> {
+            persisted.add(new ArrayList<>(events));
+            persistedLatch.countDown();
+        }, Runnable::run, marshalUtils, () -> "server1", 60000, 2);
+        when(marshalUtils.marshal(any())).thenReturn("{\"data\":\"a|b\"}");
+
+        bus.publish(new SystemEvent("event1", SystemEventType.NOTIFICATION, new Payload("a|b"), new Date(10)));
+        bus.publish(new SystemEvent("event2", SystemEventType.NOTIFICATION, new Payload("c"), new Date(20)));
+
+        assertTrue(persistedLatch.await(10, TimeUnit.SECONDS));
+        assertEquals(2, delivered.size());
+        assertEquals("event1", delivered.get(0).getId());
+        assertEquals(2, sent.size());
+        assertEquals(SystemEventsBus.CLUSTER_MESSAGE_PREFIX + "server1|event1|NOTIFICATION|10|{\"data\":\"a|b\"}", sent.get(0));
+        assertEquals(1, persisted.size());
+        assertEquals(2, persisted.get(0).size());
+        assertEquals("event2", persisted.get(0).get(1).getId());
+    }
+
+    @Test
+    public void testReceiveIgnoresOwnMessages() throws Exception {
+
+        final CountDownLatch deliveredLatch = new CountDownLatch(1);
+        bus = new SystemEventsBus(event -> {
+            delivered.add(event);
+            deliveredLatch.countDown();
+        }, () -> null, events -> persisted.add(events), Runnable::run, marshalUtils, () -> "server1", 60000, 100);
+        final Payload payload = new Payload("a|b");
+        when(marshalUtils.unmarshal(eq("{\"data\":\"a|b\"}"), eq(Payload.class))).thenReturn(payload);
+
+        bus.receive(SystemEventsBus.CLUSTER_MESSAGE_PREFIX + "server1|event1|NOTIFICATION|10|{\"data\":\"a|b\"}");
+        bus.receive(SystemEventsBus.CLUSTER_MESSAGE_PREFIX + "server2|event2|NOTIFICATION|20|{\"data\":\"a|b\"}");
+
+        assertTrue(deliveredLatch.await(10, TimeUnit.SECONDS));
+        bus.shutdown();
+        assertEquals(1, delivered.size());
+        assertEquals("event2", delivered.get(0).getId());
+        assertEquals(20, delivered.get(0).getCreationDate().getTime());
+        assertEquals(payload, delivered.get(0).getPayload());
+        // events from other nodes are stored by the node that published them
+        assertEquals(Collections.emptyList(), persisted);
+    }
+}
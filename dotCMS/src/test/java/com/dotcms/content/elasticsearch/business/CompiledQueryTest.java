@@ -0,0 +1,155 @@
+package com.dotcms.content.elasticsearch.business;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link CompiledQuery}. The translated shapes are the ones
+ * {@code ESContentFactoryImpl.findAndReplaceQueryDates} gives for the placeholder dates.
+ */
+public class CompiledQueryTest {
+
+	/**
+	 * A date field is translated to its Lucene date followed by a wildcard
+	 */
+	@Test
+	public void testDate() {
+
+		final List<String> dates = new ArrayList<>();
+		final String shape = CompiledQuery.parameterize("+news.sysPublishDate:1/5/2026 +title:dotcms", dates);
+
+		assertEquals("+news.sysPublishDate:01/01/1000 +title:dotcms", shape);
+		assertEquals(Arrays.asList("1/5/2026"), dates);
+
+		final CompiledQuery compiled = CompiledQuery.compile("+news.syspublishdate:10000101* +title:dotcms", dates.size());
+
+		assertTrue(compiled.isBindable());
+		assertEquals("+news.syspublishdate:20260105* +title:dotcms", compiled.bind(dates));
+	}
+
+	/**
+	 * A date with a time is translated to a Lucene date time, the time is kept from the shape
+	 */
+	@Test
+	public void testDateTime() {
+
+		final List<String> dates = new ArrayList<>();
+		final String shape = CompiledQuery.parameterize("+news.sysPublishDate:\"10/18/2026 10:30:00\"", dates);
+
+		assertEquals("+news.sysPublishDate:\"01/01/1000 10:30:00\"", shape);
+
+		final CompiledQuery compiled = CompiledQuery.compile("+news.syspublishdate:10000101103000", dates.size());
+
+		assertEquals("+news.syspublishdate:20261018103000", compiled.bind(dates));
+	}
+
+	/**
+	 * The bounds of a date time range get the first and last second of the day
+	 */
+	@Test
+	public void testRange() {
+
+		final List<String> dates = new ArrayList<>();
+		final String shape = CompiledQuery.parameterize("+news.sysPublishDate:[01/01/2000 to 10/18/2026]", dates);
+
+		assertEquals("+news.sysPublishDate:[01/01/1000 to 01/01/1001]", shape);
+		assertEquals(Arrays.asList("01/01/2000", "10/18/2026"), dates);
+
+		final CompiledQuery compiled = CompiledQuery.compile("+news.syspublishdate:[10000101000000 to 10010101235959]", dates.size());
+
+		assertEquals("+news.syspublishdate:[20000101000000 to 20261018235959]", compiled.bind(dates));
+
+		// the same compiled query binds the dates of another query with the same shape
+		final List<String> otherDates = new ArrayList<>();
+		assertEquals(shape, CompiledQuery.parameterize("+news.sysPublishDate:[06/01/2026 to 06/30/2026]", otherDates));
+		assertEquals("+news.syspublishdate:[20260601000000 to 20260630235959]", compiled.bind(otherDates));
+	}
+
+	/**
+	 * The placeholders may end up in another order after the translation
+	 */
+	@Test
+	public void testPlaceholdersInAnotherOrder() {
+
+		final List<String> dates = Arrays.asList("01/01/2000", "10/18/2026");
+		final CompiledQuery compiled = CompiledQuery.compile("+b:10010101* +a:10000101*", dates.size());
+
+		assertEquals("+b:20261018* +a:20000101*", compiled.bind(dates));
+	}
+
+	/**
+	 * A date that is not in a date field is not translated, only escaped
+	 */
+	@Test
+	public void testVerbatimDate() {
+
+		final List<String> dates = new ArrayList<>();
+		CompiledQuery.parameterize("+title:10/18/2026", dates);
+
+		final CompiledQuery compiled = CompiledQuery.compile("+title:01\\/01\\/1000", dates.size());
+
+		assertEquals("+title:10\\/18\\/2026", compiled.bind(dates));
+	}
+
+	@Test
+	public void testQueryWithoutDates() {
+
+		final List<String> dates = new ArrayList<>();
+		final String query = "+contentType:news +title:dotcms";
+
+		assertSame(query, CompiledQuery.parameterize(query, dates));
+		assertTrue(dates.isEmpty());
+		assertEquals("+contenttype:news +title:dotcms", CompiledQuery.compile("+contenttype:news +title:dotcms", 0).bind(dates));
+	}
+
+	/**
+	 * Numbers that look like a date but are part of a longer token are not parameters
+	 */
+	@Test
+	public void testDateLiteralInsideAnotherToken() {
+
+		final List<String> dates = new ArrayList<>();
+		final String query = "+path:/news/10/18/2026/ +number:110/18/20261";
+
+		assertSame(query, CompiledQuery.parameterize(query, dates));
+		assertTrue(dates.isEmpty());
+	}
+
+	@Test
+	public void testTooManyDates() {
+
+		final List<String> dates = new ArrayList<>();
+		final StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < 101; i++) {
+			builder.append(" +a").append(i).append(":10/18/2026");
+		}
+		final String query = builder.toString();
+
+		assertSame(query, CompiledQuery.parameterize(query, dates));
+		assertTrue(dates.isEmpty());
+	}
+
+	/**
+	 * A placeholder missing, or found twice, can't be bound
+	 */
+	@Test
+	public void testNotBindable() {
+
+		assertFalse(CompiledQuery.compile("+news.syspublishdate:*", 1).isBindable());
+		assertFalse(CompiledQuery.compile("+a:10000101* +b:01\\/01\\/1000", 1).isBindable());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testBindNotBindable() {
+
+		CompiledQuery.compile("+news.syspublishdate:*", 1).bind(Arrays.asList("10/18/2026"));
+	}
+}
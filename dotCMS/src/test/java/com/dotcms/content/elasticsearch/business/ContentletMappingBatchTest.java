@@ -0,0 +1,308 @@
+package com.dotcms.content.elasticsearch.business;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+import com.dotcms.UnitTestBase;
+import com.dotmarketing.common.db.DotConnect;
+import com.dotmarketing.common.db.ResultRow;
+import com.dotmarketing.common.db.RowCallback;
+import com.dotmarketing.exception.DotDataException;
+import com.dotmarketing.portlets.contentlet.model.Contentlet;
+import com.dotmarketing.portlets.workflows.model.WorkflowTask;
+
+/**
+ * Test for {@link ContentletMappingBatch}, the rows of the queries are served from memory
+ */
+public class ContentletMappingBatchTest extends UnitTestBase {
+
+	private static final String[] TREE_COLUMNS = { "parent", "child", "relation_type", "tree_order" };
+
+	/**
+	 * The ids are split in chunks of at most CHUNK_SIZE, keeping their order
+	 */
+	@Test
+	public void testChunks() {
+
+		final List<String> ids = new ArrayList<>();
+		for (int i = 0; i < ContentletMappingBatch.CHUNK_SIZE * 2 + 50; i++) {
+			ids.add("id" + i);
+		}
+
+		final List<List<String>> chunks = ContentletMappingBatch.chunks(ids);
+
+		assertEquals(3, chunks.size());
+		assertEquals(ContentletMappingBatch.CHUNK_SIZE, chunks.get(0).size());
+		assertEquals(ContentletMappingBatch.CHUNK_SIZE, chunks.get(1).size());
+		assertEquals(50, chunks.get(2).size());
+		assertEquals("id0", chunks.get(0).get(0));
+		assertEquals("id" + ContentletMappingBatch.CHUNK_SIZE, chunks.get(1).get(0));
+		assertEquals("id" + (ids.size() - 1), chunks.get(2).get(49));
+	}
+
+	@Test
+	public void testNoChunksWithoutIds() {
+		assertTrue(ContentletMappingBatch.chunks(new ArrayList<>()).isEmpty());
+	}
+
+	@Test
+	public void testPlaceholders() {
+
+		assertEquals("", ContentletMappingBatch.placeholders(0));
+		assertEquals("?", ContentletMappingBatch.placeholders(1));
+		assertEquals("?,?,?", ContentletMappingBatch.placeholders(3));
+	}
+
+	/**
+	 * The query gets one placeholder per id, followed by the suffix
+	 */
+	@Test
+	public void testQuery() {
+
+		assertEquals("select * from workflow_task where webasset in (?,?) order by id",
+				ContentletMappingBatch.query(new DotConnect(), "select * from workflow_task where webasset in (",
+						Arrays.asList("id1", "id2"), ") order by id").getSQL());
+	}
+
+	/**
+	 * The relationship rows read for the whole batch are the same, in the same order, as the ones
+	 * read by the query of every identifier, null and empty columns included
+	 */
+	@Test
+	public void testTreeRowsMatchThePerRowQuery() throws DotDataException {
+
+		final Supplier<DotConnect> tree = () -> new TableDotConnect(Arrays.asList(
+				row("parent", "id1", "child", "id2", "relation_type", "Parent-Child", "tree_order", 0),
+				row("parent", "id3", "child", "id1", "relation_type", "Other-Parent", "tree_order", 1),
+				row("parent", "id1", "child", "id1", "relation_type", "", "tree_order", 2),
+				row("parent", "id4", "child", "id2", "relation_type", null, "tree_order", 3)),
+				"parent", "child");
+		final List<String> ids = Arrays.asList("id1", "id2", "id5");
+
+		final ContentletMappingBatch batch = new ContentletMappingBatch(tree);
+		batch.loadTreeRows(ids);
+		final ContentletMappingBatch perRow = new ContentletMappingBatch(tree);
+
+		for (final String id : ids) {
+			assertEquals(id, treeColumns(perRow.getTreeRows(id)), treeColumns(batch.getTreeRows(id)));
+		}
+		assertEquals(3, batch.getTreeRows("id1").size());
+		assertEquals(2, batch.getTreeRows("id2").size());
+		assertTrue(batch.getTreeRows("id5").isEmpty());
+	}
+
+	/**
+	 * The workflow tasks have the values of their rows, the first row of an identifier wins and
+	 * an identifier without a task has none
+	 */
+	@Test
+	public void testWorkflowTasksMapTheRowValues() throws DotDataException {
+
+		final Timestamp modDate = new Timestamp(1000L);
+		final ContentletMappingBatch batch = new ContentletMappingBatch(() -> new TableDotConnect(Arrays.asList(
+				row("id", "task1", "webasset", "id1", "created_by", "user1", "assigned_to", "role1",
+						"status", "step1", "mod_date", modDate),
+				row("id", "task2", "webasset", "id2", "created_by", "user2", "assigned_to", null,
+						"status", "", "mod_date", null),
+				row("id", "task3", "webasset", "id1", "created_by", "user3", "assigned_to", "role3",
+						"status", "step3", "mod_date", modDate)),
+				"webasset"));
+		batch.loadWorkflowTasks(Arrays.asList("id1", "id2", "id3"));
+
+		final WorkflowTask task1 = batch.getWorkflowTask(contentlet("id1", "inode1", 1));
+		assertEquals("task1", task1.getId());
+		assertEquals("id1", task1.getWebasset());
+		assertEquals("user1", task1.getCreatedBy());
+		assertEquals("role1", task1.getAssignedTo());
+		assertEquals("step1", task1.getStatus());
+		assertEquals(modDate.getTime(), task1.getModDate().getTime());
+
+		final WorkflowTask task2 = batch.getWorkflowTask(contentlet("id2", "inode2", 1));
+		assertEquals("task2", task2.getId());
+		assertNull(task2.getAssignedTo());
+		assertEquals("", task2.getStatus());
+		assertNull(task2.getModDate());
+
+		assertNull(batch.getWorkflowTask(contentlet("id3", "inode3", 1)));
+	}
+
+	/**
+	 * The version dates are kept by identifier and language, whatever the numeric type of the
+	 * language column
+	 */
+	@Test
+	public void testVersionDatesByIdentifierAndLanguage() throws Exception {
+
+		final ContentletMappingBatch batch = new ContentletMappingBatch(() -> new TableDotConnect(Arrays.asList(
+				row("identifier", "id1", "lang", 1L, "version_ts", new Timestamp(1000L)),
+				row("identifier", "id1", "lang", new BigDecimal(2), "version_ts", new Timestamp(2000L))),
+				"identifier"));
+		batch.loadVersionDates(Collections.singletonList("id1"));
+
+		assertEquals(1000L, batch.getVersionTs(contentlet("id1", "inode1", 1)).getTime());
+		assertEquals(2000L, batch.getVersionTs(contentlet("id1", "inode2", 2)).getTime());
+	}
+
+	/**
+	 * The categories keep the order of the query, a contentlet without categories has none
+	 */
+	@Test
+	public void testCategoriesKeepTheQueryOrder() throws Exception {
+
+		final ContentletMappingBatch batch = new ContentletMappingBatch(() -> new TableDotConnect(Arrays.asList(
+				row("child", "inode1", "category_velocity_var_name", "sports"),
+				row("child", "inode1", "category_velocity_var_name", "news")),
+				"child"));
+		batch.loadCategories(Arrays.asList("inode1", "inode2"));
+
+		assertEquals(Arrays.asList("sports", "news"), batch.getCategories(contentlet("id1", "inode1", 1)));
+		assertTrue(batch.getCategories(contentlet("id2", "inode2", 1)).isEmpty());
+	}
+
+	private static Map<String, Object> row(final Object... columns) {
+
+		final Map<String, Object> row = new HashMap<>();
+		for (int i = 0; i < columns.length; i += 2) {
+			row.put((String) columns[i], columns[i + 1]);
+		}
+		return row;
+	}
+
+	/**
+	 * The columns of the tree rows used by the mapping, without the row number of DotConnect
+	 */
+	private static List<Map<String, Object>> treeColumns(final List<Map<String, Object>> rows) {
+
+		final List<Map<String, Object>> columns = new ArrayList<>();
+		for (final Map<String, Object> row : rows) {
+			final Map<String, Object> treeRow = new HashMap<>();
+			for (final String column : TREE_COLUMNS) {
+				treeRow.put(column, row.get(column));
+			}
+			columns.add(treeRow);
+		}
+		return columns;
+	}
+
+	private static Contentlet contentlet(final String identifier, final String inode, final long languageId) {
+
+		final Contentlet contentlet = mock(Contentlet.class);
+		when(contentlet.getIdentifier()).thenReturn(identifier);
+		when(contentlet.getInode()).thenReturn(inode);
+		when(contentlet.getLanguageId()).thenReturn(languageId);
+		return contentlet;
+	}
+
+	/**
+	 * {@link ResultRow} over the values of a row, read the way the JDBC driver does
+	 */
+	private static ResultRow resultRow(final Map<String, Object> values) {
+
+		return mock(ResultRow.class, invocation -> {
+			final Object[] arguments = invocation.getArguments();
+			final Object value = arguments.length == 1 ? values.get(String.valueOf(arguments[0]).toLowerCase()) : null;
+			switch (invocation.getMethod().getName()) {
+				case "toMap":
+					return new HashMap<>(values);
+				case "getObject":
+					return value;
+				case "getString":
+					return value != null ? value.toString() : null;
+				case "getLong":
+					return value != null ? ((Number) value).longValue() : 0L;
+				case "getDate":
+					return value != null ? new Date(((Date) value).getTime()) : null;
+				default:
+					return null;
+			}
+		});
+	}
+
+	/**
+	 * {@link DotConnect} over a table in memory: a query returns the rows that have one of its
+	 * parameters in any of the key columns, in the order of the table.
+	 */
+	private static final class TableDotConnect extends DotConnect {
+
+		private final List<Map<String, Object>> table;
+		private final String[] keyColumns;
+		private final List<String> params = new ArrayList<>();
+
+		TableDotConnect(final List<Map<String, Object>> table, final String... keyColumns) {
+			this.table = table;
+			this.keyColumns = keyColumns;
+		}
+
+		@Override
+		public DotConnect setSQL(final String sql) {
+			this.params.clear();
+			return super.setSQL(sql);
+		}
+
+		@Override
+		public DotConnect addParam(final String param) {
+			this.params.add(param);
+			return super.addParam(param);
+		}
+
+		@Override
+		public int forEachRow(final RowCallback callback) throws DotDataException {
+
+			final List<Map<String, Object>> rows = rows();
+			try {
+				for (final Map<String, Object> row : rows) {
+					callback.processRow(resultRow(row));
+				}
+			} catch (Exception e) {
+				throw new DotDataException(e.getMessage(), e);
+			}
+			return rows.size();
+		}
+
+		/**
+		 * Copies the rows with their number and parity, like DotConnect does
+		 */
+		@Override
+		public List<Map<String, Object>> loadObjectResults() {
+
+			final List<Map<String, Object>> results = new ArrayList<>();
+			for (final Map<String, Object> row : rows()) {
+				final Map<String, Object> result = new HashMap<>(row);
+				result.put("rownumber", results.size());
+				result.put("oddoreven", results.size() % 2);
+				results.add(result);
+			}
+			return results;
+		}
+
+		private List<Map<String, Object>> rows() {
+
+			final List<Map<String, Object>> rows = new ArrayList<>();
+			for (final Map<String, Object> row : this.table) {
+				for (final String column : this.keyColumns) {
+					if (this.params.contains(row.get(column))) {
+						rows.add(row);
+						break;
+					}
+				}
+			}
+			return rows;
+		}
+	}
+}
@@ -0,0 +1,214 @@
+package com.dotcms.content.elasticsearch.business;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.elasticsearch.action.ListenableActionFuture;
+import org.elasticsearch.action.search.ClearScrollRequestBuilder;
+import org.elasticsearch.action.search.ClearScrollResponse;
+import org.elasticsearch.action.search.SearchRequestBuilder;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchScrollRequestBuilder;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.SearchHitField;
+import org.elasticsearch.search.SearchHits;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.stubbing.Answer;
+
+import com.dotcms.UnitTestBase;
+import com.dotmarketing.common.model.ContentletSearch;
+import com.dotmarketing.exception.DotDataException;
+import com.dotmarketing.exception.DotRuntimeException;
+import com.dotmarketing.portlets.contentlet.model.Contentlet;
+
+/**
+ * Test for {@link ContentletScrollIterator} and {@link ContentletSearchScrollIterator}, with a
+ * mocked Elastic Search client.
+ */
+public class ContentletScrollIteratorTest extends UnitTestBase {
+
+	private Client client;
+	private SearchRequestBuilder search;
+	private SearchScrollRequestBuilder scroll;
+	private ClearScrollRequestBuilder clearScroll;
+
+	@Before
+	@SuppressWarnings("unchecked")
+	public void mockClient() {
+		client = mock(Client.class);
+		search = builder(SearchRequestBuilder.class);
+		scroll = builder(SearchScrollRequestBuilder.class);
+		clearScroll = builder(ClearScrollRequestBuilder.class);
+		when(client.prepareSearch("index")).thenReturn(search);
+		when(client.prepareSearchScroll(anyString())).thenReturn(scroll);
+		when(client.prepareClearScroll()).thenReturn(clearScroll);
+		final ListenableActionFuture<ClearScrollResponse> cleared = mock(ListenableActionFuture.class);
+		when(clearScroll.execute()).thenReturn(cleared);
+	}
+
+	/**
+	 * The batches are read until the scroll returns no hits, then the scroll is released
+	 */
+	@Test
+	public void testReadsAllTheBatches() {
+		searchReturns(response("scroll0", 3));
+		scrollReturns(response("scroll1", 3, hit("inode1", "id1"), hit("inode2", "id2")),
+				response("scroll2", 3, hit("inode3", "id3")), response("scroll3", 3));
+
+		final ContentletSearchScrollIterator iterator = new ContentletSearchScrollIterator(client, "index", "+live:true", 2);
+		final List<String> inodes = new ArrayList<>();
+		while (iterator.hasNext()) {
+			final ContentletSearch contentlet = iterator.next();
+			inodes.add(contentlet.getInode() + ":" + contentlet.getIdentifier());
+		}
+
+		assertEquals(3, iterator.getTotalHits());
+		assertEquals(Arrays.asList("inode1:id1", "inode2:id2", "inode3:id3"), inodes);
+		verify(clearScroll).addScrollId("scroll3");
+		verify(clearScroll, times(1)).execute();
+
+		// reading again does not scroll any more
+		assertFalse(iterator.hasNext());
+		verify(client, times(3)).prepareSearchScroll(anyString());
+	}
+
+	/**
+	 * Without hits the scroll is released at once
+	 */
+	@Test
+	public void testNoHits() {
+		searchReturns(response("scroll0", 0));
+
+		final ContentletSearchScrollIterator iterator = new ContentletSearchScrollIterator(client, "index", "+live:true", 2);
+
+		assertFalse(iterator.hasNext());
+		verify(clearScroll).addScrollId("scroll0");
+		verify(client, never()).prepareSearchScroll(anyString());
+	}
+
+	/**
+	 * Closing the iterator releases the scroll, the current batch can still be read
+	 */
+	@Test
+	public void testClose() {
+		searchReturns(response("scroll0", 3));
+		scrollReturns(response("scroll1", 3, hit("inode1", "id1"), hit("inode2", "id2")));
+
+		final ContentletSearchScrollIterator iterator = new ContentletSearchScrollIterator(client, "index", "+live:true", 2);
+		assertEquals("inode1", iterator.next().getInode());
+		iterator.close();
+
+		verify(clearScroll).addScrollId("scroll1");
+		assertEquals("inode2", iterator.next().getInode());
+		assertFalse(iterator.hasNext());
+
+		// a second close does nothing
+		iterator.close();
+		verify(clearScroll, times(1)).execute();
+	}
+
+	/**
+	 * The contentlets of every batch are loaded by the factory
+	 */
+	@Test
+	public void testLoadsTheContentlets() throws Exception {
+		searchReturns(response("scroll0", 1));
+		final SearchResponse batch = response("scroll1", 1, hit("inode1", "id1"));
+		scrollReturns(batch, response("scroll2", 1));
+
+		final Contentlet contentlet = new Contentlet();
+		final ESContentFactoryImpl factory = mock(ESContentFactoryImpl.class);
+		when(factory.loadHits(batch.getHits())).thenReturn(Arrays.asList(contentlet));
+
+		try (ContentletScrollIterator iterator = new ContentletScrollIterator(client, factory, "index", "+live:true", 2)) {
+			assertSame(contentlet, iterator.next());
+			assertFalse(iterator.hasNext());
+		}
+	}
+
+	/**
+	 * A batch that can't be loaded releases the scroll
+	 */
+	@Test
+	public void testLoadFailure() throws Exception {
+		searchReturns(response("scroll0", 1));
+		final SearchResponse batch = response("scroll1", 1, hit("inode1", "id1"));
+		scrollReturns(batch);
+
+		final ESContentFactoryImpl factory = mock(ESContentFactoryImpl.class);
+		when(factory.loadHits(batch.getHits())).thenThrow(new DotDataException("database down"));
+
+		final ContentletScrollIterator iterator = new ContentletScrollIterator(client, factory, "index", "+live:true", 2);
+		try {
+			iterator.hasNext();
+			fail("The load failure must be thrown");
+		} catch (DotRuntimeException e) {
+			assertTrue(e.getMessage().contains("database down"));
+		}
+		verify(clearScroll).addScrollId("scroll1");
+	}
+
+	/**
+	 * Mocks a request builder whose setters return the builder itself.
+	 */
+	private static <T> T builder(final Class<T> type) {
+		return mock(type, (Answer<Object>) invocation -> invocation.getMethod().getReturnType().isInstance(invocation.getMock())
+				? invocation.getMock() : null);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void searchReturns(final SearchResponse response) {
+		final ListenableActionFuture<SearchResponse> future = mock(ListenableActionFuture.class);
+		when(future.actionGet()).thenReturn(response);
+		when(search.execute()).thenReturn(future);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void scrollReturns(final SearchResponse response, final SearchResponse... responses) {
+		final ListenableActionFuture<SearchResponse> future = mock(ListenableActionFuture.class);
+		when(future.actionGet()).thenReturn(response, responses);
+		when(scroll.execute()).thenReturn(future);
+	}
+
+	private SearchResponse response(final String scrollId, final long totalHits, final SearchHit... hits) {
+		final SearchHits searchHits = mock(SearchHits.class);
+		when(searchHits.getTotalHits()).thenReturn(totalHits);
+		when(searchHits.getHits()).thenReturn(hits);
+		when(searchHits.iterator()).thenAnswer(invocation -> Arrays.asList(hits).iterator());
+
+		final SearchResponse response = mock(SearchResponse.class);
+		when(response.getScrollId()).thenReturn(scrollId);
+		when(response.getHits()).thenReturn(searchHits);
+		return response;
+	}
+
+	private SearchHit hit(final String inode, final String identifier) {
+		final SearchHit hit = mock(SearchHit.class);
+		final SearchHitField inodeField = field(inode);
+		final SearchHitField identifierField = field(identifier);
+		when(hit.field("inode")).thenReturn(inodeField);
+		when(hit.field("identifier")).thenReturn(identifierField);
+		return hit;
+	}
+
+	private SearchHitField field(final Object value) {
+		final SearchHitField field = mock(SearchHitField.class);
+		when(field.<Object>getValue()).thenReturn(value);
+		return field;
+	}
+}
@@ -0,0 +1,105 @@
+package com.dotcms.content.elasticsearch.business;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.dotmarketing.portlets.contentlet.model.Contentlet;
+import com.dotmarketing.portlets.structure.model.Field;
+
+/**
+ * Test for {@link ContentletSource}
+ */
+public class ContentletSourceTest {
+
+	/**
+	 * The values of the fields are read back with the same type they were written with
+	 */
+	@Test
+	public void testTypedFieldsRoundTrip() throws Exception {
+
+		final Date publishDate = new Date(1792310400123L);
+		final Contentlet con = new Contentlet();
+		con.setInode("inode");
+		con.setIdentifier("identifier");
+		con.setLanguageId(1);
+		con.setModDate(new Date(1792310400000L));
+		con.setSortOrder(3);
+		con.setDisabledWysiwyg(Arrays.asList("body"));
+		con.getMap().put("title", "News");
+		con.getMap().put("publishDate", publishDate);
+		con.getMap().put("views", 5000000000L);
+		con.getMap().put("rank", 7);
+		con.getMap().put("price", 9.99f);
+		con.getMap().put("featured", true);
+
+		final Contentlet read = ContentletSource.toContentlet(ContentletSource.toSource(con, Arrays.asList(
+				field("title", Field.FieldType.TEXT), field("publishDate", Field.FieldType.DATE_TIME),
+				field("views", Field.FieldType.TEXT), field("rank", Field.FieldType.TEXT),
+				field("price", Field.FieldType.TEXT), field("featured", Field.FieldType.CHECKBOX))));
+
+		assertEquals("inode", read.getInode());
+		assertEquals("identifier", read.getIdentifier());
+		assertEquals(1L, read.getLanguageId());
+		assertEquals(new Date(1792310400000L), read.getModDate());
+		assertEquals(3L, read.getSortOrder());
+		assertEquals(Arrays.asList("body"), read.getDisabledWysiwyg());
+		assertEquals("News", read.getMap().get("title"));
+		assertEquals(publishDate, read.getMap().get("publishDate"));
+		assertEquals(Date.class, read.getMap().get("publishDate").getClass());
+		assertEquals(5000000000L, read.getMap().get("views"));
+		assertEquals(Integer.valueOf(7), read.getMap().get("rank"));
+		assertEquals(Float.valueOf(9.99f), read.getMap().get("price"));
+		assertEquals(Boolean.TRUE, read.getMap().get("featured"));
+	}
+
+	/**
+	 * Small longs are read back as longs, not as the integers the json parser gives
+	 */
+	@Test
+	public void testSmallLong() throws Exception {
+
+		final Contentlet con = new Contentlet();
+		con.getMap().put("views", 1L);
+
+		final Contentlet read = ContentletSource.toContentlet(
+				ContentletSource.toSource(con, Arrays.asList(field("views", Field.FieldType.TEXT))));
+
+		assertEquals(Long.valueOf(1), read.getMap().get("views"));
+	}
+
+	/**
+	 * The binaries, and the properties that are neither base properties nor fields, are not kept
+	 */
+	@Test
+	public void testBinariesAndOtherPropertiesAreNotKept() throws Exception {
+
+		final Contentlet con = new Contentlet();
+		con.getMap().put("fileAsset", new File("/tmp/image.png"));
+		con.getMap().put("fileAsset2", "/tmp/image.png");
+		con.getMap().put("__DOTNAV__", "value");
+
+		final List<Field> fields = Arrays.asList(field("fileAsset", Field.FieldType.BINARY),
+				field("fileAsset2", Field.FieldType.BINARY));
+		final Contentlet read = ContentletSource.toContentlet(ContentletSource.toSource(con, fields));
+
+		assertFalse(read.getMap().containsKey("fileAsset"));
+		assertFalse(read.getMap().containsKey("fileAsset2"));
+		assertFalse(read.getMap().containsKey("__DOTNAV__"));
+		assertTrue(read.getMap().containsKey(Contentlet.INODE_KEY));
+	}
+
+	private Field field(final String velocityVarName, final Field.FieldType type) {
+		final Field field = new Field();
+		field.setVelocityVarName(velocityVarName);
+		field.setFieldType(type.toString());
+		return field;
+	}
+}
@@ -0,0 +1,95 @@
+package com.dotcms.publisher.pusher;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test for {@link BundleBuffer}
+ */
+public class BundleBufferTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSmallBundleStaysInMemory() throws IOException {
+
+        final File file = new File(folder.getRoot(), "small.tar.gz");
+        final byte[] data = data(1000);
+
+        final BundleBuffer buffer = new BundleBuffer(file, 4096);
+        buffer.write(data, 0, 500);
+        buffer.write(data, 500, 500);
+        buffer.close();
+
+        assertTrue(buffer.isInMemory());
+        assertEquals(1000, buffer.length());
+        assertArrayEquals(data, Files.readAllBytes(file.toPath()));
+        assertArrayEquals(data, read(buffer));
+        assertArrayEquals(data, read(buffer));
+    }
+
+    @Test
+    public void testBigBundleSpillsToFile() throws IOException {
+
+        final File file = new File(folder.getRoot(), "big.tar.gz");
+        final byte[] data = data(10000);
+
+        final BundleBuffer buffer = new BundleBuffer(file, 4096);
+        for (int i = 0; i < data.length; i += 1000) {
+            buffer.write(data, i, 1000);
+        }
+        buffer.close();
+
+        assertFalse(buffer.isInMemory());
+        assertEquals(10000, buffer.length());
+        assertArrayEquals(data, Files.readAllBytes(file.toPath()));
+        assertArrayEquals(data, read(buffer));
+    }
+
+    @Test
+    public void testReplaysExistingFile() throws IOException {
+
+        final File file = new File(folder.getRoot(), "retry.tar.gz");
+        final byte[] data = data(2000);
+        Files.write(file.toPath(), data);
+
+        final BundleBuffer buffer = BundleBuffer.of(file);
+        assertEquals(2000, buffer.length());
+        assertArrayEquals(data, read(buffer));
+    }
+
+    @Test(expected = IOException.class)
+    public void testCanNotReadWhileWriting() throws IOException {
+
+        final BundleBuffer buffer = new BundleBuffer(new File(folder.getRoot(), "open.tar.gz"), 4096);
+        buffer.write(1);
+        buffer.openStream();
+    }
+
+    private byte[] read(final BundleBuffer buffer) throws IOException {
+        try (InputStream in = buffer.openStream()) {
+            return IOUtils.toByteArray(in);
+        }
+    }
+
+    private byte[] data(final int size) {
+        final byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte) (i * 31);
+        }
+        return data;
+    }
+}
@@ -0,0 +1,34 @@
+package com.dotcms.publisher.pusher;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link PushPublisher}
+ */
+public class PushPublisherTest {
+
+    /**
+     * Only the sends that never reached the endpoint are retried
+     */
+    @Test
+    public void testIsConnectFailure() {
+
+        assertTrue(PushPublisher.isConnectFailure(new ConnectException("Connection refused")));
+        assertTrue(PushPublisher.isConnectFailure(new RuntimeException(new UnknownHostException("receiver"))));
+        assertTrue(PushPublisher.isConnectFailure(
+                new RuntimeException(new SocketTimeoutException("connect timed out"))));
+
+        assertFalse(PushPublisher.isConnectFailure(
+                new RuntimeException(new SocketTimeoutException("Read timed out"))));
+        assertFalse(PushPublisher.isConnectFailure(new RuntimeException(new IOException("Connection reset"))));
+        assertFalse(PushPublisher.isConnectFailure(new RuntimeException("Unexpected error")));
+    }
+}
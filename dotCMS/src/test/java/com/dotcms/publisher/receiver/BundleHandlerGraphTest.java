@@ -0,0 +1,143 @@
+package com.dotcms.publisher.receiver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.dotcms.publisher.receiver.handler.IHandler;
+
+/**
+ * Test for the scheduling of the receiver handlers done by {@link BundleHandlerGraph}
+ */
+public class BundleHandlerGraphTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testRunsDependenciesFirst() throws Exception {
+
+        final Root root = new Root();
+        final Left left = new Left();
+        final Right right = new Right();
+        final Leaf leaf = new Leaf();
+        final BundleHandlerGraph graph = new BundleHandlerGraph(Arrays.asList(root, left, right, leaf), declared());
+
+        final List<IHandler> applied = Collections.synchronizedList(new ArrayList<>());
+        graph.apply(executor, 4, applied::add);
+
+        assertEquals(4, applied.size());
+        assertEquals(root, applied.get(0));
+        assertEquals(leaf, applied.get(3));
+    }
+
+    @Test
+    public void testRunsIndependentHandlersAtTheSameTime() throws Exception {
+
+        final Left left = new Left();
+        final Right right = new Right();
+        final BundleHandlerGraph graph = new BundleHandlerGraph(Arrays.asList(new Root(), left, right, new Leaf()), declared());
+
+        // left and right only finish once both of them are running
+        final CountDownLatch bothRunning = new CountDownLatch(2);
+        graph.apply(executor, 4, handler -> {
+            if (handler == left || handler == right) {
+                bothRunning.countDown();
+                assertTrue(bothRunning.await(10, TimeUnit.SECONDS));
+            }
+        });
+    }
+
+    @Test
+    public void testUndeclaredHandlersAreBarriers() {
+
+        final Root root = new Root();
+        final Left left = new Left();
+        final IHandler custom = new Custom();
+        final Right right = new Right();
+        final BundleHandlerGraph graph = new BundleHandlerGraph(Arrays.asList(root, left, custom, right), declared());
+
+        assertTrue(graph.getDependencies(custom).containsAll(Arrays.asList(root, left)));
+        assertTrue(graph.getDependencies(right).contains(custom));
+    }
+
+    @Test
+    public void testStopsOnFailure() {
+
+        final Root root = new Root();
+        final Left left = new Left();
+        final BundleHandlerGraph graph = new BundleHandlerGraph(Arrays.asList(root, left, new Right(), new Leaf()), declared());
+
+        final AtomicInteger applied = new AtomicInteger();
+        try {
+            graph.apply(executor, 1, handler -> {
+                if (handler == left) {
+                    throw new IllegalStateException("left failed");
+                }
+                applied.incrementAndGet();
+            });
+            fail("The error of the handler should be thrown");
+        } catch (Exception e) {
+            assertEquals("left failed", e.getMessage());
+        }
+        // root and, at most, right ran but never the leaf
+        assertTrue(applied.get() <= 2);
+    }
+
+    private static Map<Class<?>, List<Class<?>>> declared() {
+
+        final Map<Class<?>, List<Class<?>>> declared = new HashMap<>();
+        declared.put(Root.class, Collections.emptyList());
+        declared.put(Left.class, Arrays.asList(Root.class));
+        declared.put(Right.class, Arrays.asList(Root.class));
+        declared.put(Leaf.class, Arrays.asList(Left.class, Right.class));
+        return declared;
+    }
+
+    private static class TestHandler implements IHandler {
+
+        @Override
+        public void handle(File bundleFolder) {
+        }
+
+        @Override
+        public String getName() {
+            return getClass().getSimpleName();
+        }
+    }
+
+    private static class Root extends TestHandler {
+    }
+
+    private static class Left extends TestHandler {
+    }
+
+    private static class Right extends TestHandler {
+    }
+
+    private static class Leaf extends TestHandler {
+    }
+
+    private static class Custom extends TestHandler {
+    }
+}
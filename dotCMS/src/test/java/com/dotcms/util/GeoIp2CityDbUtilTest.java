@@ -0,0 +1,140 @@
+package com.dotcms.util;
+
+import com.dotcms.repackage.com.maxmind.db.Reader.FileMode;
+import com.dotcms.repackage.com.maxmind.geoip2.DatabaseReader;
+import com.dotcms.repackage.com.maxmind.geoip2.exception.GeoIp2Exception;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+
+public class GeoIp2CityDbUtilTest {
+
+    private File database;
+
+    @Before
+    public void createDatabase() throws IOException {
+        database = File.createTempFile("GeoLite2-City", ".mmdb");
+        database.setLastModified(1000000000L);
+    }
+
+    @After
+    public void deleteDatabase() {
+        database.delete();
+    }
+
+    @Test
+    public void testLookupIsCached() throws Exception {
+        final CountingGeoIp2CityDbUtil geoIp2Util = new CountingGeoIp2CityDbUtil(database, Long.MAX_VALUE, 10);
+
+        final GeoLocation location = geoIp2Util.getGeoLocation("10.0.0.1");
+
+        assertSame(location, geoIp2Util.getGeoLocation("10.0.0.1"));
+        assertEquals("US", geoIp2Util.getCountryIsoCode("10.0.0.1"));
+        assertEquals(1, geoIp2Util.lookups.size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedAddressIsEvicted() throws Exception {
+        final CountingGeoIp2CityDbUtil geoIp2Util = new CountingGeoIp2CityDbUtil(database, Long.MAX_VALUE, 2);
+
+        geoIp2Util.getGeoLocation("10.0.0.1");
+        geoIp2Util.getGeoLocation("10.0.0.2");
+        // 10.0.0.1 is used again, so 10.0.0.2 is the one evicted by 10.0.0.3
+        geoIp2Util.getGeoLocation("10.0.0.1");
+        geoIp2Util.getGeoLocation("10.0.0.3");
+        geoIp2Util.getGeoLocation("10.0.0.1");
+        geoIp2Util.getGeoLocation("10.0.0.2");
+
+        assertEquals(4, geoIp2Util.lookups.size());
+        assertEquals("10.0.0.2", geoIp2Util.lookups.get(3));
+    }
+
+    @Test
+    public void testDatabaseIsReloadedWhenTheFileChanges() throws Exception {
+        final CountingGeoIp2CityDbUtil geoIp2Util = new CountingGeoIp2CityDbUtil(database, 0, 10);
+
+        final GeoLocation location = geoIp2Util.getGeoLocation("10.0.0.1");
+        geoIp2Util.getGeoLocation("10.0.0.1");
+        assertEquals(1, geoIp2Util.opened.size());
+
+        database.setLastModified(2000000000L);
+
+        // the new database is opened and the cached locations are discarded
+        final GeoLocation reloaded = geoIp2Util.getGeoLocation("10.0.0.1");
+        assertEquals(2, geoIp2Util.opened.size());
+        assertEquals(2, geoIp2Util.lookups.size());
+        assertEquals(location.getCountryIsoCode(), reloaded.getCountryIsoCode());
+    }
+
+    @Test
+    public void testDatabaseIsNotReloadedBeforeTheCheckInterval() throws Exception {
+        final CountingGeoIp2CityDbUtil geoIp2Util = new CountingGeoIp2CityDbUtil(database, Long.MAX_VALUE, 10);
+
+        database.setLastModified(2000000000L);
+        geoIp2Util.getGeoLocation("10.0.0.1");
+
+        assertEquals(1, geoIp2Util.opened.size());
+    }
+
+    @Test
+    public void testCurrentDatabaseIsKeptWhenTheReloadFails() throws Exception {
+        final CountingGeoIp2CityDbUtil geoIp2Util = new CountingGeoIp2CityDbUtil(database, 0, 10);
+
+        geoIp2Util.getGeoLocation("10.0.0.1");
+        geoIp2Util.failOpen = true;
+        database.setLastModified(2000000000L);
+
+        // the lookups keep being served, from the cache of the current database
+        assertEquals("US", geoIp2Util.getCountryIsoCode("10.0.0.1"));
+        assertEquals(1, geoIp2Util.lookups.size());
+
+        // and the load is retried on the next check
+        geoIp2Util.failOpen = false;
+        geoIp2Util.getGeoLocation("10.0.0.1");
+        assertEquals(2, geoIp2Util.opened.size());
+        assertEquals(2, geoIp2Util.lookups.size());
+    }
+
+    /**
+     * Opens mocked readers and resolves every address to the same location, recording both.
+     */
+    private static class CountingGeoIp2CityDbUtil extends GeoIp2CityDbUtil {
+
+        private List<DatabaseReader> opened;
+        private List<String> lookups;
+        private boolean failOpen;
+
+        CountingGeoIp2CityDbUtil(File database, long reloadCheckMillis, int cacheSize) {
+            super(database.getAbsolutePath(), FileMode.MEMORY_MAPPED, reloadCheckMillis, cacheSize);
+        }
+
+        @Override
+        DatabaseReader openDatabase(File database) throws IOException {
+            if (failOpen) {
+                throw new IOException("The database is being copied");
+            }
+            if (opened == null) {
+                opened = new ArrayList<>();
+                lookups = new ArrayList<>();
+            }
+            final DatabaseReader reader = mock(DatabaseReader.class);
+            opened.add(reader);
+            return reader;
+        }
+
+        @Override
+        GeoLocation lookup(DatabaseReader reader, String ipAddress) throws IOException, GeoIp2Exception {
+            lookups.add(ipAddress);
+            return new GeoLocation("US", "VA", "Reston", 38.9, -77.3, "America/New_York");
+        }
+    }
+}
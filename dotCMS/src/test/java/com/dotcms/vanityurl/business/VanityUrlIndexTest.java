@@ -0,0 +1,178 @@
+package com.dotcms.vanityurl.business;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.dotcms.UnitTestBase;
+import com.dotcms.vanityurl.model.CachedVanityUrl;
+import com.dotcms.vanityurl.model.VanityUrl;
+
+/**
+ * Test for the matching of {@link VanityUrlIndex}
+ */
+public class VanityUrlIndexTest extends UnitTestBase {
+
+    private static final String SITE = "site";
+    private static final String SYSTEM_HOST = "SYSTEM_HOST";
+
+    /**
+     * A literal pattern only matches its own URI
+     */
+    @Test
+    public void testLiteral() {
+
+        final VanityUrlIndex index = index(Arrays.asList(vanity(SITE, "/about-us", "/company", 1)));
+
+        assertEquals("/company", index.find("/about-us").getForwardTo());
+        assertNull(index.find("/about-us/team"));
+        assertNull(index.find("/about"));
+    }
+
+    /**
+     * A pattern with a literal prefix matches the URIs under that prefix, with its groups
+     * replaced in the forward
+     */
+    @Test
+    public void testPrefix() {
+
+        final VanityUrlIndex index = index(Arrays.asList(
+                vanity(SITE, "/blog/(.*)", "/news/$1", 1),
+                vanity(SITE, "/docs?/(.*)", "/documentation/$1", 2)));
+
+        assertEquals("/news/post", index.find("/blog/post").getForwardTo());
+        assertEquals("/documentation/api", index.find("/doc/api").getForwardTo());
+        assertEquals("/documentation/api", index.find("/docs/api").getForwardTo());
+        assertNull(index.find("/blo"));
+        assertNull(index.find("/other/post"));
+    }
+
+    /**
+     * The patterns without a literal prefix are always run
+     */
+    @Test
+    public void testRegex() {
+
+        final VanityUrlIndex index = index(Arrays.asList(
+                vanity(SITE, "(?i)/contact", "/contact-us", 1),
+                vanity(SITE, "/a|/b", "/ab", 2)));
+
+        assertEquals("/contact-us", index.find("/CONTACT").getForwardTo());
+        assertEquals("/ab", index.find("/a").getForwardTo());
+        assertEquals("/ab", index.find("/b").getForwardTo());
+        assertNull(index.find("/c"));
+    }
+
+    /**
+     * The first Vanity URL by order wins, whatever kind of pattern it has
+     */
+    @Test
+    public void testRanking() {
+
+        final VanityUrlIndex index = index(Arrays.asList(
+                vanity(SITE, "(?i)/ABOUT", "/regex", 1),
+                vanity(SITE, "/about", "/literal", 2),
+                vanity(SITE, "/blog/first", "/literal-blog", 3),
+                vanity(SITE, "/blog/(.*)", "/prefix-blog", 4),
+                vanity(SITE, "/blog/second", "/never", 5)));
+
+        assertEquals("/regex", index.find("/about").getForwardTo());
+        assertEquals("/literal-blog", index.find("/blog/first").getForwardTo());
+        assertEquals("/prefix-blog", index.find("/blog/second").getForwardTo());
+    }
+
+    /**
+     * The Vanity URLs of the site win over the ones of the SYSTEM_HOST
+     */
+    @Test
+    public void testSiteBeforeSystemHost() {
+
+        final VanityUrlIndex index = new VanityUrlIndex("1",
+                Arrays.asList(vanity(SITE, "/shop/(.*)", "/site-shop", 10)), "1",
+                Arrays.asList(vanity(SYSTEM_HOST, "/shop/(.*)", "/global-shop", 1),
+                        vanity(SYSTEM_HOST, "/help", "/global-help", 2)));
+
+        assertEquals("/site-shop", index.find("/shop/cart").getForwardTo());
+        assertEquals("/global-help", index.find("/help").getForwardTo());
+    }
+
+    /**
+     * The results are kept, a 404 included
+     */
+    @Test
+    public void testResults() {
+
+        final VanityUrlIndex index = index(Arrays.asList(vanity(SITE, "/blog/(.*)", "/news/$1", 1)));
+        final CachedVanityUrl notFound = vanity(SITE, "/missing", "/404", 0);
+
+        assertSame(index.find("/blog/post"), index.find("/blog/post"));
+        assertNull(index.find("/missing"));
+        index.cacheResult("/missing", notFound);
+        assertSame(notFound, index.find("/missing"));
+    }
+
+    /**
+     * An index is only valid for the versions of the lists it was built from
+     */
+    @Test
+    public void testIsFor() {
+
+        final VanityUrlIndex index = new VanityUrlIndex("site1", Collections.emptyList(),
+                "system1", Collections.emptyList());
+
+        assertTrue(index.isFor("site1", "system1"));
+        assertFalse(index.isFor("site2", "system1"));
+        assertFalse(index.isFor("site1", "system2"));
+    }
+
+    /**
+     * The literal prefix of the patterns
+     */
+    @Test
+    public void testLiteralPrefix() {
+
+        assertLiteralPrefix("/about", true, "/about");
+        assertLiteralPrefix("^\\/news", true, "/news");
+        assertLiteralPrefix("/blog/(.*)", false, "/blog/");
+        assertLiteralPrefix("/docs?/(.*)", false, "/doc");
+        assertLiteralPrefix("/blog\\d+", false, "/blog");
+        assertLiteralPrefix("/a|/b", false, "");
+        assertLiteralPrefix("(?i)/about", false, "");
+    }
+
+    private void assertLiteralPrefix(final String pattern, final boolean literal, final String prefix) {
+
+        final StringBuilder builder = new StringBuilder();
+        assertEquals(pattern, literal, VanityUrlIndex.literalPrefix(pattern, builder));
+        assertEquals(pattern, prefix, builder.toString());
+    }
+
+    private VanityUrlIndex index(final List<CachedVanityUrl> siteVanities) {
+
+        return new VanityUrlIndex("1", siteVanities, "1", Collections.emptyList());
+    }
+
+    private CachedVanityUrl vanity(final String siteId, final String uri, final String forwardTo,
+                                   final int order) {
+
+        final VanityUrl vanityUrl = mock(VanityUrl.class);
+        when(vanityUrl.getIdentifier()).thenReturn(uri);
+        when(vanityUrl.getSite()).thenReturn(siteId);
+        when(vanityUrl.getURI()).thenReturn(uri);
+        when(vanityUrl.getForwardTo()).thenReturn(forwardTo);
+        when(vanityUrl.getAction()).thenReturn(200);
+        when(vanityUrl.getOrder()).thenReturn(order);
+        when(vanityUrl.getLanguageId()).thenReturn(1L);
+        return new CachedVanityUrl(vanityUrl);
+    }
+}
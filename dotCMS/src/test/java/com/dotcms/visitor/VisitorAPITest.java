@@ -1,6 +1,9 @@
 package com.dotcms.visitor;
 
 import com.dotcms.UnitTestBase;
+import com.dotcms.util.GeoIp2CityDbUtil;
+import com.dotcms.util.GeoLocation;
+import com.dotcms.visitor.business.VisitorAPIImpl;
 import com.dotcms.visitor.domain.Visitor;
 import com.dotmarketing.business.APILocator;
 import com.dotmarketing.business.web.LanguageWebAPI;
@@ -9,14 +12,17 @@ import com.dotmarketing.util.WebKeys;
 
 import org.junit.Test;
 
+import java.net.InetAddress;
 import java.util.Optional;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpSession;
 
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -52,6 +58,27 @@ public class VisitorAPITest extends UnitTestBase {
         verify(mockSession).setAttribute(WebKeys.VISITOR, visitor.get());
     }
 
+    @Test
+    public void testGetGeoLocation_WhenCalledTwiceForSameVisitor_LooksUpDatabaseOnce() throws Exception {
+        Visitor visitor = new Visitor();
+        visitor.setIpAddress(InetAddress.getByName("10.0.0.1"));
+
+        HttpServletRequest mockRequest = mock(HttpServletRequest.class);
+        HttpSession mockSession = mock(HttpSession.class);
+        when(mockRequest.getSession(false)).thenReturn(mockSession);
+        when(mockSession.getAttribute(WebKeys.VISITOR)).thenReturn(visitor);
+
+        GeoLocation location = new GeoLocation("US", "NY", "New York", 40.71, -74.0, "America/New_York");
+        GeoIp2CityDbUtil mockGeoIp2Util = mock(GeoIp2CityDbUtil.class);
+        when(mockGeoIp2Util.getGeoLocation("10.0.0.1")).thenReturn(location);
+
+        VisitorAPIImpl visitorAPI = new VisitorAPIImpl(() -> mockGeoIp2Util);
+        assertSame(location, visitorAPI.getGeoLocation(mockRequest).get());
+        assertSame(location, visitorAPI.getGeoLocation(mockRequest).get());
+        assertSame(location, visitor.getGeoLocation());
+        verify(mockGeoIp2Util, times(1)).getGeoLocation("10.0.0.1");
+    }
+
     private Language getLanguage() {
         Language language = new Language(1);
         language.setCountry("United States");
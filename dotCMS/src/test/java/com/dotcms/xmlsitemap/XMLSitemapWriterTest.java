@@ -0,0 +1,103 @@
+package com.dotcms.xmlsitemap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link XMLSitemapWriter}.
+ */
+public class XMLSitemapWriterTest {
+
+    @Test
+    public void testSplitsByNumberOfUrls() throws Exception {
+
+        final File folder = Files.createTempDirectory("xmlsitemap").toFile();
+        final List<String> sitemaps = new ArrayList<String>();
+        final List<Integer> urls = new ArrayList<Integer>();
+
+        try (XMLSitemapWriter writer = new XMLSitemapWriter(folder, "XMLSitemapGenerated-News", 3, 1024 * 1024,
+                (part, count) -> {
+                    sitemaps.add(read(part));
+                    urls.add(count);
+                })) {
+            for (int i = 0; i < 7; i++) {
+                writer.write(url(i));
+            }
+            assertEquals(Arrays.asList("XMLSitemapGenerated-News-1.xml.gz", "XMLSitemapGenerated-News-2.xml.gz",
+                    "XMLSitemapGenerated-News-3.xml.gz"), writer.getFileNames());
+        }
+
+        assertEquals(Arrays.asList(3, 3, 1), urls);
+        for (String sitemap : sitemaps) {
+            assertTrue(sitemap.startsWith("<?xml version='1.0' encoding='UTF-8'?>\n<urlset "));
+            assertTrue(sitemap.endsWith("</urlset>"));
+        }
+        assertTrue(sitemaps.get(2).contains(url(6)));
+        // the files are deleted once saved
+        assertEquals(0, folder.list().length);
+        folder.delete();
+    }
+
+    @Test
+    public void testSplitsBySize() throws Exception {
+
+        final File folder = Files.createTempDirectory("xmlsitemap").toFile();
+        final List<Integer> urls = new ArrayList<Integer>();
+
+        try (XMLSitemapWriter writer = new XMLSitemapWriter(folder, "XMLSitemapGenerated", 50000, 1024,
+                (part, count) -> urls.add(count))) {
+            for (int i = 0; i < 40; i++) {
+                writer.write(url(i));
+            }
+        }
+
+        assertTrue(urls.size() > 1);
+        assertEquals(40, urls.stream().mapToInt(Integer::intValue).sum());
+        folder.delete();
+    }
+
+    @Test
+    public void testNoUrlsNoFiles() throws Exception {
+
+        final File folder = Files.createTempDirectory("xmlsitemap").toFile();
+        final List<File> parts = new ArrayList<File>();
+
+        try (XMLSitemapWriter writer = new XMLSitemapWriter(folder, "XMLSitemapGenerated", 50000, 1024 * 1024,
+                (part, count) -> parts.add(part))) {
+            assertTrue(writer.getFileNames().isEmpty());
+        }
+
+        assertTrue(parts.isEmpty());
+        folder.delete();
+    }
+
+    private String url(int i) {
+        return "<url><loc>http://demo.dotcms.com/news/" + i + "</loc><lastmod>2026-10-18</lastmod><changefreq>daily</changefreq></url>\n";
+    }
+
+    private String read(File part) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(part.toPath()))) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+}
@@ -0,0 +1,379 @@
+package com.dotmarketing.business;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import com.dotmarketing.business.BlockPageCache.PageCacheParameters;
+import com.dotmarketing.business.cache.provider.CacheProviderStats;
+import com.dotmarketing.business.cache.transport.CacheTransport;
+import com.dotmarketing.portlets.htmlpageasset.model.IHTMLPage;
+import com.dotmarketing.util.Logger;
+
+/**
+ * Test for {@link BlockPageCacheImpl}, it also compares the hit throughput
+ * against the previous implementation that synchronized every access on the
+ * cache administrator.
+ */
+public class BlockPageCacheImplTest {
+
+    private static final int[] BENCHMARK_THREADS = { 1, 2, 4, 8, 16, 32, 64 };
+    private static final long BENCHMARK_MILLIS = 200;
+
+    @Test
+    public void testGetReturnsCachedVersion() {
+
+        final BlockPageCacheImpl pageCache = new BlockPageCacheImpl(new MapCacheAdministrator(), true);
+        final IHTMLPage page = mockPage("page1", 60);
+        final PageCacheParameters english = new PageCacheParameters("PUBLIC", "1", null, "a=1", null);
+        final PageCacheParameters spanish = new PageCacheParameters("PUBLIC", "2", null, "a=1", null);
+
+        pageCache.add(page, "english", english);
+        pageCache.add(page, "spanish", spanish);
+
+        assertEquals("english", pageCache.get(page, new PageCacheParameters("PUBLIC", "1", null, "a=1", null)));
+        assertEquals("spanish", pageCache.get(page, spanish));
+        assertNull(pageCache.get(page, new PageCacheParameters("PUBLIC", "3", null, "a=1", null)));
+
+        pageCache.remove(page);
+        assertNull(pageCache.get(page, english));
+    }
+
+    @Test
+    public void testExpiredVersionIsNotReturned() {
+
+        final BlockPageCacheImpl pageCache = new BlockPageCacheImpl(new MapCacheAdministrator(), true);
+        final IHTMLPage page = mockPage("page2", 0);
+        final PageCacheParameters params = new PageCacheParameters("PUBLIC", "1", null, null, null);
+
+        pageCache.add(page, "content", params);
+        assertNull(pageCache.get(page, params));
+    }
+
+    @Test
+    public void testConcurrentRendersAreCoalesced() throws Exception {
+
+        final BlockPageCacheImpl pageCache = new BlockPageCacheImpl(new MapCacheAdministrator(), true);
+        final IHTMLPage page = mockPage("page3", 60);
+        final PageCacheParameters params = new PageCacheParameters("PUBLIC", "1", null, null, null);
+        final AtomicInteger renders = new AtomicInteger();
+        final CountDownLatch rendering = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final int threads = 8;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            final List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> pageCache.render(page, params, () -> {
+                renders.incrementAndGet();
+                rendering.countDown();
+                release.await();
+                return "rendered";
+            })));
+            rendering.await();
+            for (int i = 1; i < threads; i++) {
+                results.add(executor.submit(() -> pageCache.render(page, params, () -> {
+                    renders.incrementAndGet();
+                    return "rendered";
+                })));
+            }
+            // let the followers reach the in-flight render
+            Thread.sleep(100);
+            release.countDown();
+
+            for (final Future<String> result : results) {
+                assertEquals("rendered", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, renders.get());
+        assertEquals("rendered", pageCache.get(page, params));
+    }
+
+    @Test
+    public void testVersionsArePutBackInTheCache() {
+
+        // a provider that serializes its entries returns a copy of the map on every read
+        final BlockPageCacheImpl pageCache = new BlockPageCacheImpl(new CopyingCacheAdministrator(), true);
+        final IHTMLPage page = mockPage("page5", 60);
+        final PageCacheParameters english = new PageCacheParameters("PUBLIC", "1", null, null, null);
+        final PageCacheParameters spanish = new PageCacheParameters("PUBLIC", "2", null, null, null);
+
+        pageCache.add(page, "english", english);
+        pageCache.add(page, "spanish", spanish);
+
+        assertEquals("english", pageCache.get(page, english));
+        assertEquals("spanish", pageCache.get(page, spanish));
+    }
+
+    @Test
+    public void testWaitForRenderIsBounded() throws Exception {
+
+        final BlockPageCacheImpl pageCache = new BlockPageCacheImpl(new MapCacheAdministrator(), true, 50);
+        final IHTMLPage page = mockPage("page6", 60);
+        final PageCacheParameters params = new PageCacheParameters("PUBLIC", "1", null, null, null);
+        final CountDownLatch rendering = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            final Future<String> hung = executor.submit(() -> pageCache.render(page, params, () -> {
+                rendering.countDown();
+                release.await();
+                return "hung";
+            }));
+            rendering.await();
+
+            // the render in progress doesn't finish, this request renders the page itself
+            assertEquals("rendered", pageCache.render(page, params, () -> "rendered"));
+
+            release.countDown();
+            assertEquals("hung", hung.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Ignore("Benchmark, run it by hand to compare with the synchronized implementation")
+    @Test
+    public void testHitThroughput() throws Exception {
+
+        final IHTMLPage page = mockPage("page4", 3600);
+        final PageCacheParameters params = new PageCacheParameters("PUBLIC", "1", null, "q=1", null);
+
+        final BlockPageCacheImpl pageCache = new BlockPageCacheImpl(new MapCacheAdministrator(), true);
+        final SynchronizedBlockPageCache synchronizedCache = new SynchronizedBlockPageCache(new MapCacheAdministrator());
+        pageCache.add(page, "content", params);
+        synchronizedCache.add(page, "content", params);
+
+        for (final int threads : BENCHMARK_THREADS) {
+
+            final long current = measureHits(threads, () -> pageCache.get(page, params));
+            final long previous = measureHits(threads, () -> synchronizedCache.get(page, params));
+            Logger.info(this, String.format("BlockPageCache hits/sec with %2d threads: lock-free=%,d synchronized=%,d",
+                    threads, current * 1000 / BENCHMARK_MILLIS, previous * 1000 / BENCHMARK_MILLIS));
+        }
+    }
+
+    private long measureHits(final int threads, final Runnable hit) throws Exception {
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicLong hits = new AtomicLong();
+        final CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            for (int i = 0; i < threads; i++) {
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    long count = 0;
+                    while (running.get()) {
+                        hit.run();
+                        count++;
+                    }
+                    hits.addAndGet(count);
+                });
+            }
+            start.countDown();
+            Thread.sleep(BENCHMARK_MILLIS);
+            running.set(false);
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+
+        return hits.get();
+    }
+
+    private IHTMLPage mockPage(final String inode, final long ttl) {
+
+        final IHTMLPage page = mock(IHTMLPage.class, withSettings().stubOnly());
+        final Date modDate = new Date();
+        when(page.getInode()).thenReturn(inode);
+        when(page.getModDate()).thenReturn(modDate);
+        when(page.getCacheTTL()).thenReturn(ttl);
+        return page;
+    }
+
+    /**
+     * Previous implementation of the page cache lookups, kept as the baseline
+     * of the throughput comparison.
+     */
+    private static class SynchronizedBlockPageCache {
+
+        private final DotCacheAdministrator cache;
+
+        SynchronizedBlockPageCache(final DotCacheAdministrator cache) {
+            this.cache = cache;
+        }
+
+        void add(final IHTMLPage page, final String value, final PageCacheParameters params) {
+            final List<Map<String, Object>> versions = new ArrayList<>();
+            final Map<String, Object> pageInfo = new HashMap<>();
+            pageInfo.put(params.getKey(), new BlockDirectiveCacheObject(value, (int) page.getCacheTTL()));
+            versions.add(pageInfo);
+            synchronized (cache) {
+                cache.put(page.getInode() + "_" + page.getModDate().getTime(), versions, "group");
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        String get(final IHTMLPage page, final PageCacheParameters params) {
+            final StringBuilder key = new StringBuilder();
+            key.append(page.getInode());
+            key.append("_" + page.getModDate().getTime());
+            final String subkey = params.getKey();
+            synchronized (cache) {
+                try {
+                    final List<Map<String, Object>> cachedPages =
+                            (List<Map<String, Object>>) cache.get(key.toString(), "group");
+                    BlockDirectiveCacheObject cto = null;
+                    if (cachedPages != null) {
+                        for (final Map<String, Object> pageInfo : cachedPages) {
+                            if (pageInfo.containsKey(subkey)) {
+                                cto = (BlockDirectiveCacheObject) pageInfo.get(subkey);
+                                break;
+                            }
+                        }
+                        if (cto != null && cto.getCreated() + ((int) page.getCacheTTL() * 1000) > System.currentTimeMillis()) {
+                            return cto.getValue();
+                        }
+                    }
+                } catch (DotCacheException e) {
+                    // not found
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * In memory {@link DotCacheAdministrator} used by the tests.
+     */
+    /**
+     * Returns a copy of the maps it holds, like the providers that serialize their entries.
+     */
+    private static class CopyingCacheAdministrator extends MapCacheAdministrator {
+
+        @Override
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        public Object get(final String key, final String group) throws DotCacheException {
+            final Object value = super.get(key, group);
+            return value instanceof Map ? new ConcurrentHashMap((Map) value) : value;
+        }
+    }
+
+    private static class MapCacheAdministrator implements DotCacheAdministrator {
+
+        private final Map<String, Object> entries = new ConcurrentHashMap<>();
+
+        @Override
+        public void initProviders() {
+        }
+
+        @Override
+        public Set<String> getGroups() {
+            return null;
+        }
+
+        @Override
+        public void flushAll() {
+            entries.clear();
+        }
+
+        @Override
+        public void flushGroup(final String group) {
+            entries.keySet().removeIf(key -> key.startsWith(group.toLowerCase() + ":"));
+        }
+
+        @Override
+        public void flushAlLocalOnly(final boolean ignoreDistributed) {
+            flushAll();
+        }
+
+        @Override
+        public void flushGroupLocalOnly(final String group, final boolean ignoreDistributed) {
+            flushGroup(group);
+        }
+
+        @Override
+        public Object get(final String key, final String group) throws DotCacheException {
+            return entries.get(group.toLowerCase() + ":" + key.toLowerCase());
+        }
+
+        @Override
+        public void put(final String key, final Object content, final String group) {
+            entries.put(group.toLowerCase() + ":" + key.toLowerCase(), content);
+        }
+
+        @Override
+        public void remove(final String key, final String group) {
+            entries.remove(group.toLowerCase() + ":" + key.toLowerCase());
+        }
+
+        @Override
+        public void removeLocalOnly(final String key, final String group, final boolean ignoreDistributed) {
+            remove(key, group);
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<CacheProviderStats> getCacheStatsList() {
+            return null;
+        }
+
+        @Override
+        public Class getImplementationClass() {
+            return MapCacheAdministrator.class;
+        }
+
+        @Override
+        public DotCacheAdministrator getImplementationObject() {
+            return this;
+        }
+
+        @Override
+        public void invalidateCacheMesageFromCluster(final String message) {
+        }
+
+        @Override
+        public CacheTransport getTransport() {
+            return null;
+        }
+
+        @Override
+        public void setTransport(final CacheTransport transport) {
+        }
+    }
+}
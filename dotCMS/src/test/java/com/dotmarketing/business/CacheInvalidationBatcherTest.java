@@ -0,0 +1,92 @@
+package com.dotmarketing.business;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link CacheInvalidationBatcher}
+ */
+public class CacheInvalidationBatcherTest {
+
+    @Test
+    public void testEncodeDecode() throws Exception {
+
+        final Map<String, Set<String>> entries = new LinkedHashMap<>();
+        entries.put("contentletcache", new LinkedHashSet<>(Arrays.asList("inode1", "inode2", "key:with:colons")));
+        entries.put("identifiercache", new LinkedHashSet<>(Arrays.asList(CacheInvalidationBatcher.FLUSH_GROUP_KEY)));
+
+        final String message = CacheInvalidationBatcher.encode(entries);
+
+        assertTrue(CacheInvalidationBatcher.isBatchMessage(message));
+        assertFalse(CacheInvalidationBatcher.isBatchMessage("inode1:contentletcache"));
+        assertEquals(entries, CacheInvalidationBatcher.decode(message));
+    }
+
+    @Test
+    public void testKeysAreCoalesced() throws Exception {
+
+        final List<String> sent = new ArrayList<>();
+        final CacheInvalidationBatcher batcher = new CacheInvalidationBatcher(sent::add, 60000, 2, 1000);
+
+        try {
+            batcher.enqueue("inode1", "contentletcache");
+            batcher.enqueue("inode2", "contentletcache");
+            batcher.enqueue("inode1", "contentletcache");
+            batcher.enqueue("id1", "identifiercache");
+            batcher.enqueue("id2", "identifiercache");
+            batcher.enqueue("id3", "identifiercache");
+            batcher.flush();
+
+            assertEquals(1, sent.size());
+            final Map<String, Set<String>> entries = CacheInvalidationBatcher.decode(sent.get(0));
+            assertEquals(new LinkedHashSet<>(Arrays.asList("inode1", "inode2")), entries.get("contentletcache"));
+            // above the threshold, the whole group is flushed
+            assertEquals(new LinkedHashSet<>(Arrays.asList(CacheInvalidationBatcher.FLUSH_GROUP_KEY)),
+                    entries.get("identifiercache"));
+
+            assertEquals(1, batcher.getMessagesSent());
+            assertEquals(3, batcher.getKeysSent());
+            assertEquals(1, batcher.getGroupFlushes());
+
+            // a single key is still sent as a plain message
+            batcher.enqueue("inode3", "contentletcache");
+            batcher.flush();
+            batcher.flush();
+
+            assertEquals(2, sent.size());
+            assertEquals("inode3:contentletcache", sent.get(1));
+        } finally {
+            batcher.shutdown();
+        }
+    }
+
+    @Test
+    public void testWindowIsFlushedWhenFull() {
+
+        final List<String> sent = new ArrayList<>();
+        final CacheInvalidationBatcher batcher = new CacheInvalidationBatcher(sent::add, 60000, 100, 3);
+
+        try {
+            batcher.enqueue("key1", "group");
+            batcher.enqueue("key2", "group");
+            assertTrue(sent.isEmpty());
+
+            batcher.enqueue("key3", "group");
+            assertEquals(1, sent.size());
+            assertEquals(3, batcher.getKeysSent());
+        } finally {
+            batcher.shutdown();
+        }
+    }
+}
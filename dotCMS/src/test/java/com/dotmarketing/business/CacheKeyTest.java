@@ -0,0 +1,53 @@
+package com.dotmarketing.business;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link CacheKey}
+ */
+public class CacheKeyTest {
+
+    @Test
+    public void testOfNormalizesTheKey() {
+
+        final CacheKey key = CacheKey.of("PermissionCache", "ABC-123", "PermissionCache");
+
+        assertEquals("permissioncacheabc-123", key.getKey());
+        assertEquals("permissioncache", key.getGroup());
+        assertEquals(CacheKey.of("permissioncache", "abc-123", "permissioncache"), key);
+    }
+
+    @Test
+    public void testGroupReusesTheKeys() {
+
+        final CacheKey.Group group = CacheKey.group("PermissionCache", "PermissionCache");
+        final CacheKey key = group.key("ABC-123");
+
+        assertSame(key, group.key("ABC-123"));
+        assertSame(key, group.key(new String("ABC-123")));
+        assertEquals(CacheKey.of("PermissionCache", "ABC-123", "PermissionCache"), key);
+        assertEquals("permissioncache", group.getGroup());
+    }
+
+    @Test
+    public void testGroupIsBounded() {
+
+        final CacheKey.Group group = new CacheKey.Group("", "VelocityCache", 3);
+        final CacheKey first = group.key("key0");
+
+        for (int i = 1; i < 10; i++) {
+            group.key("key" + i);
+            assertTrue(group.size() <= 3);
+        }
+
+        // built again once the table starts over, still the same key
+        final CacheKey again = group.key("key0");
+        assertNotSame(first, again);
+        assertEquals(first, again);
+    }
+}
@@ -0,0 +1,64 @@
+package com.dotmarketing.business;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import com.dotmarketing.beans.Permission;
+
+/**
+ * Test for {@link PermissionBitmap}
+ */
+public class PermissionBitmapTest {
+
+    @Test
+    public void testPermissionableBitsMatchRoles() {
+
+        final PermissionBitmap.PermissionableBits bits = PermissionBitmap.PermissionableBits.from(Arrays.asList(
+                new Permission("inode1", "roleA", PermissionAPI.PERMISSION_READ, true),
+                new Permission("inode1", "roleA", PermissionAPI.PERMISSION_EDIT, true),
+                new Permission("inode1", "roleB", PermissionAPI.PERMISSION_READ, true)));
+
+        final int roleA = PermissionBitmap.roleIndex("roleA");
+        final int roleB = PermissionBitmap.roleIndex("roleB");
+        final int roleC = PermissionBitmap.roleIndex("roleC");
+
+        assertTrue(bits.matches(roleA, PermissionAPI.PERMISSION_READ));
+        assertTrue(bits.matches(roleA, PermissionAPI.PERMISSION_EDIT));
+        assertTrue(bits.matches(roleB, PermissionAPI.PERMISSION_READ));
+        assertFalse(bits.matches(roleB, PermissionAPI.PERMISSION_EDIT));
+        assertFalse(bits.matches(roleC, PermissionAPI.PERMISSION_READ));
+        assertTrue(bits.isLocal());
+    }
+
+    @Test
+    public void testUserRolesMatchPermissionableBits() {
+
+        final PermissionBitmap.PermissionableBits bits = PermissionBitmap.PermissionableBits.from(
+                Collections.singletonList(new Permission("inode2", "editors", PermissionAPI.PERMISSION_PUBLISH, true)));
+
+        final PermissionBitmap.UserRoles editor = PermissionBitmap.UserRoles.from(
+                Arrays.asList(role("editors"), role("anon")), Collections.singletonList("anon"));
+        final PermissionBitmap.UserRoles anonymous = PermissionBitmap.UserRoles.from(
+                Collections.singletonList(role("anon")), Collections.singletonList("anon"));
+
+        assertTrue(bits.matches(editor, PermissionAPI.PERMISSION_PUBLISH));
+        assertFalse(bits.matches(editor, PermissionAPI.PERMISSION_READ));
+        assertFalse(bits.matches(anonymous, PermissionAPI.PERMISSION_PUBLISH));
+
+        assertFalse(editor.hasOnlyFrontEndRoles());
+        assertTrue(anonymous.hasOnlyFrontEndRoles());
+        assertTrue(editor.hasRole(PermissionBitmap.roleIndex("editors")));
+        assertFalse(anonymous.hasRole(PermissionBitmap.roleIndex("editors")));
+    }
+
+    private Role role(final String id) {
+        final Role role = new Role();
+        role.setId(id);
+        return role;
+    }
+}
@@ -0,0 +1,48 @@
+package com.dotmarketing.business.cache.provider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.ConcurrentMap;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link CacheGroupMetrics} and {@link CacheMetrics}
+ */
+public class CacheGroupMetricsTest {
+
+    @Test
+    public void testHitsMissesAndLatency() {
+
+        final CacheGroupMetrics metrics = new CacheGroupMetrics();
+        for (int i = 0; i < 98; i++) {
+            metrics.record(true, 1000);
+        }
+        metrics.record(false, 1000);
+        metrics.record(false, 1_000_000);
+
+        assertEquals(98, metrics.getHits());
+        assertEquals(2, metrics.getMisses());
+        assertEquals(0.98, metrics.getHitRate(), 0.0001);
+        assertEquals((99 * 1000 + 1_000_000) / 100, metrics.getAverageNanos());
+        // 1000ns falls in the (512, 1024] bucket and 1ms in the (524288, 1048576] one
+        assertEquals(1024, metrics.getPercentileNanos(0.5));
+        assertEquals(1024, metrics.getPercentileNanos(0.99));
+        assertEquals(1048576, metrics.getPercentileNanos(1));
+    }
+
+    @Test
+    public void testRegistryPerProviderAndGroup() {
+
+        final ConcurrentMap<String, CacheGroupMetrics> provider = CacheMetrics.getInstance().provider("Test Provider");
+        assertSame(provider, CacheMetrics.getInstance().provider("Test Provider"));
+
+        CacheMetrics.group(provider, "testgroup").record(true, 10);
+        final CacheGroupMetrics metrics = CacheMetrics.getInstance().find("Test Provider", "testgroup");
+        assertNotNull(metrics);
+        assertEquals(1, metrics.getHits());
+        assertEquals(1L, CacheMetrics.getInstance().getStats("Test Provider").get("testgroup").get("hits"));
+    }
+}
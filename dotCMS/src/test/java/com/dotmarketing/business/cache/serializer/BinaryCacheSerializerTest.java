@@ -0,0 +1,192 @@
+package com.dotmarketing.business.cache.serializer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import com.dotmarketing.beans.Identifier;
+import com.dotmarketing.beans.Permission;
+import com.dotmarketing.business.PermissionAPI;
+import com.dotmarketing.portlets.contentlet.model.Contentlet;
+import com.dotmarketing.util.Logger;
+
+/**
+ * Test for {@link BinaryCacheSerializer}, it also compares the size and speed of the main cached
+ * model classes against the {@link JavaCacheSerializer}.
+ */
+public class BinaryCacheSerializerTest {
+
+    private static final int BENCHMARK_ITERATIONS = 20000;
+
+    private final BinaryCacheSerializer serializer = new BinaryCacheSerializer(4096);
+
+    @Test
+    public void testContentletRoundTrip() throws Exception {
+
+        final Contentlet contentlet = contentlet();
+        final Contentlet copy = (Contentlet) roundTrip(contentlet);
+
+        assertEquals(contentlet.getMap(), copy.getMap());
+        assertEquals(contentlet.isLowIndexPriority(), copy.isLowIndexPriority());
+        assertEquals(Timestamp.class, copy.getMap().get("publishDate").getClass());
+    }
+
+    @Test
+    public void testIdentifierRoundTrip() throws Exception {
+
+        final Identifier identifier = identifier();
+        final Identifier copy = (Identifier) roundTrip(identifier);
+
+        assertEquals(identifier.getId(), copy.getId());
+        assertEquals(identifier.getURI(), copy.getURI());
+        assertEquals(identifier.getHostId(), copy.getHostId());
+        assertEquals(identifier.getAssetType(), copy.getAssetType());
+        assertEquals(identifier.getSysPublishDate(), copy.getSysPublishDate());
+        assertEquals(identifier.getSysExpireDate(), copy.getSysExpireDate());
+    }
+
+    @Test
+    public void testPermissionsRoundTrip() throws Exception {
+
+        final List<Permission> permissions = permissions();
+        assertEquals(permissions, roundTrip(permissions));
+    }
+
+    @Test
+    public void testUnregisteredTypesFallbackToJavaSerialization() throws Exception {
+
+        final Map<String, Object> map = new LinkedHashMap<>();
+        map.put("file", new File("/tmp/test.txt"));
+        map.put("list", Arrays.asList("a", "b"));
+        map.put("bytes", new byte[] { 1, 2, 3 });
+        map.put("strings", new String[] { "a", null });
+
+        @SuppressWarnings("unchecked")
+        final Map<String, Object> copy = (Map<String, Object>) roundTrip(map);
+
+        assertEquals(map.get("file"), copy.get("file"));
+        assertEquals(map.get("list"), copy.get("list"));
+        assertArrayEquals((byte[]) map.get("bytes"), (byte[]) copy.get("bytes"));
+        assertArrayEquals((String[]) map.get("strings"), (String[]) copy.get("strings"));
+    }
+
+    @Test
+    public void testReadsJavaSerializedEntries() throws Exception {
+
+        final List<Permission> permissions = permissions();
+        final byte[] data = new JavaCacheSerializer().serialize(permissions);
+        assertEquals(permissions, serializer.deserialize(data));
+    }
+
+    @Test
+    public void testCompressesBigEntries() throws Exception {
+
+        final List<String> values = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            values.add("value-" + (i % 10));
+        }
+
+        final BinaryCacheSerializer compressing = new BinaryCacheSerializer(1024);
+        final byte[] compressed = compressing.serialize(values);
+        final byte[] uncompressed = new BinaryCacheSerializer(0).serialize(values);
+
+        assertTrue(compressed.length < uncompressed.length);
+        assertEquals(values, compressing.deserialize(compressed));
+        assertEquals(values, compressing.deserialize(uncompressed));
+    }
+
+    @Test
+    public void testBenchmark() throws Exception {
+
+        final JavaCacheSerializer java = new JavaCacheSerializer();
+        benchmark("Contentlet", contentlet(), java);
+        benchmark("Identifier", identifier(), java);
+        benchmark("List<Permission>", permissions(), java);
+    }
+
+    private void benchmark(final String name, final Object value, final JavaCacheSerializer java) throws Exception {
+
+        for (final CacheSerializer cacheSerializer : new CacheSerializer[] { java, serializer }) {
+
+            final byte[] data = cacheSerializer.serialize(value);
+
+            // warm up
+            for (int i = 0; i < BENCHMARK_ITERATIONS; i++) {
+                cacheSerializer.deserialize(cacheSerializer.serialize(value));
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < BENCHMARK_ITERATIONS; i++) {
+                cacheSerializer.serialize(value);
+            }
+            final long encode = (System.nanoTime() - start) / BENCHMARK_ITERATIONS;
+
+            start = System.nanoTime();
+            for (int i = 0; i < BENCHMARK_ITERATIONS; i++) {
+                cacheSerializer.deserialize(data);
+            }
+            final long decode = (System.nanoTime() - start) / BENCHMARK_ITERATIONS;
+
+            Logger.info(this, String.format("%-16s %-6s bytes=%,6d encode=%,7d ns decode=%,7d ns",
+                    name, cacheSerializer.getName(), data.length, encode, decode));
+        }
+    }
+
+    private Object roundTrip(final Object value) throws Exception {
+        return serializer.deserialize(serializer.serialize(value));
+    }
+
+    private Contentlet contentlet() {
+
+        final Contentlet contentlet = new Contentlet();
+        contentlet.setInode(UUID.randomUUID().toString());
+        contentlet.setIdentifier(UUID.randomUUID().toString());
+        contentlet.setLanguageId(1);
+        contentlet.setContentTypeId(UUID.randomUUID().toString());
+        contentlet.setModDate(new Date());
+        contentlet.setStringProperty("title", "A content title");
+        contentlet.setStringProperty("body", "<p>Some rich text body for the content</p>");
+        contentlet.setLongProperty("views", 42);
+        contentlet.setProperty("publishDate", new Timestamp(System.currentTimeMillis()));
+        contentlet.setProperty("featured", Boolean.TRUE);
+        contentlet.setLowIndexPriority(true);
+        return contentlet;
+    }
+
+    private Identifier identifier() {
+
+        final Identifier identifier = new Identifier();
+        identifier.setId(UUID.randomUUID().toString());
+        identifier.setAssetName("index.html");
+        identifier.setAssetType(Identifier.ASSET_TYPE_CONTENTLET);
+        identifier.setParentPath("/about-us/");
+        identifier.setHostId(UUID.randomUUID().toString());
+        identifier.setSysPublishDate(new Date());
+        return identifier;
+    }
+
+    private List<Permission> permissions() {
+
+        final List<Permission> permissions = new ArrayList<>();
+        final String inode = UUID.randomUUID().toString();
+        for (int i = 0; i < 10; i++) {
+            final Permission permission = new Permission(inode, UUID.randomUUID().toString(),
+                    PermissionAPI.PERMISSION_READ | PermissionAPI.PERMISSION_EDIT, true);
+            permission.setId(i);
+            permissions.add(permission);
+        }
+        return permissions;
+    }
+}
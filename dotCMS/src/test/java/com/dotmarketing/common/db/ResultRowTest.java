@@ -0,0 +1,95 @@
+package com.dotmarketing.common.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Clob;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test for {@link ResultRow}
+ */
+public class ResultRowTest {
+
+    private ResultSet resultSet;
+    private ResultRow row;
+
+    @Before
+    public void setUp() throws SQLException {
+
+        final ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(metaData.getColumnCount()).thenReturn(3);
+        when(metaData.getColumnLabel(1)).thenReturn("INODE");
+        when(metaData.getColumnLabel(2)).thenReturn("Mod_Date");
+        when(metaData.getColumnLabel(3)).thenReturn("body");
+
+        this.resultSet = mock(ResultSet.class);
+        when(this.resultSet.getMetaData()).thenReturn(metaData);
+
+        this.row = new ResultRow(this.resultSet, false);
+    }
+
+    @Test
+    public void testColumnsAreFoundIgnoringCase() throws SQLException {
+
+        assertEquals(3, this.row.getColumnCount());
+        assertEquals("inode", this.row.getColumnLabel(1));
+        assertEquals(1, this.row.findColumn("inode"));
+        assertEquals(2, this.row.findColumn("MOD_DATE"));
+        assertEquals(3, this.row.findColumn("Body"));
+    }
+
+    @Test(expected = SQLException.class)
+    public void testMissingColumn() throws SQLException {
+        this.row.findColumn("identifier");
+    }
+
+    @Test
+    public void testRowNumber() {
+
+        assertEquals(-1, this.row.getRowNumber());
+        this.row.next();
+        this.row.next();
+        assertEquals(1, this.row.getRowNumber());
+    }
+
+    /**
+     * The values are read the same way DotConnect.loadObjectResults does
+     */
+    @Test
+    public void testValues() throws SQLException {
+
+        final Timestamp modDate = new Timestamp(1000L);
+        when(this.resultSet.getObject(1)).thenReturn("1234");
+        when(this.resultSet.getString(1)).thenReturn("1234");
+        when(this.resultSet.getObject(2)).thenReturn(modDate);
+        when(this.resultSet.getTimestamp(2)).thenReturn(modDate);
+        when(this.resultSet.getObject(3)).thenReturn(mock(Clob.class));
+        when(this.resultSet.getString(3)).thenReturn("the body");
+
+        assertEquals("1234", this.row.getString("INODE"));
+        assertEquals(new Date(1000L), this.row.getDate("mod_date"));
+        assertEquals("the body", this.row.getObject("body"));
+
+        final Map<String, Object> map = this.row.toMap();
+        assertEquals(3, map.size());
+        assertEquals("1234", map.get("inode"));
+        assertEquals(modDate, map.get("mod_date"));
+        assertEquals("the body", map.get("body"));
+    }
+
+    @Test
+    public void testNullDate() throws SQLException {
+        assertNull(this.row.getDate("mod_date"));
+    }
+}
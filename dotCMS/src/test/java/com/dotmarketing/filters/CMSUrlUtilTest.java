@@ -0,0 +1,301 @@
+package com.dotmarketing.filters;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dotcms.UnitTestBase;
+import com.dotmarketing.beans.Host;
+import com.dotmarketing.beans.Identifier;
+import com.dotmarketing.business.IdentifierAPI;
+import com.dotmarketing.business.UserAPI;
+import com.dotmarketing.business.VersionableAPI;
+import com.dotmarketing.exception.DotDataException;
+import com.dotmarketing.filters.CMSFilter.IAm;
+import com.dotmarketing.portlets.contentlet.business.ContentletAPI;
+import com.dotmarketing.portlets.contentlet.model.Contentlet;
+import com.dotmarketing.portlets.contentlet.model.ContentletVersionInfo;
+import com.dotmarketing.portlets.languagesmanager.business.LanguageAPI;
+import com.dotmarketing.portlets.languagesmanager.model.Language;
+import com.dotmarketing.portlets.structure.model.Structure;
+import com.dotmarketing.util.Config;
+import com.liferay.portal.model.User;
+
+/**
+ * Test for {@link CMSUrlUtil#resolve(String, Host, Long)}, with mocked APIs
+ */
+public class CMSUrlUtilTest extends UnitTestBase {
+
+	private static final long ENGLISH = 1;
+	private static final long SPANISH = 2;
+
+	private MapUriResolutionCache cache;
+	private IdentifierAPI identifierAPI;
+	private VersionableAPI versionableAPI;
+	private ContentletAPI contentletAPI;
+	private CMSUrlUtil urlUtil;
+	private Host host;
+
+	@Before
+	public void mockAPIs() throws Exception {
+		cache = new MapUriResolutionCache();
+		identifierAPI = mock(IdentifierAPI.class);
+		versionableAPI = mock(VersionableAPI.class);
+		contentletAPI = mock(ContentletAPI.class);
+		final LanguageAPI languageAPI = mock(LanguageAPI.class);
+		when(languageAPI.getDefaultLanguage()).thenReturn(new Language(ENGLISH));
+		when(languageAPI.getLanguages()).thenReturn(Arrays.asList(new Language(ENGLISH), new Language(SPANISH)));
+		final UserAPI userAPI = mock(UserAPI.class);
+		when(userAPI.getSystemUser()).thenReturn(mock(User.class));
+
+		urlUtil = new CMSUrlUtil(cache, identifierAPI, versionableAPI, languageAPI, contentletAPI, userAPI);
+		host = mock(Host.class);
+		when(host.getIdentifier()).thenReturn("host");
+	}
+
+	@After
+	public void resetConfig() {
+		Config.setProperty("DEFAULT_FILE_TO_DEFAULT_LANGUAGE", false);
+	}
+
+	/**
+	 * The legacy assets resolve by the type of their identifier
+	 */
+	@Test
+	public void testLegacyAssets() throws Exception {
+		identifier("/logo.png", "file_asset", "file-id");
+		identifier("/index.html", "htmlpage", "page-id");
+		identifier("/about", "folder", "folder-id");
+
+		assertResolution(IAm.FILE, "file-id", urlUtil.resolve("/logo.png", host, ENGLISH));
+		assertResolution(IAm.PAGE, "page-id", urlUtil.resolve("/index.html", host, ENGLISH));
+		assertResolution(IAm.FOLDER, "folder-id", urlUtil.resolve("/about", host, ENGLISH));
+		assertEquals(IAm.FOLDER, urlUtil.resolve("/", host, ENGLISH).getKind());
+	}
+
+	/**
+	 * A URI with a trailing slash resolves to the folder without it
+	 */
+	@Test
+	public void testFolderWithTrailingSlash() throws Exception {
+		identifier("/about", "folder", "folder-id");
+
+		assertResolution(IAm.FOLDER, "folder-id", urlUtil.resolve("/about/", host, ENGLISH));
+	}
+
+	/**
+	 * A content file resolves in the requested language, with the live inode of that language
+	 */
+	@Test
+	public void testFileInLanguage() throws Exception {
+		identifier("/logo.png", "contentlet", "file-id");
+		content("file-id", ENGLISH, "working-en", "live-en", Structure.STRUCTURE_TYPE_FILEASSET);
+
+		final UriResolution resolution = urlUtil.resolve("/logo.png", host, ENGLISH);
+
+		assertResolution(IAm.FILE, "file-id", resolution);
+		assertEquals("live-en", resolution.getLiveInode());
+		assertEquals(ENGLISH, resolution.getLanguageId());
+	}
+
+	/**
+	 * A content file in another language is nothing, unless it is in the default language and
+	 * DEFAULT_FILE_TO_DEFAULT_LANGUAGE is set
+	 */
+	@Test
+	public void testFileInAnotherLanguage() throws Exception {
+		identifier("/logo.png", "contentlet", "file-id");
+		content("file-id", ENGLISH, "working-en", "live-en", Structure.STRUCTURE_TYPE_FILEASSET);
+
+		assertTrue(urlUtil.resolve("/logo.png", host, SPANISH).isNothing());
+
+		cache.clearCache();
+		Config.setProperty("DEFAULT_FILE_TO_DEFAULT_LANGUAGE", true);
+		final UriResolution resolution = urlUtil.resolve("/logo.png", host, SPANISH);
+		assertResolution(IAm.FILE, "file-id", resolution);
+		assertEquals(ENGLISH, resolution.getLanguageId());
+	}
+
+	/**
+	 * A content page resolves in any language, the requested one first
+	 */
+	@Test
+	public void testPageInAnyLanguage() throws Exception {
+		identifier("/home", "contentlet", "page-id");
+		content("page-id", SPANISH, "working-es", "live-es", Structure.STRUCTURE_TYPE_HTMLPAGE);
+
+		final UriResolution resolution = urlUtil.resolve("/home", host, ENGLISH);
+
+		assertResolution(IAm.PAGE, "page-id", resolution);
+		assertEquals("live-es", resolution.getLiveInode());
+		assertEquals(SPANISH, resolution.getLanguageId());
+	}
+
+	/**
+	 * The contents that are neither files nor pages are nothing
+	 */
+	@Test
+	public void testOtherContent() throws Exception {
+		identifier("/widget", "contentlet", "widget-id");
+		content("widget-id", ENGLISH, "working-en", "live-en", Structure.STRUCTURE_TYPE_WIDGET);
+
+		assertTrue(urlUtil.resolve("/widget", host, ENGLISH).isNothing());
+	}
+
+	/**
+	 * A URI that is nothing is cached, the next request doesn't look it up again
+	 */
+	@Test
+	public void testNothingIsCached() throws Exception {
+		assertTrue(urlUtil.resolve("/missing", host, ENGLISH).isNothing());
+		assertTrue(urlUtil.resolve("/missing", host, ENGLISH).isNothing());
+
+		verify(identifierAPI, times(1)).find(host, "/missing");
+		assertSame(UriResolution.NOTHING, cache.get("host", ENGLISH, "/missing"));
+	}
+
+	/**
+	 * A resolution is cached by site, language and URI
+	 */
+	@Test
+	public void testResolutionIsCached() throws Exception {
+		identifier("/logo.png", "file_asset", "file-id");
+
+		final UriResolution resolution = urlUtil.resolve("/logo.png", host, ENGLISH);
+
+		assertSame(resolution, urlUtil.resolve("/logo.png", host, ENGLISH));
+		verify(identifierAPI, times(1)).find(host, "/logo.png");
+		assertSame(resolution, cache.get("host", ENGLISH, "/logo.png"));
+		assertNull(cache.get("host", SPANISH, "/logo.png"));
+	}
+
+	/**
+	 * A URI that can't be resolved is nothing but it is not cached, the next request tries again
+	 */
+	@Test
+	public void testFailureIsNotCached() throws Exception {
+		when(identifierAPI.find(host, "/logo.png")).thenThrow(new DotDataException("database down"));
+
+		assertTrue(urlUtil.resolve("/logo.png", host, ENGLISH).isNothing());
+		assertNull(cache.get("host", ENGLISH, "/logo.png"));
+
+		urlUtil.resolve("/logo.png", host, ENGLISH);
+		verify(identifierAPI, times(2)).find(host, "/logo.png");
+	}
+
+	/**
+	 * Without a URI or a site there is nothing to look up
+	 */
+	@Test
+	public void testNoURIOrSite() throws Exception {
+		assertTrue(urlUtil.resolve("", host, ENGLISH).isNothing());
+		assertEquals(IAm.FOLDER, urlUtil.resolve("/", null, ENGLISH).getKind());
+		assertTrue(urlUtil.resolve("/logo.png", null, ENGLISH).isNothing());
+
+		verify(identifierAPI, never()).find(any(Host.class), anyString());
+		verify(versionableAPI, never()).getContentletVersionInfo(anyString(), anyLong());
+	}
+
+	/**
+	 * The resolutions are only removed for the identifiers a URI can resolve to
+	 */
+	@Test
+	public void testRemoveIdentifier() {
+		final UriResolution file = new UriResolution(IAm.FILE, "file-id", "live-en", ENGLISH);
+		cache.put("host", ENGLISH, "/images/logo.png", file);
+		cache.put("host", ENGLISH, "/content.inode-1", UriResolution.NOTHING);
+
+		cache.remove(urlIdentifier("content-id", "contentlet", "/", "content.inode-1"));
+		cache.remove(urlIdentifier("link-id", "links", "/", "inode-2"));
+		assertSame(UriResolution.NOTHING, cache.get("host", ENGLISH, "/content.inode-1"));
+
+		cache.remove(urlIdentifier("file-id", "contentlet", "/images/", "logo.png"));
+		assertNull(cache.get("host", ENGLISH, "/images/logo.png"));
+	}
+
+	private Identifier urlIdentifier(final String id, final String assetType, final String parentPath,
+			final String assetName) {
+		final Identifier identifier = new Identifier();
+		identifier.setId(id);
+		identifier.setHostId("host");
+		identifier.setAssetType(assetType);
+		identifier.setParentPath(parentPath);
+		identifier.setAssetName(assetName);
+		return identifier;
+	}
+
+	private void assertResolution(final IAm kind, final String identifier, final UriResolution resolution) {
+		assertEquals(kind, resolution.getKind());
+		assertEquals(identifier, resolution.getIdentifier());
+	}
+
+	private void identifier(final String uri, final String assetType, final String id) throws Exception {
+		final Identifier identifier = new Identifier();
+		identifier.setId(id);
+		identifier.setAssetType(assetType);
+		when(identifierAPI.find(host, uri)).thenReturn(identifier);
+	}
+
+	private void content(final String identifier, final long languageId, final String workingInode,
+			final String liveInode, final int structureType) throws Exception {
+		final ContentletVersionInfo info = new ContentletVersionInfo();
+		info.setIdentifier(identifier);
+		info.setLang(languageId);
+		info.setWorkingInode(workingInode);
+		info.setLiveInode(liveInode);
+		when(versionableAPI.getContentletVersionInfo(identifier, languageId)).thenReturn(info);
+
+		final Structure structure = mock(Structure.class);
+		when(structure.getStructureType()).thenReturn(structureType);
+		final Contentlet contentlet = mock(Contentlet.class);
+		when(contentlet.getStructure()).thenReturn(structure);
+		when(contentletAPI.find(anyString(), any(User.class), anyBoolean())).thenAnswer(
+				invocation -> workingInode.equals(invocation.getArguments()[0]) ? contentlet : null);
+	}
+
+	/**
+	 * {@link UriResolutionCache} on a map.
+	 */
+	private static final class MapUriResolutionCache extends UriResolutionCache {
+
+		private final Map<String, UriResolution> resolutions = new HashMap<>();
+
+		@Override
+		public UriResolution get(final String hostId, final long languageId, final String uri) {
+			return resolutions.get(hostId + ":" + languageId + ":" + uri);
+		}
+
+		@Override
+		public void put(final String hostId, final long languageId, final String uri, final UriResolution resolution) {
+			resolutions.put(hostId + ":" + languageId + ":" + uri, resolution);
+		}
+
+		@Override
+		public void remove(final String hostId, final String uri) {
+			resolutions.keySet().removeIf(key -> key.startsWith(hostId + ":") && key.endsWith(":" + uri));
+		}
+
+		@Override
+		public void clearCache() {
+			resolutions.clear();
+		}
+	}
+}
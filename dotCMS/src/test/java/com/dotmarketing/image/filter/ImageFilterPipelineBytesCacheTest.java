@@ -0,0 +1,82 @@
+package com.dotmarketing.image.filter;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test for the LRU of generated image bytes used by {@link ImageFilterPipeline}
+ */
+public class ImageFilterPipelineBytesCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() throws IOException {
+
+        final ImageFilterPipeline.BytesCache cache = new ImageFilterPipeline.BytesCache(30, 10);
+        final File first = file("first", 10);
+        final File second = file("second", 10);
+        final File third = file("third", 10);
+        final File fourth = file("fourth", 10);
+
+        cache.put(first, Files.readAllBytes(first.toPath()));
+        cache.put(second, Files.readAllBytes(second.toPath()));
+        cache.put(third, Files.readAllBytes(third.toPath()));
+        assertNotNull(cache.get(first));
+
+        cache.put(fourth, Files.readAllBytes(fourth.toPath()));
+        assertEquals(30, cache.size());
+        assertNotNull(cache.get(first));
+        assertNull(cache.get(second));
+        assertNotNull(cache.get(third));
+        assertNotNull(cache.get(fourth));
+    }
+
+    @Test
+    public void testSkipsBigEntries() throws IOException {
+
+        final ImageFilterPipeline.BytesCache cache = new ImageFilterPipeline.BytesCache(100, 10);
+        final File big = file("big", 11);
+
+        assertNull(cache.load(big));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testInvalidatesChangedFiles() throws IOException {
+
+        final ImageFilterPipeline.BytesCache cache = new ImageFilterPipeline.BytesCache(100, 100);
+        final File image = file("image", 10);
+
+        final byte[] data = cache.load(image);
+        assertArrayEquals(Files.readAllBytes(image.toPath()), data);
+        assertEquals(10, cache.size());
+
+        Files.write(image.toPath(), new byte[20]);
+        assertNull(cache.get(image));
+        assertEquals(0, cache.size());
+        assertEquals(20, cache.load(image).length);
+    }
+
+    private File file(final String name, final int size) throws IOException {
+
+        final File file = folder.newFile(name);
+        final byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte) (name.hashCode() + i);
+        }
+        Files.write(file.toPath(), data);
+        return file;
+    }
+}
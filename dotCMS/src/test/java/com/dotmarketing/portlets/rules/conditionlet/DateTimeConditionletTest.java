@@ -3,9 +3,10 @@ package com.dotmarketing.portlets.rules.conditionlet;
 import com.dotcms.UnitTestBase;
 import com.dotcms.repackage.com.google.common.collect.Lists;
 import com.dotcms.repackage.com.google.common.collect.Maps;
-import com.dotcms.repackage.com.maxmind.geoip2.exception.GeoIp2Exception;
 import com.dotcms.unittest.TestUtil;
 import com.dotcms.util.GeoIp2CityDbUtil;
+import com.dotcms.util.GeoLocation;
+import com.dotcms.visitor.business.VisitorAPI;
 import com.dotmarketing.portlets.rules.exception.ComparisonNotSupportedException;
 import com.dotmarketing.portlets.rules.model.ParameterModel;
 import com.dotmarketing.portlets.rules.parameter.comparison.Comparison;
@@ -17,10 +18,10 @@ import org.elasticsearch.common.joda.time.LocalDateTime;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
-import java.io.IOException;
 import java.util.Calendar;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -53,7 +54,7 @@ public class DateTimeConditionletTest extends UnitTestBase {
                     .withComparison(GREATER_THAN)
                     .withRequestIpAddress(MOCK_IP_ADDRESS)
                     .withDateTime1("2016-01-01T00:00")
-                    .withMockVisitorsDateTime(MOCK_IP_ADDRESS, "2016-01-01T01:00")
+                    .withMockVisitorsDateTime("2016-01-01T01:00")
                     .shouldBeTrue()
             );
 
@@ -62,7 +63,7 @@ public class DateTimeConditionletTest extends UnitTestBase {
                     .withComparison(GREATER_THAN)
                     .withRequestIpAddress(MOCK_IP_ADDRESS)
                     .withDateTime1("2016-01-01T01:00")
-                    .withMockVisitorsDateTime(MOCK_IP_ADDRESS, "2016-01-01T00:00")
+                    .withMockVisitorsDateTime("2016-01-01T00:00")
                     .shouldBeFalse()
             );
 
@@ -71,7 +72,7 @@ public class DateTimeConditionletTest extends UnitTestBase {
                     .withComparison(LESS_THAN)
                     .withRequestIpAddress(MOCK_IP_ADDRESS)
                     .withDateTime1("2016-01-01T01:00")
-                    .withMockVisitorsDateTime(MOCK_IP_ADDRESS, "2016-01-01T00:00")
+                    .withMockVisitorsDateTime("2016-01-01T00:00")
                     .shouldBeTrue()
             );
 
@@ -80,7 +81,7 @@ public class DateTimeConditionletTest extends UnitTestBase {
                     .withComparison(LESS_THAN)
                     .withRequestIpAddress(MOCK_IP_ADDRESS)
                     .withDateTime1("2016-01-01T00:00")
-                    .withMockVisitorsDateTime(MOCK_IP_ADDRESS, "2016-01-01T01:00")
+                    .withMockVisitorsDateTime("2016-01-01T01:00")
                     .shouldBeFalse()
             );
 
@@ -90,7 +91,7 @@ public class DateTimeConditionletTest extends UnitTestBase {
                     .withRequestIpAddress(MOCK_IP_ADDRESS)
                     .withDateTime1("2016-01-01T00:00")
                     .withDateTime2("2016-01-01T02:00")
-                    .withMockVisitorsDateTime(MOCK_IP_ADDRESS, "2016-01-01T01:00")
+                    .withMockVisitorsDateTime("2016-01-01T01:00")
                     .shouldBeTrue()
             );
 
@@ -134,7 +135,7 @@ public class DateTimeConditionletTest extends UnitTestBase {
         TestCase aCase = new TestCase("Exists: Unsupported comparison should throw.")
                 .withComparison(EXISTS)
                 .withDateTime1("2016-01-01T00:00")
-                .withMockVisitorsDateTime(MOCK_IP_ADDRESS, "2016-01-01T00:00")
+                .withMockVisitorsDateTime("2016-01-01T00:00")
                 .shouldBeFalse();
         runCase(aCase);
     }
@@ -142,6 +143,7 @@ public class DateTimeConditionletTest extends UnitTestBase {
     private static class TestCase {
 
         public final DateTimeConditionlet conditionlet;
+        public final VisitorAPI visitorAPI = mock(VisitorAPI.class);
         public final GeoIp2CityDbUtil geoIp2Util = mock(GeoIp2CityDbUtil.class);
 
         private final HttpServletRequest request ;
@@ -156,7 +158,7 @@ public class DateTimeConditionletTest extends UnitTestBase {
             this.testDescription = testDescription;
             this.request = mock(HttpServletRequest.class);
             this.response = mock(HttpServletResponse.class);
-            conditionlet = new DateTimeConditionlet(geoIp2Util);
+            conditionlet = new DateTimeConditionlet(visitorAPI, geoIp2Util);
         }
 
         TestCase shouldBeTrue() {
@@ -174,16 +176,18 @@ public class DateTimeConditionletTest extends UnitTestBase {
             return this;
         }
 
-        TestCase withRequestIpAddress(String mockIpAddress) throws IOException, GeoIp2Exception {
+        TestCase withRequestIpAddress(String mockIpAddress) {
             when(request.getHeader("X-Forwarded-For")).thenReturn(mockIpAddress);
             return this;
         }
 
-        TestCase withMockVisitorsDateTime(String mockIpAddress, String visitorsDateTime) throws IOException, GeoIp2Exception {
+        TestCase withMockVisitorsDateTime(String visitorsDateTime) {
             LocalDateTime dateTime = LocalDateTime.parse(visitorsDateTime);
             Calendar mockDate = Calendar.getInstance();
             mockDate.setTime(dateTime.toDate());
-            when(geoIp2Util.getDateTime(mockIpAddress)).thenReturn(mockDate);
+            GeoLocation location = new GeoLocation("US", null, null, null, null, "America/New_York");
+            when(visitorAPI.getGeoLocation(request)).thenReturn(Optional.of(location));
+            when(geoIp2Util.getDateTime(location)).thenReturn(mockDate);
             return this;
         }
 
@@ -3,9 +3,9 @@ package com.dotmarketing.portlets.rules.conditionlet;
 import com.dotcms.UnitTestBase;
 import com.dotcms.repackage.com.google.common.collect.Lists;
 import com.dotcms.repackage.com.google.common.collect.Maps;
-import com.dotcms.repackage.com.maxmind.geoip2.exception.GeoIp2Exception;
 import com.dotcms.unittest.TestUtil;
-import com.dotcms.util.GeoIp2CityDbUtil;
+import com.dotcms.util.GeoLocation;
+import com.dotcms.visitor.business.VisitorAPI;
 import com.dotmarketing.portlets.rules.exception.ComparisonNotSupportedException;
 import com.dotmarketing.portlets.rules.model.ParameterModel;
 import com.dotmarketing.portlets.rules.parameter.comparison.Comparison;
@@ -17,9 +17,9 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
-import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -55,7 +55,7 @@ public class UsersCountryConditionletTest extends UnitTestBase {
                          .withComparison(IS)
                          .withIsoCode("GB")
                          .withRequestIpAddress(MOCK_IP_ADDRESS)
-                         .withMockIpToIsoCode(MOCK_IP_ADDRESS, "GB")
+                         .withMockIsoCode("GB")
                          .shouldBeTrue()
             );
 
@@ -63,7 +63,7 @@ public class UsersCountryConditionletTest extends UnitTestBase {
                          .withComparison(IS)
                          .withIsoCode("US")
                          .withRequestIpAddress(MOCK_IP_ADDRESS)
-                         .withMockIpToIsoCode(MOCK_IP_ADDRESS, "GB")
+                         .withMockIsoCode("GB")
                          .shouldBeFalse()
             );
 
@@ -71,7 +71,7 @@ public class UsersCountryConditionletTest extends UnitTestBase {
                          .withComparison(IS)
                          .withIsoCode("US")
                          .withRequestIpAddress("localhost")
-                         .withMockIpToIsoCode("localhost", "unknown")
+                         .withMockIsoCode("unknown")
                          .shouldBeFalse()
             );
 
@@ -80,7 +80,7 @@ public class UsersCountryConditionletTest extends UnitTestBase {
                          .withComparison(IS_NOT)
                          .withIsoCode("GB")
                          .withRequestIpAddress(MOCK_IP_ADDRESS)
-                         .withMockIpToIsoCode(MOCK_IP_ADDRESS, "GB")
+                         .withMockIsoCode("GB")
                          .shouldBeFalse()
             );
 
@@ -88,7 +88,7 @@ public class UsersCountryConditionletTest extends UnitTestBase {
                          .withComparison(IS_NOT)
                          .withIsoCode("US")
                          .withRequestIpAddress(MOCK_IP_ADDRESS)
-                         .withMockIpToIsoCode(MOCK_IP_ADDRESS, "GB")
+                         .withMockIsoCode("GB")
                          .shouldBeTrue()
             );
 
@@ -96,7 +96,7 @@ public class UsersCountryConditionletTest extends UnitTestBase {
                          .withComparison(IS_NOT)
                          .withIsoCode("US")
                          .withRequestIpAddress("localhost")
-                         .withMockIpToIsoCode("localhost", "unknown")
+                         .withMockIsoCode("unknown")
                          .shouldBeTrue()
             );
 
@@ -142,7 +142,7 @@ public class UsersCountryConditionletTest extends UnitTestBase {
             .withIsoCode("US")
             .withRequestIpAddress(MOCK_IP_ADDRESS)
             .shouldBeFalse();
-        when(aCase.geoIp2Util.getCountryIsoCode(MOCK_IP_ADDRESS)).thenThrow(new GeoIp2Exception("Boom."));
+        when(aCase.visitorAPI.getGeoLocation(aCase.request)).thenReturn(Optional.empty());
         assertThat(aCase.testDescription, runCase(aCase), is(false));
     }
 
@@ -152,7 +152,7 @@ public class UsersCountryConditionletTest extends UnitTestBase {
             .withComparison(EXISTS)
             .withIsoCode("GB")
             .withRequestIpAddress(MOCK_IP_ADDRESS)
-            .withMockIpToIsoCode(MOCK_IP_ADDRESS, "GB")
+            .withMockIsoCode("GB")
             .shouldBeFalse();
         runCase(aCase);
     }
@@ -160,7 +160,7 @@ public class UsersCountryConditionletTest extends UnitTestBase {
     private static class TestCase {
 
         public final UsersCountryConditionlet conditionlet;
-        public final GeoIp2CityDbUtil geoIp2Util = mock(GeoIp2CityDbUtil.class);
+        public final VisitorAPI visitorAPI = mock(VisitorAPI.class);
         private final HttpServletRequest request;
         private final HttpServletResponse response;
         private final Map<String, ParameterModel> params = Maps.newLinkedHashMap();
@@ -172,7 +172,7 @@ public class UsersCountryConditionletTest extends UnitTestBase {
             this.testDescription = testDescription;
             this.request = mock(HttpServletRequest.class);
             this.response = mock(HttpServletResponse.class);
-            conditionlet = new UsersCountryConditionlet(geoIp2Util);
+            conditionlet = new UsersCountryConditionlet(visitorAPI);
         }
 
         TestCase shouldBeTrue() {
@@ -190,13 +190,14 @@ public class UsersCountryConditionletTest extends UnitTestBase {
             return this;
         }
 
-        TestCase withRequestIpAddress(String mockIpAddress) throws IOException, GeoIp2Exception {
+        TestCase withRequestIpAddress(String mockIpAddress) {
             when(request.getHeader("X-Forwarded-For")).thenReturn(mockIpAddress);
             return this;
         }
 
-        TestCase withMockIpToIsoCode(String mockIpAddress, String mockIsoCode) throws IOException, GeoIp2Exception {
-            when(geoIp2Util.getCountryIsoCode(mockIpAddress)).thenReturn(mockIsoCode);
+        TestCase withMockIsoCode(String mockIsoCode) {
+            when(visitorAPI.getGeoLocation(request))
+                .thenReturn(Optional.of(new GeoLocation(mockIsoCode, null, null, null, null, null)));
             return this;
         }
 
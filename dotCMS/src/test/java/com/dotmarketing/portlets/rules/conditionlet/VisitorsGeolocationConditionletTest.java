@@ -3,9 +3,9 @@ package com.dotmarketing.portlets.rules.conditionlet;
 import com.dotcms.UnitTestBase;
 import com.dotcms.repackage.com.google.common.collect.Lists;
 import com.dotcms.repackage.com.google.common.collect.Maps;
-import com.dotcms.repackage.com.maxmind.geoip2.exception.GeoIp2Exception;
 import com.dotcms.unittest.TestUtil;
-import com.dotcms.util.GeoIp2CityDbUtil;
+import com.dotcms.util.GeoLocation;
+import com.dotcms.visitor.business.VisitorAPI;
 import com.dotmarketing.portlets.rules.exception.ComparisonNotSupportedException;
 import com.dotmarketing.portlets.rules.model.ParameterModel;
 import com.dotmarketing.portlets.rules.parameter.comparison.Comparison;
@@ -16,9 +16,9 @@ import com.tngtech.java.junit.dataprovider.UseDataProvider;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
-import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -149,7 +149,7 @@ public class VisitorsGeolocationConditionletTest extends UnitTestBase {
     private static class TestCase {
 
         public final VisitorsGeolocationConditionlet conditionlet;
-        public final GeoIp2CityDbUtil geoIp2Util = mock(GeoIp2CityDbUtil.class);
+        public final VisitorAPI visitorAPI = mock(VisitorAPI.class);
 
         private final HttpServletRequest request ;
         private final HttpServletResponse response;
@@ -163,7 +163,7 @@ public class VisitorsGeolocationConditionletTest extends UnitTestBase {
             this.testDescription = testDescription;
             this.request = mock(HttpServletRequest.class);
             this.response = mock(HttpServletResponse.class);
-            conditionlet = new VisitorsGeolocationConditionlet(geoIp2Util);
+            conditionlet = new VisitorsGeolocationConditionlet(visitorAPI);
         }
 
         TestCase shouldBeTrue() {
@@ -181,14 +181,14 @@ public class VisitorsGeolocationConditionletTest extends UnitTestBase {
             return this;
         }
 
-        TestCase withRequestIpAddress(String mockIpAddress) throws IOException, GeoIp2Exception {
+        TestCase withRequestIpAddress(String mockIpAddress) {
             when(request.getHeader("X-Forwarded-For")).thenReturn(mockIpAddress);
             return this;
         }
 
-        TestCase withMockVisitorsLocation(double latitude, double longitude) throws IOException, GeoIp2Exception {
-            Location location = new Location(latitude, longitude);
-            when(geoIp2Util.getLocationByIp(MOCK_IP_ADDRESS)).thenReturn(location);
+        TestCase withMockVisitorsLocation(double latitude, double longitude) {
+            GeoLocation location = new GeoLocation(null, null, null, latitude, longitude, null);
+            when(visitorAPI.getGeoLocation(request)).thenReturn(Optional.of(location));
             return this;
         }
 
@@ -0,0 +1,177 @@
+package com.dotmarketing.portlets.rules.model;
+
+import com.dotcms.UnitTestBase;
+import com.dotcms.repackage.com.google.common.collect.Lists;
+import com.dotmarketing.portlets.rules.RuleComponentInstance;
+import com.dotmarketing.portlets.rules.conditionlet.Conditionlet;
+import com.dotmarketing.portlets.rules.util.LogicalStatement;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import static com.dotmarketing.portlets.rules.model.LogicalOperator.AND;
+import static com.dotmarketing.portlets.rules.model.LogicalOperator.OR;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RuleEvaluationPlanTest extends UnitTestBase {
+
+    private final HttpServletRequest request = mock(HttpServletRequest.class);
+    private final HttpServletResponse response = mock(HttpServletResponse.class);
+    private final List<String> evaluated = new ArrayList<>();
+
+    /**
+     * Every combination of four groups of a single condition gives the same result as the
+     * LogicalStatement used by Rule.evaluateConditions: AND before OR.
+     */
+    @Test
+    public void testGroupsFollowLogicalStatementPrecedence() {
+        final LogicalOperator[] operators = {AND, OR};
+        for (int ops = 0; ops < 16; ops++) {
+            for (int values = 0; values < 16; values++) {
+                final List<ConditionGroup> groups = Lists.newArrayList();
+                final LogicalStatement statement = new LogicalStatement();
+                final StringBuilder description = new StringBuilder();
+                for (int i = 0; i < 4; i++) {
+                    final LogicalOperator operator = operators[(ops >> i) & 1];
+                    final boolean value = ((values >> i) & 1) == 1;
+                    groups.add(group(operator, condition(AND, "c" + i, value, Conditionlet.MEDIUM_COST)));
+                    if (operator == AND) {
+                        statement.and(() -> value);
+                    } else {
+                        statement.or(() -> value);
+                    }
+                    description.append(i == 0 ? "" : " " + operator + " ").append(value);
+                }
+
+                assertThat(description.toString(), plan(groups).evaluate(request, response), is(statement.evaluate()));
+            }
+        }
+    }
+
+    /**
+     * The conditions of a group follow the same precedence as the groups.
+     */
+    @Test
+    public void testConditionsFollowLogicalStatementPrecedence() {
+        // true || false && false ==> true || (false && false)
+        assertThat(plan(Lists.newArrayList(group(AND,
+                condition(AND, "a", true, Conditionlet.MEDIUM_COST),
+                condition(OR, "b", false, Conditionlet.MEDIUM_COST),
+                condition(AND, "c", false, Conditionlet.MEDIUM_COST))))
+                .evaluate(request, response), is(true));
+
+        // false && true || false ==> (false && true) || false
+        assertThat(plan(Lists.newArrayList(group(AND,
+                condition(AND, "a", false, Conditionlet.MEDIUM_COST),
+                condition(AND, "b", true, Conditionlet.MEDIUM_COST),
+                condition(OR, "c", false, Conditionlet.MEDIUM_COST))))
+                .evaluate(request, response), is(false));
+    }
+
+    @Test
+    public void testNoGroupsIsTrue() {
+        assertThat(plan(Lists.<ConditionGroup>newArrayList()).evaluate(request, response), is(true));
+    }
+
+    /**
+     * The cheap condition that decides an AND is evaluated first, the expensive one is skipped.
+     */
+    @Test
+    public void testCheapestConditionFirst() {
+        final RuleEvaluationPlan plan = plan(Lists.newArrayList(group(AND,
+                condition(AND, "geolocation", true, Conditionlet.HIGH_COST),
+                condition(AND, "header", false, Conditionlet.LOW_COST))));
+
+        assertThat(plan.evaluate(request, response), is(false));
+        assertThat(evaluated, contains("header"));
+    }
+
+    /**
+     * The cheapest alternative of an OR is evaluated first, and the expensive one is skipped
+     * when it is true.
+     */
+    @Test
+    public void testCheapestAlternativeFirst() {
+        final RuleEvaluationPlan plan = plan(Lists.newArrayList(
+                group(AND, condition(AND, "geolocation", true, Conditionlet.HIGH_COST)),
+                group(OR, condition(AND, "header", true, Conditionlet.LOW_COST),
+                        condition(AND, "browser", true, Conditionlet.MEDIUM_COST))));
+
+        assertThat(plan.evaluate(request, response), is(true));
+        assertThat(evaluated, contains("header", "browser"));
+    }
+
+    private RuleEvaluationPlan plan(final List<ConditionGroup> groups) {
+        final Rule rule = mock(Rule.class);
+        when(rule.getGroups()).thenReturn(groups);
+        when(rule.getRuleActions()).thenReturn(Lists.<RuleAction>newArrayList());
+        return RuleEvaluationPlan.compile(rule);
+    }
+
+    private ConditionGroup group(final LogicalOperator operator, final Condition... conditions) {
+        final ConditionGroup group = mock(ConditionGroup.class);
+        when(group.getOperator()).thenReturn(operator);
+        when(group.getConditions()).thenReturn(Lists.newArrayList(conditions));
+        return group;
+    }
+
+    private Condition condition(final LogicalOperator operator, final String name, final boolean result, final int cost) {
+        final Condition condition = mock(Condition.class);
+        final Conditionlet conditionlet = new FixedConditionlet(name, result, cost, evaluated);
+        when(condition.getOperator()).thenReturn(operator);
+        when(condition.getConditionlet()).thenReturn(conditionlet);
+        when(condition.getParameters()).thenReturn(Collections.<String, ParameterModel>emptyMap());
+        return condition;
+    }
+
+    /**
+     * Conditionlet with a fixed result and cost, that records its evaluations.
+     */
+    private static class FixedConditionlet extends Conditionlet<FixedConditionlet.Instance> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String name;
+        private final boolean result;
+        private final int cost;
+        private final List<String> evaluated;
+
+        FixedConditionlet(String name, boolean result, int cost, List<String> evaluated) {
+            super("api.system.ruleengine.conditionlet.Fixed");
+            this.name = name;
+            this.result = result;
+            this.cost = cost;
+            this.evaluated = evaluated;
+        }
+
+        @Override
+        public int getEvaluationCost() {
+            return cost;
+        }
+
+        @Override
+        public boolean evaluate(HttpServletRequest request, HttpServletResponse response, Instance instance) {
+            evaluated.add(name);
+            return result;
+        }
+
+        @Override
+        public Instance instanceFrom(Map<String, ParameterModel> parameters) {
+            return new Instance();
+        }
+
+        static class Instance implements RuleComponentInstance {
+        }
+    }
+}
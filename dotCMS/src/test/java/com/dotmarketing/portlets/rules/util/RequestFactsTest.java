@@ -0,0 +1,69 @@
+package com.dotmarketing.portlets.rules.util;
+
+import com.dotcms.UnitTestBase;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.http.HttpServletRequest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+
+public class RequestFactsTest extends UnitTestBase {
+
+    private HttpServletRequest request;
+
+    @Before
+    public void before() {
+        // Mock a request that keeps its attributes
+        final Map<String, Object> attributes = new HashMap<>();
+        request = Mockito.mock(HttpServletRequest.class);
+        Mockito.when(request.getAttribute(anyString())).thenAnswer(invocation -> attributes.get(invocation.getArguments()[0]));
+        Mockito.doAnswer(invocation -> attributes.put((String) invocation.getArguments()[0], invocation.getArguments()[1]))
+               .when(request).setAttribute(anyString(), any());
+    }
+
+    @Test
+    public void testFactIsComputedOncePerRequest() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        assertThat(RequestFacts.get(request, "fact", () -> "value" + loads.incrementAndGet()), is("value1"));
+        assertThat(RequestFacts.get(request, "fact", () -> "value" + loads.incrementAndGet()), is("value1"));
+        assertThat(RequestFacts.get(request, "other", () -> "other" + loads.incrementAndGet()), is("other2"));
+    }
+
+    @Test
+    public void testNullFactIsRemembered() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        assertThat(RequestFacts.get(request, "fact", () -> { loads.incrementAndGet(); return null; }), is(nullValue()));
+        assertThat(RequestFacts.get(request, "fact", () -> { loads.incrementAndGet(); return null; }), is(nullValue()));
+        assertThat(loads.get(), is(1));
+    }
+
+    @Test
+    public void testFailedFactIsRemembered() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        for (int i = 0; i < 2; i++) {
+            try {
+                RequestFacts.get(request, "fact", () -> {
+                    loads.incrementAndGet();
+                    throw new IOException("lookup failed");
+                });
+                fail("The error of the lookup should be thrown");
+            } catch (IOException e) {
+                assertThat(e.getMessage(), is("lookup failed"));
+            }
+        }
+        assertThat(loads.get(), is(1));
+    }
+}
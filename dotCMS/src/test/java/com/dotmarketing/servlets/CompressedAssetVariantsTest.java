@@ -0,0 +1,59 @@
+package com.dotmarketing.servlets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import com.dotmarketing.servlets.CompressedAssetVariants.Encoding;
+import com.dotmarketing.servlets.CompressedAssetVariants.MemoryCache;
+
+/**
+ * Test for {@link CompressedAssetVariants}.
+ */
+public class CompressedAssetVariantsTest {
+
+    @Test
+    public void testAcceptedEncoding() {
+
+        assertEquals(Encoding.GZIP, CompressedAssetVariants.acceptedEncoding("gzip, deflate, br"));
+        assertEquals(Encoding.GZIP, CompressedAssetVariants.acceptedEncoding("br;q=1.0, GZIP;q=0.5"));
+
+        assertNull(CompressedAssetVariants.acceptedEncoding(null));
+        assertNull(CompressedAssetVariants.acceptedEncoding("identity"));
+        assertNull(CompressedAssetVariants.acceptedEncoding("gzip;q=0"));
+        assertNull(CompressedAssetVariants.acceptedEncoding("x-gzip-like"));
+
+        // a wildcard accepts the encodings the header doesn't name
+        assertEquals(Encoding.GZIP, CompressedAssetVariants.acceptedEncoding("*"));
+        assertEquals(Encoding.GZIP, CompressedAssetVariants.acceptedEncoding("br, *;q=0.1"));
+        assertNull(CompressedAssetVariants.acceptedEncoding("*;q=0"));
+        assertNull(CompressedAssetVariants.acceptedEncoding("gzip;q=0, *"));
+    }
+
+    @Test
+    public void testMemoryCacheIsBoundedBySize() {
+
+        final MemoryCache cache = new MemoryCache(100);
+        cache.put("a", new byte[40]);
+        cache.put("b", new byte[40]);
+        // a is the most recently used
+        assertNotNull(cache.get("a"));
+
+        cache.put("c", new byte[40]);
+        assertEquals(80, cache.size());
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("a"));
+        assertNotNull(cache.get("c"));
+
+        // bigger than the whole cache, not kept
+        cache.put("d", new byte[101]);
+        assertNull(cache.get("d"));
+
+        // replaced entries are accounted once
+        cache.put("a", new byte[10]);
+        assertEquals(50, cache.size());
+    }
+
+}
@@ -0,0 +1,234 @@
+package com.dotmarketing.servlets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.lang.management.ManagementFactory;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import com.dotmarketing.servlets.SpeedyAssetServletUtil.ByteRange;
+import com.dotmarketing.util.Logger;
+
+/**
+ * Test for {@link SpeedyAssetServletUtil}, it also compares the throughput and the heap
+ * allocated serving files from 1 KB to 2 GB against the previous implementation that read the
+ * whole file in memory before copying the range. The benchmark only runs when the
+ * speedyasset.benchmark.maxsize system property sets the biggest file to serve.
+ */
+public class SpeedyAssetServletUtilTest {
+
+    private static final long[] BENCHMARK_SIZES = { 1024L, 1024L * 1024, 64L * 1024 * 1024,
+            512L * 1024 * 1024, 2048L * 1024 * 1024 };
+
+    @Test
+    public void testParseRange() {
+
+        ArrayList<ByteRange> ranges = SpeedyAssetServletUtil.parseRange("bytes=50-80,40-,-20", 100);
+        assertEquals(3, ranges.size());
+        assertEquals(new ByteRange(50, 80, 100), ranges.get(0));
+        assertEquals(new ByteRange(40, 99, 100), ranges.get(1));
+        assertEquals(new ByteRange(80, 99, 100), ranges.get(2));
+
+        // a suffix longer than the file is the whole file
+        ranges = SpeedyAssetServletUtil.parseRange("bytes=-200", 100);
+        assertEquals(new ByteRange(0, 99, 100), ranges.get(0));
+
+        // ranges past 2 GB
+        final long length = 3L * 1024 * 1024 * 1024;
+        ranges = SpeedyAssetServletUtil.parseRange("bytes=" + (length - 10) + "-", length);
+        assertEquals(10, ranges.get(0).length);
+
+        // a range after the end of the file can't be satisfied
+        ranges = SpeedyAssetServletUtil.parseRange("bytes=150-", 100);
+        assertTrue(ranges.get(0).start > ranges.get(0).end);
+    }
+
+    @Test
+    public void testETagMatches() {
+
+        final String eTag = "\"dot:1234:1000:42\"";
+        assertTrue(SpeedyAssetServletUtil.eTagMatches(eTag, eTag));
+        assertTrue(SpeedyAssetServletUtil.eTagMatches("*", eTag));
+        assertTrue(SpeedyAssetServletUtil.eTagMatches("W/" + eTag, eTag));
+        assertTrue(SpeedyAssetServletUtil.eTagMatches("\"other\", " + eTag, eTag));
+        // sent by the clients that cached the tag before it was quoted
+        assertTrue(SpeedyAssetServletUtil.eTagMatches("dot:1234:1000:42", eTag));
+
+        assertFalse(SpeedyAssetServletUtil.eTagMatches(null, eTag));
+        assertFalse(SpeedyAssetServletUtil.eTagMatches("\"dot:1234:2000:42\"", eTag));
+    }
+
+    @Test
+    public void testETag() throws IOException {
+
+        final File file = File.createTempFile("speedyasset", ".bin");
+        try {
+            Files.write(file.toPath(), new byte[42]);
+            file.setLastModified(1234567L);
+            assertEquals("\"dot:1234:1234000:42\"", SpeedyAssetServletUtil.eTag("1234", file));
+            assertEquals(1234000L, SpeedyAssetServletUtil.lastModified(file));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testCopy() throws IOException {
+
+        final File file = File.createTempFile("speedyasset", ".bin");
+        try {
+            final byte[] data = new byte[100000];
+            for (int i = 0; i < data.length; i++) {
+                data[i] = (byte) i;
+            }
+            Files.write(file.toPath(), data);
+
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                SpeedyAssetServletUtil.copy(channel, out, 1000, 50000);
+                SpeedyAssetServletUtil.copy(channel, out, 0, 10);
+            }
+            final byte[] expected = new byte[50010];
+            System.arraycopy(data, 1000, expected, 0, 50000);
+            System.arraycopy(data, 0, expected, 50000, 10);
+            assertArrayEquals(expected, out.toByteArray());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testCopyTruncatedFile() throws IOException {
+
+        final File file = File.createTempFile("speedyasset", ".bin");
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            Files.write(file.toPath(), new byte[10]);
+            SpeedyAssetServletUtil.copy(channel, new ByteArrayOutputStream(), 0, 20);
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testMultipartLength() throws IOException {
+
+        final List<ByteRange> ranges = Arrays.asList(new ByteRange(0, 9, 100), new ByteRange(50, 99, 100));
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (ByteRange range : ranges) {
+            out.write(SpeedyAssetServletUtil.multipartHeader(range, "image/png").getBytes(StandardCharsets.ISO_8859_1));
+            out.write(new byte[(int) range.length]);
+        }
+        out.write(SpeedyAssetServletUtil.MULTIPART_END.getBytes(StandardCharsets.ISO_8859_1));
+
+        assertEquals(out.size(), SpeedyAssetServletUtil.multipartLength(ranges, "image/png"));
+    }
+
+    @Test
+    public void testBenchmark() throws Exception {
+
+        final Long maxSize = Long.getLong("speedyasset.benchmark.maxsize");
+        Assume.assumeTrue("set speedyasset.benchmark.maxsize to run the benchmark", maxSize != null);
+        for (final long size : BENCHMARK_SIZES) {
+            if (size > maxSize) {
+                break;
+            }
+            // sparse file, it doesn't take the disk space of its length
+            final File file = File.createTempFile("speedyasset", ".bin");
+            try {
+                try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                    raf.setLength(size);
+                }
+                benchmark(file);
+            } finally {
+                file.delete();
+            }
+        }
+    }
+
+    private void benchmark(final File file) throws Exception {
+
+        final long size = file.length();
+        // the previous implementation can't hold more than an array of bytes
+        if (size < Integer.MAX_VALUE - 8) {
+            final long[] previous = measure(() -> {
+                final byte[] bytes = Files.readAllBytes(file.toPath());
+                final OutputStream out = new NullOutputStream();
+                try (InputStream in = new java.io.ByteArrayInputStream(bytes)) {
+                    final byte[] buffer = new byte[4096];
+                    long toRead = size;
+                    int read;
+                    while ((read = in.read(buffer)) > 0 && toRead > 0) {
+                        out.write(buffer, 0, read);
+                        toRead -= read;
+                    }
+                }
+            });
+            log("byte[]", size, previous);
+        } else {
+            Logger.info(this, String.format("%-12s %,15d bytes: not possible", "byte[]", size));
+        }
+
+        final long[] channel = measure(() -> {
+            try (FileChannel input = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                SpeedyAssetServletUtil.copy(input, new NullOutputStream(), 0, size);
+            }
+        });
+        log("FileChannel", size, channel);
+    }
+
+    /**
+     * @return The nanoseconds and the bytes of heap allocated by the current thread.
+     */
+    private long[] measure(final IORunnable runnable) throws IOException {
+
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long thread = Thread.currentThread().getId();
+
+        // warm up, and the file in the page cache for both
+        runnable.run();
+
+        final long allocated = threads.getThreadAllocatedBytes(thread);
+        final long start = System.nanoTime();
+        runnable.run();
+        return new long[] { System.nanoTime() - start, threads.getThreadAllocatedBytes(thread) - allocated };
+    }
+
+    private void log(final String name, final long size, final long[] measure) {
+        final double seconds = Math.max(measure[0], 1) / 1_000_000_000d;
+        Logger.info(this, String.format("%-12s %,15d bytes: %,10.1f MB/s, %,15d bytes of heap", name, size,
+                size / seconds / (1024 * 1024), measure[1]));
+    }
+
+    private interface IORunnable {
+        void run() throws IOException;
+    }
+
+    private static class NullOutputStream extends OutputStream {
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+
+}
@@ -0,0 +1,157 @@
+package com.dotmarketing.viewtools.navigation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dotmarketing.portlets.folders.business.FolderAPI;
+
+/**
+ * Test for the copy-on-write updates of {@link NavTree}
+ */
+public class NavTreeTest {
+
+	private NavResult root;
+	private NavResult news;
+	private NavResult archive;
+	private NavResult archive2017;
+	private NavTree tree;
+
+	@Before
+	public void buildTree() {
+		root = folder(FolderAPI.SYSTEM_FOLDER, "/");
+		news = folder("news", "/news/");
+		archive = folder("archive", "/news/archive/");
+		archive2017 = folder("archive2017", "/news/archive/2017/");
+
+		final Map<String, NavResult> folders = new HashMap<String, NavResult>();
+		final Map<String, String> paths = new HashMap<String, String>();
+		for (final NavResult folder : new NavResult[] { root, news, archive, archive2017 }) {
+			folders.put(folder.getFolderId(), folder);
+			paths.put(NavTree.pathOf(folder), folder.getFolderId());
+		}
+		tree = new NavTree("host", 1, folders, paths);
+	}
+
+	/**
+	 * The folders are found by path with or without the trailing slash, in any case
+	 */
+	@Test
+	public void testGetFolderId() {
+		assertEquals(FolderAPI.SYSTEM_FOLDER, tree.getFolderId("/"));
+		assertEquals("news", tree.getFolderId("/news"));
+		assertEquals("archive", tree.getFolderId("/News/Archive/"));
+		assertNull(tree.getFolderId("/events/"));
+	}
+
+	/**
+	 * A new folder is added to a copy, the tree itself does not change
+	 */
+	@Test
+	public void testWithNewFolder() {
+		final NavResult events = folder("events", "/events/");
+
+		final NavTree updated = tree.withFolder(events);
+
+		assertSame(events, updated.getFolder("events"));
+		assertEquals("events", updated.getFolderId("/events/"));
+		assertEquals(5, updated.size());
+		assertNull(tree.getFolder("events"));
+		assertNull(tree.getFolderId("/events/"));
+		assertEquals(4, tree.size());
+	}
+
+	/**
+	 * A folder reloaded with the same path replaces its entry and keeps its subfolders
+	 */
+	@Test
+	public void testWithReloadedFolder() {
+		final NavResult reloaded = folder("news", "/news/");
+
+		final NavTree updated = tree.withFolder(reloaded);
+
+		assertSame(reloaded, updated.getFolder("news"));
+		assertEquals("news", updated.getFolderId("/news/"));
+		assertSame(archive, updated.getFolder("archive"));
+		assertSame(archive2017, updated.getFolder("archive2017"));
+		assertEquals(4, updated.size());
+		assertSame(news, tree.getFolder("news"));
+	}
+
+	/**
+	 * A moved folder is no longer found by its old path, and its subfolders are dropped so they
+	 * are reloaded with their new paths
+	 */
+	@Test
+	public void testWithMovedFolder() {
+		final NavResult moved = folder("archive", "/archive/");
+
+		final NavTree updated = tree.withFolder(moved);
+
+		assertSame(moved, updated.getFolder("archive"));
+		assertEquals("archive", updated.getFolderId("/archive/"));
+		assertNull(updated.getFolderId("/news/archive/"));
+		assertNull(updated.getFolderId("/news/archive/2017/"));
+		assertNull(updated.getFolder("archive2017"));
+		assertSame(news, updated.getFolder("news"));
+		assertEquals(3, updated.size());
+
+		// the old tree still has the old paths
+		assertEquals("archive2017", tree.getFolderId("/news/archive/2017/"));
+	}
+
+	/**
+	 * A folder whose name starts like the moved one is not one of its subfolders
+	 */
+	@Test
+	public void testWithMovedFolderKeepsSiblings() {
+		final NavResult archives = folder("archives", "/news/archives/");
+		final NavTree withArchives = tree.withFolder(archives);
+
+		final NavTree updated = withArchives.withFolder(folder("archive", "/archive/"));
+
+		assertSame(archives, updated.getFolder("archives"));
+		assertEquals("archives", updated.getFolderId("/news/archives/"));
+	}
+
+	/**
+	 * A removed folder is no longer found by inode nor by path
+	 */
+	@Test
+	public void testWithoutFolder() {
+		final NavTree updated = tree.withoutFolder("archive");
+
+		assertNull(updated.getFolder("archive"));
+		assertNull(updated.getFolderId("/news/archive/"));
+		assertEquals(3, updated.size());
+		assertSame(archive, tree.getFolder("archive"));
+		assertEquals("archive", tree.getFolderId("/news/archive/"));
+	}
+
+	/**
+	 * Removing a folder that is not in the tree returns the same tree
+	 */
+	@Test
+	public void testWithoutMissingFolder() {
+		assertSame(tree, tree.withoutFolder("events"));
+	}
+
+	/**
+	 * The navigation is mocked, its constructor needs the system user.
+	 */
+	private NavResult folder(final String folderId, final String href) {
+		final NavResult folder = mock(NavResult.class);
+		when(folder.getFolderId()).thenReturn(folderId);
+		when(folder.getHref()).thenReturn(href);
+		when(folder.isFolder()).thenReturn(true);
+		return folder;
+	}
+}